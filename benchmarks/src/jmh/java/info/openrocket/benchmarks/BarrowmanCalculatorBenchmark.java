@@ -0,0 +1,64 @@
+package info.openrocket.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import info.openrocket.core.aerodynamics.AerodynamicForces;
+import info.openrocket.core.aerodynamics.BarrowmanCalculator;
+import info.openrocket.core.aerodynamics.FlightConditions;
+import info.openrocket.core.logging.WarningSet;
+import info.openrocket.core.rocketcomponent.FlightConfiguration;
+import info.openrocket.core.rocketcomponent.Rocket;
+
+/**
+ * Benchmarks {@link BarrowmanCalculator#getAerodynamicForces(FlightConfiguration, FlightConditions, WarningSet)}
+ * with typical in-flight conditions.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BarrowmanCalculatorBenchmark {
+
+	@Param({ "ESTES_ALPHA_III", "FALCON_9_HEAVY" })
+	public BenchmarkRocket rocket;
+
+	@Param({ "0.3", "1.2" })
+	public double mach;
+
+	private BarrowmanCalculator calculator;
+	private FlightConfiguration configuration;
+	private FlightConditions conditions;
+	private WarningSet warnings;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		BenchmarkEnvironment.initialize();
+
+		Rocket r = rocket.create();
+		configuration = BenchmarkRocket.getConfiguration(r);
+		calculator = new BarrowmanCalculator();
+		warnings = new WarningSet();
+
+		conditions = new FlightConditions(configuration);
+		conditions.setMach(mach);
+		conditions.setAOA(2 * Math.PI / 180);
+		conditions.setTheta(30 * Math.PI / 180);
+		conditions.setRollRate(2 * Math.PI);
+		conditions.setPitchRate(0.1);
+		conditions.setYawRate(0.05);
+	}
+
+	@Benchmark
+	public AerodynamicForces getAerodynamicForces() {
+		return calculator.getAerodynamicForces(configuration, conditions, warnings);
+	}
+}
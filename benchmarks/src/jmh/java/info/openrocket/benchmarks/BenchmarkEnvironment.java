@@ -0,0 +1,30 @@
+package info.openrocket.benchmarks;
+
+import info.openrocket.core.ServicesForTesting;
+import info.openrocket.core.plugin.PluginModule;
+import info.openrocket.core.startup.Application;
+
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+
+/**
+ * Sets up the Guice injector used by the core module, using the same bindings
+ * as the core unit tests.  Must be called from the setup method of every benchmark
+ * before any rocket or simulation object is created.
+ */
+public final class BenchmarkEnvironment {
+
+	private static boolean initialized = false;
+
+	private BenchmarkEnvironment() {
+	}
+
+	public static synchronized void initialize() {
+		if (initialized) {
+			return;
+		}
+		Injector injector = Guice.createInjector(new ServicesForTesting(), new PluginModule());
+		Application.setInjector(injector);
+		initialized = true;
+	}
+}
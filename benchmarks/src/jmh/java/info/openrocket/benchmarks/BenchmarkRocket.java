@@ -0,0 +1,68 @@
+package info.openrocket.benchmarks;
+
+import info.openrocket.core.document.Simulation;
+import info.openrocket.core.rocketcomponent.FlightConfiguration;
+import info.openrocket.core.rocketcomponent.FlightConfigurationId;
+import info.openrocket.core.rocketcomponent.Rocket;
+import info.openrocket.core.util.TestRockets;
+
+/**
+ * The TestRockets fixtures that the benchmarks are run against.  Used as the value
+ * of the <code>rocket</code> JMH parameter.
+ */
+public enum BenchmarkRocket {
+
+	/** A small single stage rocket with a single motor. */
+	ESTES_ALPHA_III {
+		@Override
+		public Rocket create() {
+			Rocket rocket = TestRockets.makeEstesAlphaIII();
+			rocket.setSelectedConfiguration(TestRockets.TEST_FCID_0);
+			return rocket;
+		}
+	},
+
+	/** A large multi-stage rocket with side boosters, pods and motor clusters. */
+	FALCON_9_HEAVY {
+		@Override
+		public Rocket create() {
+			Rocket rocket = TestRockets.makeFalcon9Heavy();
+			TestRockets.addCoreFins(rocket);
+			return rocket;
+		}
+	};
+
+	/**
+	 * Create a new copy of the rocket, with the benchmarked flight configuration selected.
+	 */
+	public abstract Rocket create();
+
+	/**
+	 * Create a simulation of a new copy of the rocket.  The simulation uses the ISA atmosphere,
+	 * a fixed random seed and no wind turbulence so that repeated runs are identical.
+	 */
+	public Simulation createSimulation() {
+		Rocket rocket = create();
+		Simulation simulation = new Simulation(rocket);
+		simulation.setFlightConfigurationId(getConfigurationId(rocket));
+		simulation.getOptions().setISAAtmosphere(true);
+		simulation.getOptions().setTimeStep(0.05);
+		simulation.getOptions().setRandomSeed(0);
+		simulation.getOptions().getAverageWindModel().setStandardDeviation(0.0);
+		return simulation;
+	}
+
+	/**
+	 * Return the flight configuration used for benchmarking the given rocket.
+	 */
+	public static FlightConfiguration getConfiguration(Rocket rocket) {
+		return rocket.getSelectedConfiguration();
+	}
+
+	/**
+	 * Return the ID of the flight configuration used for benchmarking the given rocket.
+	 */
+	public static FlightConfigurationId getConfigurationId(Rocket rocket) {
+		return getConfiguration(rocket).getFlightConfigurationID();
+	}
+}
@@ -0,0 +1,45 @@
+package info.openrocket.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import info.openrocket.core.models.atmosphere.ExtendedISAModel;
+
+/**
+ * Benchmarks {@link ExtendedISAModel#getConditions(double)} over the altitude range
+ * of a typical high power flight.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ExtendedISAModelBenchmark {
+
+	/** Number of altitude samples taken in one benchmark operation. */
+	private static final int SAMPLES = 100;
+	private static final double MAX_ALTITUDE = 5000;
+
+	private ExtendedISAModel model;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		model = new ExtendedISAModel();
+		// Pre-compute the interpolation layers
+		model.getConditions(0);
+	}
+
+	@Benchmark
+	public void getConditions(Blackhole blackhole) {
+		for (int i = 0; i < SAMPLES; i++) {
+			blackhole.consume(model.getConditions(i * MAX_ALTITUDE / SAMPLES));
+		}
+	}
+}
@@ -0,0 +1,50 @@
+package info.openrocket.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import info.openrocket.core.masscalc.MassCalculation;
+import info.openrocket.core.masscalc.MassCalculator;
+import info.openrocket.core.masscalc.RigidBody;
+import info.openrocket.core.motor.Motor;
+import info.openrocket.core.rocketcomponent.FlightConfiguration;
+
+/**
+ * Benchmarks {@link MassCalculator#calculate(MassCalculation.Type, FlightConfiguration, double)}
+ * for the structure and the full launch mass of the rocket.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MassCalculatorBenchmark {
+
+	@Param({ "ESTES_ALPHA_III", "FALCON_9_HEAVY" })
+	public BenchmarkRocket rocket;
+
+	private FlightConfiguration configuration;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		BenchmarkEnvironment.initialize();
+		configuration = BenchmarkRocket.getConfiguration(rocket.create());
+	}
+
+	@Benchmark
+	public RigidBody calculateStructure() {
+		return MassCalculator.calculate(MassCalculation.Type.STRUCTURE, configuration, Motor.PSEUDO_TIME_EMPTY);
+	}
+
+	@Benchmark
+	public RigidBody calculateLaunch() {
+		return MassCalculator.calculate(MassCalculation.Type.LAUNCH, configuration, Motor.PSEUDO_TIME_LAUNCH);
+	}
+}
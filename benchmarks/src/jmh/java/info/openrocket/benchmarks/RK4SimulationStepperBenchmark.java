@@ -0,0 +1,77 @@
+package info.openrocket.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import info.openrocket.core.document.Simulation;
+import info.openrocket.core.simulation.FlightDataBranch;
+import info.openrocket.core.simulation.FlightDataType;
+import info.openrocket.core.simulation.RK4SimulationStepper;
+import info.openrocket.core.simulation.SimulationStatus;
+import info.openrocket.core.simulation.exception.SimulationException;
+import info.openrocket.core.simulation.listeners.AbstractSimulationListener;
+
+/**
+ * Benchmarks a single {@link RK4SimulationStepper#step(SimulationStatus, double)} call.
+ * <p>
+ * The simulation status is captured from a real simulation of the rocket during the
+ * boost phase, and every invocation steps a fresh copy of that status.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RK4SimulationStepperBenchmark {
+
+	/** Flight time (in seconds) at which the status is captured. */
+	private static final double CAPTURE_TIME = 0.5;
+
+	@Param({ "ESTES_ALPHA_III", "FALCON_9_HEAVY" })
+	public BenchmarkRocket rocket;
+
+	private SimulationStatus captured;
+
+	private RK4SimulationStepper stepper;
+	private SimulationStatus status;
+
+	@Setup(Level.Trial)
+	public void setUp() throws SimulationException {
+		BenchmarkEnvironment.initialize();
+
+		Simulation simulation = rocket.createSimulation();
+		simulation.simulate(new AbstractSimulationListener() {
+			@Override
+			public void postStep(SimulationStatus s) {
+				if (captured == null && s.getSimulationTime() >= CAPTURE_TIME) {
+					captured = new SimulationStatus(s);
+				}
+			}
+		});
+		if (captured == null) {
+			throw new IllegalStateException("Simulation ended before t=" + CAPTURE_TIME);
+		}
+	}
+
+	@Setup(Level.Invocation)
+	public void setUpStep() {
+		stepper = new RK4SimulationStepper();
+		status = stepper.initialize(captured);
+		FlightDataBranch branch = new FlightDataBranch("benchmark", FlightDataType.TYPE_TIME);
+		branch.addPoint();
+		status.setFlightDataBranch(branch);
+	}
+
+	@Benchmark
+	public SimulationStatus step() throws SimulationException {
+		stepper.step(status, Double.MAX_VALUE);
+		return status;
+	}
+}
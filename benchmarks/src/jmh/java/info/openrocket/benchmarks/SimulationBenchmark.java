@@ -0,0 +1,44 @@
+package info.openrocket.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import info.openrocket.core.document.Simulation;
+import info.openrocket.core.simulation.FlightData;
+import info.openrocket.core.simulation.exception.SimulationException;
+
+/**
+ * Benchmarks a complete flight simulation, from launch to ground hit.  This corresponds
+ * to a single simulation of an overnight batch run.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SimulationBenchmark {
+
+	@Param({ "ESTES_ALPHA_III", "FALCON_9_HEAVY" })
+	public BenchmarkRocket rocket;
+
+	private Simulation simulation;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		BenchmarkEnvironment.initialize();
+		simulation = rocket.createSimulation();
+	}
+
+	@Benchmark
+	public FlightData simulate() throws SimulationException {
+		simulation.simulate();
+		return simulation.getSimulatedData();
+	}
+}
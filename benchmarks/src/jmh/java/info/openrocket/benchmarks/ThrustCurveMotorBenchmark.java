@@ -0,0 +1,60 @@
+package info.openrocket.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import info.openrocket.core.motor.Motor;
+import info.openrocket.core.motor.MotorConfiguration;
+import info.openrocket.core.motor.ThrustCurveMotor;
+import info.openrocket.core.rocketcomponent.Rocket;
+
+/**
+ * Benchmarks {@link ThrustCurveMotor#getThrust(double)}, sweeping the motor time over
+ * the whole burn as a simulation does.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ThrustCurveMotorBenchmark {
+
+	/** Number of thrust samples taken in one benchmark operation. */
+	private static final int SAMPLES = 100;
+
+	private ThrustCurveMotor motor;
+	private double timeStep;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		BenchmarkEnvironment.initialize();
+
+		Rocket rocket = BenchmarkRocket.ESTES_ALPHA_III.create();
+		for (MotorConfiguration config : BenchmarkRocket.getConfiguration(rocket).getActiveMotors()) {
+			Motor m = config.getMotor();
+			if (m instanceof ThrustCurveMotor) {
+				motor = (ThrustCurveMotor) m;
+				break;
+			}
+		}
+		if (motor == null) {
+			throw new IllegalStateException("No thrust curve motor in " + rocket.getName());
+		}
+		timeStep = motor.getBurnTime() / SAMPLES;
+	}
+
+	@Benchmark
+	public double getThrust() {
+		double total = 0;
+		for (int i = 0; i < SAMPLES; i++) {
+			total += motor.getThrust(i * timeStep);
+		}
+		return total;
+	}
+}
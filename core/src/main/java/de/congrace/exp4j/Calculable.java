@@ -14,6 +14,16 @@ public interface Calculable {
 	 */
 	public Variable calculate();
 
+	/**
+	 * calculate the result of the expression using the given variable values
+	 * instead of the values set using {@link #setVariable(Variable)}
+	 * 
+	 * @param values
+	 *            the values of the variables, in the order of {@link #getVariableNames()}
+	 * @return the result of the calculation
+	 */
+	public Variable calculate(Variable[] values);
+
 	/**
 	 * return the expression in reverse polish postfix notation
 	 * 
@@ -28,4 +38,11 @@ public interface Calculable {
 	 *            the value of the variable
 	 */
 	public void setVariable(Variable var);
+
+	/**
+	 * return the names of the variables referenced by the expression, each name once
+	 * 
+	 * @return the variable names, in the order the values are given to {@link #calculate(Variable[])}
+	 */
+	public String[] getVariableNames();
 }
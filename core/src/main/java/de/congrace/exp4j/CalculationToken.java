@@ -25,7 +25,7 @@ abstract class CalculationToken extends Token {
 		super(value);
 	}
 
-	abstract void mutateStackForCalculation(Stack<Variable> stack, VariableSet variables);
+	abstract void mutateStackForCalculation(Stack<Variable> stack, Variable[] variables);
 
 	/*
 	 * Given an array of variables, check if any are arrays and if so expand any other of the given variables to arrays of the same length.
@@ -69,7 +69,7 @@ public abstract class CustomFunction extends CalculationToken {
 	public abstract Variable applyFunction(List<Variable> vars);
 
     @Override
-	void mutateStackForCalculation(Stack<Variable> stack, VariableSet variables) {
+	void mutateStackForCalculation(Stack<Variable> stack, Variable[] variables) {
 	    List<Variable> args = new ArrayList<>(argc);
 	    for (int i=0; i < argc; i++) {
 	    	args.add(i, stack.pop() );
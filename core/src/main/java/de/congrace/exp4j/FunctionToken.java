@@ -129,7 +129,7 @@ class FunctionToken extends CalculationToken {
 	}
 
 	@Override
-	void mutateStackForCalculation(Stack<Variable> stack, VariableSet variableValues) {
+	void mutateStackForCalculation(Stack<Variable> stack, Variable[] variableValues) {
 		stack.push(this.applyFunction(stack.pop()));
 	}
 
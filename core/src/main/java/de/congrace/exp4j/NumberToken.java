@@ -54,7 +54,7 @@ class NumberToken extends CalculationToken {
 	}
 
 	@Override
-	void mutateStackForCalculation(Stack<Variable> stack, VariableSet variables) {
+	void mutateStackForCalculation(Stack<Variable> stack, Variable[] variables) {
 		stack.push(new Variable("From number "+getValue()+" : "+hashCode(), this.doubleValue));
 	}
 
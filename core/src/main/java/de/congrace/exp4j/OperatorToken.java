@@ -183,7 +183,7 @@ class OperatorToken extends CalculationToken {
 	}
 
 	@Override
-	void mutateStackForCalculation(Stack<Variable> stack, VariableSet variables) {
+	void mutateStackForCalculation(Stack<Variable> stack, Variable[] variables) {
 		if (this.getOperandCount() == 2) {
 			final Variable n2 = stack.pop();
 			final Variable n1 = stack.pop();
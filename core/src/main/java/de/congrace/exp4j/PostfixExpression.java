@@ -16,6 +16,8 @@
  */
 package de.congrace.exp4j;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 import java.util.Stack;
 
@@ -28,7 +30,10 @@ import java.util.Stack;
  */
 public final class PostfixExpression extends AbstractExpression implements Calculable {
 	
-	private final VariableSet variables = new VariableSet();
+	/** the names of the variables referenced by the expression, by slot */
+	private final String[] variableNames;
+	/** the variable values set using setVariable(), by slot */
+	private final Variable[] variables;
 	
 	/**
 	 * Factory method for creating {@link PostfixExpression}s from human
@@ -95,6 +100,21 @@ public final class PostfixExpression extends AbstractExpression implements Calcu
 	private PostfixExpression(String expression, String[] variableStrings, Set<CustomFunction> customFunctions) throws UnparsableExpressionException,
 			UnknownFunctionException {
 		super(expression, new Tokenizer(variableStrings, customFunctions).tokenize(expression), variableStrings);
+
+		// assign each referenced variable a slot, so no lookup by name is needed when calculating
+		List<String> names = new ArrayList<>();
+		for (final Token t : getTokens()) {
+			if (t instanceof VariableToken) {
+				int slot = names.indexOf(t.getValue());
+				if (slot < 0) {
+					slot = names.size();
+					names.add(t.getValue());
+				}
+				((VariableToken) t).setSlot(slot);
+			}
+		}
+		this.variableNames = names.toArray(new String[0]);
+		this.variables = new Variable[variableNames.length];
 	}
 
 	/**
@@ -102,10 +122,19 @@ public final class PostfixExpression extends AbstractExpression implements Calcu
 	 */
 	@Override
 	public Variable calculate() throws IllegalArgumentException {
+		return calculate(variables);
+	}
+
+	/**
+	 * delegate the calculation of a simple expression using the given variable values.
+	 * The expression itself is not modified, so this may be called concurrently.
+	 */
+	@Override
+	public Variable calculate(Variable[] values) throws IllegalArgumentException {
 
 		final Stack<Variable> stack = new Stack<>();
 		for (final Token t : getTokens()) {
-			((CalculationToken) t).mutateStackForCalculation(stack, variables);
+			((CalculationToken) t).mutateStackForCalculation(stack, values);
 		}
 		return stack.pop();
 
@@ -113,6 +142,16 @@ public final class PostfixExpression extends AbstractExpression implements Calcu
 
 	@Override
 	public void setVariable(Variable value) {
-		variables.add(value);
+		for (int i = 0; i < variableNames.length; i++) {
+			if (variableNames[i].equals(value.getName())) {
+				variables[i] = value;
+				return;
+			}
+		}
+	}
+
+	@Override
+	public String[] getVariableNames() {
+		return variableNames.clone();
 	}
 }
@@ -24,6 +24,9 @@ import java.util.Stack;
  * @author fas
  */
 class VariableToken extends CalculationToken {
+	/** the index of the variable in the values of the expression */
+	private int slot = -1;
+
 	/**
 	 * construct a new {@link VariableToken}
 	 * 
@@ -34,10 +37,19 @@ class VariableToken extends CalculationToken {
 		super(value);
 	}
 
+	/**
+	 * set the index of the variable in the values of the expression
+	 * 
+	 * @param slot
+	 *            the index of the variable
+	 */
+	void setSlot(int slot) {
+		this.slot = slot;
+	}
+
 	@Override
-	void mutateStackForCalculation(Stack<Variable> stack, VariableSet variableValues) {
-		Variable value = variableValues.getVariableNamed(this.getValue());
-		stack.push(value);
+	void mutateStackForCalculation(Stack<Variable> stack, Variable[] variableValues) {
+		stack.push(variableValues[slot]);
 	}
 
 	@Override
@@ -231,12 +231,19 @@ public class BarrowmanCalculator extends AbstractAerodynamicCalculator {
 		total.setCm(total.getCm() - total.getPitchDampingMoment());
 		total.setCyaw(total.getCyaw() - total.getYawDampingMoment());
 
-		// How far are we from stalling?
-		stallMargin = stallAngle - conditions.getAOA();
+		updateStallMargin(conditions);
 		
 		return total;
 	}
 
+	/**
+	 * Update the stall margin returned by {@link #getStallMargin()} for the given conditions.
+	 */
+	protected void updateStallMargin(FlightConditions conditions) {
+		// How far are we from stalling?
+		stallMargin = stallAngle - conditions.getAOA();
+	}
+
 	private AerodynamicForces calculateComponentNonAxialForces(FlightConditions conditions,
 			RocketComponent comp,
 			RocketComponentCalc calcObj,
@@ -269,7 +276,7 @@ public class BarrowmanCalculator extends AbstractAerodynamicCalculator {
 	/**
 	 * Perform the actual CP calculation.
 	 */
-	private AerodynamicForces calculateNonAxialForces(FlightConfiguration configuration, FlightConditions conditions,
+	protected AerodynamicForces calculateNonAxialForces(FlightConfiguration configuration, FlightConditions conditions,
 			WarningSet warnings) {
 
 		checkCache(configuration);
@@ -450,7 +457,7 @@ public class BarrowmanCalculator extends AbstractAerodynamicCalculator {
 	 * @param warningSet    Set to handle warnings
 	 * @return friction drag for entire rocket
 	 */
-	private double calculateFrictionCD(FlightConfiguration configuration, FlightConditions conditions,
+	protected double calculateFrictionCD(FlightConfiguration configuration, FlightConditions conditions,
 			Map<RocketComponent, AerodynamicForces> forceMap, WarningSet warningSet) {
 		
 		double mach = conditions.getMach();
@@ -697,7 +704,7 @@ public class BarrowmanCalculator extends AbstractAerodynamicCalculator {
 	 * @param warningSet    all current warnings
 	 * @return
 	 */
-	private double calculatePressureCD(FlightConfiguration configuration, FlightConditions conditions,
+	protected double calculatePressureCD(FlightConfiguration configuration, FlightConditions conditions,
 			Map<RocketComponent, AerodynamicForces> forceMap, WarningSet warningSet) {
 
 		double total, stagnation, base;
@@ -775,7 +782,7 @@ public class BarrowmanCalculator extends AbstractAerodynamicCalculator {
 	 * @param warnings      all current warnings
 	 * @return
 	 */
-	private double calculateBaseCD(FlightConfiguration configuration, FlightConditions conditions,
+	protected double calculateBaseCD(FlightConfiguration configuration, FlightConditions conditions,
 			Map<RocketComponent, AerodynamicForces> forceMap, WarningSet warnings) {
 
 		double base, total;
@@ -892,7 +899,7 @@ public class BarrowmanCalculator extends AbstractAerodynamicCalculator {
 	 * @param cd
 	 * @return
 	 */
-	private double calculateAxialCD(FlightConditions conditions, double cd) {
+	protected double calculateAxialCD(FlightConditions conditions, double cd) {
 		double aoa = MathUtil.clamp(conditions.getAOA(), 0, Math.PI);
 		double mul;
 
@@ -921,7 +928,7 @@ public class BarrowmanCalculator extends AbstractAerodynamicCalculator {
 	 * @param warningSet    all current warnings
 	 * @return
 	 */
-	private double calculateOverrideCD(FlightConfiguration configuration, FlightConditions conditions,
+	protected double calculateOverrideCD(FlightConfiguration configuration, FlightConditions conditions,
 			Map<RocketComponent, AerodynamicForces> eachMap,
 			Map<RocketComponent, AerodynamicForces> assemblyMap,
 			WarningSet warningSet) {
@@ -962,7 +969,7 @@ public class BarrowmanCalculator extends AbstractAerodynamicCalculator {
 	 * @param conditions    flight conditions in consideration
 	 * @param total         acting aerodynamic forces
 	 */
-	private void calculateDampingMoments(FlightConfiguration configuration, FlightConditions conditions,
+	protected void calculateDampingMoments(FlightConfiguration configuration, FlightConditions conditions,
 			AerodynamicForces total) {
 		
 		// Calculate pitch and yaw damping moments
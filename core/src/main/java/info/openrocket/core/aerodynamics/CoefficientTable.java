@@ -0,0 +1,141 @@
+package info.openrocket.core.aerodynamics;
+
+/**
+ * A table of coefficients over a uniform two-dimensional grid.  The values at the
+ * grid nodes are computed on first use and memoised, and values between the nodes
+ * are interpolated bilinearly.  A table with a single node in the second dimension
+ * interpolates in the first dimension only.
+ * <p>
+ * This class is not thread-safe.
+ */
+class CoefficientTable {
+
+	/**
+	 * The function computing the values at a grid node.
+	 */
+	interface NodeFunction {
+		/**
+		 * Compute the values at a grid node.
+		 *
+		 * @param x			the first coordinate of the node.
+		 * @param y			the second coordinate of the node.
+		 * @param values	the array into which to store the values.
+		 */
+		void evaluate(double x, double y, double[] values);
+	}
+
+	private final double x0, dx;
+	private final int nx;
+	private final double y0, dy;
+	private final int ny;
+	private final int width;
+	private final NodeFunction function;
+
+	// rows[i][j * width + k] is value k of node (i, j), computed[i][j] tells whether it has been computed
+	private final double[][] rows;
+	private final boolean[][] computed;
+	private final double[] node;
+
+	private int nodeCount = 0;
+
+	/**
+	 * Create a table.
+	 *
+	 * @param x0		the first node of the first dimension.
+	 * @param dx		the node spacing of the first dimension.
+	 * @param nx		the number of nodes in the first dimension, at least 2.
+	 * @param y0		the first node of the second dimension.
+	 * @param dy		the node spacing of the second dimension.
+	 * @param ny		the number of nodes in the second dimension.
+	 * @param width		the number of values at each node.
+	 * @param function	the function computing the values at a node.
+	 */
+	CoefficientTable(double x0, double dx, int nx, double y0, double dy, int ny, int width, NodeFunction function) {
+		if (nx < 2 || ny < 1 || width < 1) {
+			throw new IllegalArgumentException("nx=" + nx + " ny=" + ny + " width=" + width);
+		}
+		this.x0 = x0;
+		this.dx = dx;
+		this.nx = nx;
+		this.y0 = y0;
+		this.dy = dy;
+		this.ny = ny;
+		this.width = width;
+		this.function = function;
+		this.rows = new double[nx][];
+		this.computed = new boolean[nx][];
+		this.node = new double[width];
+	}
+
+	/**
+	 * Return whether the point is within the range of the table.
+	 */
+	boolean contains(double x, double y) {
+		return x >= x0 && x <= x0 + (nx - 1) * dx &&
+				(ny == 1 || (y >= y0 && y <= y0 + (ny - 1) * dy));
+	}
+
+	/**
+	 * Interpolate the values at a point within the range of the table.
+	 *
+	 * @param x			the first coordinate.
+	 * @param y			the second coordinate, ignored if the table has a single node in the second dimension.
+	 * @param values	the array into which to store the interpolated values.
+	 */
+	void interpolate(double x, double y, double[] values) {
+		double u = (x - x0) / dx;
+		int i = Math.min(Math.max((int) u, 0), nx - 2);
+		double fx = u - i;
+
+		if (ny == 1) {
+			double[] a = row(i, 0);
+			double[] b = row(i + 1, 0);
+			for (int k = 0; k < width; k++) {
+				values[k] = a[k] + fx * (b[k] - a[k]);
+			}
+			return;
+		}
+
+		double v = (y - y0) / dy;
+		int j = Math.min(Math.max((int) v, 0), ny - 2);
+		double fy = v - j;
+
+		double[] a = row(i, j);
+		double[] b = row(i, j + 1);
+		double[] c = row(i + 1, j);
+		double[] d = row(i + 1, j + 1);
+		int ja = j * width;
+		int jb = ja + width;
+		for (int k = 0; k < width; k++) {
+			double low = a[ja + k] + fy * (b[jb + k] - a[ja + k]);
+			double high = c[ja + k] + fy * (d[jb + k] - c[ja + k]);
+			values[k] = low + fx * (high - low);
+		}
+	}
+
+	/**
+	 * Return the number of nodes computed so far.
+	 */
+	int getNodeCount() {
+		return nodeCount;
+	}
+
+	/**
+	 * Return row i of the table, ensuring that node (i, j) has been computed.
+	 */
+	private double[] row(int i, int j) {
+		double[] row = rows[i];
+		if (row == null) {
+			row = new double[ny * width];
+			rows[i] = row;
+			computed[i] = new boolean[ny];
+		}
+		if (!computed[i][j]) {
+			function.evaluate(x0 + i * dx, y0 + j * dy, node);
+			System.arraycopy(node, 0, row, j * width, width);
+			computed[i][j] = true;
+			nodeCount++;
+		}
+		return row;
+	}
+}
@@ -85,6 +85,39 @@ public class FlightConditions implements Cloneable, ChangeSource, Monitorable {
 			setRefLength(config.getReferenceLength());
 	}
 
+	/**
+	 * Reset the flight conditions to those of a newly constructed object for the
+	 * given configuration.  The listeners and the atmospheric conditions are retained.
+	 * This allows a single object to be reused when the flight conditions are
+	 * recomputed repeatedly, for example at every step of a simulation.
+	 * fires change event
+	 * 
+	 * @param config the configuration of which the reference length is taken, or <code>null</code>.
+	 */
+	public void reset(FlightConfiguration config) {
+		refLength = 1.0;
+		refArea = Math.PI * 0.25;
+		if (config != null) {
+			double length = config.getReferenceLength();
+			if (length != refLength) {
+				refLength = length;
+				refArea = Math.PI * MathUtil.pow2(length / 2);
+			}
+		}
+		aoa = 0;
+		sinAOA = 0;
+		sincAOA = 1.0;
+		theta = 0;
+		mach = 0.3;
+		beta = calculateBeta(mach);
+		rollRate = 0;
+		pitchRate = 0;
+		yawRate = 0;
+		pitchCenter = Coordinate.NUL;
+
+		fireChangeEvent();
+	}
+
 	/**
 	 * Set the reference length from the given configuration.
 	 * 
@@ -479,6 +512,9 @@ public class FlightConditions implements Cloneable, ChangeSource, Monitorable {
 	 */
 	protected void fireChangeEvent() {
 		modID = new ModID();
+		if (listenerList.isEmpty()) {
+			return;
+		}
 		
 		// Copy the list before iterating to prevent concurrent modification exceptions.
 		EventListener[] listeners = listenerList.toArray(new EventListener[0]);
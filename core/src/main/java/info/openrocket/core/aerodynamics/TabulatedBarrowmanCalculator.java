@@ -0,0 +1,339 @@
+package info.openrocket.core.aerodynamics;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import info.openrocket.core.logging.Warning;
+import info.openrocket.core.logging.WarningSet;
+import info.openrocket.core.rocketcomponent.AxialStage;
+import info.openrocket.core.rocketcomponent.FlightConfiguration;
+import info.openrocket.core.rocketcomponent.FlightConfigurationId;
+import info.openrocket.core.rocketcomponent.RocketComponent;
+import info.openrocket.core.rocketcomponent.Tube;
+import info.openrocket.core.util.Coordinate;
+import info.openrocket.core.util.MathUtil;
+
+/**
+ * A Barrowman calculator that interpolates the aerodynamic forces from coefficient tables
+ * instead of evaluating every component at every call.
+ * <p>
+ * For each flight configuration and set of active stages, the non-axial coefficients (CN, CNa,
+ * Cm, CP and the roll forcing) are tabulated over a Mach &times; angle of attack grid, the
+ * pressure, base and override drag over Mach, and the roll damping over Mach &times; roll rate
+ * per velocity.  The grid nodes are computed lazily with the extended Barrowman method, so only
+ * the part of the flight envelope actually visited is evaluated.  The friction drag, which
+ * depends on the Reynolds number, and the pitch and yaw damping moments are computed directly.
+ * <p>
+ * The tables are voided together with the rest of the aerodynamic cache when the rocket changes.
+ * Configurations whose forces depend on the roll angle, and conditions outside the range of the
+ * tables, are computed directly with the Barrowman method.
+ */
+public class TabulatedBarrowmanCalculator extends BarrowmanCalculator {
+	private static final Logger log = LoggerFactory.getLogger(TabulatedBarrowmanCalculator.class);
+
+	/** Mach number grid, 0...4, with a node at the end of the low-speed body lift ramp at Mach 0.05 */
+	private static final double MACH_STEP = 0.01;
+	private static final int MACH_COUNT = 401;
+
+	/** Angle of attack grid, 0...180 degrees */
+	private static final double AOA_STEP = Math.PI / 360;
+	private static final int AOA_COUNT = 361;
+
+	/** Roll rate per velocity grid, in rad/m */
+	private static final double ROLL_STEP = 0.01;
+	private static final int ROLL_COUNT = 201;
+
+	/** Minimum Mach number at which the roll damping is evaluated, to avoid dividing by zero velocity */
+	private static final double MIN_ROLL_MACH = 0.01;
+
+	// Indices of the values in the tables
+	private static final int CN = 0;
+	private static final int CNA = 1;
+	private static final int CM = 2;
+	private static final int CPX = 3;
+	private static final int CROLL_FORCE = 4;
+	private static final int NONAXIAL_WIDTH = 5;
+
+	private static final int PRESSURE_CD = 0;
+	private static final int BASE_CD = 1;
+	private static final int OVERRIDE_CD = 2;
+	private static final int DRAG_WIDTH = 3;
+
+	private final Map<TableKey, Tables> tables = new HashMap<>();
+
+	private final double[] nonAxialValues = new double[NONAXIAL_WIDTH];
+	private final double[] dragValues = new double[DRAG_WIDTH];
+	private final double[] rollValues = new double[1];
+
+	public TabulatedBarrowmanCalculator() {
+
+	}
+
+
+	@Override
+	public TabulatedBarrowmanCalculator newInstance() {
+		return new TabulatedBarrowmanCalculator();
+	}
+
+	@Override
+	public AerodynamicForces getAerodynamicForces(FlightConfiguration configuration,
+			FlightConditions conditions, WarningSet warnings) {
+		checkCache(configuration);
+
+		Tables t = getTables(configuration);
+		double mach = conditions.getMach();
+		double aoa = conditions.getAOA();
+		double rollRate = conditions.getRollRate();
+		double rollPerVelocity = rollRate == 0 ? 0 : Math.abs(rollRate) / conditions.getVelocity();
+
+		if (t == null || !t.matches(conditions) ||
+				!t.nonAxial.contains(mach, aoa) || !t.roll.contains(mach, rollPerVelocity)) {
+			return super.getAerodynamicForces(configuration, conditions, warnings);
+		}
+
+		if (warnings == null)
+			warnings = ignoreWarningSet;
+		if (mach > 1.1) {
+			warnings.add(Warning.SUPERSONIC);
+		}
+
+		AerodynamicForces total = new AerodynamicForces().zero();
+
+		// Interpolate non-axial force data
+		t.nonAxial.interpolate(mach, aoa, nonAxialValues);
+		total.setCN(nonAxialValues[CN]);
+		total.setCNa(nonAxialValues[CNA]);
+		total.setCm(nonAxialValues[CM]);
+		total.setCP(new Coordinate(nonAxialValues[CPX], 0, 0, nonAxialValues[CNA]));
+		total.setCrollForce(nonAxialValues[CROLL_FORCE]);
+		if (rollPerVelocity != 0) {
+			t.roll.interpolate(mach, rollPerVelocity, rollValues);
+			total.setCrollDamp(Math.signum(rollRate) * rollValues[0]);
+		}
+		total.setCroll(total.getCrollForce() - total.getCrollDamp());
+
+		// Interpolate drag data, friction drag depends on the Reynolds number and is computed directly
+		t.drag.interpolate(mach, 0, dragValues);
+		if (t.livePressureDrag) {
+			dragValues[PRESSURE_CD] = calculatePressureCD(configuration, conditions, null, warnings);
+		}
+		total.setFrictionCD(calculateFrictionCD(configuration, conditions, null, warnings));
+		total.setPressureCD(dragValues[PRESSURE_CD]);
+		total.setBaseCD(dragValues[BASE_CD]);
+		total.setOverrideCD(dragValues[OVERRIDE_CD]);
+
+		total.setCD(total.getFrictionCD() + total.getPressureCD() + total.getBaseCD() + total.getOverrideCD());
+
+		total.setCDaxial(calculateAxialCD(conditions, total.getCD()));
+
+		// Added only now, as interpolating may have computed new nodes
+		warnings.addAll(t.warnings);
+
+		// Calculate pitch and yaw damping moments
+		calculateDampingMoments(configuration, conditions, total);
+		total.setCm(total.getCm() - total.getPitchDampingMoment());
+		total.setCyaw(total.getCyaw() - total.getYawDampingMoment());
+
+		updateStallMargin(conditions);
+
+		return total;
+	}
+
+	/**
+	 * Return the number of table nodes computed for the configuration, mainly for testing.
+	 */
+	int getTableNodeCount(FlightConfiguration configuration) {
+		Tables t = tables.get(new TableKey(configuration));
+		if (t == null) {
+			return 0;
+		}
+		return t.nonAxial.getNodeCount() + t.drag.getNodeCount() + t.roll.getNodeCount();
+	}
+
+	/**
+	 * Return the tables of the configuration, or <code>null</code> if the configuration
+	 * cannot be tabulated.
+	 */
+	private Tables getTables(FlightConfiguration configuration) {
+		TableKey key = new TableKey(configuration);
+		if (tables.containsKey(key)) {
+			return tables.get(key);
+		}
+		Tables t = createTables(configuration);
+		tables.put(key, t);
+		return t;
+	}
+
+	private Tables createTables(FlightConfiguration configuration) {
+		final FlightConditions cond = new FlightConditions(configuration);
+		final WarningSet tableWarnings = new WarningSet();
+
+		// The geometry warnings do not depend on the flight conditions
+		cond.setMach(0.3);
+		cond.setAOA(0.1);
+		AerodynamicForces reference = calculateNonAxialForces(configuration, cond, tableWarnings);
+
+		// Tabulation is only possible if the forces do not depend on the roll angle
+		for (double theta : new double[] { 0.4, 1.3, 2.9 }) {
+			cond.setTheta(theta);
+			AerodynamicForces f = calculateNonAxialForces(configuration, cond, new WarningSet());
+			if (!equalCoefficient(reference.getCN(), f.getCN()) ||
+					!equalCoefficient(reference.getCm(), f.getCm()) ||
+					!equalCoefficient(reference.getCside(), f.getCside()) ||
+					!equalCoefficient(reference.getCyaw(), f.getCyaw()) ||
+					!equalCoefficient(reference.getCrollForce(), f.getCrollForce())) {
+				log.debug("Forces of configuration " + configuration.getId() +
+						" depend on the roll angle, not using coefficient tables");
+				return null;
+			}
+		}
+		cond.setTheta(0);
+
+		// The pressure drag of tubes depends on the Reynolds number of the flow through them
+		final boolean livePressureDrag = hasAerodynamicTubes(configuration);
+
+		CoefficientTable nonAxial = new CoefficientTable(0, MACH_STEP, MACH_COUNT, 0, AOA_STEP, AOA_COUNT,
+				NONAXIAL_WIDTH, (mach, aoa, values) -> {
+					cond.setMach(mach);
+					cond.setAOA(aoa);
+					cond.setRollRate(0);
+					WarningSet nodeWarnings = new WarningSet();
+					AerodynamicForces f = calculateNonAxialForces(configuration, cond, nodeWarnings);
+					addNodeWarnings(nodeWarnings, tableWarnings);
+					values[CN] = f.getCN();
+					values[CNA] = f.getCNa();
+					values[CM] = f.getCm();
+					values[CPX] = f.getCP().x;
+					values[CROLL_FORCE] = f.getCrollForce();
+				});
+
+		CoefficientTable drag = new CoefficientTable(0, MACH_STEP, MACH_COUNT, 0, 0, 1,
+				DRAG_WIDTH, (mach, unused, values) -> {
+					cond.setMach(mach);
+					cond.setAOA(0);
+					cond.setRollRate(0);
+					WarningSet nodeWarnings = new WarningSet();
+					values[PRESSURE_CD] = livePressureDrag ? 0 :
+							calculatePressureCD(configuration, cond, null, nodeWarnings);
+					values[BASE_CD] = calculateBaseCD(configuration, cond, null, nodeWarnings);
+					values[OVERRIDE_CD] = calculateOverrideCD(configuration, cond, null, null, nodeWarnings);
+					addNodeWarnings(nodeWarnings, tableWarnings);
+				});
+
+		CoefficientTable roll = new CoefficientTable(0, MACH_STEP, MACH_COUNT, 0, ROLL_STEP, ROLL_COUNT,
+				1, (mach, rollPerVelocity, values) -> {
+					cond.setMach(Math.max(mach, MIN_ROLL_MACH));
+					cond.setAOA(0);
+					cond.setRollRate(rollPerVelocity * cond.getVelocity());
+					WarningSet nodeWarnings = new WarningSet();
+					values[0] = calculateNonAxialForces(configuration, cond, nodeWarnings).getCrollDamp();
+					addNodeWarnings(nodeWarnings, tableWarnings);
+				});
+
+		return new Tables(cond.getRefArea(), cond.getRefLength(), tableWarnings, livePressureDrag,
+				nonAxial, drag, roll);
+	}
+
+	/**
+	 * Add the warnings of computing a table node to the warnings reported with the tables.
+	 * Like the warnings of a simulation, these accumulate over the visited conditions.  The
+	 * supersonic warning is left out, as it is reported for the conditions of each call.
+	 */
+	private static void addNodeWarnings(WarningSet nodeWarnings, WarningSet tableWarnings) {
+		for (Warning w : nodeWarnings) {
+			if (!w.equals(Warning.SUPERSONIC)) {
+				tableWarnings.add(w);
+			}
+		}
+	}
+
+	private static boolean hasAerodynamicTubes(FlightConfiguration configuration) {
+		for (RocketComponent c : configuration.getActiveComponents()) {
+			if (c instanceof Tube && c.isAerodynamic()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean equalCoefficient(double a, double b) {
+		return Math.abs(a - b) <= 1e-9 * Math.max(1, Math.max(Math.abs(a), Math.abs(b)));
+	}
+
+	@Override
+	protected void voidAerodynamicCache() {
+		super.voidAerodynamicCache();
+
+		tables.clear();
+	}
+
+
+	/**
+	 * The key of the tables of a configuration.  The aerodynamics of a configuration
+	 * change when stages are separated, so the active stages are part of the key.
+	 */
+	private static final class TableKey {
+		private final FlightConfigurationId id;
+		private final List<Integer> activeStages;
+
+		TableKey(FlightConfiguration configuration) {
+			this.id = configuration.getId();
+			List<AxialStage> stages = configuration.getActiveStages();
+			this.activeStages = new ArrayList<>(stages.size());
+			for (AxialStage stage : stages) {
+				activeStages.add(stage.getStageNumber());
+			}
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof TableKey)) {
+				return false;
+			}
+			TableKey other = (TableKey) obj;
+			return id.equals(other.id) && activeStages.equals(other.activeStages);
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * id.hashCode() + activeStages.hashCode();
+		}
+	}
+
+	/**
+	 * The coefficient tables of a single configuration.
+	 */
+	private static final class Tables {
+		private final double refArea;
+		private final double refLength;
+		private final WarningSet warnings;
+		private final boolean livePressureDrag;
+		private final CoefficientTable nonAxial;
+		private final CoefficientTable drag;
+		private final CoefficientTable roll;
+
+		Tables(double refArea, double refLength, WarningSet warnings, boolean livePressureDrag,
+				CoefficientTable nonAxial, CoefficientTable drag, CoefficientTable roll) {
+			this.refArea = refArea;
+			this.refLength = refLength;
+			this.warnings = warnings;
+			this.livePressureDrag = livePressureDrag;
+			this.nonAxial = nonAxial;
+			this.drag = drag;
+			this.roll = roll;
+		}
+
+		/**
+		 * Return whether the tables were computed using the reference values of the conditions.
+		 */
+		boolean matches(FlightConditions conditions) {
+			return MathUtil.equals(refArea, conditions.getRefArea()) &&
+					MathUtil.equals(refLength, conditions.getRefLength());
+		}
+	}
+}
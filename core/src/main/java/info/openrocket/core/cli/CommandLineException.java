@@ -0,0 +1,17 @@
+package info.openrocket.core.cli;
+
+/**
+ * An exception signalling invalid command line arguments or an error while running a
+ * command line task.  The message is shown to the user.
+ */
+public class CommandLineException extends Exception {
+	private static final long serialVersionUID = 1L;
+
+	public CommandLineException(String message) {
+		super(message);
+	}
+
+	public CommandLineException(String message, Throwable cause) {
+		super(message, cause);
+	}
+}
@@ -0,0 +1,594 @@
+package info.openrocket.core.cli;
+
+import java.awt.Color;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.inject.Guice;
+
+import info.openrocket.core.document.OpenRocketDocument;
+import info.openrocket.core.document.Simulation;
+import info.openrocket.core.document.StorageOptions;
+import info.openrocket.core.file.CSVExport;
+import info.openrocket.core.file.GeneralRocketLoader;
+import info.openrocket.core.file.GeneralRocketSaver;
+import info.openrocket.core.file.svg.export.SVGBuilder;
+import info.openrocket.core.file.wavefrontobj.export.OBJExportOptions;
+import info.openrocket.core.file.wavefrontobj.export.OBJExporterFactory;
+import info.openrocket.core.logging.Warning;
+import info.openrocket.core.logging.WarningSet;
+import info.openrocket.core.optimization.general.FunctionOptimizer;
+import info.openrocket.core.optimization.general.OptimizationController;
+import info.openrocket.core.optimization.general.ParallelExecutorCache;
+import info.openrocket.core.optimization.general.Point;
+import info.openrocket.core.optimization.general.multidim.MultidirectionalSearchOptimizer;
+import info.openrocket.core.optimization.general.onedim.GoldenSectionSearchOptimizer;
+import info.openrocket.core.optimization.rocketoptimization.OptimizableParameter;
+import info.openrocket.core.optimization.rocketoptimization.RocketOptimizationFunction;
+import info.openrocket.core.optimization.rocketoptimization.SimulationModifier;
+import info.openrocket.core.optimization.services.OptimizationServiceHelper;
+import info.openrocket.core.plugin.PluginModule;
+import info.openrocket.core.preferences.ApplicationPreferences;
+import info.openrocket.core.preferences.CorePreferences;
+import info.openrocket.core.rocketcomponent.FinSet;
+import info.openrocket.core.rocketcomponent.RocketComponent;
+import info.openrocket.core.simulation.FlightData;
+import info.openrocket.core.simulation.FlightDataBranch;
+import info.openrocket.core.simulation.FlightDataType;
+import info.openrocket.core.simulation.batch.BatchSimulationResult;
+import info.openrocket.core.simulation.batch.BatchSimulationRunner;
+import info.openrocket.core.startup.Application;
+import info.openrocket.core.startup.CoreModule;
+import info.openrocket.core.unit.Unit;
+import info.openrocket.core.unit.UnitGroup;
+import info.openrocket.core.util.Coordinate;
+
+/**
+ * Command line interface for running simulations, optimizations and exports without the
+ * Swing application.
+ * <p>
+ * The application is started with only the core services (see {@link CoreModule}), and the
+ * motor and component preset databases are only loaded if a task needs them.  By default the
+ * default preferences are used, so that results do not depend on the user running the command;
+ * use <code>--user-preferences</code> to use a copy of the user's OpenRocket preferences.
+ */
+public class OpenRocketCLI {
+	private static final Logger log = LoggerFactory.getLogger(OpenRocketCLI.class);
+
+	/** Exit status of a successful run */
+	public static final int EXIT_OK = 0;
+	/** Exit status if a task failed */
+	public static final int EXIT_FAILURE = 1;
+	/** Exit status if the arguments are invalid */
+	public static final int EXIT_USAGE = 2;
+
+	private static final String USAGE = String.join(System.lineSeparator(),
+			"Usage: openrocket-cli <command> <file.ork> [options]",
+			"",
+			"Commands:",
+			"  simulate        Run simulations and print a summary of the results",
+			"  optimize        Run an optimization configured by a properties file (--config)",
+			"  export-csv      Export the flight data of a simulation as CSV",
+			"  export-obj      Export the rocket as a Wavefront OBJ file",
+			"  export-svg      Export the fin shapes of the rocket as SVG files",
+			"  export-rasaero  Export the design as a RASAero II file",
+			"",
+			"Options:",
+			"  -s, --simulation <name|index>  Select a simulation (repeatable, default: all)",
+			"  -o, --output <file>            Output file; for simulate and optimize, save the document",
+			"  --config <file>                Optimization settings",
+			"  --list                         List the optimization parameters and modifiers",
+			"  --user-preferences             Use a copy of the user's OpenRocket preferences",
+			"  --timing                       Print the time taken by each step",
+			"  -h, --help                     Show this help");
+
+	private final PrintStream out;
+	private final PrintStream err;
+	private final boolean initializeApplication;
+
+	private final Map<String, Long> timings = new LinkedHashMap<>();
+
+	// Parsed arguments
+	private String command;
+	private File input;
+	private File output;
+	private File config;
+	private final List<String> simulationSelectors = new ArrayList<>();
+	private boolean list = false;
+	private boolean userPreferences = false;
+	private boolean reportTiming = false;
+
+	/**
+	 * @param out						the stream for the results
+	 * @param err						the stream for errors, warnings and timing information
+	 * @param initializeApplication	whether to set up the application injector with the core services
+	 */
+	public OpenRocketCLI(PrintStream out, PrintStream err, boolean initializeApplication) {
+		this.out = out;
+		this.err = err;
+		this.initializeApplication = initializeApplication;
+	}
+
+	public static void main(String[] args) {
+		int status = new OpenRocketCLI(System.out, System.err, true).run(args);
+		System.exit(status);
+	}
+
+	/**
+	 * Run the command given by the command line arguments.
+	 *
+	 * @param args	the command line arguments
+	 * @return		the exit status
+	 */
+	public int run(String... args) {
+		try {
+			if (!parseArguments(args)) {
+				out.println(USAGE);
+				return EXIT_OK;
+			}
+		} catch (CommandLineException e) {
+			err.println(e.getMessage());
+			err.println(USAGE);
+			return EXIT_USAGE;
+		}
+
+		int status;
+		try {
+			if (initializeApplication) {
+				timed("startup", () -> initializeApplication(userPreferences));
+			}
+			OpenRocketDocument document = timed("load " + input.getName(), this::load);
+			status = switch (command) {
+				case "simulate" -> simulate(document);
+				case "optimize" -> optimize(document);
+				case "export-csv" -> exportCSV(document);
+				case "export-obj" -> exportOBJ(document);
+				case "export-svg" -> exportSVG(document);
+				case "export-rasaero" -> exportRASAero(document);
+				default -> throw new CommandLineException("Unknown command: " + command);
+			};
+		} catch (CommandLineException e) {
+			log.debug("Command failed", e);
+			err.println("Error: " + e.getMessage());
+			status = EXIT_FAILURE;
+		} catch (Exception e) {
+			log.error("Command failed", e);
+			err.println("Error: " + e);
+			status = EXIT_FAILURE;
+		}
+
+		if (reportTiming) {
+			printTimings();
+		}
+		return status;
+	}
+
+	/**
+	 * Set up the application with only the core services.
+	 *
+	 * @param userPreferences	whether to use a copy of the user's preferences instead of the defaults
+	 */
+	public static void initializeApplication(boolean userPreferences) {
+		ApplicationPreferences preferences = userPreferences ? CorePreferences.copyOfUserPreferences() : new CorePreferences();
+		Application.setInjector(Guice.createInjector(new CoreModule(preferences), new PluginModule()));
+	}
+
+	/**
+	 * Parse the arguments.
+	 *
+	 * @return	<code>false</code> if help was requested
+	 */
+	private boolean parseArguments(String[] args) throws CommandLineException {
+		List<String> positional = new ArrayList<>();
+		for (int i = 0; i < args.length; i++) {
+			String arg = args[i];
+			switch (arg) {
+				case "-h", "--help" -> {
+					return false;
+				}
+				case "-s", "--simulation" -> simulationSelectors.add(getValue(args, ++i, arg));
+				case "-o", "--output" -> output = new File(getValue(args, ++i, arg));
+				case "--config" -> config = new File(getValue(args, ++i, arg));
+				case "--list" -> list = true;
+				case "--user-preferences" -> userPreferences = true;
+				case "--timing" -> reportTiming = true;
+				default -> {
+					if (arg.startsWith("-")) {
+						throw new CommandLineException("Unknown option: " + arg);
+					}
+					positional.add(arg);
+				}
+			}
+		}
+
+		if (positional.isEmpty()) {
+			return false;
+		}
+		if (positional.size() != 2) {
+			throw new CommandLineException("Expected a command and a file");
+		}
+		command = positional.get(0);
+		input = new File(positional.get(1));
+
+		boolean exportCommand = command.startsWith("export-");
+		if (exportCommand && output == null) {
+			throw new CommandLineException("The " + command + " command requires an output file (-o)");
+		}
+		if (command.equals("optimize") && config == null && !list) {
+			throw new CommandLineException("The optimize command requires a settings file (--config) or --list");
+		}
+		return true;
+	}
+
+	private static String getValue(String[] args, int index, String option) throws CommandLineException {
+		if (index >= args.length) {
+			throw new CommandLineException("Missing value for option " + option);
+		}
+		return args[index];
+	}
+
+	private OpenRocketDocument load() throws Exception {
+		if (!input.isFile()) {
+			throw new CommandLineException("File not found: " + input);
+		}
+		GeneralRocketLoader loader = new GeneralRocketLoader(input);
+		OpenRocketDocument document = loader.load();
+		printWarnings("Warnings while loading " + input.getName(), loader.getWarnings());
+		return document;
+	}
+
+	////////  Simulation  ////////
+
+	private int simulate(OpenRocketDocument document) throws Exception {
+		List<Simulation> simulations = getSelectedSimulations(document);
+		List<BatchSimulationResult> results = timed("simulate", () -> new BatchSimulationRunner().runSimulations(simulations));
+
+		int status = EXIT_OK;
+		for (BatchSimulationResult result : results) {
+			Simulation simulation = result.getSimulation();
+			timings.put("  " + simulation.getName(), result.getWallTimeNanos());
+			if (!result.isSuccessful()) {
+				err.println("Simulation '" + simulation.getName() + "' failed: " + result.getException().getMessage());
+				status = EXIT_FAILURE;
+				continue;
+			}
+			printSummary(simulation);
+		}
+		if (output != null) {
+			save(document);
+		}
+		return status;
+	}
+
+	private void printSummary(Simulation simulation) {
+		FlightData data = simulation.getSimulatedData();
+		out.println(simulation.getName());
+		if (data == null) {
+			out.println("  No flight data");
+			return;
+		}
+		printValue("Max altitude", UnitGroup.UNITS_DISTANCE, data.getMaxAltitude());
+		printValue("Max velocity", UnitGroup.UNITS_VELOCITY, data.getMaxVelocity());
+		printValue("Max acceleration", UnitGroup.UNITS_ACCELERATION, data.getMaxAcceleration());
+		if (!Double.isNaN(data.getMaxMachNumber())) {
+			out.printf("  %-22s %.3f%n", "Max Mach number:", data.getMaxMachNumber());
+		}
+		printValue("Time to apogee", UnitGroup.UNITS_FLIGHT_TIME, data.getTimeToApogee());
+		printValue("Flight time", UnitGroup.UNITS_FLIGHT_TIME, data.getFlightTime());
+		printValue("Ground hit velocity", UnitGroup.UNITS_VELOCITY, data.getGroundHitVelocity());
+		printValue("Launch rod velocity", UnitGroup.UNITS_VELOCITY, data.getLaunchRodVelocity());
+		printValue("Deployment velocity", UnitGroup.UNITS_VELOCITY, data.getDeploymentVelocity());
+		printWarnings("Warnings in simulation " + simulation.getName(), data.getWarningSet());
+	}
+
+	private void printValue(String name, UnitGroup unitGroup, double value) {
+		if (!Double.isNaN(value)) {
+			out.printf("  %-22s %s%n", name + ":", unitGroup.getDefaultUnit().toStringUnit(value));
+		}
+	}
+
+	////////  Optimization  ////////
+
+	private int optimize(OpenRocketDocument document) throws Exception {
+		Collection<OptimizableParameter> parameters = OptimizationServiceHelper.getOptimizableParameters(document);
+		Collection<SimulationModifier> available = OptimizationServiceHelper.getSimulationModifiers(document);
+
+		if (list) {
+			out.println("Parameters:");
+			for (OptimizableParameter parameter : parameters) {
+				out.println("  " + parameter.getName());
+			}
+			out.println("Modifiers:");
+			for (SimulationModifier modifier : available) {
+				out.printf("  %s [%s .. %s]%n", OptimizationConfig.getModifierId(modifier),
+						modifier.getMinValue(), modifier.getMaxValue());
+			}
+			if (config == null) {
+				return EXIT_OK;
+			}
+		}
+
+		OptimizationConfig settings = OptimizationConfig.load(config);
+		Simulation simulation = getSimulation(document, settings.getSimulation());
+
+		OptimizableParameter parameter = null;
+		for (OptimizableParameter p : parameters) {
+			if (p.getName().equalsIgnoreCase(settings.getParameter())) {
+				parameter = p;
+			}
+		}
+		if (parameter == null) {
+			throw new CommandLineException("Unknown optimization parameter '" + settings.getParameter() + "'");
+		}
+
+		List<SimulationModifier> modifiers = new ArrayList<>();
+		for (OptimizationConfig.ModifierSetting setting : settings.getModifiers()) {
+			SimulationModifier modifier = null;
+			for (SimulationModifier m : available) {
+				if (OptimizationConfig.getModifierId(m).equalsIgnoreCase(setting.id())) {
+					modifier = m;
+					break;
+				}
+			}
+			if (modifier == null) {
+				throw new CommandLineException("Unknown modifier '" + setting.id() + "'");
+			}
+			if (!Double.isNaN(setting.min())) {
+				modifier.setMinValue(setting.min());
+			}
+			if (!Double.isNaN(setting.max())) {
+				modifier.setMaxValue(setting.max());
+			}
+			modifier.initialize(simulation);
+			modifiers.add(modifier);
+		}
+		SimulationModifier[] modifierArray = modifiers.toArray(new SimulationModifier[0]);
+
+		RocketOptimizationFunction function = new RocketOptimizationFunction(simulation, parameter,
+				settings.createGoal(), settings.createDomain(), modifierArray);
+		ParallelExecutorCache cache = new ParallelExecutorCache(Runtime.getRuntime().availableProcessors());
+		cache.setFunction(function);
+		FunctionOptimizer optimizer = modifierArray.length == 1 ?
+				new GoldenSectionSearchOptimizer(cache) : new MultidirectionalSearchOptimizer(cache);
+
+		double[] current = new double[modifierArray.length];
+		for (int i = 0; i < modifierArray.length; i++) {
+			current[i] = modifierArray[i].getCurrentScaledValue(simulation);
+		}
+		final Point initial = new Point(current);
+
+		final int maxSteps = settings.getSteps();
+		OptimizationController controller = new OptimizationController() {
+			private int steps = 0;
+
+			@Override
+			public boolean stepTaken(Point oldPoint, double oldValue, Point newPoint, double newValue, double stepSize) {
+				steps++;
+				log.debug("Optimization step " + steps + ", value=" + newValue + ", step size=" + stepSize);
+				return steps < maxSteps && stepSize >= 0.005;
+			}
+		};
+
+		try {
+			timed("optimize", () -> optimizer.optimize(initial, controller));
+		} finally {
+			cache.abortAll();
+			cache.getExecutor().shutdownNow();
+		}
+
+		Point optimum = optimizer.getOptimumPoint();
+		for (int i = 0; i < modifierArray.length; i++) {
+			modifierArray[i].modify(simulation, optimum.get(i));
+			Unit unit = modifierArray[i].getUnitGroup().getDefaultUnit();
+			out.printf("%s = %s%n", OptimizationConfig.getModifierId(modifierArray[i]),
+					unit.toStringUnit(modifierArray[i].getCurrentSIValue(simulation)));
+		}
+		double value = parameter.computeValue(simulation);
+		out.printf("%s = %s%n", parameter.getName(), parameter.getUnitGroup().getDefaultUnit().toStringUnit(value));
+
+		if (output != null) {
+			save(document);
+		}
+		return EXIT_OK;
+	}
+
+	////////  Export  ////////
+
+	private int exportCSV(OpenRocketDocument document) throws Exception {
+		List<Simulation> simulations = getSelectedSimulations(document);
+		if (simulations.size() != 1) {
+			throw new CommandLineException("Select one simulation to export (-s)");
+		}
+		Simulation simulation = simulations.get(0);
+		if (!simulation.hasSimulationData()) {
+			timed("simulate " + simulation.getName(), () -> simulation.simulate());
+		}
+
+		timed("export CSV", () -> {
+			FlightDataBranch branch = simulation.getSimulatedData().getBranch(0);
+			FlightDataType[] types = branch.getTypes();
+			Unit[] units = new Unit[types.length];
+			for (int i = 0; i < types.length; i++) {
+				units[i] = types[i].getUnitGroup().getDefaultUnit();
+			}
+			try (OutputStream stream = new BufferedOutputStream(new FileOutputStream(output))) {
+				CSVExport.exportCSV(stream, simulation, branch, types, units, ",", 4, false, "#",
+						true, true, true);
+			}
+		});
+		return EXIT_OK;
+	}
+
+	private int exportOBJ(OpenRocketDocument document) throws Exception {
+		WarningSet warnings = new WarningSet();
+		timed("export OBJ", () -> {
+			OBJExportOptions options = document.getDefaultOBJOptions();
+			options.setExportChildren(true);
+			List<RocketComponent> components = List.of(document.getRocket());
+			new OBJExporterFactory(components, document.getRocket().getSelectedConfiguration(), output,
+					options, warnings).doExport();
+		});
+		printWarnings("Warnings while exporting " + output.getName(), warnings);
+		return EXIT_OK;
+	}
+
+	private int exportSVG(OpenRocketDocument document) throws Exception {
+		List<FinSet> finSets = new ArrayList<>();
+		for (RocketComponent c : document.getRocket()) {
+			if (c instanceof FinSet) {
+				finSets.add((FinSet) c);
+			}
+		}
+		if (finSets.isEmpty()) {
+			throw new CommandLineException("The rocket does not contain any fin sets");
+		}
+
+		ApplicationPreferences prefs = Application.getPreferences();
+		Color color = prefs.getSVGStrokeColor();
+		double width = prefs.getSVGStrokeWidth();
+		timed("export SVG", () -> {
+			for (int i = 0; i < finSets.size(); i++) {
+				FinSet finSet = finSets.get(i);
+				File file = finSets.size() == 1 ? output : getNumberedFile(output, i + 1);
+				SVGBuilder builder = new SVGBuilder();
+				builder.addPath(finSet.generateContinuousFinAndTabShape(), null, color, width);
+				if (finSet.isTabBeyondFin()) {
+					Coordinate finFront = finSet.getFinFront();
+					builder.addPath(finSet.getTabPointsWithRoot(), finFront.x, finFront.y, null, color, width);
+				}
+				builder.writeToFile(file);
+				out.println(finSet.getName() + ": " + file);
+			}
+		});
+		return EXIT_OK;
+	}
+
+	private int exportRASAero(OpenRocketDocument document) throws Exception {
+		StorageOptions options = new StorageOptions();
+		options.setFileType(StorageOptions.FileType.RASAERO);
+		GeneralRocketSaver saver = new GeneralRocketSaver();
+		timed("export RASAero", () -> saver.save(output, document, options));
+		printWarnings("Warnings while exporting " + output.getName(), saver.getWarnings());
+		if (!saver.getErrors().isEmpty()) {
+			throw new CommandLineException("Export failed: " + saver.getErrors());
+		}
+		return EXIT_OK;
+	}
+
+	private void save(OpenRocketDocument document) throws Exception {
+		// The simulated data is the point of running from the command line, so always store it
+		StorageOptions options = document.getDefaultStorageOptions().clone();
+		options.setSaveSimulationData(true);
+		GeneralRocketSaver saver = new GeneralRocketSaver();
+		timed("save " + output.getName(), () -> saver.save(output, document, options));
+		printWarnings("Warnings while saving " + output.getName(), saver.getWarnings());
+	}
+
+	/**
+	 * Return a file named like the given file, with a number appended to the base name.
+	 */
+	private static File getNumberedFile(File file, int number) {
+		String name = file.getName();
+		int dot = name.lastIndexOf('.');
+		String numbered = dot > 0 ? name.substring(0, dot) + "-" + number + name.substring(dot) : name + "-" + number;
+		return new File(file.getAbsoluteFile().getParentFile(), numbered);
+	}
+
+	////////  Helpers  ////////
+
+	private List<Simulation> getSelectedSimulations(OpenRocketDocument document) throws CommandLineException {
+		if (simulationSelectors.isEmpty()) {
+			if (document.getSimulationCount() == 0) {
+				throw new CommandLineException("The document does not contain any simulations");
+			}
+			return document.getSimulations();
+		}
+		List<Simulation> selected = new ArrayList<>();
+		for (String selector : simulationSelectors) {
+			selected.add(getSimulation(document, selector));
+		}
+		return selected;
+	}
+
+	/**
+	 * Return the simulation with the given name or 1-based index, or the first simulation if
+	 * the selector is <code>null</code>.
+	 */
+	private static Simulation getSimulation(OpenRocketDocument document, String selector) throws CommandLineException {
+		if (selector == null) {
+			if (document.getSimulationCount() == 0) {
+				throw new CommandLineException("The document does not contain any simulations");
+			}
+			return document.getSimulation(0);
+		}
+		for (Simulation simulation : document.getSimulations()) {
+			if (simulation.getName().equals(selector)) {
+				return simulation;
+			}
+		}
+		try {
+			int index = Integer.parseInt(selector);
+			if (index >= 1 && index <= document.getSimulationCount()) {
+				return document.getSimulation(index - 1);
+			}
+		} catch (NumberFormatException ignore) {
+		}
+		throw new CommandLineException("No simulation '" + selector + "'");
+	}
+
+	private void printWarnings(String title, WarningSet warnings) {
+		if (warnings == null || warnings.isEmpty()) {
+			return;
+		}
+		err.println(title + ":");
+		for (Warning warning : warnings) {
+			err.println("  " + warning);
+		}
+	}
+
+	private void printTimings() {
+		err.println("Timing:");
+		for (Map.Entry<String, Long> entry : timings.entrySet()) {
+			err.printf("  %-32s %10.1f ms%n", entry.getKey(), entry.getValue() / 1.0e6);
+		}
+	}
+
+	private void timed(String step, Task task) throws Exception {
+		timed(step, () -> {
+			task.run();
+			return null;
+		});
+	}
+
+	private <T> T timed(String step, ResultTask<T> task) throws Exception {
+		long t0 = System.nanoTime();
+		try {
+			return task.call();
+		} finally {
+			long time = System.nanoTime() - t0;
+			timings.merge(step, time, Long::sum);
+			log.info(step + " took " + (time / 1000000) + " ms");
+		}
+	}
+
+	@FunctionalInterface
+	private interface Task {
+		void run() throws Exception;
+	}
+
+	@FunctionalInterface
+	private interface ResultTask<T> {
+		T call() throws Exception;
+	}
+}
@@ -0,0 +1,185 @@
+package info.openrocket.core.cli;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+import info.openrocket.core.optimization.rocketoptimization.OptimizationGoal;
+import info.openrocket.core.optimization.rocketoptimization.SimulationDomain;
+import info.openrocket.core.optimization.rocketoptimization.SimulationModifier;
+import info.openrocket.core.optimization.rocketoptimization.domains.IdentitySimulationDomain;
+import info.openrocket.core.optimization.rocketoptimization.domains.StabilityDomain;
+import info.openrocket.core.optimization.rocketoptimization.goals.MaximizationGoal;
+import info.openrocket.core.optimization.rocketoptimization.goals.MinimizationGoal;
+import info.openrocket.core.optimization.rocketoptimization.goals.ValueSeekGoal;
+import info.openrocket.core.rocketcomponent.RocketComponent;
+
+/**
+ * The settings of an optimization run from the command line, read from a properties file:
+ * <pre>
+ * # The simulation to optimize, by name or 1-based index (default: the first simulation)
+ * simulation = Simulation 1
+ * # The optimized parameter, by name as shown by "optimize --list"
+ * parameter = Apogee altitude
+ * # maximize, minimize, or a value to seek in SI units
+ * goal = maximize
+ * # Optional stability limits, in calibers or in meters if stability.absolute = true
+ * stability.min = 1.0
+ * stability.max = 3.0
+ * # The modified values, by "component name/modifier name" as shown by "optimize --list",
+ * # with optional limits in SI units
+ * modifier.1 = Body tube/Length
+ * modifier.1.min = 0.2
+ * modifier.1.max = 0.6
+ * # Maximum number of optimization steps (default: 100)
+ * steps = 100
+ * </pre>
+ */
+public class OptimizationConfig {
+
+	private static final int DEFAULT_STEPS = 100;
+
+	/**
+	 * A modifier selected for the optimization.
+	 *
+	 * @param id	the identifier of the modifier, see {@link OptimizationConfig#getModifierId(SimulationModifier)}
+	 * @param min	the minimum value in SI units, or NaN for the default
+	 * @param max	the maximum value in SI units, or NaN for the default
+	 */
+	public record ModifierSetting(String id, double min, double max) {
+	}
+
+	private final String simulation;
+	private final String parameter;
+	private final String goal;
+	private final double stabilityMin;
+	private final double stabilityMax;
+	private final boolean stabilityAbsolute;
+	private final List<ModifierSetting> modifiers;
+	private final int steps;
+
+	private OptimizationConfig(Properties properties) throws CommandLineException {
+		simulation = properties.getProperty("simulation");
+		parameter = getRequired(properties, "parameter");
+		goal = getRequired(properties, "goal");
+		stabilityMin = getDouble(properties, "stability.min");
+		stabilityMax = getDouble(properties, "stability.max");
+		stabilityAbsolute = Boolean.parseBoolean(properties.getProperty("stability.absolute", "false"));
+		steps = (int) getDouble(properties, "steps", DEFAULT_STEPS);
+		if (steps < 1) {
+			throw new CommandLineException("Invalid number of optimization steps: " + steps);
+		}
+
+		List<ModifierSetting> list = new ArrayList<>();
+		for (int i = 1; properties.getProperty("modifier." + i) != null; i++) {
+			String key = "modifier." + i;
+			list.add(new ModifierSetting(properties.getProperty(key).trim(),
+					getDouble(properties, key + ".min"), getDouble(properties, key + ".max")));
+		}
+		if (list.isEmpty()) {
+			throw new CommandLineException("No modifiers defined, expected modifier.1 = <component name>/<modifier name>");
+		}
+		modifiers = Collections.unmodifiableList(list);
+
+		// Validate the goal
+		createGoal();
+	}
+
+	/**
+	 * Read the optimization settings from a properties file.
+	 *
+	 * @param file	the file
+	 * @return		the optimization settings
+	 * @throws IOException			if the file cannot be read
+	 * @throws CommandLineException	if the file contains invalid settings
+	 */
+	public static OptimizationConfig load(File file) throws IOException, CommandLineException {
+		Properties properties = new Properties();
+		try (InputStream in = Files.newInputStream(file.toPath())) {
+			properties.load(in);
+		}
+		return new OptimizationConfig(properties);
+	}
+
+	/**
+	 * Return the identifier of a modifier used in the configuration file, which is the name of
+	 * the modified component (or other modified object) and the name of the modifier separated
+	 * by a slash.
+	 */
+	public static String getModifierId(SimulationModifier modifier) {
+		Object related = modifier.getRelatedObject();
+		String owner = related instanceof RocketComponent ? ((RocketComponent) related).getName() : String.valueOf(related);
+		return owner + "/" + modifier.getName();
+	}
+
+	/**
+	 * Return the name or 1-based index of the simulation to optimize, or <code>null</code> for
+	 * the first simulation.
+	 */
+	public String getSimulation() {
+		return simulation;
+	}
+
+	public String getParameter() {
+		return parameter;
+	}
+
+	public List<ModifierSetting> getModifiers() {
+		return modifiers;
+	}
+
+	public int getSteps() {
+		return steps;
+	}
+
+	public OptimizationGoal createGoal() throws CommandLineException {
+		switch (goal.toLowerCase()) {
+			case "maximize":
+				return new MaximizationGoal();
+			case "minimize":
+				return new MinimizationGoal();
+			default:
+				try {
+					return new ValueSeekGoal(Double.parseDouble(goal));
+				} catch (NumberFormatException e) {
+					throw new CommandLineException("Invalid goal '" + goal + "', expected maximize, minimize or a value");
+				}
+		}
+	}
+
+	public SimulationDomain createDomain() {
+		if (Double.isNaN(stabilityMin) && Double.isNaN(stabilityMax)) {
+			return new IdentitySimulationDomain();
+		}
+		return new StabilityDomain(stabilityMin, stabilityAbsolute, stabilityMax, stabilityAbsolute);
+	}
+
+	private static String getRequired(Properties properties, String key) throws CommandLineException {
+		String value = properties.getProperty(key);
+		if (value == null || value.isBlank()) {
+			throw new CommandLineException("Missing optimization setting '" + key + "'");
+		}
+		return value.trim();
+	}
+
+	private static double getDouble(Properties properties, String key) throws CommandLineException {
+		return getDouble(properties, key, Double.NaN);
+	}
+
+	private static double getDouble(Properties properties, String key, double def) throws CommandLineException {
+		String value = properties.getProperty(key);
+		if (value == null) {
+			return def;
+		}
+		try {
+			return Double.parseDouble(value.trim());
+		} catch (NumberFormatException e) {
+			throw new CommandLineException("Invalid number for '" + key + "': " + value);
+		}
+	}
+}
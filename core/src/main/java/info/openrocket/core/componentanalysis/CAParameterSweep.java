@@ -5,23 +5,73 @@ import info.openrocket.core.aerodynamics.AerodynamicForces;
 import info.openrocket.core.aerodynamics.FlightConditions;
 import info.openrocket.core.logging.WarningSet;
 import info.openrocket.core.rocketcomponent.FinSet;
+import info.openrocket.core.rocketcomponent.FlightConfiguration;
+import info.openrocket.core.rocketcomponent.FlightConfigurationId;
 import info.openrocket.core.rocketcomponent.Rocket;
 import info.openrocket.core.rocketcomponent.RocketComponent;
+import info.openrocket.core.util.BugException;
 import info.openrocket.core.util.MathUtil;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
+/**
+ * Computes the component analysis data for a range of values of one or two flight parameters.
+ * <p>
+ * The sweep values are distributed over a number of worker threads, each calculating on its
+ * own copy of the rocket with its own aerodynamic calculator.  The results are added to the
+ * data branch in the order of the sweep values as soon as they are available, and a listener
+ * may be notified of each added point.
+ */
 public class CAParameterSweep {
+	private static final Logger log = LoggerFactory.getLogger(CAParameterSweep.class);
+
 	private final CAParameters parameters;
 	private final AerodynamicCalculator aerodynamicCalculator;
 	private final Rocket rocket;
+	private final int parallelism;
+	private Consumer<CADataBranch> pointListener = null;
 
 	public CAParameterSweep(CAParameters parameters, AerodynamicCalculator aerodynamicCalculator, Rocket rocket) {
+		this(parameters, aerodynamicCalculator, rocket, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * @param parameters				the flight parameters that are not swept
+	 * @param aerodynamicCalculator		the calculator, a new instance of which is used by each thread
+	 * @param rocket					the rocket
+	 * @param parallelism				the maximum number of worker threads
+	 */
+	public CAParameterSweep(CAParameters parameters, AerodynamicCalculator aerodynamicCalculator, Rocket rocket,
+			int parallelism) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+		}
 		this.parameters = parameters.clone();
 		this.aerodynamicCalculator = aerodynamicCalculator;
 		this.rocket = rocket;
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * Set a listener that is notified each time a point has been added to the data branch of a
+	 * sweep.  The listener is called on the thread running the sweep, with the branch being filled.
+	 *
+	 * @param listener	the listener, or <code>null</code> for none
+	 */
+	public void setPointListener(Consumer<CADataBranch> listener) {
+		this.pointListener = listener;
 	}
 
 	/**
@@ -30,29 +80,144 @@ public class CAParameterSweep {
 	 * @param min the minimum value of the parameter
 	 * @param max the maximum value of the parameter
 	 * @param delta the step size of the parameter
+	 * @param initialValue the value of the parameter outside the sweep (the parameters are not modified by the sweep)
 	 * @return a data branch containing the results of the sweep
 	 */
 	public CADataBranch sweep(CADomainDataType sweepParameter, double min, double max, double delta, double initialValue) {
 		List<Double> sweepValues = generateSweepValues(min, max, delta);
+		double[][] points = new double[sweepValues.size()][];
+		for (int i = 0; i < points.length; i++) {
+			points[i] = new double[] { sweepValues.get(i) };
+		}
+		return sweep(new CADomainDataType[] { sweepParameter }, points);
+	}
+
+	/**
+	 * Perform a parameter sweep over a grid of values of two parameter types, for example Mach
+	 * number and angle of attack.  The points are ordered by the value of the first parameter,
+	 * and then by the value of the second parameter.
+	 *
+	 * @param first the first parameter to sweep
+	 * @param min1 the minimum value of the first parameter
+	 * @param max1 the maximum value of the first parameter
+	 * @param delta1 the step size of the first parameter
+	 * @param second the second parameter to sweep
+	 * @param min2 the minimum value of the second parameter
+	 * @param max2 the maximum value of the second parameter
+	 * @param delta2 the step size of the second parameter
+	 * @return a data branch containing the results of the sweep, with the values of both parameters as domain values
+	 */
+	public CADataBranch sweep(CADomainDataType first, double min1, double max1, double delta1,
+			CADomainDataType second, double min2, double max2, double delta2) {
+		if (first.equals(second)) {
+			throw new IllegalArgumentException("Cannot sweep " + first + " twice");
+		}
+		List<Double> firstValues = generateSweepValues(min1, max1, delta1);
+		List<Double> secondValues = generateSweepValues(min2, max2, delta2);
+		double[][] points = new double[firstValues.size() * secondValues.size()][];
+		int n = 0;
+		for (Double value1 : firstValues) {
+			for (Double value2 : secondValues) {
+				points[n++] = new double[] { value1, value2 };
+			}
+		}
+		return sweep(new CADomainDataType[] { first, second }, points);
+	}
+
+	/**
+	 * Calculate the points of a sweep in parallel, adding them to the data branch in order.
+	 * If the thread is interrupted, the points added so far are returned.
+	 */
+	private CADataBranch sweep(CADomainDataType[] sweepParameters, double[][] points) {
 		CADataBranch dataBranch = new CADataBranch("Parameter Sweep");
-		dataBranch.addType(sweepParameter);
+		for (CADomainDataType type : sweepParameters) {
+			dataBranch.addType(type);
+		}
+		if (points.length == 0) {
+			return dataBranch;
+		}
 
-		for (Double value : sweepValues) {
-			setParameterValue(sweepParameter, value);
-			FlightConditions conditions = createFlightConditions();
-			Map<RocketComponent, AerodynamicForces> aeroData = aerodynamicCalculator.getForceAnalysis(rocket.getSelectedConfiguration(), conditions, new WarningSet());
+		// Results are stored for the components of the rocket instead of the copies used by the threads
+		Map<RocketComponent, RocketComponent> components = new HashMap<>();
+		for (RocketComponent c : rocket) {
+			components.put(c, c);
+		}
 
-			dataBranch.addPoint();
-			addDomainData(dataBranch, sweepParameter, value);
+		FlightConfigurationId configId = rocket.getSelectedConfiguration().getId();
+		int threads = Math.min(parallelism, points.length);
+		List<Rocket> copies = new ArrayList<>(threads);
+		for (int i = 0; i < threads; i++) {
+			copies.add(rocket.copyWithOriginalID());
+		}
 
-			addComponentData(dataBranch, aeroData, value);
-			addStabilityData(dataBranch, aeroData, value);
-			addDragData(dataBranch, aeroData, value);
-			addRollData(dataBranch, aeroData, value);
+		List<CompletableFuture<Map<RocketComponent, AerodynamicForces>>> results = new ArrayList<>(points.length);
+		for (int i = 0; i < points.length; i++) {
+			results.add(new CompletableFuture<>());
 		}
+		AtomicInteger nextPoint = new AtomicInteger();
+
+		ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+			Thread t = new Thread(r, "CAParameterSweep");
+			t.setDaemon(true);
+			return t;
+		});
+		long t0 = System.nanoTime();
+		try {
+			for (Rocket copy : copies) {
+				executor.execute(() -> {
+					try {
+						FlightConfiguration configuration = copy.getFlightConfiguration(configId);
+						AerodynamicCalculator calculator = aerodynamicCalculator.newInstance();
+						int index;
+						while ((index = nextPoint.getAndIncrement()) < points.length && !Thread.interrupted()) {
+							FlightConditions conditions = createFlightConditions(configuration, sweepParameters, points[index]);
+							results.get(index).complete(calculator.getForceAnalysis(configuration, conditions, new WarningSet()));
+						}
+					} catch (Throwable e) {
+						// Also errors must complete the results, otherwise the sweep waits for them forever
+						for (CompletableFuture<Map<RocketComponent, AerodynamicForces>> result : results) {
+							result.completeExceptionally(e);
+						}
+					}
+				});
+			}
 
-		// Reset the parameter to its original value
-		setParameterValue(sweepParameter, initialValue);
+			for (int i = 0; i < points.length; i++) {
+				Map<RocketComponent, AerodynamicForces> aeroData = new HashMap<>();
+				for (Map.Entry<RocketComponent, AerodynamicForces> entry : results.get(i).get().entrySet()) {
+					aeroData.put(components.getOrDefault(entry.getKey(), entry.getKey()), entry.getValue());
+				}
+
+				dataBranch.addPoint();
+				for (int j = 0; j < sweepParameters.length; j++) {
+					addDomainData(dataBranch, sweepParameters[j], points[i][j]);
+				}
+				addComponentData(dataBranch, aeroData, points[i][0]);
+				addStabilityData(dataBranch, aeroData, points[i][0]);
+				addDragData(dataBranch, aeroData, points[i][0]);
+				addRollData(dataBranch, aeroData, points[i][0]);
+
+				Consumer<CADataBranch> listener = pointListener;
+				if (listener != null) {
+					listener.accept(dataBranch);
+				}
+			}
+		} catch (InterruptedException e) {
+			log.info("Parameter sweep interrupted after " + dataBranch.getLength() + " of " + points.length + " points");
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			if (e.getCause() instanceof Error) {
+				throw (Error) e.getCause();
+			}
+			throw new BugException("Parameter sweep failed", e.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+		log.debug("Parameter sweep of " + points.length + " points finished in " + (System.nanoTime() - t0) / 1000000 +
+				" ms using " + threads + " threads");
 
 		return dataBranch;
 	}
@@ -78,15 +243,28 @@ public class CAParameterSweep {
 		return deltaStr.length() - indexOfDecimal - 1;
 	}
 
-	private void setParameterValue(CADomainDataType parameterType, double value) {
+	private FlightConditions createFlightConditions(FlightConfiguration configuration, CADomainDataType[] sweepParameters,
+			double[] values) {
+		FlightConditions conditions = new FlightConditions(configuration);
+		conditions.setAOA(parameters.getAOA());
+		conditions.setTheta(parameters.getTheta());
+		conditions.setMach(parameters.getMach());
+		conditions.setRollRate(parameters.getRollRate());
+		for (int i = 0; i < sweepParameters.length; i++) {
+			setParameterValue(conditions, sweepParameters[i], values[i]);
+		}
+		return conditions;
+	}
+
+	private static void setParameterValue(FlightConditions conditions, CADomainDataType parameterType, double value) {
 		if (parameterType.equals(CADomainDataType.MACH)) {
-			parameters.setMach(value);
+			conditions.setMach(value);
 		} else if (parameterType.equals(CADomainDataType.AOA)) {
-			parameters.setAOA(value);
+			conditions.setAOA(value);
 		} else if (parameterType.equals(CADomainDataType.ROLL_RATE)) {
-			parameters.setRollRate(value);
+			conditions.setRollRate(value);
 		} else if (parameterType.equals(CADomainDataType.WIND_DIRECTION)) {
-			parameters.setTheta(value);
+			conditions.setTheta(value);
 		}
 		// Add more cases here as more parameter types are implemented
 		else {
@@ -94,15 +272,6 @@ public class CAParameterSweep {
 		}
 	}
 
-	private FlightConditions createFlightConditions() {
-		FlightConditions conditions = new FlightConditions(rocket.getSelectedConfiguration());
-		conditions.setAOA(parameters.getAOA());
-		conditions.setTheta(parameters.getTheta());
-		conditions.setMach(parameters.getMach());
-		conditions.setRollRate(parameters.getRollRate());
-		return conditions;
-	}
-
 	private static void addDomainData(CADataBranch dataBranch, CADomainDataType sweepParameter, Double value) {
 		dataBranch.setDomainValue(sweepParameter, value);
 	}
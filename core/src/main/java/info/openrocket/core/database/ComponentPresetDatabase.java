@@ -1,8 +1,13 @@
 package info.openrocket.core.database;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.slf4j.Logger;
@@ -11,10 +16,23 @@ import org.slf4j.LoggerFactory;
 import info.openrocket.core.preset.ComponentPreset;
 import info.openrocket.core.startup.Application;
 
+/**
+ * The database of component presets.
+ * <p>
+ * The positions of the presets of each type and part number are indexed when the presets
+ * are first listed or searched, so that the presets of a type need not be filtered from
+ * all the presets every time a preset chooser is opened.  The indexes are rebuilt after
+ * presets are added or removed.
+ */
 public class ComponentPresetDatabase extends Database<ComponentPreset> implements ComponentPresetDao {
 
 	private static final Logger logger = LoggerFactory.getLogger(ComponentPresetDatabase.class);
 
+	/** The positions in the list of the presets of each type, null if not indexed */
+	private Map<ComponentPreset.Type, int[]> typeIndex = null;
+	/** The positions in the list of the presets of each part number, null if not indexed */
+	private Map<String, int[]> partNoIndex = null;
+
 	public ComponentPresetDatabase() {
 		super();
 	}
@@ -25,24 +43,74 @@ public class ComponentPresetDatabase extends Database<ComponentPreset> implement
 	}
 
 	@Override
-	public void insert(ComponentPreset preset) {
+	public synchronized void insert(ComponentPreset preset) {
 		list.add(preset);
+		invalidateIndexes();
 	}
 
 	@Override
-	public List<ComponentPreset> listForType(ComponentPreset.Type type) {
-		if (type == null) {
-			return Collections.emptyList();
+	protected void fireAddEvent(ComponentPreset element) {
+		invalidateIndexes();
+		super.fireAddEvent(element);
+	}
+
+	@Override
+	protected void fireRemoveEvent(ComponentPreset element) {
+		invalidateIndexes();
+		super.fireRemoveEvent(element);
+	}
+
+	private synchronized void invalidateIndexes() {
+		typeIndex = null;
+		partNoIndex = null;
+	}
+
+	/**
+	 * Build the indexes, if not built already.
+	 */
+	private synchronized void buildIndexes() {
+		if (typeIndex != null) {
+			return;
+		}
+		Map<ComponentPreset.Type, List<Integer>> types = new EnumMap<>(ComponentPreset.Type.class);
+		Map<String, List<Integer>> partNos = new HashMap<>();
+		for (int i = 0; i < list.size(); i++) {
+			ComponentPreset preset = list.get(i);
+			types.computeIfAbsent(preset.get(ComponentPreset.TYPE), t -> new ArrayList<>()).add(i);
+			partNos.computeIfAbsent(preset.getPartNo(), p -> new ArrayList<>(1)).add(i);
 		}
 
-		List<ComponentPreset> result = new ArrayList<>(list.size() / 6);
+		Map<ComponentPreset.Type, int[]> typeIndex = new EnumMap<>(ComponentPreset.Type.class);
+		types.forEach((type, positions) -> typeIndex.put(type, toArray(positions)));
+		Map<String, int[]> partNoIndex = new HashMap<>();
+		partNos.forEach((partNo, positions) -> partNoIndex.put(partNo, toArray(positions)));
+		this.partNoIndex = partNoIndex;
+		this.typeIndex = typeIndex;
+	}
 
-		for (ComponentPreset preset : list) {
-			if (preset.get(ComponentPreset.TYPE).equals(type)) {
-				result.add(preset);
-			}
+	private static int[] toArray(List<Integer> list) {
+		return list.stream().mapToInt(Integer::intValue).toArray();
+	}
+
+	/**
+	 * Return the presets at the given positions of the list.
+	 */
+	private List<ComponentPreset> getPresets(int[] positions) {
+		List<ComponentPreset> result = new ArrayList<>(positions.length);
+		for (int position : positions) {
+			result.add(list.get(position));
 		}
 		return result;
+	}
+
+	@Override
+	public synchronized List<ComponentPreset> listForType(ComponentPreset.Type type) {
+		if (type == null) {
+			return Collections.emptyList();
+		}
+
+		buildIndexes();
+		return getPresets(typeIndex.getOrDefault(type, new int[0]));
 
 	}
 
@@ -61,12 +129,12 @@ public class ComponentPresetDatabase extends Database<ComponentPreset> implement
 			return listForType(type);
 		}
 
-		List<ComponentPreset> result = new ArrayList<>(list.size() / 6);
+		List<ComponentPreset> result = new ArrayList<>();
 
 		Set<String> favorites = Application.getPreferences().getComponentFavorites(type);
 
-		for (ComponentPreset preset : list) {
-			if (preset.get(ComponentPreset.TYPE).equals(type) && favorites.contains(preset.preferenceKey())) {
+		for (ComponentPreset preset : listForType(type)) {
+			if (favorites.contains(preset.preferenceKey())) {
 				result.add(preset);
 			}
 		}
@@ -74,7 +142,7 @@ public class ComponentPresetDatabase extends Database<ComponentPreset> implement
 	}
 
 	@Override
-	public List<ComponentPreset> listForTypes(ComponentPreset.Type... type) {
+	public synchronized List<ComponentPreset> listForTypes(ComponentPreset.Type... type) {
 		if (type == null || type.length == 0) {
 			return Collections.emptyList();
 		}
@@ -83,20 +151,23 @@ public class ComponentPresetDatabase extends Database<ComponentPreset> implement
 			return listForType(type[0]);
 		}
 
-		List<ComponentPreset> result = new ArrayList<>(list.size() / 6);
-
-		for (ComponentPreset preset : list) {
-			ComponentPreset.Type presetType = preset.get(ComponentPreset.TYPE);
-			typeLoop:
-			for (ComponentPreset.Type value : type) {
-				if (presetType.equals(value)) {
-					result.add(preset);
-					break typeLoop; // from inner loop.
-				}
+		// Merge the positions of the types to return the presets in the order of the list
+		buildIndexes();
+		Set<ComponentPreset.Type> types = EnumSet.noneOf(ComponentPreset.Type.class);
+		for (ComponentPreset.Type value : type) {
+			if (value != null) {
+				types.add(value);
 			}
-
 		}
-		return result;
+		int[] positions = new int[0];
+		for (ComponentPreset.Type value : types) {
+			int[] typePositions = typeIndex.getOrDefault(value, new int[0]);
+			int[] merged = Arrays.copyOf(positions, positions.length + typePositions.length);
+			System.arraycopy(typePositions, 0, merged, positions.length, typePositions.length);
+			positions = merged;
+		}
+		Arrays.sort(positions);
+		return getPresets(positions);
 	}
 
 	@Override
@@ -105,10 +176,14 @@ public class ComponentPresetDatabase extends Database<ComponentPreset> implement
 	}
 
 	@Override
-	public List<ComponentPreset> find(String manufacturer, String partNo) {
+	public synchronized List<ComponentPreset> find(String manufacturer, String partNo) {
 		List<ComponentPreset> presets = new ArrayList<>();
-		for (ComponentPreset preset : list) {
-			if (preset.getManufacturer().matches(manufacturer) && preset.getPartNo().equals(partNo)) {
+		if (partNo == null) {
+			return presets;
+		}
+		buildIndexes();
+		for (ComponentPreset preset : getPresets(partNoIndex.getOrDefault(partNo, new int[0]))) {
+			if (preset.getManufacturer().matches(manufacturer)) {
 				presets.add(preset);
 			}
 		}
@@ -1,61 +1,129 @@
 package info.openrocket.core.database;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import info.openrocket.core.arch.SystemInfo;
 import info.openrocket.core.file.iterator.DirectoryIterator;
 import info.openrocket.core.file.iterator.FileIterator;
 import info.openrocket.core.gui.util.SimpleFileFilter;
 import info.openrocket.core.preset.ComponentPreset;
+import info.openrocket.core.preset.ComponentPresetCache;
 import info.openrocket.core.preset.xml.OpenRocketComponentLoader;
 import info.openrocket.core.startup.Application;
+import info.openrocket.core.util.BugException;
+import info.openrocket.core.util.CacheFileUtils;
+import info.openrocket.core.util.BuildProperties;
 import info.openrocket.core.util.Pair;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * 
+ *
  * Loader that gets all component preset from the database in subdirectories of datafiles/components
+ * <p>
+ * The preset files are parsed in parallel, and the presets of each file are cached in the
+ * binary component preset cache.  A built-in preset file is identified by the hash of its
+ * contents, a user-defined file by its path, size and modification time, so that unchanged
+ * user-defined files need not even be read.
  *
  */
 public class ComponentPresetDatabaseLoader extends AsynchronousDatabaseLoader {
-	
+
 	private final static Logger log = LoggerFactory.getLogger(ComponentPresetDatabaseLoader.class);
-	
+
 	private static final String SYSTEM_PRESET_DIR = "datafiles/components";
+
+	private static final String PRESET_CACHE_DIRECTORY = "ComponentPresetCache";
+	private static final String PRESET_CACHE = "presets.bin";
+
+	/** The number of threads parsing preset files, leaving one processor for the UI */
+	private static final int LOADING_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+	/** The maximum number of files read but not yet merged into the database, per loading thread */
+	private static final int PENDING_FILES_PER_THREAD = 4;
+
 	private int fileCount = 0;
 	private int presetCount = 0;
 
 	/** the database is immutable*/
 	private final ComponentPresetDatabase componentPresetDao = new ComponentPresetDatabase();
-	
+	private final File cacheDirectory;
+
+	/** The cached presets of preset files, by the key of the file */
+	private Map<String, List<ComponentPreset>> cachedPresets = new HashMap<>();
+	/** The presets of the preset files loaded, by the key of the file */
+	private final Map<String, List<ComponentPreset>> loadedPresets = new LinkedHashMap<>();
+	private boolean presetsParsed = false;
+
+	/** The pool parsing the preset files, created when the first file needs to be parsed */
+	private ExecutorService executor = null;
+	/** The preset files being parsed, in the order they were found */
+	private final Deque<Future<LoadedFile>> pendingFiles = new ArrayDeque<>();
+	private int parsedFiles = 0;
+	private int cachedFiles = 0;
+
 	public ComponentPresetDatabaseLoader() {
+		this(new File(SystemInfo.getUserApplicationDirectory(), PRESET_CACHE_DIRECTORY));
+	}
+
+	/**
+	 * Constructor using the given directory for caching the parsed presets.
+	 *
+	 * @param cacheDirectory	the directory of the preset cache, or <code>null</code> to disable caching
+	 */
+	public ComponentPresetDatabaseLoader(File cacheDirectory) {
 		super(0);
+		this.cacheDirectory = cacheDirectory;
 	}
-	
+
 	/**
 	 * Returns the loaded database.  If the database has not fully loaded,
 	 * this blocks until it is.
-	 * 
+	 *
 	 * @return	the motor database
 	 */
 	public ComponentPresetDatabase getDatabase() {
 		blockUntilLoaded();
 		return componentPresetDao;
 	}
-	
+
 	@Override
 	protected void loadDatabase() {
 		long startTime = System.currentTimeMillis();
-		loadPresetComponents();
-		loadUserComponents();
+		readPresetCache();
+		try {
+			loadPresetComponents();
+			loadUserComponents();
+		} finally {
+			if (executor != null) {
+				executor.shutdownNow();
+				executor = null;
+			}
+			pendingFiles.clear();
+		}
+		writePresetCache();
 		long end = System.currentTimeMillis();
-		log.debug("Time to load presets: " + (end - startTime) + "ms " + presetCount + " loaded from " + fileCount + " files");
-		
+		log.debug("Time to load presets: " + (end - startTime) + "ms " + presetCount + " loaded from " + fileCount +
+				" files (" + parsedFiles + " parsed, " + cachedFiles + " cached) using " + LOADING_THREADS + " threads");
+
 	}
 
 	/**
@@ -70,7 +138,7 @@ public class ComponentPresetDatabaseLoader extends AsynchronousDatabaseLoader {
 			if (file.isFile()) {
 				try {
 					InputStream stream = new FileInputStream(file);
-					loadFile(file.getName(), stream);
+					loadFile(file, stream, getUserFileKey(file));
 				} catch (IOException e) {
 					log.warn("Error opening file " + file, e);
 				}
@@ -80,6 +148,7 @@ public class ComponentPresetDatabaseLoader extends AsynchronousDatabaseLoader {
 				log.warn("User-defined motor file " + file + " is neither file nor directory");
 			}
 		}
+		mergeLoadedFiles();
 		log.info("Ending reading user-defined component presets, presetCount=" + (presetCount-initialCount));
 	}
 
@@ -90,32 +159,140 @@ public class ComponentPresetDatabaseLoader extends AsynchronousDatabaseLoader {
 	private void loadPresetComponents() {
 		log.info("Loading component presets from " + SYSTEM_PRESET_DIR);
 		FileIterator iterator = DirectoryIterator.findDirectory(SYSTEM_PRESET_DIR, new SimpleFileFilter("", false, "orc"));
-		
+
 		if (iterator == null)
 			return;
 
 		while (iterator.hasNext()) {
 			Pair<File, InputStream> f = iterator.next();
-			Collection<ComponentPreset> presets = loadFile(f.getU().getName(), f.getV());
-			componentPresetDao.addAll(presets);
-			fileCount++;
-			presetCount += presets.size();
+			loadFile(f.getU(), f.getV(), null);
 		}
+		mergeLoadedFiles();
 	}
-	
+
 	/**
-	 * load components from a custom component file
-	 * uses an OpenRocketComponentLoader for the job
-	 * 
-	 * @param fileName	name of the file to be 
-	 * @param stream	the input stream to the file
-	 * @return	a collection of components preset from the file
+	 * Return the key of a user-defined preset file in the preset cache.  The file is
+	 * identified by its path, size and modification time, so it need not be read.
 	 */
-	private Collection<ComponentPreset> loadFile(String fileName, InputStream stream) {
-		log.debug("loading from file: " + fileName);
-		OpenRocketComponentLoader loader = new OpenRocketComponentLoader();
-		Collection<ComponentPreset> presets = loader.load(stream, fileName);
-		return presets;
+	private static String getUserFileKey(File file) {
+		return "file:" + file.getAbsolutePath() + ":" + file.length() + ":" + file.lastModified();
+	}
+
+	/**
+	 * Submits a preset file for parsing, unless its presets are found in the preset
+	 * cache.  The file is parsed on the loading pool, and the presets are merged into
+	 * the database in the order the files were submitted, so the resulting database
+	 * does not depend on the number of threads.
+	 *
+	 * @param file		the file (for naming and logging)
+	 * @param stream	the input stream to the file, closed by this method
+	 * @param key		the key of the file in the preset cache, or <code>null</code> to
+	 * 					identify the file by the hash of its contents
+	 */
+	private void loadFile(File file, InputStream stream, String key) {
+		fileCount++;
+		byte[] content = null;
+		try (stream) {
+			if (key == null || !cachedPresets.containsKey(key)) {
+				content = stream.readAllBytes();
+			}
+		} catch (IOException e) {
+			log.warn("Exception while loading file " + file + ": " + e, e);
+			return;
+		}
+
+		if (content == null) {
+			LoadedFile loaded = new LoadedFile(file, key);
+			loaded.presets.addAll(cachedPresets.get(key));
+			loaded.cached = true;
+			pendingFiles.add(CompletableFuture.completedFuture(loaded));
+			return;
+		}
+
+		if (executor == null) {
+			executor = Executors.newFixedThreadPool(LOADING_THREADS, r -> {
+				Thread t = new Thread(r, "PresetLoadingThread");
+				t.setDaemon(true);
+				return t;
+			});
+		}
+		// Bound the number of file contents held in memory
+		while (pendingFiles.size() >= LOADING_THREADS * PENDING_FILES_PER_THREAD) {
+			mergeLoadedFile(pendingFiles.poll());
+		}
+		byte[] fileContent = content;
+		pendingFiles.add(executor.submit(() -> parseFile(file, fileContent, key)));
+	}
+
+	/**
+	 * Parses the presets of a single preset file, using the preset cache for files
+	 * identified by the hash of their contents.  Called on the loading pool.
+	 *
+	 * @param file		the file (for naming and logging)
+	 * @param content	the contents of the file
+	 * @param key		the key of the file in the preset cache, or <code>null</code> to
+	 * 					use the hash of the contents
+	 * @return			the presets of the file
+	 */
+	private LoadedFile parseFile(File file, byte[] content, String key) {
+		long start = System.nanoTime();
+		if (key == null) {
+			key = "resource:" + file.getName() + ":" + CacheFileUtils.hash(content);
+		}
+		LoadedFile loaded = new LoadedFile(file, key);
+		List<ComponentPreset> cached = cachedPresets.get(key);
+		if (cached != null) {
+			loaded.presets.addAll(cached);
+			loaded.cached = true;
+		} else {
+			log.debug("loading from file: " + file.getName());
+			OpenRocketComponentLoader loader = new OpenRocketComponentLoader();
+			loaded.presets.addAll(loader.load(new ByteArrayInputStream(content), file.getName()));
+		}
+		loaded.nanos = System.nanoTime() - start;
+		return loaded;
+	}
+
+	/**
+	 * Merges all the files submitted so far into the database.
+	 */
+	private void mergeLoadedFiles() {
+		while (!pendingFiles.isEmpty()) {
+			mergeLoadedFile(pendingFiles.poll());
+		}
+	}
+
+	/**
+	 * Waits for a preset file to be parsed and adds its presets to the database.
+	 *
+	 * @param future	the result of parsing the file
+	 */
+	private void mergeLoadedFile(Future<LoadedFile> future) {
+		LoadedFile loaded;
+		try {
+			loaded = future.get();
+		} catch (InterruptedException e) {
+			throw new BugException("Interrupted while loading preset files", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof BugException) {
+				throw (BugException) e.getCause();
+			}
+			throw new BugException(e.getCause());
+		}
+
+		Collection<ComponentPreset> presets = loaded.presets;
+		componentPresetDao.addAll(presets);
+		presetCount += presets.size();
+		loadedPresets.put(loaded.key, loaded.presets);
+		if (loaded.cached) {
+			cachedFiles++;
+			log.debug("Using cached presets of file " + loaded.file + ", " + presets.size() + " presets");
+		} else {
+			parsedFiles++;
+			presetsParsed = true;
+			log.debug("Parsed presets from file " + loaded.file + ", " + presets.size() + " presets, " +
+					(loaded.nanos / 1000000) + " ms");
+		}
 	}
 
 	/**
@@ -134,10 +311,65 @@ public class ComponentPresetDatabaseLoader extends AsynchronousDatabaseLoader {
 		}
 		while (iterator.hasNext()) {
 			Pair<File, InputStream> f = iterator.next();
-			Collection<ComponentPreset> presets = loadFile(f.getU().getName(), f.getV());
-			componentPresetDao.addAll(presets);
-			fileCount++;
-			presetCount += presets.size();
+			loadFile(f.getU(), f.getV(), getUserFileKey(f.getU()));
+		}
+	}
+
+	/**
+	 * Return the key identifying the environment the presets are loaded in.  The names of
+	 * the preset materials are translated, and the way presets are built may change between
+	 * versions.
+	 */
+	private static String getCacheKey() {
+		return BuildProperties.getVersion() + ":" + Locale.getDefault();
+	}
+
+	/**
+	 * Reads the cached presets of the preset files.
+	 */
+	private void readPresetCache() {
+		if (cacheDirectory == null) {
+			return;
+		}
+		File cacheFile = new File(cacheDirectory, PRESET_CACHE);
+		try {
+			cachedPresets = ComponentPresetCache.readPresetFiles(cacheFile, getCacheKey());
+		} catch (IOException e) {
+			log.warn("Unable to read component preset cache " + cacheFile + ": " + e, e);
+		}
+	}
+
+	/**
+	 * Writes the presets of the preset files to the preset cache, if any file was parsed
+	 * or a cached file was no longer loaded.
+	 */
+	private void writePresetCache() {
+		if (cacheDirectory == null ||
+				(!presetsParsed && loadedPresets.size() == cachedPresets.size())) {
+			return;
+		}
+		File cacheFile = new File(cacheDirectory, PRESET_CACHE);
+		try {
+			ComponentPresetCache.writePresetFiles(cacheFile, getCacheKey(), loadedPresets);
+			log.debug("Wrote component preset cache " + cacheFile);
+		} catch (IOException e) {
+			log.warn("Unable to write component preset cache " + cacheFile + ": " + e, e);
+		}
+	}
+
+	/**
+	 * The presets of a single preset file.
+	 */
+	private static class LoadedFile {
+		private final File file;
+		private final String key;
+		private final List<ComponentPreset> presets = new ArrayList<>();
+		private boolean cached = false;
+		private long nanos;
+
+		private LoadedFile(File file, String key) {
+			this.file = file;
+			this.key = key;
 		}
 	}
 }
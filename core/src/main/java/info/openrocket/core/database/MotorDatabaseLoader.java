@@ -2,18 +2,32 @@ package info.openrocket.core.database;
 
 import java.awt.Dialog;
 import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.ObjectInputStream;
 import java.text.MessageFormat;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import info.openrocket.core.l10n.Translator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import info.openrocket.core.arch.SystemInfo;
+import info.openrocket.core.database.motor.ThrustCurveMotorCache;
+import info.openrocket.core.database.motor.ThrustCurveMotorSet;
 import info.openrocket.core.database.motor.ThrustCurveMotorSetDatabase;
 import info.openrocket.core.file.iterator.DirectoryIterator;
 import info.openrocket.core.file.iterator.FileIterator;
@@ -22,6 +36,7 @@ import info.openrocket.core.gui.util.SimpleFileFilter;
 import info.openrocket.core.motor.ThrustCurveMotor;
 import info.openrocket.core.startup.Application;
 import info.openrocket.core.util.BugException;
+import info.openrocket.core.util.CacheFileUtils;
 import info.openrocket.core.util.Pair;
 
 import javax.swing.JDialog;
@@ -42,14 +57,47 @@ public class MotorDatabaseLoader extends AsynchronousDatabaseLoader {
 	private static final String THRUSTCURVE_DIRECTORY = "datafiles/thrustcurves/";
 	private static final long STARTUP_DELAY = 0;
 	
+	private static final String MOTOR_CACHE_DIRECTORY = "MotorCache";
+	private static final String SERIALIZED_MOTOR_CACHE = "thrustcurves.bin";
+	private static final String USER_MOTOR_CACHE = "usermotors.bin";
+
+	/** The number of threads parsing user-defined motor files, leaving one processor for the UI */
+	private static final int LOADING_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+	/** The maximum number of files read but not yet merged into the database, per loading thread */
+	private static final int PENDING_FILES_PER_THREAD = 4;
+
 	private final ThrustCurveMotorSetDatabase database = new ThrustCurveMotorSetDatabase();
+	private final File cacheDirectory;
 	private int motorCount = 0;
-	
+
+	/** The cached motors of user-defined motor files, by the hash of the file contents */
+	private Map<String, List<ThrustCurveMotor>> cachedUserMotors = new HashMap<>();
+	/** The motors of the user-defined motor files loaded, by the hash of the file contents */
+	private final Map<String, List<ThrustCurveMotor>> loadedUserMotors = new LinkedHashMap<>();
+	private boolean userMotorsParsed = false;
+
+	/** The pool parsing the user-defined motor files, created when the first file is found */
+	private ExecutorService executor = null;
+	/** The user-defined motor files being parsed, in the order they were found */
+	private final Deque<Future<LoadedFile>> pendingFiles = new ArrayDeque<>();
+	private int parsedFiles = 0;
+	private int cachedFiles = 0;
+
 	/**
 	 * sole constructor, default startup delay = 0
 	 */
 	public MotorDatabaseLoader() {
+		this(new File(SystemInfo.getUserApplicationDirectory(), MOTOR_CACHE_DIRECTORY));
+	}
+
+	/**
+	 * Constructor using the given directory for caching the parsed motors.
+	 * 
+	 * @param cacheDirectory	the directory of the motor cache, or <code>null</code> to disable caching
+	 */
+	public MotorDatabaseLoader(File cacheDirectory) {
 		super(STARTUP_DELAY);
+		this.cacheDirectory = cacheDirectory;
 	}
 	
 	
@@ -68,61 +116,176 @@ public class MotorDatabaseLoader extends AsynchronousDatabaseLoader {
 		GeneralMotorLoader loader = new GeneralMotorLoader();
 		SimpleFileFilter fileFilter = new SimpleFileFilter("", loader.getSupportedExtensions());
 		log.info("Starting reading user-defined motors");
-		for (File file : (Application.getPreferences()).getUserThrustCurveFiles()) {
-			if (file.isFile()) {
-				loadFile(loader, file);
-			} else if (file.isDirectory()) {
-				loadDirectory(loader, fileFilter, file);
-			} else {
-				log.warn("User-defined motor file " + file + " is neither file nor directory");
+		long start = System.currentTimeMillis();
+		readUserMotorCache();
+		try {
+			for (File file : (Application.getPreferences()).getUserThrustCurveFiles()) {
+				if (file.isFile()) {
+					loadFile(file);
+				} else if (file.isDirectory()) {
+					loadDirectory(fileFilter, file);
+				} else {
+					log.warn("User-defined motor file " + file + " is neither file nor directory");
+				}
 			}
+			while (!pendingFiles.isEmpty()) {
+				mergeLoadedFile(pendingFiles.poll());
+			}
+		} finally {
+			if (executor != null) {
+				executor.shutdownNow();
+				executor = null;
+			}
+			pendingFiles.clear();
 		}
-		log.info("Ending reading user-defined motors, motorCount=" + motorCount);
+		writeUserMotorCache();
+		log.info("Ending reading user-defined motors, motorCount=" + motorCount + ", files=" +
+				(parsedFiles + cachedFiles) + " (" + parsedFiles + " parsed, " + cachedFiles + " cached), " +
+				(System.currentTimeMillis() - start) + " ms using " + LOADING_THREADS + " threads");
 	}
 
 
 	/**
 	 * Loads the default, with established serialized manufacturing and data
-	 * uses directory "datafiles/thrustcurves" for data  
+	 * uses directory "datafiles/thrustcurves" for data.
+	 * The motor sets are cached in the binary motor cache, which is used instead
+	 * of the serialized files as long as the files are unchanged.
 	 */
 	private void loadSerializedMotorDatabase() {
 		log.info("Starting reading serialized motor database");
+		long start = System.currentTimeMillis();
+		List<Pair<File, byte[]>> files = new ArrayList<>();
 		FileIterator iterator = DirectoryIterator.findDirectory(THRUSTCURVE_DIRECTORY, new SimpleFileFilter("", false, "ser"));
 		while (iterator.hasNext()) {
 			Pair<File, InputStream> f = iterator.next();
-			loadSerialized(f);
+			try (InputStream is = f.getV()) {
+				files.add(new Pair<>(f.getU(), is.readAllBytes()));
+			} catch (IOException e) {
+				throw new BugException(e);
+			}
+		}
+
+		List<byte[]> contents = new ArrayList<>();
+		for (Pair<File, byte[]> f : files) {
+			contents.add(f.getV());
+		}
+		String key = CacheFileUtils.checksum(contents);
+		if (!loadCachedMotorSets(key)) {
+			for (Pair<File, byte[]> f : files) {
+				loadSerialized(f);
+			}
+			writeCachedMotorSets(key);
 		}
-		log.info("Ending reading serialized motor database, motorCount=" + motorCount);
+		log.info("Ending reading serialized motor database, motorCount=" + motorCount + ", " +
+				(System.currentTimeMillis() - start) + " ms");
 	}
 	
 	
 	/**
 	 * loads a serailized motor data from an stream
 	 * 
-	 * @param f	the pair of a File (for logging) and the input stream
+	 * @param f	the pair of a File (for logging) and the contents of the file
 	 */
 	@SuppressWarnings("unchecked")
-	private void loadSerialized(Pair<File, InputStream> f) {
+	private void loadSerialized(Pair<File, byte[]> f) {
 		log.debug("Reading motors from file " + f.getU().getPath());
-		try (ObjectInputStream ois = new ObjectInputStream(f.getV())) {
+		try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(f.getV()))) {
 			List<ThrustCurveMotor> motors = (List<ThrustCurveMotor>) ois.readObject();
 			addMotors(motors);
 		} catch (Exception ex) {
 			throw new BugException(ex);
 		}
 	}
+
+	/**
+	 * Loads the motor sets from the motor cache, if the cache was created from the
+	 * same serialized files.
+	 * 
+	 * @param key	the checksum of the serialized files
+	 * @return		whether the motor sets were loaded from the cache
+	 */
+	private boolean loadCachedMotorSets(String key) {
+		if (cacheDirectory == null) {
+			return false;
+		}
+		File cacheFile = new File(cacheDirectory, SERIALIZED_MOTOR_CACHE);
+		try {
+			List<ThrustCurveMotorSet> sets = ThrustCurveMotorCache.readMotorSets(cacheFile, key);
+			if (sets == null) {
+				log.info("Motor cache " + cacheFile + " is missing or stale");
+				return false;
+			}
+			for (ThrustCurveMotorSet set : sets) {
+				motorCount += set.getMotorCount();
+				database.addMotorSet(set);
+			}
+			log.debug("Read " + sets.size() + " motor sets from cache " + cacheFile);
+			return true;
+		} catch (IOException e) {
+			log.warn("Unable to read motor cache " + cacheFile + ": " + e, e);
+			return false;
+		}
+	}
+
+	/**
+	 * Writes the motor sets loaded from the serialized files to the motor cache.
+	 * 
+	 * @param key	the checksum of the serialized files
+	 */
+	private void writeCachedMotorSets(String key) {
+		if (cacheDirectory == null) {
+			return;
+		}
+		File cacheFile = new File(cacheDirectory, SERIALIZED_MOTOR_CACHE);
+		try {
+			ThrustCurveMotorCache.writeMotorSets(cacheFile, key, database.getMotorSets());
+			log.debug("Wrote motor cache " + cacheFile);
+		} catch (IOException e) {
+			log.warn("Unable to write motor cache " + cacheFile + ": " + e, e);
+		}
+	}
+
+	/**
+	 * Reads the cached motors of the user-defined motor files.
+	 */
+	private void readUserMotorCache() {
+		if (cacheDirectory == null) {
+			return;
+		}
+		File cacheFile = new File(cacheDirectory, USER_MOTOR_CACHE);
+		try {
+			cachedUserMotors = ThrustCurveMotorCache.readMotorFiles(cacheFile);
+		} catch (IOException e) {
+			log.warn("Unable to read motor cache " + cacheFile + ": " + e, e);
+		}
+	}
+
+	/**
+	 * Writes the motors of the user-defined motor files to the motor cache, if any
+	 * file was parsed or a cached file was no longer loaded.
+	 */
+	private void writeUserMotorCache() {
+		if (cacheDirectory == null ||
+				(!userMotorsParsed && loadedUserMotors.size() == cachedUserMotors.size())) {
+			return;
+		}
+		File cacheFile = new File(cacheDirectory, USER_MOTOR_CACHE);
+		try {
+			ThrustCurveMotorCache.writeMotorFiles(cacheFile, loadedUserMotors);
+		} catch (IOException e) {
+			log.warn("Unable to write motor cache " + cacheFile + ": " + e, e);
+		}
+	}
 	
 	/**
 	 * loads a single motor file into the database using a simple file handler object
 	 * 
-	 * @param loader	the motor loading handler object
 	 * @param file		the File to the file itself
 	 */
-	private void loadFile(GeneralMotorLoader loader, File file) {
+	private void loadFile(File file) {
 		try {
 			log.debug("Loading motors from file " + file);
 			loadFile(
-					loader,
 					new Pair<>(
 							file,
 							new BufferedInputStream(new FileInputStream(file))));
@@ -132,52 +295,128 @@ public class MotorDatabaseLoader extends AsynchronousDatabaseLoader {
 	}
 	
 	/**
-	 * loads a single motor file into the database using inputStream instead of file object
+	 * Reads a single motor file and submits it for parsing.  The file is parsed on
+	 * the loading pool, and the motors are merged into the database in the order
+	 * the files were submitted, so the resulting database does not depend on the
+	 * number of threads.
 	 * 
-	 * @param loader	an object to handle the loading
 	 * @param f			the pair of File name and its input stream
 	 */
-	private void loadFile(GeneralMotorLoader loader, Pair<File, InputStream> f) {
+	private void loadFile(Pair<File, InputStream> f) {
+		byte[] content;
 		try {
-			try {
-				List<ThrustCurveMotor.Builder> motors = loader.load(f.getV(), f.getU().getName());
-				addMotorsFromBuilders(motors);
-			}
-			catch (IllegalArgumentException | IOException e) {
-				Translator trans = Application.getTranslator();
-				String fullPath = f.getU().getPath();
-				String message = "<html><body><p style='width: 400px;'><i>" + e.getMessage() +
-						"</i>.<br><br>" + MessageFormat.format( trans.get("MotorDbLoaderDlg.message1"), fullPath) +
-						"<br>" + trans.get("MotorDbLoaderDlg.message2") + "</p></body></html>";
-				SwingUtilities.invokeLater(new Runnable() {
-					@Override
-					public void run() {
-						JOptionPane pane = new JOptionPane(message, JOptionPane.WARNING_MESSAGE);
-						JDialog dialog = pane.createDialog(null, trans.get("MotorDbLoaderDlg.title"));
-						dialog.setModalityType(Dialog.ModalityType.MODELESS);
-						dialog.setAlwaysOnTop(true);
-						dialog.setVisible(true);
-					}
-				});
-			}
-			f.getV().close();
+			content = f.getV().readAllBytes();
 		} catch (Exception e) {
 			log.warn("Exception while loading file " + f.getU() + ": " + e, e);
+			return;
+		} finally {
 			try {
 				f.getV().close();
 			} catch (IOException e1) {
 			}
 		}
+
+		if (executor == null) {
+			executor = Executors.newFixedThreadPool(LOADING_THREADS, r -> {
+				Thread t = new Thread(r, "MotorLoadingThread");
+				t.setDaemon(true);
+				return t;
+			});
+		}
+		// Bound the number of file contents held in memory
+		while (pendingFiles.size() >= LOADING_THREADS * PENDING_FILES_PER_THREAD) {
+			mergeLoadedFile(pendingFiles.poll());
+		}
+		File file = f.getU();
+		pendingFiles.add(executor.submit(() -> parseFile(file, content)));
+	}
+
+	/**
+	 * Parses the motors of a single motor file.  The motors of a file whose contents
+	 * are found in the motor cache are not parsed again.  Called on the loading pool.
+	 * 
+	 * @param file		the file (for naming and logging)
+	 * @param content	the contents of the file
+	 * @return			the motors of the file, and the error if the file could not be parsed
+	 */
+	private LoadedFile parseFile(File file, byte[] content) {
+		long start = System.nanoTime();
+		LoadedFile loaded = new LoadedFile(file, CacheFileUtils.hash(content));
+		List<ThrustCurveMotor> cached = cachedUserMotors.get(loaded.hash);
+		if (cached != null) {
+			loaded.motors.addAll(cached);
+			loaded.cached = true;
+		} else {
+			try {
+				GeneralMotorLoader loader = new GeneralMotorLoader();
+				for (ThrustCurveMotor.Builder builder : loader.load(new ByteArrayInputStream(content), file.getName())) {
+					loaded.motors.add(builder.build());
+				}
+			} catch (Exception e) {
+				loaded.error = e;
+			}
+		}
+		loaded.nanos = System.nanoTime() - start;
+		return loaded;
+	}
+
+	/**
+	 * Waits for a motor file to be parsed and adds its motors to the database.
+	 * 
+	 * @param future	the result of parsing the file
+	 */
+	private void mergeLoadedFile(Future<LoadedFile> future) {
+		LoadedFile loaded;
+		try {
+			loaded = future.get();
+		} catch (InterruptedException e) {
+			throw new BugException("Interrupted while loading motor files", e);
+		} catch (ExecutionException e) {
+			throw new BugException(e.getCause());
+		}
+
+		addMotors(loaded.motors);
+		if (loaded.cached) {
+			cachedFiles++;
+			log.debug("Using cached motors of file " + loaded.file + ", " + loaded.motors.size() + " motors, " +
+					(loaded.nanos / 1000000) + " ms");
+		} else {
+			parsedFiles++;
+			userMotorsParsed |= loaded.error == null;
+			log.debug("Parsed motors from file " + loaded.file + ", " + loaded.motors.size() + " motors, " +
+					(loaded.nanos / 1000000) + " ms");
+		}
+
+		if (loaded.error == null) {
+			loadedUserMotors.put(loaded.hash, loaded.motors);
+		} else if (loaded.error instanceof IllegalArgumentException || loaded.error instanceof IOException) {
+			Translator trans = Application.getTranslator();
+			String fullPath = loaded.file.getPath();
+			String message = "<html><body><p style='width: 400px;'><i>" + loaded.error.getMessage() +
+					"</i>.<br><br>" + MessageFormat.format( trans.get("MotorDbLoaderDlg.message1"), fullPath) +
+					"<br>" + trans.get("MotorDbLoaderDlg.message2") + "</p></body></html>";
+			SwingUtilities.invokeLater(new Runnable() {
+				@Override
+				public void run() {
+					JOptionPane pane = new JOptionPane(message, JOptionPane.WARNING_MESSAGE);
+					JDialog dialog = pane.createDialog(null, trans.get("MotorDbLoaderDlg.title"));
+					dialog.setModalityType(Dialog.ModalityType.MODELESS);
+					dialog.setAlwaysOnTop(true);
+					dialog.setVisible(true);
+				}
+			});
+		} else {
+			log.warn("Exception while loading file " + loaded.file + ": " + loaded.error, loaded.error);
+		}
 	}
 	
 	/**
 	 * loads an entire directory of motor files
 	 * 
-	 * @param loader 		a motor loading handler object
 	 * @param fileFilter	the supported extensions of files
 	 * @param file			the directory file object
 	 */
-	private void loadDirectory(GeneralMotorLoader loader, SimpleFileFilter fileFilter, File file) {
+	private void loadDirectory(SimpleFileFilter fileFilter, File file) {
 		FileIterator iterator;
 		try {
 			iterator = new DirectoryIterator(file, fileFilter, true);
@@ -186,7 +425,7 @@ public class MotorDatabaseLoader extends AsynchronousDatabaseLoader {
 			return;
 		}
 		while (iterator.hasNext()) {
-			loadFile(loader, iterator.next());
+			loadFile(iterator.next());
 		}
 	}
 
@@ -204,18 +443,6 @@ public class MotorDatabaseLoader extends AsynchronousDatabaseLoader {
 		}
 	}
 	
-	/**
-	 * builds the motors while building them
-	 * 
-	 * @param motorBuilders List of motor builders to be used for adding motor into the database
-	 */
-	private synchronized void addMotorsFromBuilders(List<ThrustCurveMotor.Builder> motorBuilders) {
-		for (ThrustCurveMotor.Builder m : motorBuilders) {
-			motorCount++;
-			database.addMotor(m.build());
-		}
-	}
-	
 	/**
 	 * Returns the loaded database.  If the database has not fully loaded,
 	 * this blocks until it is.
@@ -226,4 +453,21 @@ public class MotorDatabaseLoader extends AsynchronousDatabaseLoader {
 		blockUntilLoaded();
 		return database;
 	}
+
+	/**
+	 * The motors parsed from a single user-defined motor file.
+	 */
+	private static class LoadedFile {
+		private final File file;
+		private final String hash;
+		private final List<ThrustCurveMotor> motors = new ArrayList<>();
+		private boolean cached = false;
+		private Exception error = null;
+		private long nanos;
+
+		private LoadedFile(File file, String hash) {
+			this.file = file;
+			this.hash = hash;
+		}
+	}
 }
@@ -0,0 +1,328 @@
+package info.openrocket.core.database.motor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import info.openrocket.core.motor.Manufacturer;
+import info.openrocket.core.motor.Motor;
+import info.openrocket.core.motor.ThrustCurveMotor;
+import info.openrocket.core.util.Coordinate;
+
+import static info.openrocket.core.util.CacheFileUtils.readString;
+import static info.openrocket.core.util.CacheFileUtils.writeAtomically;
+import static info.openrocket.core.util.CacheFileUtils.writeString;
+
+/**
+ * Reads and writes thrust curve motors in a compact binary cache format, which is much
+ * faster to read than Java serialization or the original motor files.
+ * <p>
+ * A cache file starts with a header containing a magic number, the format version, the
+ * kind of the content and a key identifying the source the cache was created from.  A
+ * file whose header does not match is considered stale and ignored.  Two kinds of
+ * content are supported:
+ * <ul>
+ * <li>A motor database, stored as a list of {@link ThrustCurveMotorSet}s.  The file is
+ *     memory-mapped and the motors of each set are decoded only when they are first
+ *     needed, see {@link #readMotorSets(File, String)}.  The digests of the motors are
+ *     stored with the set, so motors can be looked up by digest without decoding.</li>
+ * <li>The motors of a number of motor files, stored by the hash of the file contents,
+ *     see {@link #readMotorFiles(File)}.</li>
+ * </ul>
+ * All numbers are stored in big-endian order and strings as UTF-8 preceded by their
+ * length in bytes, or -1 for <code>null</code>.
+ */
+public final class ThrustCurveMotorCache {
+
+	/** The magic number "ORMC" starting a cache file */
+	private static final int MAGIC = 0x4F524D43;
+
+	/** The version of the format, to be increased whenever the format changes */
+	public static final int VERSION = 2;
+
+	private static final int KIND_MOTOR_SETS = 1;
+	private static final int KIND_MOTOR_FILES = 2;
+
+	/** The maximum length of the header read before mapping the file */
+	private static final int MAX_HEADER_LENGTH = 1024;
+
+	private ThrustCurveMotorCache() {
+	}
+
+	////////// Motor sets
+
+	/**
+	 * Write motor sets to a cache file.  The file is replaced atomically where possible.
+	 *
+	 * @param file      the cache file
+	 * @param sourceKey the key identifying the source of the motors
+	 * @param sets      the motor sets to write
+	 * @throws IOException if the file cannot be written
+	 */
+	public static void writeMotorSets(File file, String sourceKey, List<ThrustCurveMotorSet> sets) throws IOException {
+		writeAtomically(file, out -> {
+			writeHeader(out, KIND_MOTOR_SETS, sourceKey);
+			out.writeInt(sets.size());
+			ByteArrayOutputStream block = new ByteArrayOutputStream();
+			DataOutputStream blockOut = new DataOutputStream(block);
+			for (ThrustCurveMotorSet set : sets) {
+				writeString(out, set.getManufacturer().getDisplayName());
+				writeString(out, set.getCommonName());
+				writeString(out, set.getDesignation());
+				out.writeDouble(set.getDiameter());
+				out.writeDouble(set.getLength());
+				out.writeLong(set.getTotalImpulse());
+				writeString(out, set.getType().name());
+				writeString(out, set.getCaseInfo());
+				out.writeBoolean(set.isAvailable());
+				List<Double> delays = set.getDelays();
+				out.writeInt(delays.size());
+				for (double delay : delays) {
+					out.writeDouble(delay);
+				}
+
+				List<ThrustCurveMotor> motors = set.getMotors();
+				out.writeInt(motors.size());
+				block.reset();
+				for (ThrustCurveMotor motor : motors) {
+					writeString(out, motor.getDigest());
+					writeMotor(blockOut, motor);
+				}
+				blockOut.flush();
+				out.writeInt(block.size());
+				block.writeTo(out);
+			}
+		});
+	}
+
+	/**
+	 * Read the motor sets of a cache file.  The file is memory-mapped and the motors of each
+	 * set are decoded when they are first accessed.
+	 *
+	 * @param file      the cache file
+	 * @param sourceKey the key identifying the source of the motors
+	 * @return the motor sets, or <code>null</code> if the file does not exist or was written
+	 *         by a different version or from a different source
+	 * @throws IOException if the file cannot be read or is corrupt
+	 */
+	public static List<ThrustCurveMotorSet> readMotorSets(File file, String sourceKey) throws IOException {
+		if (!file.isFile()) {
+			return null;
+		}
+		ByteBuffer buffer;
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			// Check the header before mapping, so that a stale file is not held open by the mapping
+			ByteBuffer header = ByteBuffer.allocate((int) Math.min(MAX_HEADER_LENGTH, channel.size()));
+			channel.read(header, 0);
+			header.flip();
+			if (!readHeader(header, KIND_MOTOR_SETS, sourceKey)) {
+				return null;
+			}
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			buffer.position(header.position());
+		}
+
+		try {
+			int setCount = buffer.getInt();
+			List<ThrustCurveMotorSet> sets = new ArrayList<>(setCount);
+			Map<String, Manufacturer> manufacturers = new HashMap<>();
+			for (int i = 0; i < setCount; i++) {
+				Manufacturer manufacturer = manufacturers.computeIfAbsent(readString(buffer), Manufacturer::getManufacturer);
+				String commonName = readString(buffer);
+				String designation = readString(buffer);
+				double diameter = buffer.getDouble();
+				double length = buffer.getDouble();
+				long totalImpulse = buffer.getLong();
+				Motor.Type type = Motor.Type.valueOf(readString(buffer));
+				String caseInfo = readString(buffer);
+				boolean available = buffer.get() != 0;
+				int delayCount = buffer.getInt();
+				List<Double> delays = new ArrayList<>(delayCount);
+				for (int j = 0; j < delayCount; j++) {
+					delays.add(buffer.getDouble());
+				}
+
+				int motorCount = buffer.getInt();
+				List<String> digests = new ArrayList<>(motorCount);
+				for (int j = 0; j < motorCount; j++) {
+					digests.add(readString(buffer));
+				}
+				int blockLength = buffer.getInt();
+				ByteBuffer block = buffer.slice(buffer.position(), blockLength);
+				buffer.position(buffer.position() + blockLength);
+
+				sets.add(new ThrustCurveMotorSet(manufacturer, commonName, designation, diameter, length,
+						totalImpulse, type, caseInfo, available, delays, digests,
+						() -> readMotors(block.duplicate(), motorCount)));
+			}
+			return sets;
+		} catch (BufferUnderflowException | IllegalArgumentException e) {
+			throw new IOException("Corrupt motor cache " + file, e);
+		}
+	}
+
+	////////// Motor files
+
+	/**
+	 * Write the motors of motor files to a cache file.  The file is replaced atomically
+	 * where possible.
+	 *
+	 * @param file   the cache file
+	 * @param motors the motors of each file, by the hash of the file contents
+	 * @throws IOException if the file cannot be written
+	 */
+	public static void writeMotorFiles(File file, Map<String, List<ThrustCurveMotor>> motors) throws IOException {
+		writeAtomically(file, out -> {
+			writeHeader(out, KIND_MOTOR_FILES, "");
+			out.writeInt(motors.size());
+			for (Map.Entry<String, List<ThrustCurveMotor>> entry : motors.entrySet()) {
+				writeString(out, entry.getKey());
+				out.writeInt(entry.getValue().size());
+				for (ThrustCurveMotor motor : entry.getValue()) {
+					writeMotor(out, motor);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Read the motors of motor files from a cache file.
+	 *
+	 * @param file the cache file
+	 * @return the motors of each file, by the hash of the file contents, or an empty map
+	 *         if the file does not exist or was written by a different version
+	 * @throws IOException if the file cannot be read or is corrupt
+	 */
+	public static Map<String, List<ThrustCurveMotor>> readMotorFiles(File file) throws IOException {
+		Map<String, List<ThrustCurveMotor>> motors = new LinkedHashMap<>();
+		if (!file.isFile()) {
+			return motors;
+		}
+		ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+		try {
+			if (!readHeader(buffer, KIND_MOTOR_FILES, "")) {
+				return motors;
+			}
+			int count = buffer.getInt();
+			for (int i = 0; i < count; i++) {
+				String hash = readString(buffer);
+				motors.put(hash, readMotors(buffer, buffer.getInt()));
+			}
+			return motors;
+		} catch (BufferUnderflowException | IllegalArgumentException e) {
+			throw new IOException("Corrupt motor cache " + file, e);
+		}
+	}
+
+	////////// Motors
+
+	private static void writeMotor(DataOutputStream out, ThrustCurveMotor motor) throws IOException {
+		writeString(out, motor.getManufacturer().getDisplayName());
+		writeString(out, motor.getCode());
+		writeString(out, motor.getCommonName());
+		writeString(out, motor.getDesignation());
+		writeString(out, motor.getDescription());
+		writeString(out, motor.getDigest());
+		writeString(out, motor.getCaseInfo());
+		writeString(out, motor.getPropellantInfo());
+		writeString(out, motor.getMotorType().name());
+		out.writeBoolean(motor.isAvailable());
+		out.writeDouble(motor.getDiameter());
+		out.writeDouble(motor.getLength());
+		out.writeDouble(motor.getInitialMass());
+		double[] delays = motor.getStandardDelays();
+		out.writeInt(delays.length);
+		for (double delay : delays) {
+			out.writeDouble(delay);
+		}
+		double[] time = motor.getTimePoints();
+		double[] thrust = motor.getThrustPoints();
+		Coordinate[] cg = motor.getCGPoints();
+		out.writeInt(time.length);
+		for (int i = 0; i < time.length; i++) {
+			out.writeDouble(time[i]);
+			out.writeDouble(thrust[i]);
+			out.writeDouble(cg[i].x);
+			out.writeDouble(cg[i].y);
+			out.writeDouble(cg[i].z);
+			out.writeDouble(cg[i].weight);
+		}
+	}
+
+	/**
+	 * Decode motors from the buffer.  The motors are built anew, which validates the
+	 * data and computes the derived values of the motors.
+	 */
+	private static List<ThrustCurveMotor> readMotors(ByteBuffer buffer, int count) {
+		List<ThrustCurveMotor> motors = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			ThrustCurveMotor.Builder builder = new ThrustCurveMotor.Builder();
+			builder.setManufacturer(Manufacturer.getManufacturer(readString(buffer)))
+					.setCode(readString(buffer))
+					.setCommonName(readString(buffer))
+					.setDesignation(readString(buffer))
+					.setDescription(readString(buffer))
+					.setDigest(readString(buffer))
+					.setCaseInfo(readString(buffer))
+					.setPropellantInfo(readString(buffer))
+					.setMotorType(Motor.Type.valueOf(readString(buffer)))
+					.setAvailability(buffer.get() != 0)
+					.setDiameter(buffer.getDouble())
+					.setLength(buffer.getDouble())
+					.setInitialMass(buffer.getDouble());
+			double[] delays = new double[buffer.getInt()];
+			for (int j = 0; j < delays.length; j++) {
+				delays[j] = buffer.getDouble();
+			}
+			int points = buffer.getInt();
+			double[] time = new double[points];
+			double[] thrust = new double[points];
+			Coordinate[] cg = new Coordinate[points];
+			for (int j = 0; j < points; j++) {
+				time[j] = buffer.getDouble();
+				thrust[j] = buffer.getDouble();
+				cg[j] = new Coordinate(buffer.getDouble(), buffer.getDouble(), buffer.getDouble(), buffer.getDouble());
+			}
+			builder.setStandardDelays(delays)
+					.setTimePoints(time)
+					.setThrustPoints(thrust)
+					.setCGPoints(cg);
+			motors.add(builder.build());
+		}
+		return motors;
+	}
+
+	////////// Helper methods
+
+	private static void writeHeader(DataOutputStream out, int kind, String key) throws IOException {
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+		out.writeInt(kind);
+		writeString(out, key);
+	}
+
+	/**
+	 * Read the header from the buffer and return whether it matches the expected values.
+	 */
+	private static boolean readHeader(ByteBuffer buffer, int kind, String key) {
+		try {
+			return buffer.getInt() == MAGIC &&
+					buffer.getInt() == VERSION &&
+					buffer.getInt() == kind &&
+					key.equals(readString(buffer));
+		} catch (BufferUnderflowException | IllegalArgumentException e) {
+			return false;
+		}
+	}
+}
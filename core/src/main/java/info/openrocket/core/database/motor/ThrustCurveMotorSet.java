@@ -7,6 +7,7 @@ import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.function.Supplier;
 
 import info.openrocket.core.motor.DesignationComparator;
 import info.openrocket.core.motor.Manufacturer;
@@ -43,6 +44,64 @@ public class ThrustCurveMotorSet implements Comparable<ThrustCurveMotorSet> {
 	private String caseInfo = null;
 	private boolean available = true;
 
+	/** Decodes the motors of a set read from the motor cache, null once the motors are loaded */
+	private volatile Supplier<List<ThrustCurveMotor>> motorLoader = null;
+	private int pendingMotorCount = 0;
+	private List<String> pendingDigests = null;
+
+	public ThrustCurveMotorSet() {
+	}
+
+	/**
+	 * Create a set whose motors are decoded only when they are first needed.  The properties of
+	 * the set must be those computed when the motors were added to a set.
+	 * 
+	 * @param digests     the digests of the motors returned by the motor loader
+	 * @param motorLoader returns the motors of the set, sorted and without duplicates
+	 */
+	ThrustCurveMotorSet(Manufacturer manufacturer, String commonName, String designation, double diameter,
+			double length, long totalImpulse, Motor.Type type, String caseInfo, boolean available,
+			List<Double> delays, List<String> digests, Supplier<List<ThrustCurveMotor>> motorLoader) {
+		this.manufacturer = manufacturer;
+		this.commonName = commonName;
+		this.designation = designation;
+		this.diameter = diameter;
+		this.length = length;
+		this.totalImpulse = totalImpulse;
+		this.type = type;
+		this.caseInfo = caseInfo;
+		this.available = available;
+		this.delays.addAll(delays);
+		this.pendingMotorCount = digests.size();
+		this.pendingDigests = List.copyOf(digests);
+		this.motorLoader = motorLoader;
+	}
+
+	/**
+	 * Decode the motors of a set read from the motor cache, if not done already.
+	 */
+	private void loadMotors() {
+		if (motorLoader == null) {
+			return;
+		}
+		synchronized (this) {
+			if (motorLoader != null) {
+				for (ThrustCurveMotor motor : motorLoader.get()) {
+					motors.add(motor);
+					digestMap.put(motor, motor.getDigest());
+				}
+				motorLoader = null;
+			}
+		}
+	}
+
+	/**
+	 * Return whether the motors of this set have been decoded.
+	 */
+	boolean isLoaded() {
+		return motorLoader == null;
+	}
+
 	/**
 	 * adds a motor into the set,
 	 * uses digest and designation to determinate if a motor is present or not
@@ -51,6 +110,7 @@ public class ThrustCurveMotorSet implements Comparable<ThrustCurveMotorSet> {
 	 */
 	public void addMotor(ThrustCurveMotor motor) {
 
+		loadMotors();
 		checkFirstInsertion(motor);
 		verifyMotor(motor);
 		updateType(motor);
@@ -207,7 +267,7 @@ public class ThrustCurveMotorSet implements Comparable<ThrustCurveMotorSet> {
 	 * @return if the motor passed the test or not
 	 */
 	public boolean matches(ThrustCurveMotor m) {
-		if (motors.isEmpty())
+		if (getMotorCount() == 0)
 			return true;
 
 		if (manufacturer != m.getManufacturer())
@@ -242,6 +302,7 @@ public class ThrustCurveMotorSet implements Comparable<ThrustCurveMotorSet> {
 	 * @return list
 	 */
 	public List<ThrustCurveMotor> getMotors() {
+		loadMotors();
 		return motors.clone();
 	}
 
@@ -250,9 +311,27 @@ public class ThrustCurveMotorSet implements Comparable<ThrustCurveMotorSet> {
 	 * @return number of motor in the set
 	 */
 	public int getMotorCount() {
+		if (motorLoader != null) {
+			return pendingMotorCount;
+		}
 		return motors.size();
 	}
 
+	/**
+	 * Return the digests of the motors in this set.  The motors of a set read from the motor
+	 * cache are not decoded.
+	 */
+	List<String> getDigests() {
+		if (motorLoader != null) {
+			return pendingDigests;
+		}
+		List<String> digests = new ArrayList<>();
+		for (ThrustCurveMotor motor : getMotors()) {
+			digests.add(motor.getDigest());
+		}
+		return digests;
+	}
+
 	/**
 	 * Return the standard delays applicable to this motor type. This is a union of
 	 * all the delays of the motors included in this set.
@@ -349,7 +428,7 @@ public class ThrustCurveMotorSet implements Comparable<ThrustCurveMotorSet> {
 	@Override
 	public String toString() {
 		return "ThrustCurveMotorSet[" + manufacturer + " " + designation +
-				", type=" + type + ", count=" + motors.size() + "]";
+				", type=" + type + ", count=" + getMotorCount() + "]";
 	}
 
 	/**
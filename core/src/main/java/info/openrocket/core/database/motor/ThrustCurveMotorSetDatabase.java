@@ -1,26 +1,53 @@
 package info.openrocket.core.database.motor;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import info.openrocket.core.motor.Manufacturer;
 import info.openrocket.core.motor.Motor;
 import info.openrocket.core.motor.ThrustCurveMotor;
 
 /**
  * A database containing ThrustCurveMotorSet objects and allowing adding a motor
  * to the database.
+ * <p>
+ * The motor sets are indexed by the digests of their motors, by manufacturer and by
+ * diameter, so that looking up the motors of a document does not need to go through
+ * (and decode) all the motors of the database.
  * 
  * @author Sampo Niskanen <sampo.niskanen@iki.fi>
  */
 public class ThrustCurveMotorSetDatabase implements MotorDatabase {
 	private static final Logger log = LoggerFactory.getLogger(ThrustCurveMotorSetDatabase.class);
 
+	/** The tolerance of the diameter and length when searching for motors */
+	private static final double SIZE_TOLERANCE = 0.005;
+
+	/** Orders motor sets by diameter and total impulse */
+	private static final Comparator<ThrustCurveMotorSet> SIZE_ORDER = Comparator
+			.comparingDouble(ThrustCurveMotorSet::getDiameter)
+			.thenComparingLong(ThrustCurveMotorSet::getTotalImpulse);
+
 	private final List<ThrustCurveMotorSet> motorSets = new ArrayList<>();
 
+	/** The position of each set in motorSets, for returning results in database order */
+	private final Map<ThrustCurveMotorSet, Integer> positions = new IdentityHashMap<>();
+	private final Map<String, List<ThrustCurveMotorSet>> setsByDigest = new HashMap<>();
+	private final Map<Manufacturer, List<ThrustCurveMotorSet>> setsByManufacturer = new LinkedHashMap<>();
+	private final NavigableMap<Double, List<ThrustCurveMotorSet>> setsByDiameter = new TreeMap<>();
+
 	@Override
 	public List<ThrustCurveMotor> findMotors(String digest, Motor.Type type, String manufacturer, String designation,
 			double diameter, double length) {
@@ -32,7 +59,7 @@ public class ThrustCurveMotorSetDatabase implements MotorDatabase {
 		// We'll return
 		// the most restrictive nonempty list we find, or empty list if no matches at
 		// all
-		for (ThrustCurveMotorSet set : motorSets) {
+		for (ThrustCurveMotorSet set : getCandidates(digest, type, manufacturer, designation, diameter, length)) {
 			for (ThrustCurveMotor m : set.getMotors()) {
 				boolean matchDescription = true;
 				boolean matchDigest = true;
@@ -51,9 +78,9 @@ public class ThrustCurveMotorSetDatabase implements MotorDatabase {
 						!m.getDesignation().toUpperCase().contains(designation.toUpperCase()) &&
 						!designation.toUpperCase().contains(m.getCommonName().toUpperCase()))
 					matchDescription = false;
-				else if (!Double.isNaN(diameter) && (Math.abs(diameter - m.getDiameter()) > 0.005))
+				else if (!Double.isNaN(diameter) && (Math.abs(diameter - m.getDiameter()) > SIZE_TOLERANCE))
 					matchDescription = false;
-				else if (!Double.isNaN(length) && (Math.abs(length - m.getLength()) > 0.005))
+				else if (!Double.isNaN(length) && (Math.abs(length - m.getLength()) > SIZE_TOLERANCE))
 					matchDescription = false;
 
 				if (matchDigest)
@@ -77,6 +104,93 @@ public class ThrustCurveMotorSetDatabase implements MotorDatabase {
 
 	}
 
+	/**
+	 * Return the motor sets that may contain motors matching the search criteria of
+	 * findMotors, in database order.  The sets containing the digest are found from the
+	 * digest index.  The sets that may match the description are narrowed down by the
+	 * manufacturer or diameter index, and then by the properties of the set, which are
+	 * shared by all its motors.  This way the motors of the other sets need not be decoded.
+	 */
+	private List<ThrustCurveMotorSet> getCandidates(String digest, Motor.Type type, String manufacturer,
+			String designation, double diameter, double length) {
+		Collection<ThrustCurveMotorSet> sets;
+		if (manufacturer != null) {
+			sets = new ArrayList<>();
+			for (Map.Entry<Manufacturer, List<ThrustCurveMotorSet>> e : setsByManufacturer.entrySet()) {
+				if (e.getKey().matches(manufacturer)) {
+					sets.addAll(e.getValue());
+				}
+			}
+		} else if (!Double.isNaN(diameter)) {
+			sets = findMotorSets(diameter - 2 * SIZE_TOLERANCE, diameter + 2 * SIZE_TOLERANCE,
+					Long.MIN_VALUE, Long.MAX_VALUE);
+		} else {
+			sets = motorSets;
+		}
+
+		Map<ThrustCurveMotorSet, Boolean> candidates = new IdentityHashMap<>();
+		if (digest != null) {
+			for (ThrustCurveMotorSet set : setsByDigest.getOrDefault(digest, Collections.emptyList())) {
+				candidates.put(set, Boolean.TRUE);
+			}
+		}
+		for (ThrustCurveMotorSet set : sets) {
+			if (mayMatchDescription(set, type, designation, diameter, length)) {
+				candidates.put(set, Boolean.TRUE);
+			}
+		}
+
+		List<ThrustCurveMotorSet> list = new ArrayList<>(candidates.keySet());
+		list.sort(Comparator.comparing(positions::get));
+		return list;
+	}
+
+	/**
+	 * Return whether the motors of a set may match the description criteria of findMotors,
+	 * using the properties of the set.  The size is compared with some slack, as the motors
+	 * of a set need only have approximately the same size.
+	 */
+	private static boolean mayMatchDescription(ThrustCurveMotorSet set, Motor.Type type, String designation,
+			double diameter, double length) {
+		if (type != null && type != set.getType())
+			return false;
+		if (designation != null &&
+				!set.getDesignation().toUpperCase().contains(designation.toUpperCase()) &&
+				!designation.toUpperCase().contains(set.getCommonName().toUpperCase()))
+			return false;
+		if (!Double.isNaN(diameter) && (Math.abs(diameter - set.getDiameter()) > 2 * SIZE_TOLERANCE))
+			return false;
+		if (!Double.isNaN(length) && (Math.abs(length - set.getLength()) > 2 * SIZE_TOLERANCE))
+			return false;
+		return true;
+	}
+
+	/**
+	 * Return the motor sets whose diameter and total impulse are within the given limits,
+	 * ordered by diameter and total impulse.
+	 *
+	 * @param minDiameter		the minimum diameter (inclusive)
+	 * @param maxDiameter		the maximum diameter (inclusive)
+	 * @param minTotalImpulse	the minimum total impulse (inclusive)
+	 * @param maxTotalImpulse	the maximum total impulse (inclusive)
+	 * @return					the matching motor sets
+	 */
+	public List<ThrustCurveMotorSet> findMotorSets(double minDiameter, double maxDiameter,
+			long minTotalImpulse, long maxTotalImpulse) {
+		List<ThrustCurveMotorSet> result = new ArrayList<>();
+		if (!(minDiameter <= maxDiameter)) {
+			return result;
+		}
+		for (List<ThrustCurveMotorSet> sets : setsByDiameter.subMap(minDiameter, true, maxDiameter, true).values()) {
+			for (ThrustCurveMotorSet set : sets) {
+				if (set.getTotalImpulse() >= minTotalImpulse && set.getTotalImpulse() <= maxTotalImpulse) {
+					result.add(set);
+				}
+			}
+		}
+		return result;
+	}
+
 	/**
 	 * Return a list of all ThrustCurveMotorSets.
 	 */
@@ -93,19 +207,50 @@ public class ThrustCurveMotorSetDatabase implements MotorDatabase {
 	 * @param motor the motor to add
 	 */
 	public void addMotor(ThrustCurveMotor motor) {
-		// Iterate from last to first, as this is most likely to hit early when loading
-		// files
-		for (int i = motorSets.size() - 1; i >= 0; i--) {
-			ThrustCurveMotorSet set = motorSets.get(i);
+		// A set only matches motors of its own manufacturer.  Iterate from last to first,
+		// as this is most likely to hit early when loading files
+		List<ThrustCurveMotorSet> sets = setsByManufacturer.getOrDefault(motor.getManufacturer(),
+				Collections.emptyList());
+		for (int i = sets.size() - 1; i >= 0; i--) {
+			ThrustCurveMotorSet set = sets.get(i);
 			if (set.matches(motor)) {
 				set.addMotor(motor);
+				indexDigest(motor.getDigest(), set);
 				return;
 			}
 		}
 
 		ThrustCurveMotorSet newSet = new ThrustCurveMotorSet();
 		newSet.addMotor(motor);
-		motorSets.add(newSet);
+		addMotorSet(newSet);
+	}
+
+	/**
+	 * Add a complete motor set to the database, such as one read from the motor cache.
+	 * The set is added as such without merging it with any matching set.
+	 *
+	 * @param set the motor set to add
+	 */
+	public void addMotorSet(ThrustCurveMotorSet set) {
+		positions.put(set, motorSets.size());
+		motorSets.add(set);
+		for (String digest : set.getDigests()) {
+			indexDigest(digest, set);
+		}
+		setsByManufacturer.computeIfAbsent(set.getManufacturer(), m -> new ArrayList<>()).add(set);
+		List<ThrustCurveMotorSet> sameDiameter = setsByDiameter.computeIfAbsent(set.getDiameter(), d -> new ArrayList<>());
+		int index = Collections.binarySearch(sameDiameter, set, SIZE_ORDER);
+		sameDiameter.add(index < 0 ? -index - 1 : index, set);
+	}
+
+	private void indexDigest(String digest, ThrustCurveMotorSet set) {
+		if (digest == null) {
+			return;
+		}
+		List<ThrustCurveMotorSet> sets = setsByDigest.computeIfAbsent(digest, d -> new ArrayList<>(1));
+		if (!sets.contains(set)) {
+			sets.add(set);
+		}
 	}
 
 }
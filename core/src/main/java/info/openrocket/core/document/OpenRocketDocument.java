@@ -36,6 +36,7 @@ import info.openrocket.core.rocketcomponent.FlightConfigurationId;
 import info.openrocket.core.rocketcomponent.InsideColorComponent;
 import info.openrocket.core.rocketcomponent.Rocket;
 import info.openrocket.core.rocketcomponent.RocketComponent;
+import info.openrocket.core.rocketcomponent.RocketSnapshot;
 import info.openrocket.core.simulation.FlightDataType;
 import info.openrocket.core.simulation.customexpression.CustomExpression;
 import info.openrocket.core.simulation.extension.SimulationExtension;
@@ -90,9 +91,10 @@ public class OpenRocketDocument implements ComponentChangeListener, StateChangeL
 	
 	/** 
 	 * The undo history of the rocket.   Whenever a new undo position is created while the
-	 * rocket is in "dirty" state, the rocket is copied here.
+	 * rocket is in "dirty" state, a snapshot of the rocket is stored here.  Consecutive
+	 * snapshots share the copies of unchanged components.
 	 */
-	private final LinkedList<Rocket> undoHistory = new LinkedList<>();
+	private final LinkedList<RocketSnapshot> undoHistory = new LinkedList<>();
 	private final LinkedList<String> undoDescription = new LinkedList<>();
 	
 	/**
@@ -548,7 +550,7 @@ public class OpenRocketDocument implements ComponentChangeListener, StateChangeL
 	 */
 	private void addStateToUndoHistory(String description) {
 		// Add the current state to the undo history
-		undoHistory.add(rocket.copyWithOriginalID());
+		undoHistory.add(RocketSnapshot.of(rocket, undoHistory.peekLast()));
 		undoDescription.add(null);
 		nextDescription = description;
 		undoPosition++;
@@ -637,7 +639,7 @@ public class OpenRocketDocument implements ComponentChangeListener, StateChangeL
 		undoHistory.clear();
 		undoDescription.clear();
 		
-		undoHistory.add(rocket.copyWithOriginalID());
+		undoHistory.add(RocketSnapshot.of(rocket));
 		undoDescription.add(null);
 		undoPosition = 0;
 		
@@ -758,12 +760,12 @@ public class OpenRocketDocument implements ComponentChangeListener, StateChangeL
 				logUndoError("undo position inconsistency");
 			}
 			// Modifications have been made, save the state and restore previous state
-			undoHistory.add(rocket.copyWithOriginalID());
+			undoHistory.add(RocketSnapshot.of(rocket, undoHistory.peekLast()));
 			undoDescription.add(null);
 		}
 		
 		rocket.checkComponentStructure();
-		rocket.loadFrom(undoHistory.get(undoPosition));
+		rocket.loadFrom(undoHistory.get(undoPosition).toRocket());
 		rocket.checkComponentStructure();
 	}
 	
@@ -785,7 +787,7 @@ public class OpenRocketDocument implements ComponentChangeListener, StateChangeL
 		
 		undoPosition++;
 		
-		rocket.loadFrom(undoHistory.get(undoPosition).copyWithOriginalID());
+		rocket.loadFrom(undoHistory.get(undoPosition).toRocket());
 	}
 	
 	
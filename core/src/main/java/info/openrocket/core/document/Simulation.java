@@ -179,6 +179,13 @@ public class Simulation implements ChangeSource, Cloneable {
 		return rocket;
 	}
 
+	/**
+	 * Return the document of this simulation, or <code>null</code> if it has none.
+	 */
+	/* package-scope */ OpenRocketDocument getDocument() {
+		return document;
+	}
+
 	public FlightConfigurationId getFlightConfigurationId() {
 		return this.configId;
 	}
@@ -453,8 +460,51 @@ public class Simulation implements ChangeSource, Cloneable {
 			mutex.unlock("simulate");
 		}
 	}
-	
-	
+
+	/**
+	 * Simulate the flight, or use the result of a previous simulation of the same design and
+	 * options from the cache.  The result of a successful simulation is stored in the cache.
+	 * <p>
+	 * Only use a cache when the additional listeners do not have any state that affects the
+	 * result of the simulation, see {@link SimulationResultCache#getKey(Simulation, SimulationListener...)}.
+	 *
+	 * @param cache					the result cache, or <code>null</code> to always simulate
+	 * @param additionalListeners	additional simulation listeners (those defined by the simulation are used in any case)
+	 * @throws SimulationException	if a problem occurs during simulation
+	 */
+	public void simulate(SimulationResultCache cache, SimulationListener... additionalListeners)
+			throws SimulationException {
+		if (cache == null || this.status == Status.EXTERNAL) {
+			simulate(additionalListeners);
+			return;
+		}
+
+		final String key = SimulationResultCache.getKey(this, additionalListeners);
+		final FlightData cached = cache.get(key);
+		if (cached == null) {
+			simulate(additionalListeners);
+			if (simulatedData != null) {
+				cache.put(key, simulatedData);
+			}
+			return;
+		}
+
+		log.debug("Simulation: using cached result");
+		mutex.lock("simulate");
+		try {
+			simulatedData = cached;
+			simulatedConditions = options.clone();
+			simulatedConfigurationDescription = descriptor.format(this.rocket, getId());
+			simulatedConfigurationModID = getActiveConfiguration().getModID();
+
+			status = Status.UPTODATE;
+			fireChangeEvent();
+		} finally {
+			mutex.unlock("simulate");
+		}
+	}
+
+
 	/**
 	 * Return the conditions used in the previous simulation, or <code>null</code>
 	 * if this simulation has not been run.
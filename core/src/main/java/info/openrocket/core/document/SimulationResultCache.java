@@ -0,0 +1,254 @@
+package info.openrocket.core.document;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import info.openrocket.core.file.openrocket.OpenRocketSaver;
+import info.openrocket.core.models.wind.MultiLevelPinkNoiseWindModel;
+import info.openrocket.core.simulation.FlightData;
+import info.openrocket.core.simulation.FlightDataBranch;
+import info.openrocket.core.simulation.SimulationOptions;
+import info.openrocket.core.simulation.customexpression.CustomExpression;
+import info.openrocket.core.simulation.extension.SimulationExtension;
+import info.openrocket.core.simulation.listeners.SimulationListener;
+import info.openrocket.core.util.BugException;
+import info.openrocket.core.util.Config;
+
+/**
+ * A cache of simulation results, keyed by a hash of everything that determines the result of
+ * a simulation: the rocket design, the flight configuration, the simulation options including
+ * the random seed, the simulation extensions, the custom expressions of the document and the
+ * classes of any additional simulation listeners.
+ * <p>
+ * Simulating a design that has already been simulated, for example after undoing a change or
+ * when switching back to a previous flight configuration, can then return the stored result
+ * instead.  The least recently used results are evicted when the estimated size of the stored
+ * flight data exceeds the maximum size.
+ * <p>
+ * This class is thread-safe.
+ */
+public class SimulationResultCache {
+	private static final Logger log = LoggerFactory.getLogger(SimulationResultCache.class);
+
+	/** The default maximum size of the flight data stored in the cache, in bytes */
+	public static final long DEFAULT_MAXIMUM_SIZE = 64L * 1024 * 1024;
+
+	// Estimated size of a cached result in addition to its data points
+	private static final long ENTRY_OVERHEAD = 1024;
+
+	private static final SimulationResultCache DEFAULT = new SimulationResultCache(DEFAULT_MAXIMUM_SIZE);
+
+	private final long maximumSize;
+	private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+	private long size = 0;
+
+	/**
+	 * Return the cache shared by the application.
+	 */
+	public static SimulationResultCache getDefault() {
+		return DEFAULT;
+	}
+
+	/**
+	 * @param maximumSize	the maximum estimated size of the stored flight data, in bytes
+	 */
+	public SimulationResultCache(long maximumSize) {
+		if (maximumSize < 0) {
+			throw new IllegalArgumentException("maximumSize must not be negative: " + maximumSize);
+		}
+		this.maximumSize = maximumSize;
+	}
+
+	/**
+	 * Return the cached result of a simulation.
+	 *
+	 * @param key	the key of the simulation, see {@link #getKey(Simulation, SimulationListener...)}
+	 * @return		a copy of the cached flight data, or <code>null</code> if not cached
+	 */
+	public FlightData get(String key) {
+		final Entry entry;
+		synchronized (this) {
+			entry = entries.get(key);
+		}
+		return entry == null ? null : entry.data.clone();
+	}
+
+	/**
+	 * Store the result of a simulation.  Results larger than the maximum size of the cache are
+	 * not stored.
+	 *
+	 * @param key	the key of the simulation, see {@link #getKey(Simulation, SimulationListener...)}
+	 * @param data	the flight data of the simulation, a copy of which is stored
+	 */
+	public void put(String key, FlightData data) {
+		final long dataSize = estimateSize(data);
+		if (dataSize > maximumSize) {
+			log.debug("Not caching simulation result of " + dataSize + " bytes");
+			return;
+		}
+		final Entry entry = new Entry(data.clone(), dataSize);
+
+		synchronized (this) {
+			final Entry previous = entries.put(key, entry);
+			if (previous != null) {
+				size -= previous.size;
+			}
+			size += dataSize;
+
+			Iterator<Entry> iterator = entries.values().iterator();
+			while (size > maximumSize && iterator.hasNext()) {
+				size -= iterator.next().size;
+				iterator.remove();
+			}
+		}
+	}
+
+	/**
+	 * Remove all cached results.
+	 */
+	public synchronized void clear() {
+		entries.clear();
+		size = 0;
+	}
+
+	/**
+	 * Return the number of cached results.
+	 */
+	public synchronized int getEntryCount() {
+		return entries.size();
+	}
+
+	/**
+	 * Return the estimated size of the cached flight data, in bytes.
+	 */
+	public synchronized long getSize() {
+		return size;
+	}
+
+	/**
+	 * Compute the key of a simulation.  The key is a hash of the content of everything that
+	 * determines the result of the simulation, so equal designs and options give the same key.
+	 * <p>
+	 * Additional simulation listeners are only identified by their class, so they must not
+	 * have any state that affects the result, other than the custom expressions of the document.
+	 *
+	 * @param simulation			the simulation
+	 * @param additionalListeners	the additional listeners the simulation is run with
+	 * @return						the key of the simulation
+	 */
+	public static String getKey(Simulation simulation, SimulationListener... additionalListeners) {
+		final MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new BugException("SHA-256 not available", e);
+		}
+
+		try (DataOutputStream out = new DataOutputStream(new DigestOutputStream(OutputStream.nullOutputStream(), digest))) {
+			// The rocket design, including the flight configurations and motors
+			new OpenRocketSaver().saveRocket(out, simulation.getRocket());
+			out.writeUTF(simulation.getId().key.toString());
+
+			writeOptions(out, simulation.getOptions());
+
+			for (SimulationExtension extension : simulation.getSimulationExtensions()) {
+				out.writeUTF("extension");
+				out.writeUTF(extension.getId());
+				Config config = extension.getConfig();
+				if (config != null) {
+					List<String> keys = new ArrayList<>(config.keySet());
+					Collections.sort(keys);
+					for (String key : keys) {
+						out.writeUTF(key);
+						out.writeUTF(String.valueOf(config.get(key, null)));
+					}
+				}
+			}
+
+			OpenRocketDocument document = simulation.getDocument();
+			if (document != null) {
+				for (CustomExpression expression : document.getCustomExpressions()) {
+					out.writeUTF("expression");
+					out.writeUTF(expression.getName());
+					out.writeUTF(expression.getSymbol());
+					out.writeUTF(expression.getUnit());
+					out.writeUTF(expression.getExpressionString());
+				}
+			}
+
+			for (SimulationListener listener : additionalListeners) {
+				out.writeUTF("listener");
+				out.writeUTF(listener.getClass().getName());
+			}
+		} catch (IOException e) {
+			throw new BugException("Unable to compute simulation key", e);
+		}
+
+		return HexFormat.of().formatHex(digest.digest());
+	}
+
+	private static void writeOptions(DataOutputStream out, SimulationOptions options) throws IOException {
+		out.writeDouble(options.getLaunchRodLength());
+		out.writeDouble(options.getLaunchRodAngle());
+		out.writeDouble(options.getLaunchRodDirection());
+		out.writeBoolean(options.getLaunchIntoWind());
+		out.writeDouble(options.getLaunchAltitude());
+		out.writeDouble(options.getLaunchLatitude());
+		out.writeDouble(options.getLaunchLongitude());
+		out.writeUTF(options.getGeodeticComputation().name());
+		out.writeInt(options.getRandomSeed());
+
+		out.writeBoolean(options.isISAAtmosphere());
+		out.writeDouble(options.getLaunchTemperature());
+		out.writeDouble(options.getLaunchPressure());
+
+		out.writeUTF(options.getWindModelType().name());
+		out.writeDouble(options.getAverageWindModel().getAverage());
+		out.writeDouble(options.getAverageWindModel().getStandardDeviation());
+		out.writeDouble(options.getAverageWindModel().getDirection());
+		// Includes the seed of the wind model
+		out.writeInt(options.getAverageWindModel().hashCode());
+		for (MultiLevelPinkNoiseWindModel.LevelWindModel level : options.getMultiLevelWindModel().getLevels()) {
+			out.writeDouble(level.getAltitude());
+			out.writeDouble(level.getSpeed());
+			out.writeDouble(level.getDirection());
+			out.writeDouble(level.getStandardDeviation());
+		}
+		out.writeInt(options.getMultiLevelWindModel().hashCode());
+
+		out.writeDouble(options.getTimeStep());
+		out.writeDouble(options.getMaximumStepAngle());
+		out.writeBoolean(options.isTabulatedAerodynamics());
+		out.writeUTF(options.getStepperType().name());
+		out.writeDouble(options.getRelativeTolerance());
+		out.writeDouble(options.getAbsoluteTolerance());
+	}
+
+	/**
+	 * Estimate the memory used by the data points of flight data, in bytes.
+	 */
+	static long estimateSize(FlightData data) {
+		long dataSize = ENTRY_OVERHEAD;
+		for (int i = 0; i < data.getBranchCount(); i++) {
+			FlightDataBranch branch = data.getBranch(i);
+			dataSize += (long) branch.getTypes().length * branch.getLength() * Double.BYTES;
+		}
+		return dataSize;
+	}
+
+	private record Entry(FlightData data, long size) {
+	}
+}
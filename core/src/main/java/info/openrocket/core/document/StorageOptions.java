@@ -11,10 +11,22 @@ public class StorageOptions implements Cloneable {
 		WAVEFRONT_OBJ
 	}
 
+	/**
+	 * The format in which the simulated flight data is stored in OpenRocket files.
+	 */
+	public enum FlightDataFormat {
+		/** Data points stored as text in the XML document */
+		XML,
+		/** Data stored as a binary columnar entry of the .ork container, loaded on demand */
+		BINARY
+	}
+
 	private FileType fileType = FileType.OPENROCKET;
 
 	private boolean saveSimulationData = false;
 
+	private FlightDataFormat flightDataFormat = FlightDataFormat.XML;
+
 	private boolean explicitlySet = false;
 
 	public FileType getFileType() {
@@ -33,6 +45,14 @@ public class StorageOptions implements Cloneable {
 		saveSimulationData = s;
 	}
 
+	public FlightDataFormat getFlightDataFormat() {
+		return flightDataFormat;
+	}
+
+	public void setFlightDataFormat(FlightDataFormat flightDataFormat) {
+		this.flightDataFormat = flightDataFormat;
+	}
+
 	public boolean isExplicitlySet() {
 		return explicitlySet;
 	}
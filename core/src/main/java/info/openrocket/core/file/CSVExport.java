@@ -156,10 +156,10 @@ public class CSVExport {
 								  String fieldSeparator, int decimalPlaces, boolean isExponentialNotation,
 								  boolean eventComments, String commentStarter) {
 		// Time variable
-		List<Double> time = branch.get(FlightDataType.TYPE_TIME);
+		double[] time = branch.getArray(FlightDataType.TYPE_TIME);
 
 		// Number of data points
-		int n = time != null ? time.size() : branch.getLength();
+		int n = time != null ? time.length : branch.getLength();
 
 		// Flight events in occurrence order
 		List<FlightEvent> events = branch.getEvents();
@@ -167,10 +167,9 @@ public class CSVExport {
 		int eventPosition = 0;
 
 		// List of field values
-		List<List<Double>> fieldValues = new ArrayList<>();
-		for (FlightDataType t : fields) {
-			List<Double> values = branch.get(t);
-			fieldValues.add(values);
+		double[][] fieldValues = new double[fields.length][];
+		for (int i = 0; i < fields.length; i++) {
+			fieldValues[i] = branch.getArray(fields[i]);
 		}
 
 		// If time information is not available, print events at beginning of file
@@ -185,7 +184,7 @@ public class CSVExport {
 		for (int pos = 0; pos < n; pos++) {
 			// Check for events to store
 			if (eventComments && time != null) {
-				double t = time.get(pos);
+				double t = time[pos];
 
 				while ((eventPosition < events.size()) &&
 						(events.get(eventPosition).getTime() <= t)) {
@@ -196,7 +195,7 @@ public class CSVExport {
 
 			// Store CSV line
 			for (int i = 0; i < fields.length; i++) {
-				double value = fieldValues.get(i).get(pos);
+				double value = fieldValues[i][pos];
 				writer.print(TextUtil.doubleToString(units[i].toUnit(value), decimalPlaces, isExponentialNotation));
 
 				if (i < fields.length - 1) {
@@ -222,17 +221,13 @@ public class CSVExport {
 
 		int n = domainValues != null ? domainValues.size() : branch.getLength();
 
-		// List of field values
+		// List of field values, and the unit of each field
 		List<List<Double>> fieldValues = new ArrayList<>();
+		List<Unit> fieldUnits = new ArrayList<>();
 		for (int i = 0; i < fields.length; i++) {
-			Unit unit = units[i];
 			for (RocketComponent c : components.get(fields[i])) {
-				List<Double> values = branch.get(fields[i], c);
-
-				// Convert the values to the correct unit
-				values.replaceAll(unit::toUnit);
-
-				fieldValues.add(values);
+				fieldValues.add(branch.get(fields[i], c));
+				fieldUnits.add(units[i]);
 			}
 		}
 
@@ -246,7 +241,8 @@ public class CSVExport {
 
 			// Store CSV line
 			for (int i = 0; i < fieldValues.size(); i++) {
-				double value = fieldValues.get(i).get(pos);
+				// Convert the value to the correct unit
+				double value = fieldUnits.get(i).toUnit(fieldValues.get(i).get(pos));
 				writer.print(TextUtil.doubleToString(value, decimalPlaces, isExponentialNotation));
 
 				if (i < fieldValues.size() - 1) {
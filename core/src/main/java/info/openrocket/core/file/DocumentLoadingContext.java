@@ -1,6 +1,9 @@
 package info.openrocket.core.file;
 
+import org.xml.sax.Locator;
+
 import info.openrocket.core.document.OpenRocketDocument;
+import info.openrocket.core.file.openrocket.BinaryFlightData;
 
 public class DocumentLoadingContext {
 
@@ -8,6 +11,9 @@ public class DocumentLoadingContext {
 	private MotorFinder motorFinder;
 	private AttachmentFactory attachmentFactory = new FileSystemAttachmentFactory();
 	private OpenRocketDocument document;
+	private BinaryFlightData.Reader binaryFlightData;
+	private SpooledDocument spooledDocument;
+	private Locator documentLocator;
 
 	public int getFileVersion() {
 		return fileVersion;
@@ -33,6 +39,42 @@ public class DocumentLoadingContext {
 		this.document = document;
 	}
 
+	/**
+	 * Return the reader of the flight data stored in binary form in the zip container the
+	 * document is loaded from, or null if the document is not loaded from a container.
+	 * Flight data stored in binary form is read from the container on demand.
+	 */
+	public BinaryFlightData.Reader getBinaryFlightData() {
+		return binaryFlightData;
+	}
+
+	public void setBinaryFlightData(BinaryFlightData.Reader binaryFlightData) {
+		this.binaryFlightData = binaryFlightData;
+	}
+
+	/**
+	 * Return the copy of the document made while loading it, or null if no copy is made.
+	 * Flight data points are read from the copy on demand.
+	 */
+	public SpooledDocument getSpooledDocument() {
+		return spooledDocument;
+	}
+
+	public void setSpooledDocument(SpooledDocument spooledDocument) {
+		this.spooledDocument = spooledDocument;
+	}
+
+	/**
+	 * Return the locator of the XML document being parsed, or null if not available.
+	 */
+	public Locator getDocumentLocator() {
+		return documentLocator;
+	}
+
+	public void setDocumentLocator(Locator documentLocator) {
+		this.documentLocator = documentLocator;
+	}
+
 	public AttachmentFactory getAttachmentFactory() {
 		return attachmentFactory;
 	}
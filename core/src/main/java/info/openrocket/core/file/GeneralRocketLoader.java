@@ -13,9 +13,13 @@ import java.util.zip.GZIPInputStream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import info.openrocket.core.logging.WarningSet;
 import info.openrocket.core.document.OpenRocketDocument;
 import info.openrocket.core.document.OpenRocketDocumentFactory;
+import info.openrocket.core.file.openrocket.BinaryFlightData;
 import info.openrocket.core.file.openrocket.importt.OpenRocketLoader;
 import info.openrocket.core.file.rasaero.importt.RASAeroLoader;
 import info.openrocket.core.file.rocksim.importt.RockSimLoader;
@@ -32,6 +36,7 @@ import info.openrocket.core.util.TextUtil;
  * @author Sampo Niskanen <sampo.niskanen@iki.fi>
  */
 public class GeneralRocketLoader {
+	private static final Logger log = LoggerFactory.getLogger(GeneralRocketLoader.class);
 
 	protected final WarningSet warnings = new WarningSet();
 
@@ -54,6 +59,7 @@ public class GeneralRocketLoader {
 
 	private final MotorFinder motorFinder;
 	private AttachmentFactory attachmentFactory;
+	private URL containerURL;
 	private final OpenRocketDocument doc = OpenRocketDocumentFactory.createEmptyRocket();
 
 	public GeneralRocketLoader(File file) {
@@ -232,12 +238,15 @@ public class GeneralRocketLoader {
 
 	private void setAttachmentFactory() {
 		attachmentFactory = new FileSystemAttachmentFactory(null);
+		containerURL = null;
 		if (jarURL != null && isContainer) {
 			attachmentFactory = new ZipFileAttachmentFactory(jarURL);
+			containerURL = jarURL;
 		} else {
 			if (isContainer) {
 				try {
-					attachmentFactory = new ZipFileAttachmentFactory(baseFile.toURI().toURL());
+					containerURL = baseFile.toURI().toURL();
+					attachmentFactory = new ZipFileAttachmentFactory(containerURL);
 				} catch (MalformedURLException mex) {
 				}
 			} else if (baseFile != null) {
@@ -252,7 +261,28 @@ public class GeneralRocketLoader {
 		context.setOpenRocketDocument(doc);
 		context.setMotorFinder(motorFinder);
 		context.setAttachmentFactory(attachmentFactory);
-		loader.load(context, source, fileName);
+		if (containerURL != null) {
+			context.setBinaryFlightData(BinaryFlightData.Reader.create(containerURL));
+		}
+
+		// Copy the document while loading it, to read the flight data points from on demand
+		SpooledDocument spool = null;
+		if (loader == openRocketLoader) {
+			try {
+				spool = new SpooledDocument("<databranch");
+				source = spool.spool(source);
+				context.setSpooledDocument(spool);
+			} catch (IOException e) {
+				log.warn("Unable to copy the document, reading all flight data while loading", e);
+			}
+		}
+		try {
+			loader.load(context, source, fileName);
+		} finally {
+			if (spool != null) {
+				spool.finish();
+			}
+		}
 		warnings.addAll(loader.getWarnings());
 
 		// Check for custom materials that need to be added to the document material database
@@ -7,17 +7,24 @@ import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.Collections;
+import java.util.List;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import info.openrocket.core.appearance.Appearance;
 import info.openrocket.core.appearance.Decal;
 import info.openrocket.core.appearance.DecalImage;
 import info.openrocket.core.document.OpenRocketDocument;
+import info.openrocket.core.document.Simulation;
 import info.openrocket.core.document.StorageOptions;
 import info.openrocket.core.document.StorageOptions.FileType;
+import info.openrocket.core.file.openrocket.BinaryFlightData;
 import info.openrocket.core.file.openrocket.OpenRocketSaver;
 import info.openrocket.core.file.rasaero.export.RASAeroSaver;
 import info.openrocket.core.file.rocksim.export.RockSimSaver;
@@ -25,10 +32,13 @@ import info.openrocket.core.logging.ErrorSet;
 import info.openrocket.core.logging.WarningSet;
 import info.openrocket.core.rocketcomponent.InsideColorComponent;
 import info.openrocket.core.rocketcomponent.RocketComponent;
+import info.openrocket.core.simulation.FlightData;
+import info.openrocket.core.simulation.exception.FlightDataUnavailableException;
 import info.openrocket.core.util.DecalNotFoundException;
 import info.openrocket.core.util.MathUtil;
 
 public class GeneralRocketSaver {
+	private static final Logger log = LoggerFactory.getLogger(GeneralRocketSaver.class);
 	protected final WarningSet warnings = new WarningSet();
 	protected final ErrorSet errors = new ErrorSet();
 
@@ -130,6 +140,11 @@ public class GeneralRocketSaver {
 		// Move the temporary new file over the specified file.
 
 		boolean destExists = dest.exists();
+
+		// Binary flight data that has not been loaded yet may be read from the file being replaced
+		if (destExists) {
+			loadSimulationData(doc);
+		}
 		File oldBackupFile = new File(dest.getParentFile(), dest.getName() + "-bak");
 
 		if (destExists) {
@@ -147,6 +162,27 @@ public class GeneralRocketSaver {
 		}
 	}
 
+	/**
+	 * Load all flight data of the document that is loaded from its file on first access.
+	 * Data that can no longer be read is left unloaded, replacing the file cannot make it
+	 * any less available, and accessing it still reports the error.
+	 */
+	private static void loadSimulationData(OpenRocketDocument doc) {
+		for (Simulation simulation : doc.getSimulations()) {
+			FlightData data = simulation.getSimulatedData();
+			if (data == null) {
+				continue;
+			}
+			for (int i = 0; i < data.getBranchCount(); i++) {
+				try {
+					data.getBranch(i).load();
+				} catch (FlightDataUnavailableException e) {
+					log.warn("Unable to load flight data of simulation " + simulation.getName(), e);
+				}
+			}
+		}
+	}
+
 	/**
 	 * Provide an estimate of the file size when saving the document with the
 	 * specified options. This is used as an indication to the user and when
@@ -217,9 +253,14 @@ public class GeneralRocketSaver {
 
 			ZipEntry mainFile = new ZipEntry("rocket.ork");
 			zos.putNextEntry(mainFile);
-			saveInternal(zos, document, options);
+			List<double[][]> flightData = saveInternal(zos, document, options);
 			zos.closeEntry();
 
+			// Flight data stored in binary form
+			if (!flightData.isEmpty()) {
+				BinaryFlightData.writeEntry(zos, flightData);
+			}
+
 			// Now we write out all the decal images files.
 			for (DecalImage image : decals) {
 				if (image.isIgnored()) {
@@ -247,7 +288,13 @@ public class GeneralRocketSaver {
 
 	// package scope for testing.
 
-	private void saveInternal(OutputStream output, OpenRocketDocument document, StorageOptions options)
+	/**
+	 * Save the document in the selected file format.
+	 * 
+	 * @return	the flight data branches to store in binary form in the container, or an empty
+	 * 			list if there are none.
+	 */
+	private List<double[][]> saveInternal(OutputStream output, OpenRocketDocument document, StorageOptions options)
 			throws IOException {
 		warnings.clear();
 		errors.clear();
@@ -257,8 +304,9 @@ public class GeneralRocketSaver {
 		} else if (options.getFileType() == FileType.RASAERO) {
 			new RASAeroSaver().save(output, document, options, warnings, errors);
 		} else {
-			new OpenRocketSaver().save(output, document, options, warnings, errors);
+			return new OpenRocketSaver().saveContainerEntry(output, document, options, warnings, errors);
 		}
+		return Collections.emptyList();
 	}
 
 	/**
@@ -0,0 +1,278 @@
+package info.openrocket.core.file;
+
+import java.io.BufferedOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.ref.Cleaner;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import info.openrocket.core.util.TextUtil;
+
+/**
+ * A copy of a document being loaded, from which parts of the document can be read again
+ * after loading.
+ * <p>
+ * The bytes of the document are copied to a temporary file as the parser reads them, after
+ * any decompression of the file the document is loaded from.  While copying, the byte
+ * offset, line and column of every occurrence of a start tag are recorded, so that the
+ * element starting at a position reported by the parser can later be read with a single
+ * seek.  As the copy belongs to the loaded document, it is not affected by changes to the
+ * file the document was loaded from.
+ * <p>
+ * The temporary file is deleted once the loading has finished if no element was looked up,
+ * and otherwise once this object is no longer referenced or at exit.
+ */
+public final class SpooledDocument {
+	private static final Logger log = LoggerFactory.getLogger(SpooledDocument.class);
+
+	private static final Cleaner CLEANER = Cleaner.create();
+
+	private final Path file;
+	private final byte[] tag;
+	private final Cleaner.Cleanable cleanable;
+	private OutputStream out;
+	private volatile boolean used = false;
+
+	// Occurrences of the start tag, in document order
+	private int count = 0;
+	private long[] offsets = new long[16];
+	private int[] lines = new int[16];
+	private int[] columns = new int[16];
+
+	/**
+	 * Create a spool for a document.
+	 *
+	 * @param tag	the start of the start tags whose positions are recorded, e.g. <code>"&lt;element"</code>
+	 * @throws IOException	if the temporary file cannot be created.
+	 */
+	public SpooledDocument(String tag) throws IOException {
+		this.file = Files.createTempFile("ORDocument", ".tmp");
+		this.tag = TextUtil.asciiBytes(tag);
+		this.cleanable = CLEANER.register(this, new Deleter(file));
+		file.toFile().deleteOnExit();
+		this.out = new BufferedOutputStream(Files.newOutputStream(file));
+	}
+
+	/**
+	 * Return a stream reading the document from <code>source</code>, copying it to the spool.
+	 *
+	 * @param source	the stream of the document.
+	 * @return			a stream to read the document from.
+	 */
+	public InputStream spool(InputStream source) {
+		return new SpoolingInputStream(source);
+	}
+
+	/**
+	 * Finish copying the document once it has been loaded.  If no element has been looked
+	 * up, the copy is deleted.
+	 */
+	public void finish() {
+		try {
+			if (out != null) {
+				out.close();
+				out = null;
+			}
+		} catch (IOException e) {
+			log.warn("Unable to write document copy " + file, e);
+			used = false;
+		}
+		if (!used) {
+			cleanable.clean();
+		}
+		// The positions are only needed while the document is being loaded
+		count = 0;
+		offsets = null;
+		lines = null;
+		columns = null;
+	}
+
+	/**
+	 * Return the offset of the start tag preceding a position of the document.  This should
+	 * be called while the document is being loaded, with the position the parser reports
+	 * for the start tag.
+	 *
+	 * @param line		the line of the position, starting from 1.
+	 * @param column	the column of the position, starting from 1.
+	 * @return			the byte offset of the start tag, or -1 if no start tag precedes the position.
+	 */
+	public long findTag(int line, int column) {
+		// The parser reads ahead, so start from the last occurrence copied
+		for (int i = count - 1; i >= 0; i--) {
+			if (lines[i] < line || (lines[i] == line && columns[i] < column)) {
+				used = true;
+				return offsets[i];
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Open a stream of the copy of the document, starting at the given offset.
+	 *
+	 * @param offset	the byte offset to start reading from.
+	 * @return			a new stream, to be closed by the caller.
+	 * @throws IOException	if the copy cannot be read.
+	 */
+	public InputStream open(long offset) throws IOException {
+		FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+		try {
+			channel.position(offset);
+			return Channels.newInputStream(channel);
+		} catch (IOException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	private void addOccurrence(long offset, int line, int column) {
+		if (count == offsets.length) {
+			offsets = Arrays.copyOf(offsets, count * 2);
+			lines = Arrays.copyOf(lines, count * 2);
+			columns = Arrays.copyOf(columns, count * 2);
+		}
+		offsets[count] = offset;
+		lines[count] = line;
+		columns[count] = column;
+		count++;
+	}
+
+
+	/**
+	 * Copies the bytes read to the spool and records the positions of the start tag.
+	 * Lines and columns are counted in the same way as by the XML parser: lines end at
+	 * CR, LF or CR LF, and columns count UTF-16 characters.
+	 */
+	private class SpoolingInputStream extends FilterInputStream {
+		private long offset = 0;
+		private int line = 1;
+		private int column = 1;
+		private boolean afterCR = false;
+
+		// Number of bytes of the tag matched, and the position of its first byte
+		private int match = 0;
+		private long matchOffset;
+		private int matchLine;
+		private int matchColumn;
+
+		private SpoolingInputStream(InputStream in) {
+			super(in);
+		}
+
+		@Override
+		public int read() throws IOException {
+			int b = in.read();
+			if (b >= 0) {
+				process((byte) b);
+				out.write(b);
+			}
+			return b;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			int n = in.read(b, off, len);
+			if (n > 0) {
+				for (int i = off; i < off + n; i++) {
+					process(b[i]);
+				}
+				out.write(b, off, n);
+			}
+			return n;
+		}
+
+		@Override
+		public long skip(long n) throws IOException {
+			// Skipped bytes must be copied as well
+			byte[] buffer = new byte[(int) Math.min(n, 8192)];
+			long skipped = 0;
+			while (skipped < n) {
+				int r = read(buffer, 0, (int) Math.min(buffer.length, n - skipped));
+				if (r < 0) {
+					break;
+				}
+				skipped += r;
+			}
+			return skipped;
+		}
+
+		@Override
+		public boolean markSupported() {
+			return false;
+		}
+
+		@Override
+		public synchronized void mark(int readlimit) {
+		}
+
+		@Override
+		public synchronized void reset() throws IOException {
+			throw new IOException("mark/reset not supported");
+		}
+
+		private void process(byte b) {
+			// Match the tag, followed by whitespace, '>' or '/'
+			if (match == tag.length) {
+				if (b == ' ' || b == '\t' || b == '\n' || b == '\r' || b == '>' || b == '/') {
+					addOccurrence(matchOffset, matchLine, matchColumn);
+				}
+				match = 0;
+			}
+			if (b == tag[match]) {
+				if (match == 0) {
+					matchOffset = offset;
+					matchLine = line;
+					matchColumn = column;
+				}
+				match++;
+			} else if (b == tag[0]) {
+				matchOffset = offset;
+				matchLine = line;
+				matchColumn = column;
+				match = 1;
+			} else {
+				match = 0;
+			}
+
+			// Count the position of the next byte
+			offset++;
+			if (b == '\n') {
+				if (!afterCR) {
+					line++;
+					column = 1;
+				}
+			} else if (b == '\r') {
+				line++;
+				column = 1;
+			} else if ((b & 0xC0) != 0x80) {
+				// Not a continuation byte, characters of four bytes are surrogate pairs
+				column += (b & 0xF8) == 0xF0 ? 2 : 1;
+			}
+			afterCR = b == '\r';
+		}
+	}
+
+	/**
+	 * Deletes the copy, must not refer to the spool.
+	 */
+	private record Deleter(Path file) implements Runnable {
+		@Override
+		public void run() {
+			try {
+				Files.deleteIfExists(file);
+			} catch (IOException e) {
+				log.warn("Unable to delete document copy " + file, e);
+			}
+		}
+	}
+}
@@ -0,0 +1,323 @@
+package info.openrocket.core.file.openrocket;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Storage of simulated flight data as a binary entry of an .ork container, used instead of
+ * storing the data points as XML when {@link info.openrocket.core.document.StorageOptions.FlightDataFormat#BINARY}
+ * is selected.
+ * <p>
+ * The entry is stored uncompressed so that the values of a single branch can be read
+ * without reading or decompressing the rest of the data.  All values are little-endian.  The entry consists of:
+ * <ul>
+ * <li>a header: magic number (int), format version (int) and number of branches (int)</li>
+ * <li>an index with for each branch: offset of the branch data from the start of the
+ *     entry (long), number of data points (int) and number of columns (int)</li>
+ * <li>the data of each branch, column by column, each column being the values of a
+ *     single data type as doubles</li>
+ * </ul>
+ * The data types of the columns and the index of the branch are stored in the
+ * <code>&lt;databranch&gt;</code> element of the XML document.
+ */
+public final class BinaryFlightData {
+
+	/** Name of the zip entry containing the flight data */
+	public static final String ENTRY_NAME = "flightdata.bin";
+
+	private static final int MAGIC = 0x4F524644; // "ORFD"
+	private static final int VERSION = 1;
+	private static final int HEADER_LENGTH = 12;
+	private static final int INDEX_ENTRY_LENGTH = 16;
+	private static final int BUFFER_SIZE = 8192;
+
+	private BinaryFlightData() {
+	}
+
+	/**
+	 * Return the length of the entry storing the given branches.
+	 *
+	 * @param branches	the columns of each branch
+	 * @return			the length of the entry in bytes
+	 */
+	public static long getLength(List<double[][]> branches) {
+		long length = HEADER_LENGTH + (long) INDEX_ENTRY_LENGTH * branches.size();
+		for (double[][] columns : branches) {
+			length += (long) Double.BYTES * columns.length * getPointCount(columns);
+		}
+		return length;
+	}
+
+	/**
+	 * Store the branches as an uncompressed entry of a zip file.
+	 *
+	 * @param zos		the zip file to write to
+	 * @param branches	the columns of each branch, all columns of a branch having the same length
+	 * @throws IOException	if an I/O error occurs
+	 */
+	public static void writeEntry(ZipOutputStream zos, List<double[][]> branches) throws IOException {
+		// Stored entries require the size and checksum before the data is written
+		CRC32 crc = new CRC32();
+		write(new OutputStream() {
+			@Override
+			public void write(int b) {
+				crc.update(b);
+			}
+
+			@Override
+			public void write(byte[] b, int off, int len) {
+				crc.update(b, off, len);
+			}
+		}, branches);
+
+		long length = getLength(branches);
+		ZipEntry entry = new ZipEntry(ENTRY_NAME);
+		entry.setMethod(ZipEntry.STORED);
+		entry.setSize(length);
+		entry.setCompressedSize(length);
+		entry.setCrc(crc.getValue());
+		zos.putNextEntry(entry);
+		write(zos, branches);
+		zos.closeEntry();
+	}
+
+	/**
+	 * Write the branches in the binary format.
+	 *
+	 * @param out		the stream to write to
+	 * @param branches	the columns of each branch, all columns of a branch having the same length
+	 * @throws IOException	if an I/O error occurs
+	 */
+	public static void write(OutputStream out, List<double[][]> branches) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		buffer.putInt(MAGIC);
+		buffer.putInt(VERSION);
+		buffer.putInt(branches.size());
+
+		long offset = HEADER_LENGTH + (long) INDEX_ENTRY_LENGTH * branches.size();
+		for (double[][] columns : branches) {
+			if (buffer.remaining() < INDEX_ENTRY_LENGTH) {
+				flush(out, buffer);
+			}
+			int pointCount = getPointCount(columns);
+			buffer.putLong(offset);
+			buffer.putInt(pointCount);
+			buffer.putInt(columns.length);
+			offset += (long) Double.BYTES * columns.length * pointCount;
+		}
+
+		for (double[][] columns : branches) {
+			for (double[] column : columns) {
+				for (double value : column) {
+					if (buffer.remaining() < Double.BYTES) {
+						flush(out, buffer);
+					}
+					buffer.putDouble(value);
+				}
+			}
+		}
+		flush(out, buffer);
+	}
+
+	/**
+	 * Reader of the flight data entry of an .ork container, shared by the branches of a
+	 * loaded document.  The header and index are read once, and each branch is read with a
+	 * single access to the container.
+	 * <p>
+	 * A local container file is read in place.  Its size and modification time are recorded
+	 * when the reader is created, and the data is not read if the file has changed since, as
+	 * it may then belong to another document.  The entry of any other container is copied to
+	 * a temporary file on first access.
+	 */
+	public static final class Reader {
+		private final File file;
+		private final long fileSize;
+		private final long fileModified;
+		private final URL url;
+		private Path copy = null;
+
+		// The index, read on first access
+		private long[] offsets = null;
+		private int[] pointCounts;
+		private int[] columnCounts;
+
+		private Reader(File file, URL url) {
+			this.file = file;
+			this.fileSize = file != null ? file.length() : 0;
+			this.fileModified = file != null ? file.lastModified() : 0;
+			this.url = url;
+		}
+
+		/**
+		 * Create a reader of a container, recording the size and modification time of the
+		 * container if it is a local file.
+		 *
+		 * @param container		the location of the .ork container
+		 * @return				a reader of the flight data entry of the container
+		 */
+		public static Reader create(URL container) {
+			if ("file".equals(container.getProtocol())) {
+				try {
+					return new Reader(new File(container.toURI()), null);
+				} catch (URISyntaxException | IllegalArgumentException e) {
+					// Read as any other URL
+				}
+			}
+			return new Reader(null, container);
+		}
+
+		/**
+		 * Read the columns of a branch.
+		 *
+		 * @param branch		the index of the branch
+		 * @param columnCount	the expected number of columns
+		 * @param pointCount	the expected number of values of each column
+		 * @return				the values of each column of the branch
+		 * @throws IOException	if the entry cannot be read, is corrupt, has changed since the
+		 * 						reader was created or does not contain the expected branch
+		 */
+		public synchronized double[][] readBranch(int branch, int columnCount, int pointCount) throws IOException {
+			try (InputStream is = openEntry()) {
+				DataInputStream in = new DataInputStream(is);
+				long position = 0;
+				if (offsets == null) {
+					readIndex(in);
+					position = HEADER_LENGTH + (long) INDEX_ENTRY_LENGTH * offsets.length;
+				}
+				if (branch < 0 || branch >= offsets.length) {
+					throw new IOException("Flight data branch " + branch + " not found, entry contains "
+							+ offsets.length + " branches");
+				}
+				if (pointCounts[branch] != pointCount || columnCounts[branch] != columnCount) {
+					throw new IOException("Flight data branch " + branch + " contains " + columnCounts[branch]
+							+ " columns of " + pointCounts[branch] + " values, expected " + columnCount
+							+ " columns of " + pointCount + " values");
+				}
+				in.skipNBytes(offsets[branch] - position);
+
+				double[][] columns = new double[columnCount][];
+				for (int i = 0; i < columnCount; i++) {
+					columns[i] = new double[pointCount];
+					read(in, Double.BYTES * pointCount).asDoubleBuffer().get(columns[i]);
+				}
+				return columns;
+			}
+		}
+
+		/**
+		 * Open a stream of the entry, positioned at its start.
+		 */
+		private InputStream openEntry() throws IOException {
+			if (file != null) {
+				if (file.length() != fileSize || file.lastModified() != fileModified) {
+					throw new IOException("The file " + file + " has been changed or removed since it was opened");
+				}
+				ZipFile zip = new ZipFile(file);
+				try {
+					ZipEntry entry = zip.getEntry(ENTRY_NAME);
+					if (entry == null) {
+						throw new IOException("Flight data entry " + ENTRY_NAME + " not found in " + file);
+					}
+					// Skipping within a stored entry does not read the skipped bytes
+					return new FilterInputStream(zip.getInputStream(entry)) {
+						@Override
+						public void close() throws IOException {
+							try {
+								super.close();
+							} finally {
+								zip.close();
+							}
+						}
+					};
+				} catch (IOException | RuntimeException e) {
+					zip.close();
+					throw e;
+				}
+			}
+
+			if (copy == null) {
+				Path tmp = Files.createTempFile("ORFlightData", ".tmp");
+				tmp.toFile().deleteOnExit();
+				try (ZipInputStream zis = new ZipInputStream(url.openStream())) {
+					ZipEntry entry;
+					while ((entry = zis.getNextEntry()) != null && !entry.getName().equals(ENTRY_NAME)) {
+						// Skip to the entry
+					}
+					if (entry == null) {
+						throw new IOException("Flight data entry " + ENTRY_NAME + " not found in " + url);
+					}
+					Files.copy(zis, tmp, StandardCopyOption.REPLACE_EXISTING);
+				} catch (IOException e) {
+					Files.deleteIfExists(tmp);
+					throw e;
+				}
+				copy = tmp;
+			}
+			return Files.newInputStream(copy);
+		}
+
+		private void readIndex(DataInputStream in) throws IOException {
+			ByteBuffer header = read(in, HEADER_LENGTH);
+			if (header.getInt() != MAGIC) {
+				throw new IOException("Flight data entry " + ENTRY_NAME + " is corrupt");
+			}
+			int version = header.getInt();
+			if (version != VERSION) {
+				throw new IOException("Unsupported flight data version " + version);
+			}
+			int branchCount = header.getInt();
+			if (branchCount < 0) {
+				throw new IOException("Flight data entry " + ENTRY_NAME + " is corrupt");
+			}
+
+			ByteBuffer index = read(in, INDEX_ENTRY_LENGTH * branchCount);
+			long[] offsets = new long[branchCount];
+			int[] pointCounts = new int[branchCount];
+			int[] columnCounts = new int[branchCount];
+			long position = HEADER_LENGTH + (long) INDEX_ENTRY_LENGTH * branchCount;
+			for (int i = 0; i < branchCount; i++) {
+				offsets[i] = index.getLong();
+				pointCounts[i] = index.getInt();
+				columnCounts[i] = index.getInt();
+				if (offsets[i] < position || pointCounts[i] < 0 || columnCounts[i] < 0) {
+					throw new IOException("Flight data entry " + ENTRY_NAME + " is corrupt");
+				}
+			}
+			this.pointCounts = pointCounts;
+			this.columnCounts = columnCounts;
+			this.offsets = offsets;
+		}
+	}
+
+	private static ByteBuffer read(DataInputStream in, int length) throws IOException {
+		byte[] bytes = new byte[length];
+		in.readFully(bytes);
+		return ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	private static void flush(OutputStream out, ByteBuffer buffer) throws IOException {
+		out.write(buffer.array(), 0, buffer.position());
+		buffer.clear();
+	}
+
+	private static int getPointCount(double[][] columns) {
+		return columns.length == 0 ? 0 : columns[0].length;
+	}
+}
@@ -33,6 +33,7 @@ import info.openrocket.core.simulation.FlightDataBranch;
 import info.openrocket.core.simulation.FlightDataType;
 import info.openrocket.core.simulation.FlightEvent;
 import info.openrocket.core.simulation.SimulationOptions;
+import info.openrocket.core.simulation.SimulationStepperType;
 import info.openrocket.core.simulation.customexpression.CustomExpression;
 import info.openrocket.core.simulation.extension.SimulationExtension;
 import info.openrocket.core.util.BugException;
@@ -68,9 +69,52 @@ public class OpenRocketSaver extends RocketSaver {
 	
 	private int indent;
 	private Writer dest;
+	/** The data of the branches stored in binary form, or null if all data is stored as XML */
+	private List<double[][]> binaryFlightData;
 	
+	/**
+	 * Save the document as XML.  The flight data is always stored as XML data points,
+	 * regardless of the flight data format of the storage options.
+	 */
 	@Override
 	public void save(OutputStream output, OpenRocketDocument document, StorageOptions options, WarningSet warnings, ErrorSet errors) throws IOException {
+		binaryFlightData = null;
+		saveDocument(output, document, options);
+	}
+	
+	/**
+	 * Save the document as the XML entry of an .ork container.  If the storage options select
+	 * the binary flight data format, the data of the flight data branches is not written to
+	 * the XML, but returned so that it can be stored as the {@link BinaryFlightData#ENTRY_NAME}
+	 * entry of the same container.
+	 * 
+	 * @return	the columns of the flight data branches to store in binary form, empty if
+	 * 			all data was stored as XML.
+	 */
+	public List<double[][]> saveContainerEntry(OutputStream output, OpenRocketDocument document, StorageOptions options,
+			WarningSet warnings, ErrorSet errors) throws IOException {
+		binaryFlightData = options.getFlightDataFormat() == StorageOptions.FlightDataFormat.BINARY ? new ArrayList<>() : null;
+		try {
+			saveDocument(output, document, options);
+			return binaryFlightData != null ? binaryFlightData : new ArrayList<>();
+		} finally {
+			binaryFlightData = null;
+		}
+	}
+	
+	/**
+	 * Save only the component tree of a rocket as XML, in the same form as in a saved document.
+	 * The output identifies the design of the rocket, including its flight configurations and
+	 * motors, and is used e.g. as the key of cached simulation results.
+	 */
+	public void saveRocket(OutputStream output, Rocket rocket) throws IOException {
+		dest = new BufferedWriter(new OutputStreamWriter(output, OPENROCKET_CHARSET));
+		this.indent = 0;
+		saveComponent(rocket);
+		dest.flush();
+	}
+	
+	private void saveDocument(OutputStream output, OpenRocketDocument document, StorageOptions options) throws IOException {
 		
 		log.info("Saving .ork file");
 		
@@ -184,14 +228,21 @@ public class OpenRocketSaver extends RocketSaver {
 		size += doc.getSimulationCount() * BYTES_PER_SIMULATION_COMPRESSED;
 		
 		
-		// Size per flight data point
-		int pointCount = 0;
+		// Size per flight data point, binary data is stored uncompressed
+		boolean binary = options.getFlightDataFormat() == StorageOptions.FlightDataFormat.BINARY;
+		long pointCount = 0;
 		if (options.getSaveSimulationData()) {
 			for (Simulation s : doc.getSimulations()) {
 				FlightData data = s.getSimulatedData();
 				if (data != null) {
 					for (int i = 0; i < data.getBranchCount(); i++) {
-						pointCount += countFlightDataBranchPoints(data.getBranch(i));
+						FlightDataBranch branch = data.getBranch(i);
+						int points = countFlightDataBranchPoints(branch);
+						if (binary && points > 0) {
+							size += (long) points * branch.getTypes().length * Double.BYTES;
+						} else {
+							pointCount += points;
+						}
 					}
 				}
 			}
@@ -227,6 +278,15 @@ public class OpenRocketSaver extends RocketSaver {
 		/*
 		 * NOTE:  Remember to update the supported versions in DocumentConfig as well!
 		 */
+		
+		/*
+		 * File version 1.11 is required for flight data stored in binary form.
+		 */
+		if (binaryFlightData != null && (opts.getSaveSimulationData() || document.getSimulations().stream()
+				.anyMatch(s -> s.getStatus() == Simulation.Status.EXTERNAL))) {
+			return FILE_VERSION_DIVISOR + 11;
+		}
+		
 		return FILE_VERSION_DIVISOR + 10;
 		
 	}
@@ -382,6 +442,11 @@ public class OpenRocketSaver extends RocketSaver {
 		}
 		
 		writeElement("timestep", cond.getTimeStep());
+		if (cond.getStepperType() != SimulationStepperType.RK4) {
+			writeElement("stepper", cond.getStepperType().toStringValue());
+			writeElement("relativetolerance", cond.getRelativeTolerance());
+			writeElement("absolutetolerance", cond.getAbsoluteTolerance());
+		}
 		
 		indent--;
 		writeln("</conditions>");
@@ -577,9 +642,9 @@ public class OpenRocketSaver extends RocketSaver {
 			return;
 		
 		// Retrieve the data from the branch
-		List<List<Double>> data = new ArrayList<>(types.length);
-		for (FlightDataType type : types) {
-			data.add(branch.get(type));
+		double[][] data = new double[types.length][];
+		for (int i = 0; i < types.length; i++) {
+			data[i] = branch.getArray(types[i]);
 		}
 		
 		// Build the <databranch> tag
@@ -616,7 +681,18 @@ public class OpenRocketSaver extends RocketSaver {
 				sb.append(",");
 			sb.append(TextUtil.escapeXML(types[i].getName()));
 		}
-		sb.append("\">");
+		sb.append("\"");
+		
+		// The data of binary branches is stored in the container, referenced by the branch index
+		if (binaryFlightData != null) {
+			sb.append(" binarydata=\"");
+			sb.append(binaryFlightData.size());
+			sb.append("\" datapoints=\"");
+			sb.append(branch.getLength());
+			sb.append("\"");
+			binaryFlightData.add(data);
+		}
+		sb.append(">");
 		writeln(sb.toString());
 		indent++;
 		
@@ -642,9 +718,11 @@ public class OpenRocketSaver extends RocketSaver {
 		}
 		
 		// Write the data
-		int length = branch.getLength();
-		for (int i = 0; i < length; i++) {
-			writeDataPointString(data, i, sb);
+		if (binaryFlightData == null) {
+			int length = branch.getLength();
+			for (int i = 0; i < length; i++) {
+				writeDataPointString(data, i, sb);
+			}
 		}
 		
 		indent--;
@@ -664,13 +742,7 @@ public class OpenRocketSaver extends RocketSaver {
 		if (types.length == 0)
 			return 0;
 		
-		List<Double> timeData = branch.get(FlightDataType.TYPE_TIME);
-		if (timeData == null) {
-			// If time data not available, store all points
-			return branch.getLength();
-		}
-		
-		// Count the data
+		// Count the data, without loading data that has not been loaded yet
 		count += branch.getLength();
 		
 		return count;
@@ -678,14 +750,14 @@ public class OpenRocketSaver extends RocketSaver {
 	
 	
 	
-	private void writeDataPointString(List<List<Double>> data, int index, StringBuilder sb)
+	private void writeDataPointString(double[][] data, int index, StringBuilder sb)
 			throws IOException {
 		sb.setLength(0);
 		sb.append("<datapoint>");
-		for (int j = 0; j < data.size(); j++) {
+		for (int j = 0; j < data.length; j++) {
 			if (j > 0)
 				sb.append(",");
-			sb.append(TextUtil.doubleToString(data.get(j).get(index)));
+			sb.append(TextUtil.doubleToString(data[j][index]));
 		}
 		sb.append("</datapoint>");
 		writeln(sb.toString());
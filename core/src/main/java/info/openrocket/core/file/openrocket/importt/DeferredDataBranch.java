@@ -0,0 +1,176 @@
+package info.openrocket.core.file.openrocket.importt;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+
+import info.openrocket.core.file.SpooledDocument;
+import info.openrocket.core.file.simplesax.AbstractElementHandler;
+import info.openrocket.core.file.simplesax.ElementHandler;
+import info.openrocket.core.file.simplesax.PlainTextHandler;
+import info.openrocket.core.file.simplesax.SimpleSAX;
+import info.openrocket.core.logging.WarningSet;
+import info.openrocket.core.simulation.exception.FlightDataUnavailableException;
+
+/**
+ * The data points of a <code>&lt;databranch&gt;</code> element, read from the document when
+ * the data is first accessed instead of when the document is loaded.
+ * <p>
+ * The byte offset of the start tag of the element within the copy of the document made
+ * while loading it is recorded.  When the data is needed, the copy is opened at that offset
+ * and only the element is parsed.  Invalid data points are counted while loading like valid
+ * ones, so they are read as data points whose values are NaN.
+ */
+final class DeferredDataBranch {
+	private static final Logger log = LoggerFactory.getLogger(DeferredDataBranch.class);
+
+	private final SpooledDocument document;
+	private final long offset;
+	private final String name;
+	private final int typeCount;
+	private final int length;
+
+	private double[][] values;
+
+	/**
+	 * @param document		the copy of the document
+	 * @param offset		the byte offset of the start tag of the branch within the copy
+	 * @param name			the name of the branch
+	 * @param typeCount		the number of values of each data point
+	 * @param length		the number of data points of the branch
+	 */
+	DeferredDataBranch(SpooledDocument document, long offset, String name, int typeCount, int length) {
+		this.document = document;
+		this.offset = offset;
+		this.name = name;
+		this.typeCount = typeCount;
+		this.length = length;
+	}
+
+	/**
+	 * Return the values of a single data type of the branch, reading the data points of the
+	 * branch on the first call.
+	 *
+	 * @param type	the index of the data type in the <code>types</code> attribute of the branch
+	 * @return		the values of the data type
+	 * @throws FlightDataUnavailableException	if the data points cannot be read
+	 */
+	synchronized double[] getValues(int type) {
+		if (values == null) {
+			values = read();
+		}
+		double[] v = values[type];
+		values[type] = null;
+		return v;
+	}
+
+	private double[][] read() {
+		long t0 = System.nanoTime();
+		List<double[]> points = new ArrayList<>(length);
+		try (InputStream is = document.open(offset)) {
+			SimpleSAX.readXML(new InputSource(new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8))),
+					new BranchHandler(points), new WarningSet());
+			throw new IOException("End of data branch not found");
+		} catch (EndOfBranchException e) {
+			// All data points read
+		} catch (IOException | SAXException e) {
+			throw new FlightDataUnavailableException("Unable to read the data points of flight data branch '"
+					+ name + "': " + e.getMessage(), e);
+		}
+		if (points.size() != length) {
+			throw new FlightDataUnavailableException("Flight data branch '" + name + "' contains "
+					+ points.size() + " data points, expected " + length);
+		}
+
+		double[][] columns = new double[typeCount][length];
+		for (int i = 0; i < length; i++) {
+			double[] point = points.get(i);
+			for (int j = 0; j < typeCount; j++) {
+				columns[j][i] = point[j];
+			}
+		}
+		log.debug("Read " + length + " data points of data branch '" + name + "' in "
+				+ (System.nanoTime() - t0) / 1000000 + " ms");
+		return columns;
+	}
+
+
+	/**
+	 * Thrown to stop parsing once the data points of the branch have been read.
+	 */
+	private static class EndOfBranchException extends SAXException {
+		private static final long serialVersionUID = 1L;
+	}
+
+	/**
+	 * Handler of the branch element, parsed as a document of its own.
+	 */
+	private class BranchHandler extends AbstractElementHandler {
+		private final List<double[]> points;
+
+		private BranchHandler(List<double[]> points) {
+			this.points = points;
+		}
+
+		@Override
+		public ElementHandler openElement(String element, HashMap<String, String> attributes, WarningSet warnings) {
+			if (element.equals("databranch")) {
+				return new DataPointHandler(points);
+			}
+			return null;
+		}
+
+		@Override
+		public void closeElement(String element, HashMap<String, String> attributes, String content,
+				WarningSet warnings) throws SAXException {
+			// Stop before the content following the element
+			throw new EndOfBranchException();
+		}
+	}
+
+	/**
+	 * Handler of the data points of the branch.  Data points are parsed the same way as
+	 * by {@link FlightDataBranchHandler}, and events are ignored.
+	 */
+	private class DataPointHandler extends AbstractElementHandler {
+		private final List<double[]> points;
+
+		private DataPointHandler(List<double[]> points) {
+			this.points = points;
+		}
+
+		@Override
+		public ElementHandler openElement(String element, HashMap<String, String> attributes, WarningSet warnings) {
+			if (element.equals("datapoint")) {
+				return PlainTextHandler.INSTANCE;
+			}
+			return null;
+		}
+
+		@Override
+		public void closeElement(String element, HashMap<String, String> attributes, String content,
+				WarningSet warnings) {
+			if (!element.equals("datapoint")) {
+				return;
+			}
+			double[] point = FlightDataBranchHandler.parseDataPoint(content, typeCount, warnings);
+			if (point == null) {
+				// Counted while loading, so kept to keep the following points at their index
+				point = new double[typeCount];
+				Arrays.fill(point, Double.NaN);
+			}
+			points.add(point);
+		}
+	}
+}
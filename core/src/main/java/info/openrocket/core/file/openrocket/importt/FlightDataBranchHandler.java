@@ -1,5 +1,6 @@
 package info.openrocket.core.file.openrocket.importt;
 
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.UUID;
 
@@ -8,6 +9,8 @@ import info.openrocket.core.logging.SimulationAbort;
 import info.openrocket.core.logging.SimulationAbort.Cause;
 import info.openrocket.core.logging.WarningSet;
 import info.openrocket.core.file.DocumentLoadingContext;
+import info.openrocket.core.file.SpooledDocument;
+import info.openrocket.core.file.openrocket.BinaryFlightData;
 import info.openrocket.core.file.simplesax.AbstractElementHandler;
 import info.openrocket.core.file.simplesax.ElementHandler;
 import info.openrocket.core.file.simplesax.PlainTextHandler;
@@ -19,6 +22,7 @@ import info.openrocket.core.simulation.FlightDataType;
 import info.openrocket.core.simulation.FlightEvent;
 import info.openrocket.core.simulation.FlightEvent.Type;
 import info.openrocket.core.simulation.customexpression.CustomExpression;
+import info.openrocket.core.simulation.exception.FlightDataUnavailableException;
 import info.openrocket.core.startup.Application;
 import info.openrocket.core.unit.UnitGroup;
 
@@ -26,10 +30,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 class FlightDataBranchHandler extends AbstractElementHandler {
-	@SuppressWarnings("unused")
 	private final DocumentLoadingContext context;
 	private final FlightDataType[] types;
 	private final FlightDataBranch branch;
+	private final String name;
+	/** The copy of the document if the data points are read on demand, otherwise null */
+	private SpooledDocument deferredDocument = null;
+	private long deferredOffset;
+	private int deferredLength = 0;
 	
 	private static final Logger log = LoggerFactory.getLogger(FlightDataBranchHandler.class);
 	private final SingleSimulationHandler simHandler;
@@ -39,6 +47,7 @@ class FlightDataBranchHandler extends AbstractElementHandler {
 			DocumentLoadingContext context) {
 		this.simHandler = simHandler;
 		this.context = context;
+		this.name = name;
 		String[] split = typeList.split(",");
 		types = new FlightDataType[split.length];
 		for (int i = 0; i < split.length; i++) {
@@ -68,6 +77,39 @@ class FlightDataBranchHandler extends AbstractElementHandler {
 		branch.setOptimumAltitude(optimumAltitude);
 	}
 	
+	/**
+	 * Set the data of the branch to be read on demand from the binary flight data entry of
+	 * the container the document is loaded from.
+	 * 
+	 * @param index		the index of the branch in the binary flight data entry
+	 * @param length	the number of data points of the branch
+	 * @param warnings	the warning set to add a warning to if the data is unavailable
+	 */
+	public void setBinaryData(int index, int length, WarningSet warnings) {
+		BinaryFlightData.Reader reader = context.getBinaryFlightData();
+		if (reader == null) {
+			warnings.add("Flight data stored in binary form is not available, ignoring.");
+			return;
+		}
+		BinaryBranch data = new BinaryBranch(reader, name, index, types.length, length);
+		for (int i = 0; i < types.length; i++) {
+			final int column = i;
+			branch.setLazyValues(types[i], length, () -> data.getValues(column));
+		}
+	}
+	
+	/**
+	 * Read the data points of the branch from the copy of the document on demand instead of
+	 * while loading the document.  The data points are only counted while loading.
+	 * 
+	 * @param document	the copy of the document
+	 * @param offset	the byte offset of the start tag of the branch within the copy
+	 */
+	public void deferDataPoints(SpooledDocument document, long offset) {
+		deferredDocument = document;
+		deferredOffset = offset;
+	}
+	
 	// Find the full flight data type given name only
 	// Note: this way of doing it requires that custom expressions always come before flight data in the file,
 	// not the nicest but this is always the case anyway.
@@ -108,6 +150,14 @@ class FlightDataBranchHandler extends AbstractElementHandler {
 	}
 	
 	public FlightDataBranch getBranch() {
+		if (deferredDocument != null && deferredLength > 0 && branch.getLength() == 0) {
+			DeferredDataBranch data = new DeferredDataBranch(deferredDocument, deferredOffset, name,
+					types.length, deferredLength);
+			for (int i = 0; i < types.length; i++) {
+				final int type = i;
+				branch.setLazyValues(types[i], deferredLength, () -> data.getValues(type));
+			}
+		}
 		branch.immute();
 		return branch;
 	}
@@ -116,8 +166,14 @@ class FlightDataBranchHandler extends AbstractElementHandler {
 	public ElementHandler openElement(String element, HashMap<String, String> attributes,
 			WarningSet warnings) {
 		
-		if (element.equals("datapoint"))
+		if (element.equals("datapoint")) {
+			if (deferredDocument != null) {
+				// Only count the data point, it is parsed when the data is accessed
+				deferredLength++;
+				return null;
+			}
 			return PlainTextHandler.INSTANCE;
+		}
 		if (element.equals("event"))
 			return PlainTextHandler.INSTANCE;
 		
@@ -185,11 +241,32 @@ class FlightDataBranchHandler extends AbstractElementHandler {
 		// element == "datapoint"
 		
 		
+		double[] values = parseDataPoint(content, types.length, warnings);
+		if (values == null) {
+			return;
+		}
+		
+		// Add point to branch
+		branch.addPoint();
+		for (int i = 0; i < types.length; i++) {
+			branch.setValue(types[i], values[i]);
+		}
+	}
+	
+	/**
+	 * Parse the values of a data point.
+	 * 
+	 * @param content	the content of the <code>&lt;datapoint&gt;</code> element
+	 * @param count		the expected number of values
+	 * @param warnings	the warning set to add a warning to if the data point is invalid
+	 * @return			the values, or null if the data point is invalid
+	 */
+	static double[] parseDataPoint(String content, int count, WarningSet warnings) {
 		// Check line format
 		String[] split = content.split(",");
-		if (split.length != types.length) {
+		if (split.length != count) {
 			warnings.add("Data point did not contain correct amount of values, ignoring point.");
-			return;
+			return null;
 		}
 		
 		// Parse the doubles
@@ -199,14 +276,43 @@ class FlightDataBranchHandler extends AbstractElementHandler {
 				values[i] = DocumentConfig.stringToDouble(split[i]);
 			} catch (NumberFormatException e) {
 				warnings.add("Data point format error, ignoring point.");
-				return;
+				return null;
 			}
 		}
+		return values;
+	}
+	
+	/**
+	 * The columns of a branch stored in binary form, read together on first access.
+	 */
+	private static class BinaryBranch {
+		private final BinaryFlightData.Reader reader;
+		private final String name;
+		private final int index;
+		private final int columnCount;
+		private final int length;
+		private double[][] columns;
 		
-		// Add point to branch
-		branch.addPoint();
-		for (int i = 0; i < types.length; i++) {
-			branch.setValue(types[i], values[i]);
+		private BinaryBranch(BinaryFlightData.Reader reader, String name, int index, int columnCount, int length) {
+			this.reader = reader;
+			this.name = name;
+			this.index = index;
+			this.columnCount = columnCount;
+			this.length = length;
+		}
+		
+		private synchronized double[] getValues(int column) {
+			if (columns == null) {
+				try {
+					columns = reader.readBranch(index, columnCount, length);
+				} catch (IOException e) {
+					throw new FlightDataUnavailableException("Unable to read flight data branch '" + name + "': "
+							+ e.getMessage(), e);
+				}
+			}
+			double[] values = columns[column];
+			columns[column] = null;
+			return values;
 		}
 	}
 }
@@ -4,9 +4,12 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 
+import org.xml.sax.Locator;
+
 import info.openrocket.core.logging.MessagePriority;
 import info.openrocket.core.logging.Warning;
 import info.openrocket.core.logging.WarningSet;
+import info.openrocket.core.document.StorageOptions;
 import info.openrocket.core.file.DocumentLoadingContext;
 import info.openrocket.core.file.simplesax.AbstractElementHandler;
 import info.openrocket.core.file.simplesax.ElementHandler;
@@ -23,6 +26,8 @@ class FlightDataHandler extends AbstractElementHandler {
 	
 	private final SingleSimulationHandler simHandler;
 	private FlightData data;
+	/** Whether the data of any branch is loaded on demand */
+	private boolean lazyData = false;
 	
 	
 	public FlightDataHandler(SingleSimulationHandler simHandler, DocumentLoadingContext context) {
@@ -66,6 +71,27 @@ class FlightDataHandler extends AbstractElementHandler {
 				}
 				dataHandler.setTimeToOptimumAltitude(timeToOptimumAltitude);
 			}
+			if (attributes.get("binarydata") != null) {
+				lazyData = true;
+				try {
+					int index = Integer.parseInt(attributes.get("binarydata"));
+					int length = Integer.parseInt(attributes.get("datapoints"));
+					dataHandler.setBinaryData(index, length, warnings);
+				} catch (NumberFormatException e) {
+					warnings.add("Illegal binary flight data definition, ignoring.");
+				}
+				// Keep storing the data in binary form when the document is saved again
+				context.getOpenRocketDocument().getDefaultStorageOptions()
+						.setFlightDataFormat(StorageOptions.FlightDataFormat.BINARY);
+			} else if (context.getSpooledDocument() != null && context.getDocumentLocator() != null) {
+				// Data points are parsed when the data is first accessed
+				Locator locator = context.getDocumentLocator();
+				long offset = context.getSpooledDocument().findTag(locator.getLineNumber(), locator.getColumnNumber());
+				if (offset >= 0) {
+					lazyData = true;
+					dataHandler.deferDataPoints(context.getSpooledDocument(), offset);
+				}
+			}
 			return dataHandler;
 		}
 		
@@ -95,9 +121,10 @@ class FlightDataHandler extends AbstractElementHandler {
 	public void endHandler(String element, HashMap<String, String> attributes,
 			String content, WarningSet warnings) {
 
-		if (branches.size() > 0) {
+		if (branches.size() > 0 && !(lazyData && attributes.get("maxaltitude") != null)) {
 			data = new FlightData(branches.toArray(new FlightDataBranch[0]));
 		} else {
+			// Use the stored summary, calculating it would load the data
 			double maxAltitude = Double.NaN;
 			double maxVelocity = Double.NaN;
 			double maxAcceleration = Double.NaN;
@@ -152,6 +179,9 @@ class FlightDataHandler extends AbstractElementHandler {
 
 			data = new FlightData(maxAltitude, maxVelocity, maxAcceleration, maxMach,
 					timeToApogee, flightTime, groundHitVelocity, launchRodVelocity, deploymentVelocity, optimumDelay);
+			for (FlightDataBranch branch : branches) {
+				data.addBranch(branch);
+			}
 		}
 		
 		data.getWarningSet().addAll(warningSet);
@@ -6,6 +6,7 @@ import java.util.regex.Pattern;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.xml.sax.Locator;
 import org.xml.sax.SAXException;
 
 import info.openrocket.core.logging.Warning;
@@ -41,6 +42,11 @@ public class OpenRocketHandler extends AbstractElementHandler {
 		return handler.getDocument();
 	}
 
+	@Override
+	public void setDocumentLocator(Locator locator) {
+		context.setDocumentLocator(locator);
+	}
+
 	@Override
 	public ElementHandler openElement(String element, HashMap<String, String> attributes,
 			WarningSet warnings) {
@@ -2,7 +2,7 @@ package info.openrocket.core.file.openrocket.importt;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.List;
+import java.util.Arrays;
 
 import info.openrocket.core.rocketcomponent.FlightConfiguration;
 import org.slf4j.Logger;
@@ -73,8 +73,8 @@ public class OpenRocketLoader extends AbstractRocketLoader {
 			FlightDataBranch branch = s.getSimulatedData().getBranch(0);
 			if (branch == null)
 				continue;
-			List<Double> list = branch.get(FlightDataType.TYPE_TIME);
-			if (list == null)
+			// Check the types rather than the values, which may not have been loaded yet
+			if (!Arrays.asList(branch.getTypes()).contains(FlightDataType.TYPE_TIME))
 				continue;
 
 			doc.getDefaultStorageOptions().setSaveSimulationData(true);
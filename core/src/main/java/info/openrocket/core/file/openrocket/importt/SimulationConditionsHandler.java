@@ -11,6 +11,7 @@ import info.openrocket.core.models.wind.WindModelType;
 import info.openrocket.core.rocketcomponent.FlightConfigurationId;
 import info.openrocket.core.rocketcomponent.Rocket;
 import info.openrocket.core.simulation.SimulationOptions;
+import info.openrocket.core.simulation.SimulationStepperType;
 import info.openrocket.core.util.GeodeticComputationStrategy;
 
 class SimulationConditionsHandler extends AbstractElementHandler {
@@ -144,6 +145,27 @@ class SimulationConditionsHandler extends AbstractElementHandler {
 					options.setTimeStep(d);
 				}
 			}
+			case "stepper" -> {
+				try {
+					options.setStepperType(SimulationStepperType.fromString(content));
+				} catch (IllegalArgumentException e) {
+					warnings.add("Unknown simulation stepper '" + content + "', using default.");
+				}
+			}
+			case "relativetolerance" -> {
+				if (Double.isNaN(d) || d <= 0) {
+					warnings.add("Illegal relative tolerance defined, ignoring.");
+				} else {
+					options.setRelativeTolerance(d);
+				}
+			}
+			case "absolutetolerance" -> {
+				if (Double.isNaN(d) || d <= 0) {
+					warnings.add("Illegal absolute tolerance defined, ignoring.");
+				} else {
+					options.setAbsoluteTolerance(d);
+				}
+			}
 		}
 	}
 }
\ No newline at end of file
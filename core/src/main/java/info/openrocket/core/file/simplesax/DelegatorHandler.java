@@ -5,6 +5,7 @@ import java.util.Deque;
 import java.util.HashMap;
 
 import org.xml.sax.Attributes;
+import org.xml.sax.Locator;
 import org.xml.sax.SAXException;
 import org.xml.sax.helpers.DefaultHandler;
 
@@ -33,6 +34,11 @@ class DelegatorHandler extends DefaultHandler {
 
 	///////// SAX handlers
 
+	@Override
+	public void setDocumentLocator(Locator locator) {
+		handlerStack.getLast().setDocumentLocator(locator);
+	}
+
 	@Override
 	public void startElement(String uri, String localName, String name,
 			Attributes attributes) throws SAXException {
@@ -53,7 +59,9 @@ class DelegatorHandler extends DefaultHandler {
 		if (h != null) {
 			handlerStack.push(h);
 		} else {
-			// Start ignoring elements
+			// Start ignoring elements, the ignored element is not closed by endElement
+			elementData.pop();
+			elementAttributes.pop();
 			ignore++;
 		}
 	}
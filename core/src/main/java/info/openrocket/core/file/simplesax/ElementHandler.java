@@ -4,6 +4,7 @@ import java.util.HashMap;
 
 import info.openrocket.core.logging.WarningSet;
 
+import org.xml.sax.Locator;
 import org.xml.sax.SAXException;
 
 /**
@@ -80,4 +81,13 @@ public interface ElementHandler {
 	public abstract void endHandler(String element, HashMap<String, String> attributes,
 			String content, WarningSet warnings) throws SAXException;
 
+	/**
+	 * Receive the locator of the document being read.  This is only called for the initial
+	 * handler, before any element is opened, and only if the XML parser provides a locator.
+	 * The locator reports the position of the current parsing event during the other calls.
+	 * 
+	 * @param locator the document locator.
+	 */
+	public default void setDocumentLocator(Locator locator) {
+	}
 }
@@ -489,7 +489,28 @@ public class ObjUtils {
      * @param obj The obj file to remove the offset from
      */
     public static void removeVertexOffset(DefaultObj obj, CoordTransform transformer) {
-        final FloatTupleBounds bounds = obj.getVertexBounds();
+        final FloatTuple offset = getVertexOffset(obj.getVertexBounds(), transformer);
+        final float offsetX = offset.getX();
+        final float offsetY = offset.getY();
+        final float offsetZ = offset.getZ();
+
+        for (int i = 0; i < obj.getNumVertices(); i++) {
+            FloatTuple vertex = obj.getVertex(i);
+            final float x = vertex.getX() - offsetX;
+            final float y = vertex.getY() - offsetY;
+            final float z = vertex.getZ() - offsetZ;
+            obj.setVertex(i, new DefaultFloatTuple(x, y, z));
+        }
+    }
+
+    /**
+     * Returns the positional offset that {@link #removeVertexOffset(DefaultObj, CoordTransform)} subtracts from the
+     * vertices with the given bounds, so that the bottom of the rocket ends up at the origin.
+     * @param bounds The bounds of the vertices
+     * @param transformer The coordinate transformer that was used for the export
+     * @return The offset to subtract from the vertices
+     */
+    public static FloatTuple getVertexOffset(FloatTupleBounds bounds, CoordTransform transformer) {
         final FloatTuple min = bounds.getMin();
         final FloatTuple max = bounds.getMax();
 
@@ -524,13 +545,7 @@ public class ObjUtils {
         final float offsetY = (maxY + minY) / 2;
         final float offsetZ = (maxZ + minZ) / 2;
 
-        for (int i = 0; i < obj.getNumVertices(); i++) {
-            FloatTuple vertex = obj.getVertex(i);
-            final float x = vertex.getX() - offsetX;
-            final float y = vertex.getY() - offsetY;
-            final float z = vertex.getZ() - offsetZ;
-            obj.setVertex(i, new DefaultFloatTuple(x, y, z));
-        }
+        return new DefaultFloatTuple(offsetX, offsetY, offsetZ);
     }
 
     /**
@@ -1,12 +1,13 @@
 package info.openrocket.core.file.wavefrontobj.export;
 
-import de.javagl.obj.ObjWriter;
+import de.javagl.obj.FloatTuple;
 import info.openrocket.core.appearance.Appearance;
 import info.openrocket.core.appearance.defaults.DefaultAppearance;
 import info.openrocket.core.file.wavefrontobj.CoordTransform;
 import info.openrocket.core.file.wavefrontobj.DefaultMtl;
 import info.openrocket.core.file.wavefrontobj.DefaultMtlWriter;
 import info.openrocket.core.file.wavefrontobj.DefaultObj;
+import info.openrocket.core.file.wavefrontobj.FloatTupleBounds;
 import info.openrocket.core.file.wavefrontobj.ObjUtils;
 import info.openrocket.core.file.wavefrontobj.TriangulationHelper;
 import info.openrocket.core.file.wavefrontobj.export.components.BodyTubeExporter;
@@ -19,6 +20,7 @@ import info.openrocket.core.file.wavefrontobj.export.components.RocketComponentE
 import info.openrocket.core.file.wavefrontobj.export.components.RingComponentExporter;
 import info.openrocket.core.file.wavefrontobj.export.components.TransitionExporter;
 import info.openrocket.core.file.wavefrontobj.export.components.TubeFinSetExporter;
+import info.openrocket.core.logging.Warning;
 import info.openrocket.core.logging.WarningSet;
 import info.openrocket.core.motor.Motor;
 import info.openrocket.core.motor.MotorConfiguration;
@@ -26,31 +28,39 @@ import info.openrocket.core.rocketcomponent.BodyTube;
 import info.openrocket.core.rocketcomponent.ComponentAssembly;
 import info.openrocket.core.rocketcomponent.FinSet;
 import info.openrocket.core.rocketcomponent.FlightConfiguration;
-import info.openrocket.core.rocketcomponent.InstanceContext;
-import info.openrocket.core.rocketcomponent.InstanceMap;
+import info.openrocket.core.rocketcomponent.FlightConfigurationId;
 import info.openrocket.core.rocketcomponent.LaunchLug;
 import info.openrocket.core.rocketcomponent.MassObject;
 import info.openrocket.core.rocketcomponent.MotorMount;
 import info.openrocket.core.rocketcomponent.RailButton;
 import info.openrocket.core.rocketcomponent.RingComponent;
+import info.openrocket.core.rocketcomponent.Rocket;
 import info.openrocket.core.rocketcomponent.RocketComponent;
 import info.openrocket.core.rocketcomponent.Transition;
 import info.openrocket.core.rocketcomponent.TubeFinSet;
+import info.openrocket.core.util.BugException;
 import info.openrocket.core.util.FileUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Exporter for rocket components to a Wavefront OBJ file.
@@ -75,6 +85,13 @@ public class OBJExporterFactory {
 
     private static final Logger log = LoggerFactory.getLogger(OBJExporterFactory.class);
 
+    /** The number of threads tessellating the components */
+    private static final int EXPORT_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors());
+    /** The number of components per thread that may be tessellated ahead of writing them */
+    private static final int PENDING_COMPONENTS_PER_THREAD = 2;
+
+    private static final Object APPEARANCE_LOCK = new Object();
+
     // The different exporters for each component
     private static final Map<Class<? extends RocketComponent>, ExporterFactory<?>> EXPORTER_MAP = Map.of(
             BodyTube.class, (ExporterFactory<BodyTube>) BodyTubeExporter::new,
@@ -106,20 +123,13 @@ public class OBJExporterFactory {
 
     /**
      * Performs the actual exporting.
+     * <p>
+     * The components are tessellated in parallel, each into its own mesh, which is written to the OBJ file as soon as
+     * the components before it have been written. Only a few components are tessellated ahead of the writing, so the
+     * memory use does not depend on the size of the exported rocket. If the offset of a single OBJ file is removed,
+     * the components are tessellated twice: once to find the bounds of the whole export, and once to write them.
      */
     public void doExport() {
-        DefaultObj obj = new DefaultObj();
-        Map<String, DefaultObj> objFileMap;
-        Map<DefaultObj, List<DefaultMtl>> materials = new HashMap<>();
-        materials.put(obj, new ArrayList<>());
-        boolean exportAsSeparateFiles = this.options.isExportAsSeparateFiles();
-
-        if (exportAsSeparateFiles) {
-            objFileMap = new HashMap<>();
-        } else {
-            objFileMap = Map.of(this.file.getAbsolutePath(), obj);
-        }
-
         // Get all the components to export
         Set<RocketComponent> componentsToExport = new HashSet<>(this.components);
         if (this.options.isExportChildren()) {
@@ -131,6 +141,7 @@ public class OBJExporterFactory {
         // Sort the components according to how they are ordered in the rocket (component tree)
         Set<RocketComponent> sortedComponents = sortComponents(componentsToExport);
 
+        List<ExportedComponent> exportedComponents = new ArrayList<>();
         int idx = 1;
         for (RocketComponent component : sortedComponents) {
             if (component instanceof ComponentAssembly) {
@@ -142,95 +153,241 @@ public class OBJExporterFactory {
                 continue;
             }
 
-            // Get the instance transforms
-            InstanceMap map = configuration.getActiveInstances();
-            ArrayList<InstanceContext> contexts = map.get(component);
-            contexts.get(0).transform.getXrotation();
-
-            // If separate export, create a new OBJ for each component
-            if (exportAsSeparateFiles) {
-                obj = new DefaultObj();
-                materials.put(obj, new ArrayList<>());
-            }
-
-            // Component exporting
             String groupName = idx + "_" + component.getName();
             groupName = sanitizeGroupName(groupName);
-            handleComponent(obj, this.configuration, this.options.getTransformer(), component, groupName,
-                    materials.get(obj), this.options.getLOD(), options, warnings);
-
-            // If separate export, add this object to the map of objects to export
-            if (exportAsSeparateFiles) {
-                String path = FileUtils.removeExtension(this.file.getAbsolutePath()) + "_" + groupName + ".obj";
-                objFileMap.put(path, obj);
-            }
+            exportedComponents.add(new ExportedComponent(component, groupName));
 
             idx++;
         }
 
-        // Apply export options and write the OBJ files
-        for (Map.Entry<String, DefaultObj> entry : objFileMap.entrySet()) {
-            String filePath = entry.getKey();
-            obj = entry.getValue();
-
-            // Triangulate mesh
-            if (this.options.isTriangulate()) {
-                ObjUtils.TriangulationMethod triangulationMethod = this.options.getTriangulationMethod();
-                if (triangulationMethod == ObjUtils.TriangulationMethod.DELAUNAY) {
-                    obj = TriangulationHelper.constrainedDelaunayTriangulate(obj);
-                } else if (triangulationMethod == ObjUtils.TriangulationMethod.SIMPLE) {
-                    obj = TriangulationHelper.simpleTriangulate(obj);
-                } else {
-                    throw new IllegalArgumentException("Unsupported triangulation method: " + triangulationMethod);
-                }
+        long t0 = System.nanoTime();
+        try {
+            if (this.options.isExportAsSeparateFiles()) {
+                exportSeparateFiles(exportedComponents);
+            } else {
+                exportSingleFile(exportedComponents);
             }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        log.debug("Exported {} components to OBJ in {} ms", exportedComponents.size(),
+                (System.nanoTime() - t0) / 1000000);
+    }
+
+    /**
+     * Export all components to the export file.
+     */
+    private void exportSingleFile(List<ExportedComponent> exportedComponents) throws IOException {
+        final String filePath = this.file.getAbsolutePath();
+
+        // Remove position offset, using the bounds of all the components
+        FloatTuple offset = null;
+        if (this.options.isRemoveOffset()) {
+            FloatTupleBounds bounds = new FloatTupleBounds();
+            tessellateComponents(exportedComponents, true, (component, mesh) -> {
+                bounds.updateBounds(mesh.bounds.getMin());
+                bounds.updateBounds(mesh.bounds.getMax());
+            });
+            offset = ObjUtils.getVertexOffset(bounds, this.options.getTransformer());
+        }
+
+        List<DefaultMtl> materials = new ArrayList<>();
+        try (OBJStreamWriter writer = new OBJStreamWriter(Path.of(filePath), getMtlFileNames(filePath), offset,
+                this.options.getScaling())) {
+            tessellateComponents(exportedComponents, false, (component, mesh) -> {
+                writer.write(mesh.chunk);
+                materials.addAll(mesh.materials);
+            });
+        }
+        writeMaterials(filePath, materials);
+    }
+
+    /**
+     * Export each component to its own file, next to the export file.
+     */
+    private void exportSeparateFiles(List<ExportedComponent> exportedComponents) throws IOException {
+        tessellateComponents(exportedComponents, false, (component, mesh) -> {
+            String filePath = FileUtils.removeExtension(this.file.getAbsolutePath()) + "_" + component.groupName + ".obj";
 
             // Remove position offset
+            FloatTuple offset = null;
             if (this.options.isRemoveOffset()) {
-                // Because of some rotation and translation operations when creating the meshes, the bounds can be inaccurate.
-                // Therefore, we will recalculate them to be sure.
-                // Is a bit computationally expensive, but it's the only way to be sure...
-                obj.recalculateAllVertexBounds();
-
-                ObjUtils.removeVertexOffset(obj, this.options.getTransformer());
+                offset = ObjUtils.getVertexOffset(mesh.bounds, this.options.getTransformer());
             }
 
-            // Perform scaling
-            if (Float.compare(options.getScaling(), 1) != 0) {
-                ObjUtils.scaleVertices(obj, options.getScaling());
+            try (OBJStreamWriter writer = new OBJStreamWriter(Path.of(filePath), getMtlFileNames(filePath), offset,
+                    this.options.getScaling())) {
+                writer.write(mesh.chunk);
             }
+            writeMaterials(filePath, mesh.materials);
+        });
+    }
+
+    private List<String> getMtlFileNames(String filePath) {
+        if (!this.options.isExportAppearance()) {
+            return List.of();
+        }
+        return List.of(FileUtils.removeExtension(filePath) + ".mtl");
+    }
+
+    private void writeMaterials(String filePath, List<DefaultMtl> materials) throws IOException {
+        if (!this.options.isExportAppearance()) {
+            return;
+        }
+        String mtlFilePath = FileUtils.removeExtension(filePath) + ".mtl";
+        try (OutputStream mtlOutputStream = new BufferedOutputStream(new FileOutputStream(mtlFilePath, false))) {
+            DefaultMtlWriter.write(materials, mtlOutputStream);
+        }
+    }
+
+    /**
+     * Tessellates the components in parallel and passes their meshes to the consumer, in the order of the components,
+     * on the calling thread. Each thread tessellates the components of its own copy of the rocket, as the components
+     * are not thread-safe. At most {@link #PENDING_COMPONENTS_PER_THREAD} components per thread are tessellated
+     * ahead of the consumer.
+     *
+     * @param exportedComponents the components to tessellate
+     * @param boundsOnly whether only the bounds of the meshes are needed; the meshes are then not compacted,
+     *                   and their appearances and warnings are not exported
+     * @param consumer the consumer of the meshes
+     */
+    private void tessellateComponents(List<ExportedComponent> exportedComponents, boolean boundsOnly,
+                                      MeshConsumer consumer) throws IOException {
+        if (exportedComponents.isEmpty()) {
+            return;
+        }
+
+        final Rocket rocket = this.configuration.getRocket();
+        final FlightConfigurationId configId = this.configuration.getId();
+        final int threads = Math.min(EXPORT_THREADS, exportedComponents.size());
+        List<Rocket> copies = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            copies.add(rocket.copyWithOriginalID());
+        }
 
-            // Export materials
-            if (options.isExportAppearance()) {
-                String mtlFilePath = FileUtils.removeExtension(filePath) + ".mtl";
-                List<DefaultMtl> mtls = materials.get(obj);
-                if (mtls != null) {
-                    try (OutputStream mtlOutputStream = new FileOutputStream(mtlFilePath, false)) {
-                        DefaultMtlWriter.write(mtls, mtlOutputStream);
-                    } catch (IOException e) {
-                        throw new RuntimeException(e);
+        List<CompletableFuture<ComponentMesh>> results = new ArrayList<>(exportedComponents.size());
+        for (int i = 0; i < exportedComponents.size(); i++) {
+            results.add(new CompletableFuture<>());
+        }
+        AtomicInteger nextComponent = new AtomicInteger();
+        Semaphore pendingComponents = new Semaphore(threads * PENDING_COMPONENTS_PER_THREAD);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "OBJExporter");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            for (Rocket copy : copies) {
+                executor.execute(() -> {
+                    try {
+                        FlightConfiguration config = copy.getFlightConfiguration(configId);
+                        while (!Thread.interrupted()) {
+                            // Claim a component only after acquiring a permit, so that the permits are always held by
+                            // the components that are next in line to be consumed
+                            pendingComponents.acquire();
+                            int index = nextComponent.getAndIncrement();
+                            if (index >= exportedComponents.size()) {
+                                pendingComponents.release();
+                                break;
+                            }
+                            ExportedComponent exported = exportedComponents.get(index);
+                            RocketComponent component = copy.findComponent(exported.component.getID());
+                            results.get(index).complete(tessellate(component, config, exported.groupName, boundsOnly));
+                        }
+                    } catch (InterruptedException ignore) {
+                        // The export was aborted
+                    } catch (Throwable e) {
+                        // Also errors, e.g. running out of memory, must not leave the writing thread waiting
+                        for (int i = 0; i < results.size(); i++) {
+                            CompletableFuture<ComponentMesh> result = results.get(i);
+                            if (result != null) {
+                                result.completeExceptionally(e);
+                            }
+                        }
                     }
-                } else {
-                    log.debug("No materials to export for {}", filePath);
+                });
+            }
+
+            for (int i = 0; i < exportedComponents.size(); i++) {
+                ComponentMesh mesh = results.get(i).get();
+                results.set(i, null);
+                pendingComponents.release();
+
+                ExportedComponent exported = exportedComponents.get(i);
+                if (!boundsOnly) {
+                    addWarnings(mesh.warnings, exported.component);
                 }
-                obj.setMtlFileNames(List.of(mtlFilePath));
+                consumer.accept(exported, mesh);
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("OBJ export interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new BugException("OBJ export failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
 
-            // Write the OBJ file
-            writeObj(obj, filePath);
+    /**
+     * Tessellates a single component into its own mesh.
+     */
+    private ComponentMesh tessellate(RocketComponent component, FlightConfiguration config, String groupName,
+                                     boolean boundsOnly) {
+        DefaultObj obj = new DefaultObj();
+        List<DefaultMtl> materials = new ArrayList<>();
+        WarningSet componentWarnings = new WarningSet();
+        handleComponent(obj, config, this.options.getTransformer(), component, groupName, materials,
+                this.options.getLOD(), options, !boundsOnly && this.options.isExportAppearance(), componentWarnings);
+
+        // Because of some rotation and translation operations when creating the meshes, the bounds can be inaccurate.
+        // Therefore, we will recalculate them to be sure. Triangulation does not add any vertices, so these are
+        // also the bounds of the triangulated mesh.
+        obj.recalculateAllVertexBounds();
+        FloatTupleBounds bounds = obj.getVertexBounds();
+        if (boundsOnly) {
+            return new ComponentMesh(null, bounds, materials, componentWarnings);
+        }
 
-            // Reset the material
-            if (options.isExportAppearance()) {
-                obj.resetToBlankMaterial();
+        // Triangulate mesh
+        if (this.options.isTriangulate()) {
+            ObjUtils.TriangulationMethod triangulationMethod = this.options.getTriangulationMethod();
+            if (triangulationMethod == ObjUtils.TriangulationMethod.DELAUNAY) {
+                obj = TriangulationHelper.constrainedDelaunayTriangulate(obj);
+            } else if (triangulationMethod == ObjUtils.TriangulationMethod.SIMPLE) {
+                obj = TriangulationHelper.simpleTriangulate(obj);
+            } else {
+                throw new IllegalArgumentException("Unsupported triangulation method: " + triangulationMethod);
             }
         }
+
+        return new ComponentMesh(new OBJMeshChunk(obj), bounds, materials, componentWarnings);
     }
 
-    private static void writeObj(DefaultObj obj, String filePath) {
-        try (OutputStream objOutputStream = new FileOutputStream(filePath, false)) {
-            ObjWriter.write(obj, objOutputStream);
-        } catch (IOException e) {
-            throw new RuntimeException(e);
+    /**
+     * Adds the warnings of a component mesh to the export warnings. The warnings refer to the copy of the component
+     * that was tessellated, so they are made to refer to the exported component instead.
+     */
+    private void addWarnings(WarningSet componentWarnings, RocketComponent component) {
+        for (Warning warning : componentWarnings) {
+            RocketComponent[] sources = warning.getSources();
+            if (sources == null) {
+                this.warnings.add(warning);
+                continue;
+            }
+            RocketComponent[] originalSources = new RocketComponent[sources.length];
+            for (int i = 0; i < sources.length; i++) {
+                boolean isCopy = sources[i] != null && sources[i].getID().equals(component.getID());
+                originalSources[i] = isCopy ? component : sources[i];
+            }
+            this.warnings.add(warning, originalSources);
         }
     }
 
@@ -238,7 +395,7 @@ public class OBJExporterFactory {
     private <T extends RocketComponent> void handleComponent(DefaultObj obj, FlightConfiguration config, CoordTransform transformer,
                                                              T component, String groupName, List<DefaultMtl> materials,
                                                              ObjUtils.LevelOfDetail LOD, OBJExportOptions options,
-                                                             WarningSet warnings) {
+                                                             boolean exportAppearance, WarningSet warnings) {
         ExporterFactory<T> factory = null;
         Class<?> currentClass = component.getClass();
 
@@ -253,17 +410,20 @@ public class OBJExporterFactory {
         }
 
         // Export material
-        if (options.isExportAppearance()) {
+        if (exportAppearance) {
             String materialName = "mat_" + groupName;
 
-            // Get the component appearance
-            Appearance appearance = component.getAppearance();
-            if (appearance == null) {
-                appearance = DefaultAppearance.getDefaultAppearance(component);
-            }
+            // The default appearances and the exported decal images are shared between the components
+            synchronized (APPEARANCE_LOCK) {
+                // Get the component appearance
+                Appearance appearance = component.getAppearance();
+                if (appearance == null) {
+                    appearance = DefaultAppearance.getDefaultAppearance(component);
+                }
 
-            AppearanceExporter appearanceExporter = new AppearanceExporter(obj, appearance, file, options, materialName, materials);
-            appearanceExporter.doExport();
+                AppearanceExporter appearanceExporter = new AppearanceExporter(obj, appearance, file, options, materialName, materials);
+                appearanceExporter.doExport();
+            }
         }
 
         // Export component
@@ -277,11 +437,13 @@ public class OBJExporterFactory {
             Motor motor = motoConfig.getMotor();
 
             // Export the motor appearance
-            if (options.isExportAppearance() && motor != null) {
+            if (exportAppearance && motor != null) {
                 String materialName = "mat_" + groupName + "_" + motor.getMotorName();
-                Appearance appearance = DefaultAppearance.getDefaultAppearance(motor);
-                AppearanceExporter appearanceExporter = new AppearanceExporter(obj, appearance, file, options, materialName, materials);
-                appearanceExporter.doExport();
+                synchronized (APPEARANCE_LOCK) {
+                    Appearance appearance = DefaultAppearance.getDefaultAppearance(motor);
+                    AppearanceExporter appearanceExporter = new AppearanceExporter(obj, appearance, file, options, materialName, materials);
+                    appearanceExporter.doExport();
+                }
             }
 
             // Export the motor geometry
@@ -325,6 +487,27 @@ public class OBJExporterFactory {
         }
     }
 
+    /**
+     * A component to export, with the name of its group in the OBJ file.
+     */
+    private record ExportedComponent(RocketComponent component, String groupName) {
+    }
+
+    /**
+     * The tessellated mesh of a component.
+     * @param chunk the compacted mesh, or null if only the bounds were needed
+     * @param bounds the bounds of the vertices of the mesh
+     * @param materials the materials of the mesh
+     * @param warnings the warnings of tessellating the component
+     */
+    private record ComponentMesh(OBJMeshChunk chunk, FloatTupleBounds bounds, List<DefaultMtl> materials,
+                                 WarningSet warnings) {
+    }
+
+    private interface MeshConsumer {
+        void accept(ExportedComponent component, ComponentMesh mesh) throws IOException;
+    }
+
     interface ExporterFactory<T extends RocketComponent> {
         RocketComponentExporter<T> create(DefaultObj obj, FlightConfiguration config, CoordTransform transformer,
                                           T component, String groupName, ObjUtils.LevelOfDetail LOD, WarningSet warnings);
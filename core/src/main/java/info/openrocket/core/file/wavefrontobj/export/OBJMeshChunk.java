@@ -0,0 +1,147 @@
+package info.openrocket.core.file.wavefrontobj.export;
+
+import de.javagl.obj.FloatTuple;
+import de.javagl.obj.ObjFace;
+import info.openrocket.core.file.wavefrontobj.DefaultObj;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The mesh of a single exported component, compacted into primitive arrays.
+ * <p>
+ * A {@link DefaultObj} stores every vertex, normal and face as a separate object, which takes many times the memory
+ * of the actual data. The components are therefore tessellated one by one into their own {@link DefaultObj}, which
+ * is compacted into a chunk and discarded before the chunk is written by {@link OBJStreamWriter}. The indices of
+ * the chunk are relative to the chunk itself; the writer offsets them by the number of elements already written.
+ */
+final class OBJMeshChunk {
+    private static final byte TEX_COORDS = 1;
+    private static final byte NORMALS = 2;
+
+    /** Vertex coordinates, three per vertex */
+    final float[] vertices;
+    /** Texture coordinates, three per texture coordinate, of which only the first texCoordDimensions[i] are used */
+    final float[] texCoords;
+    final byte[] texCoordDimensions;
+    /** Normal coordinates, three per normal */
+    final float[] normals;
+
+    /** The indices of face i are at faceStarts[i] (inclusive) to faceStarts[i + 1] (exclusive) */
+    final int[] faceStarts;
+    final int[] vertexIndices;
+    final int[] texCoordIndices;
+    final int[] normalIndices;
+    /** Whether the faces have texture coordinate and/or normal indices */
+    final byte[] faceFlags;
+
+    /** The faces at which a group or material starts, in increasing order */
+    final int[] startFaces;
+    /** The group names started at the start faces, or null if no group starts there */
+    final String[][] startedGroupNames;
+    /** The material started at the start faces, or null if no material starts there */
+    final String[] startedMaterialNames;
+
+    /**
+     * Compacts the mesh of the given obj.
+     * @param obj The obj to compact
+     */
+    OBJMeshChunk(DefaultObj obj) {
+        final int numVertices = obj.getNumVertices();
+        vertices = new float[3 * numVertices];
+        for (int i = 0; i < numVertices; i++) {
+            FloatTuple vertex = obj.getVertex(i);
+            vertices[3 * i] = vertex.getX();
+            vertices[3 * i + 1] = vertex.getY();
+            vertices[3 * i + 2] = vertex.getZ();
+        }
+
+        final int numTexCoords = obj.getNumTexCoords();
+        texCoords = new float[3 * numTexCoords];
+        texCoordDimensions = new byte[numTexCoords];
+        for (int i = 0; i < numTexCoords; i++) {
+            FloatTuple texCoord = obj.getTexCoord(i);
+            int dimensions = Math.min(texCoord.getDimensions(), 3);
+            texCoordDimensions[i] = (byte) dimensions;
+            for (int d = 0; d < dimensions; d++) {
+                texCoords[3 * i + d] = texCoord.get(d);
+            }
+        }
+
+        final int numNormals = obj.getNumNormals();
+        normals = new float[3 * numNormals];
+        for (int i = 0; i < numNormals; i++) {
+            FloatTuple normal = obj.getNormal(i);
+            normals[3 * i] = normal.getX();
+            normals[3 * i + 1] = normal.getY();
+            normals[3 * i + 2] = normal.getZ();
+        }
+
+        final int numFaces = obj.getNumFaces();
+        int numIndices = 0;
+        for (int i = 0; i < numFaces; i++) {
+            numIndices += obj.getFace(i).getNumVertices();
+        }
+        faceStarts = new int[numFaces + 1];
+        vertexIndices = new int[numIndices];
+        texCoordIndices = new int[numIndices];
+        normalIndices = new int[numIndices];
+        faceFlags = new byte[numFaces];
+
+        List<Integer> starts = new ArrayList<>();
+        List<String[]> groupNames = new ArrayList<>();
+        List<String> materialNames = new ArrayList<>();
+        int index = 0;
+        for (int i = 0; i < numFaces; i++) {
+            ObjFace face = obj.getFace(i);
+            faceStarts[i] = index;
+
+            Set<String> activatedGroupNames = obj.getActivatedGroupNames(face);
+            String activatedMaterialName = obj.getActivatedMaterialGroupName(face);
+            if (activatedGroupNames != null || activatedMaterialName != null) {
+                starts.add(i);
+                groupNames.add(activatedGroupNames != null ? activatedGroupNames.toArray(new String[0]) : null);
+                materialNames.add(activatedMaterialName);
+            }
+
+            boolean hasTexCoords = face.containsTexCoordIndices();
+            boolean hasNormals = face.containsNormalIndices();
+            faceFlags[i] = (byte) ((hasTexCoords ? TEX_COORDS : 0) | (hasNormals ? NORMALS : 0));
+            for (int j = 0; j < face.getNumVertices(); j++, index++) {
+                vertexIndices[index] = face.getVertexIndex(j);
+                texCoordIndices[index] = hasTexCoords ? face.getTexCoordIndex(j) : -1;
+                normalIndices[index] = hasNormals ? face.getNormalIndex(j) : -1;
+            }
+        }
+        faceStarts[numFaces] = index;
+
+        startFaces = starts.stream().mapToInt(Integer::intValue).toArray();
+        startedGroupNames = groupNames.toArray(new String[0][]);
+        startedMaterialNames = materialNames.toArray(new String[0]);
+    }
+
+    int getNumVertices() {
+        return vertices.length / 3;
+    }
+
+    int getNumTexCoords() {
+        return texCoordDimensions.length;
+    }
+
+    int getNumNormals() {
+        return normals.length / 3;
+    }
+
+    int getNumFaces() {
+        return faceFlags.length;
+    }
+
+    boolean hasTexCoords(int face) {
+        return (faceFlags[face] & TEX_COORDS) != 0;
+    }
+
+    boolean hasNormals(int face) {
+        return (faceFlags[face] & NORMALS) != 0;
+    }
+}
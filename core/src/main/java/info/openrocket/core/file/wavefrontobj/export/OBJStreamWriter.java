@@ -0,0 +1,175 @@
+package info.openrocket.core.file.wavefrontobj.export;
+
+import de.javagl.obj.FloatTuple;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Writes {@link OBJMeshChunk}s to a Wavefront OBJ file as they become available, so that the mesh of the whole
+ * export never has to be held in memory. The output is written in the same format as javagl's ObjWriter, except
+ * that the vertices, texture coordinates and normals of a chunk precede its faces instead of all vertices
+ * preceding all faces.
+ * <p>
+ * The vertex offset and scaling of the export options are applied while writing, in the same way as
+ * {@link info.openrocket.core.file.wavefrontobj.ObjUtils#removeVertexOffset} and
+ * {@link info.openrocket.core.file.wavefrontobj.ObjUtils#scaleVertices} do.
+ */
+final class OBJStreamWriter implements Closeable {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Writer writer;
+    private final float offsetX;
+    private final float offsetY;
+    private final float offsetZ;
+    private final float scaling;
+
+    // The number of elements written so far, by which the indices of the next chunk are offset
+    private int numVertices = 0;
+    private int numTexCoords = 0;
+    private int numNormals = 0;
+
+    private boolean skipWritingDefaultGroup = true;
+
+    /**
+     * Opens the OBJ file for writing, replacing any existing file.
+     * @param file The file to write to
+     * @param mtlFileNames The MTL files to reference, may be empty
+     * @param offset The offset to subtract from the vertices, or null to keep their position
+     * @param scaling The scaling to apply to the vertices
+     * @throws IOException If the file cannot be opened or written
+     */
+    OBJStreamWriter(Path file, List<String> mtlFileNames, FloatTuple offset, float scaling) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        this.writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8), BUFFER_SIZE);
+        this.offsetX = offset != null ? offset.getX() : 0;
+        this.offsetY = offset != null ? offset.getY() : 0;
+        this.offsetZ = offset != null ? offset.getZ() : 0;
+        this.scaling = scaling;
+
+        if (!mtlFileNames.isEmpty()) {
+            writer.write("mtllib ");
+            writer.write(String.join(" ", mtlFileNames));
+            writer.write('\n');
+        }
+    }
+
+    /**
+     * Appends the mesh of a chunk to the file.
+     * @param chunk The chunk to write
+     * @throws IOException If the file cannot be written
+     */
+    void write(OBJMeshChunk chunk) throws IOException {
+        final boolean scale = Float.compare(scaling, 1) != 0;
+        final float[] vertices = chunk.vertices;
+        for (int i = 0; i < vertices.length; i += 3) {
+            float x = vertices[i] - offsetX;
+            float y = vertices[i + 1] - offsetY;
+            float z = vertices[i + 2] - offsetZ;
+            if (scale) {
+                x *= scaling;
+                y *= scaling;
+                z *= scaling;
+            }
+            writer.write("v ");
+            writeTuple(x, y, z);
+        }
+
+        final float[] texCoords = chunk.texCoords;
+        for (int i = 0; i < chunk.getNumTexCoords(); i++) {
+            writer.write("vt ");
+            int dimensions = chunk.texCoordDimensions[i];
+            for (int d = 0; d < dimensions; d++) {
+                if (d > 0) {
+                    writer.write(' ');
+                }
+                writer.write(Float.toString(texCoords[3 * i + d]));
+            }
+            writer.write('\n');
+        }
+
+        final float[] normals = chunk.normals;
+        for (int i = 0; i < normals.length; i += 3) {
+            writer.write("vn ");
+            writeTuple(normals[i], normals[i + 1], normals[i + 2]);
+        }
+
+        writeFaces(chunk);
+
+        numVertices += chunk.getNumVertices();
+        numTexCoords += chunk.getNumTexCoords();
+        numNormals += chunk.getNumNormals();
+    }
+
+    private void writeFaces(OBJMeshChunk chunk) throws IOException {
+        int start = 0;
+        for (int i = 0; i < chunk.getNumFaces(); i++) {
+            // Write the started group and material names
+            if (start < chunk.startFaces.length && chunk.startFaces[start] == i) {
+                String[] groupNames = chunk.startedGroupNames[start];
+                if (groupNames != null) {
+                    boolean isDefaultGroup = groupNames.length == 1 && groupNames[0].equals("default");
+                    if (!skipWritingDefaultGroup || !isDefaultGroup) {
+                        writer.write("g ");
+                        for (String groupName : groupNames) {
+                            writer.write(groupName);
+                            writer.write(' ');
+                        }
+                        writer.write('\n');
+                    }
+                    skipWritingDefaultGroup = false;
+                }
+                String materialName = chunk.startedMaterialNames[start];
+                if (materialName != null) {
+                    writer.write("usemtl ");
+                    writer.write(materialName);
+                    writer.write('\n');
+                }
+                start++;
+            }
+
+            // Write the face indices, which are 1-based in the file
+            boolean hasTexCoords = chunk.hasTexCoords(i);
+            boolean hasNormals = chunk.hasNormals(i);
+            writer.write("f ");
+            for (int j = chunk.faceStarts[i]; j < chunk.faceStarts[i + 1]; j++) {
+                writer.write(Integer.toString(chunk.vertexIndices[j] + numVertices + 1));
+                if (hasTexCoords || hasNormals) {
+                    writer.write('/');
+                }
+                if (hasTexCoords) {
+                    writer.write(Integer.toString(chunk.texCoordIndices[j] + numTexCoords + 1));
+                }
+                if (hasNormals) {
+                    writer.write('/');
+                    writer.write(Integer.toString(chunk.normalIndices[j] + numNormals + 1));
+                }
+                writer.write(' ');
+            }
+            writer.write('\n');
+        }
+    }
+
+    private void writeTuple(float x, float y, float z) throws IOException {
+        writer.write(Float.toString(x));
+        writer.write(' ');
+        writer.write(Float.toString(y));
+        writer.write(' ');
+        writer.write(Float.toString(z));
+        writer.write('\n');
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
@@ -210,9 +210,11 @@ public class MassCalculation {
 		// If we do have MotorClusterStates, we need to adjust
 		// time according to motor ignition time.
 		double motorTime = simulationTime;
+		MotorClusterState motorState = null;
 		if (activeMotorList != null) {
 			for (MotorClusterState currentMotorState : activeMotorList ) {
 				if (currentMotorState.getMotor() == motor) {
+					motorState = currentMotorState;
 					motorTime = currentMotorState.getMotorTime(simulationTime);
 					break;
 				}
@@ -230,14 +232,14 @@ public class MassCalculation {
 		double eachCMx;  // CoM from beginning of motor
 		
 		if ( this.type.includesMotorCasing && this.type.includesPropellant ){
-			eachMass = motor.getTotalMass( motorTime );
-			eachCMx = motor.getCMx( motorTime);
+			eachMass = getTotalMass( motor, motorState, motorTime );
+			eachCMx = getCMx( motor, motorState, motorTime);
 		}else if( this.type.includesMotorCasing ) {
 			eachMass = motor.getTotalMass( Motor.PSEUDO_TIME_BURNOUT );
 			eachCMx = motor.getCMx( Motor.PSEUDO_TIME_BURNOUT );
 		} else {
-			final double eachMotorMass = motor.getTotalMass( motorTime );
-			final double eachMotorCMx = motor.getCMx( motorTime ); // CoM from beginning of motor
+			final double eachMotorMass = getTotalMass( motor, motorState, motorTime );
+			final double eachMotorCMx = getCMx( motor, motorState, motorTime ); // CoM from beginning of motor
 			final double eachCasingMass = motor.getBurnoutMass();
 			final double eachCasingCMx = motor.getBurnoutCGx();
 			
@@ -283,6 +285,15 @@ public class MassCalculation {
 		return this;
 	}
 	
+	// during a simulation, look up the motor data through the simulated motor, which remembers its position in the thrust curve
+	private static double getTotalMass(final Motor motor, final MotorClusterState motorState, final double motorTime) {
+		return (motorState != null) ? motorState.getTotalMass(motorTime) : motor.getTotalMass(motorTime);
+	}
+
+	private static double getCMx(final Motor motor, final MotorClusterState motorState, final double motorTime) {
+		return (motorState != null) ? motorState.getCMx(motorTime) : motor.getCMx(motorTime);
+	}
+
 	/**
 	 * Returns the mass and inertia data for this component and all subcomponents.
 	 * The inertia is returned relative to the CG, and the CG is in the coordinates
@@ -293,7 +304,7 @@ public class MassCalculation {
 		
 		if (this.type.includesStructure) {
 			MassCalculation structureCalc = this.copy(this.root, this.transform);
-			structureCalc.calculateStructure();
+			structureCalc.calculateCachedStructure();
 			this.merge(structureCalc);
 		}
 
@@ -306,6 +317,31 @@ public class MassCalculation {
 		return this;
 	}
 
+	/**
+	 * Calculates the structure data like {@link #calculateStructure()}, using the structure mass
+	 * cache of the configuration when calculating for the whole rocket.  The structure data
+	 * doesn't depend on the simulation time, so during a simulation it only needs to be
+	 * calculated once for each set of active stages.
+	 */
+	/* package-scope */ MassCalculation calculateCachedStructure() {
+		if (this.root != this.config.getRocket() || this.transform != Transformation.IDENTITY ||
+				this.analysisMap != null) {
+			return this.calculateStructure();
+		}
+
+		final StructureMassCache cache = this.config.getStructureMassCache();
+		final StructureMassCache.Entry cached = cache.get(this.config);
+		if (cached != null) {
+			this.centerOfMass = cached.centerOfMass();
+			this.bodies.addAll(cached.bodies());
+			return this;
+		}
+
+		this.calculateStructure();
+		cache.put(this.config, this.centerOfMass, this.bodies);
+		return this;
+	}
+
 	MassCalculation calculateStructure() {
 		final RocketComponent component = this.root;
 		final Transformation parentTransform = this.transform;
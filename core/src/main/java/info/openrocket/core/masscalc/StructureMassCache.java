@@ -0,0 +1,83 @@
+package info.openrocket.core.masscalc;
+
+import java.util.List;
+
+import info.openrocket.core.rocketcomponent.FlightConfiguration;
+import info.openrocket.core.rocketcomponent.Rocket;
+import info.openrocket.core.util.Coordinate;
+import info.openrocket.core.util.ModID;
+
+/**
+ * Cache of the structure mass data of a flight configuration.
+ * <p>
+ * The structure mass does not depend on the simulation time, so it only needs to be
+ * recalculated when the mass or the component tree of the rocket changes, or when the
+ * active stages of the configuration change (e.g. at stage separation during a simulation).
+ * The cache is checked against the rocket's modification IDs, and is only used while the
+ * rocket fires events, since the modification IDs are not updated otherwise.
+ * <p>
+ * The cache is held by {@link FlightConfiguration}, each configuration having its own.
+ * It may be used from several threads.
+ */
+public final class StructureMassCache {
+
+	private volatile Entry entry = null;
+
+	public StructureMassCache() {
+	}
+
+	/**
+	 * Return the cached structure data of the configuration, or <code>null</code> if not
+	 * available or outdated.
+	 */
+	/* package-scope */ Entry get(FlightConfiguration config) {
+		final Entry cached = this.entry;
+		final Rocket rocket = config.getRocket();
+		if (cached == null || !rocket.isEventsEnabled()) {
+			return null;
+		}
+		if (cached.massModID != rocket.getMassModID() || cached.treeModID != rocket.getTreeModID() ||
+				cached.activeStages != getActiveStages(config)) {
+			return null;
+		}
+		return cached;
+	}
+
+	/**
+	 * Store the structure data of the configuration, if the configuration can be cached.
+	 */
+	/* package-scope */ void put(FlightConfiguration config, Coordinate centerOfMass, List<RigidBody> bodies) {
+		final Rocket rocket = config.getRocket();
+		final long activeStages = getActiveStages(config);
+		if (!rocket.isEventsEnabled() || activeStages < 0) {
+			return;
+		}
+		this.entry = new Entry(rocket.getMassModID(), rocket.getTreeModID(), activeStages, centerOfMass,
+				List.copyOf(bodies));
+	}
+
+	/**
+	 * Return the active stages of the configuration as a bit mask, or -1 if there are too many
+	 * stages for a bit mask.
+	 */
+	private static long getActiveStages(FlightConfiguration config) {
+		final int stageCount = config.getRocket().getStageCount();
+		if (stageCount >= Long.SIZE) {
+			return -1;
+		}
+		long activeStages = 0;
+		for (int stageNumber = 0; stageNumber < stageCount; stageNumber++) {
+			if (config.isStageActive(stageNumber)) {
+				activeStages |= 1L << stageNumber;
+			}
+		}
+		return activeStages;
+	}
+
+	/**
+	 * The structure data calculated for a state of the rocket.
+	 */
+	/* package-scope */ record Entry(ModID massModID, ModID treeModID, long activeStages, Coordinate centerOfMass,
+			List<RigidBody> bodies) {
+	}
+}
@@ -64,6 +64,22 @@ public class AtmosphericConditions implements Cloneable, Monitorable {
 		this.modID = new ModID();
 	}
 
+	/**
+	 * Set both the temperature and the pressure.  Unlike setting them separately, this
+	 * changes the modification ID only once, and only if either value changes.
+	 * 
+	 * @param temperature the temperature in Kelvins.
+	 * @param pressure    the pressure in Pascals.
+	 */
+	public void set(double temperature, double pressure) {
+		if (temperature == this.temperature && pressure == this.pressure) {
+			return;
+		}
+		this.temperature = temperature;
+		this.pressure = pressure;
+		this.modID = new ModID();
+	}
+
 	/**
 	 * Return the current density of air for dry air.
 	 * 
@@ -6,4 +6,17 @@ public interface AtmosphericModel extends Monitorable {
 
 	public AtmosphericConditions getConditions(double altitude);
 
+	/**
+	 * Compute the atmospheric conditions at the given altitude into an existing object.
+	 * Callers evaluating the model repeatedly can use this to avoid allocating new objects.
+	 * The default implementation copies the values returned by {@link #getConditions(double)}.
+	 * 
+	 * @param altitude		the altitude.
+	 * @param conditions	the object into which the conditions are stored.
+	 */
+	public default void getConditions(double altitude, AtmosphericConditions conditions) {
+		AtmosphericConditions c = getConditions(altitude);
+		conditions.set(c.getTemperature(), c.getPressure());
+	}
+
 }
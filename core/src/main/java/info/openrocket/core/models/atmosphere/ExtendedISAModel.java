@@ -64,6 +64,24 @@ public class ExtendedISAModel extends InterpolatingAtmosphericModel {
 	 *                                  of the ISA model (over 11km).
 	 */
 	public ExtendedISAModel(double altitude, double temperature, double pressure) {
+		this(altitude, temperature, pressure, DEFAULT_RESOLUTION);
+	}
+
+	/**
+	 * Construct an extended model with the given temperature and pressure at the
+	 * specified altitude, interpolating the conditions between layers of the given
+	 * thickness.
+	 * 
+	 * @param altitude    the altitude of the measurements.
+	 * @param temperature the temperature.
+	 * @param pressure    the pressure.
+	 * @param resolution  the layer thickness of interpolated altitude.
+	 * @throws IllegalArgumentException if the altitude exceeds the second layer
+	 *                                  boundary of the ISA model (over 11km), or the
+	 *                                  resolution is not positive.
+	 */
+	public ExtendedISAModel(double altitude, double temperature, double pressure, double resolution) {
+		super(resolution);
 		if (altitude >= layer[1]) {
 			throw new IllegalArgumentException("Too high first altitude: " + altitude);
 		}
@@ -4,61 +4,116 @@ package info.openrocket.core.models.atmosphere;
  * An abstract atmospheric model that pre-computes the conditions on a number of
  * layers
  * and later linearly interpolates the values from between these layers.
- * 
+ * <p>
+ * The layers are evenly spaced from zero altitude up to the maximum altitude of the
+ * model, at a resolution given when constructing the model.  Their temperatures and
+ * pressures are stored in primitive arrays, so that the layer of an altitude is found
+ * by a division, and {@link #getConditions(double, AtmosphericConditions)} does not
+ * allocate anything.
+ *
  * @author Sampo Niskanen <sampo.niskanen@iki.fi>
  */
 public abstract class InterpolatingAtmosphericModel implements AtmosphericModel {
+	/** Default layer thickness of interpolated altitude. */
+	public static final double DEFAULT_RESOLUTION = 500;
+
 	/** Layer thickness of interpolated altitude. */
-	private static final double DELTA = 500;
+	private final double resolution;
+
+	private volatile Layers layers = null;
+
+	protected InterpolatingAtmosphericModel() {
+		this(DEFAULT_RESOLUTION);
+	}
 
-	private AtmosphericConditions[] levels = null;
+	/**
+	 * @param resolution	the layer thickness of interpolated altitude, in meters.
+	 * @throws IllegalArgumentException	if the resolution is not positive.
+	 */
+	protected InterpolatingAtmosphericModel(double resolution) {
+		if (!(resolution > 0) || Double.isInfinite(resolution)) {
+			throw new IllegalArgumentException("Invalid layer thickness: " + resolution);
+		}
+		this.resolution = resolution;
+	}
+
+	/**
+	 * Return the layer thickness of interpolated altitude.
+	 */
+	public double getResolution() {
+		return resolution;
+	}
 
 	@Override
 	public AtmosphericConditions getConditions(double altitude) {
-		if (levels == null)
-			computeLayers();
+		AtmosphericConditions c = new AtmosphericConditions();
+		getConditions(altitude, c);
+		return c;
+	}
 
+	@Override
+	public void getConditions(double altitude, AtmosphericConditions conditions) {
+		Layers l = getLayers();
+		double[] temperature = l.temperature;
+		double[] pressure = l.pressure;
+		int last = temperature.length - 1;
+
+		// The lowest or the highest level, for altitudes outside the interpolated range
 		if (altitude <= 0) {
-			// TODO: LOW: levels[0] returned null in some cases, see GitHub issue #952 for
-			// more information
-			if (levels[0] == null) {
-				computeLayers();
-			}
-			return levels[0];
+			conditions.set(temperature[0], pressure[0]);
+			return;
 		}
-		if (altitude >= DELTA * (levels.length - 1)) {
-			// TODO: LOW: levels[levels.length - 1] returned null in some cases, see GitHub
-			// issue #952 for more information
-			if (levels[levels.length - 1] == null) {
-				computeLayers();
-			}
-			return levels[levels.length - 1];
+		if (altitude >= resolution * last) {
+			conditions.set(temperature[last], pressure[last]);
+			return;
 		}
 
-		int n = (int) (altitude / DELTA);
-		double d = (altitude - n * DELTA) / DELTA;
-		AtmosphericConditions c = new AtmosphericConditions();
-		// TODO: LOW: levels[n] returned null in some cases, see GitHub issue #2180 for
-		// more information
-		if (levels[n] == null) {
-			computeLayers();
-		}
-		c.setTemperature(levels[n].getTemperature() * (1 - d) + levels[n + 1].getTemperature() * d);
-		c.setPressure(levels[n].getPressure() * (1 - d) + levels[n + 1].getPressure() * d);
+		int n = (int) (altitude / resolution);
+		double d = (altitude - n * resolution) / resolution;
+		conditions.set(temperature[n] * (1 - d) + temperature[n + 1] * d,
+				pressure[n] * (1 - d) + pressure[n + 1] * d);
+	}
 
-		return c;
+	/**
+	 * Return the layers, computing them on first use.  The layers are only published
+	 * when fully computed, so concurrent callers never see missing levels.
+	 */
+	private Layers getLayers() {
+		Layers l = layers;
+		if (l == null) {
+			l = computeLayers();
+			layers = l;
+		}
+		return l;
 	}
 
-	private void computeLayers() {
+	private Layers computeLayers() {
 		double max = getMaxAltitude();
-		int n = (int) (max / DELTA) + 1;
-		levels = new AtmosphericConditions[n];
+		int n = (int) (max / resolution) + 1;
+		double[] temperature = new double[n];
+		double[] pressure = new double[n];
 		for (int i = 0; i < n; i++) {
-			levels[i] = getExactConditions(i * DELTA);
+			AtmosphericConditions c = getExactConditions(i * resolution);
+			temperature[i] = c.getTemperature();
+			pressure[i] = c.getPressure();
 		}
+		return new Layers(temperature, pressure);
 	}
 
 	protected abstract double getMaxAltitude();
 
 	protected abstract AtmosphericConditions getExactConditions(double altitude);
+
+	/**
+	 * The temperatures and pressures of the layers, indexed by altitude / resolution.
+	 */
+	private static final class Layers {
+		private final double[] temperature;
+		private final double[] pressure;
+
+		private Layers(double[] temperature, double[] pressure) {
+			this.temperature = temperature;
+			this.pressure = pressure;
+		}
+	}
 }
@@ -0,0 +1,187 @@
+package info.openrocket.core.models.atmosphere;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import info.openrocket.core.util.ModID;
+
+/**
+ * An atmospheric model based on a measured sounding profile, i.e. the temperature and
+ * pressure measured at a number of altitudes, for example by a weather balloon.
+ * <p>
+ * Between the measurements the temperature is interpolated linearly and the pressure
+ * logarithmically, as it decreases exponentially with altitude.  Below the lowest and
+ * above the highest measurement the conditions of that measurement are used.  The
+ * conditions are tabulated like in other {@link InterpolatingAtmosphericModel}s, by
+ * default at a finer resolution, as measured profiles may have inversions that the
+ * standard atmosphere does not.
+ */
+public class SoundingAtmosphericModel extends InterpolatingAtmosphericModel {
+
+	/** Default layer thickness of interpolated altitude for sounding profiles. */
+	public static final double DEFAULT_SOUNDING_RESOLUTION = 100;
+
+	private final double[] altitude;
+	private final double[] temperature;
+	private final double[] pressure;
+
+	/**
+	 * Construct a model of the given sounding profile, using the default resolution.
+	 *
+	 * @see #SoundingAtmosphericModel(double[], double[], double[], double)
+	 */
+	public SoundingAtmosphericModel(double[] altitude, double[] temperature, double[] pressure) {
+		this(altitude, temperature, pressure, DEFAULT_SOUNDING_RESOLUTION);
+	}
+
+	/**
+	 * Construct a model of the given sounding profile.
+	 *
+	 * @param altitude    the altitudes of the measurements, in meters, in increasing order.
+	 * @param temperature the temperatures at the altitudes, in Kelvins.
+	 * @param pressure    the pressures at the altitudes, in Pascals.
+	 * @param resolution  the layer thickness of interpolated altitude.
+	 * @throws IllegalArgumentException if the profile is empty, the arrays are of different
+	 *                                  lengths, the altitudes do not increase, a value is not
+	 *                                  positive or the resolution is not positive.
+	 */
+	public SoundingAtmosphericModel(double[] altitude, double[] temperature, double[] pressure, double resolution) {
+		super(resolution);
+		if (altitude.length == 0) {
+			throw new IllegalArgumentException("Empty sounding profile");
+		}
+		if (altitude.length != temperature.length || altitude.length != pressure.length) {
+			throw new IllegalArgumentException("Sounding profile arrays differ in length: " + altitude.length +
+					", " + temperature.length + ", " + pressure.length);
+		}
+		for (int i = 0; i < altitude.length; i++) {
+			if (Double.isNaN(altitude[i]) || Double.isInfinite(altitude[i]) ||
+					(i > 0 && !(altitude[i] > altitude[i - 1]))) {
+				throw new IllegalArgumentException("Sounding altitudes must be finite and increasing, found " +
+						altitude[i] + " m at index " + i);
+			}
+			if (!(temperature[i] > 0) || !(pressure[i] > 0) ||
+					Double.isInfinite(temperature[i]) || Double.isInfinite(pressure[i])) {
+				throw new IllegalArgumentException("Invalid sounding conditions at " + altitude[i] + " m: T=" +
+						temperature[i] + " K, P=" + pressure[i] + " Pa");
+			}
+		}
+		this.altitude = altitude.clone();
+		this.temperature = temperature.clone();
+		this.pressure = pressure.clone();
+	}
+
+	/**
+	 * Load a sounding profile from a CSV file, see {@link #load(InputStream, double)}.
+	 *
+	 * @param file       the CSV file.
+	 * @param resolution the layer thickness of interpolated altitude.
+	 * @return the model of the profile.
+	 * @throws IOException if the file cannot be read or is invalid.
+	 */
+	public static SoundingAtmosphericModel load(File file, double resolution) throws IOException {
+		try (InputStream is = new FileInputStream(file)) {
+			return load(is, resolution);
+		} catch (IOException e) {
+			throw new IOException("Unable to load sounding profile " + file + ": " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Load a sounding profile from CSV data.  Each line contains the altitude in meters,
+	 * the temperature in Kelvins and the pressure in Pascals, separated by commas,
+	 * semicolons or white space.  Empty lines, lines starting with '#' and a header line
+	 * are ignored.  The lines may be in any order of altitude.
+	 *
+	 * @param stream     the stream to read the CSV data from, not closed by this method.
+	 * @param resolution the layer thickness of interpolated altitude.
+	 * @return the model of the profile.
+	 * @throws IOException if the data cannot be read or is invalid.
+	 */
+	public static SoundingAtmosphericModel load(InputStream stream, double resolution) throws IOException {
+		BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8));
+		List<double[]> rows = new ArrayList<>();
+		String line;
+		int lineNumber = 0;
+		while ((line = reader.readLine()) != null) {
+			lineNumber++;
+			line = line.trim();
+			if (line.isEmpty() || line.startsWith("#")) {
+				continue;
+			}
+			String[] fields = line.split("\\s*[,;]\\s*|\\s+");
+			if (fields.length < 3) {
+				throw new IOException("Expected altitude, temperature and pressure on line " + lineNumber +
+						": " + line);
+			}
+			double[] row = new double[3];
+			try {
+				for (int i = 0; i < 3; i++) {
+					row[i] = Double.parseDouble(fields[i]);
+				}
+			} catch (NumberFormatException e) {
+				if (rows.isEmpty()) {
+					// Header line
+					continue;
+				}
+				throw new IOException("Invalid number on line " + lineNumber + ": " + line, e);
+			}
+			rows.add(row);
+		}
+
+		rows.sort((a, b) -> Double.compare(a[0], b[0]));
+		double[] altitude = new double[rows.size()];
+		double[] temperature = new double[rows.size()];
+		double[] pressure = new double[rows.size()];
+		for (int i = 0; i < rows.size(); i++) {
+			altitude[i] = rows.get(i)[0];
+			temperature[i] = rows.get(i)[1];
+			pressure[i] = rows.get(i)[2];
+		}
+		try {
+			return new SoundingAtmosphericModel(altitude, temperature, pressure, resolution);
+		} catch (IllegalArgumentException e) {
+			throw new IOException(e.getMessage(), e);
+		}
+	}
+
+	@Override
+	protected AtmosphericConditions getExactConditions(double alt) {
+		int last = altitude.length - 1;
+		if (alt <= altitude[0]) {
+			return new AtmosphericConditions(temperature[0], pressure[0]);
+		}
+		if (alt >= altitude[last]) {
+			return new AtmosphericConditions(temperature[last], pressure[last]);
+		}
+
+		// The measurement below the altitude
+		int n = Arrays.binarySearch(altitude, alt);
+		if (n < 0) {
+			n = -n - 2;
+		}
+		double d = (alt - altitude[n]) / (altitude[n + 1] - altitude[n]);
+		double t = temperature[n] * (1 - d) + temperature[n + 1] * d;
+		double p = pressure[n] * Math.exp(d * Math.log(pressure[n + 1] / pressure[n]));
+		return new AtmosphericConditions(t, p);
+	}
+
+	@Override
+	protected double getMaxAltitude() {
+		return Math.max(altitude[altitude.length - 1], 0);
+	}
+
+	@Override
+	public ModID getModID() {
+		return ModID.ZERO;
+	}
+
+}
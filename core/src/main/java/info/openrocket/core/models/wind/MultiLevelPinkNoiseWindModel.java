@@ -13,9 +13,21 @@ import info.openrocket.core.util.Coordinate;
 import info.openrocket.core.util.ModID;
 import info.openrocket.core.util.StateChangeListener;
 
+/**
+ * A wind model whose wind is given at a number of altitude levels, each with its own
+ * pink noise turbulence.  Between the levels the wind is interpolated, outside them
+ * the wind of the nearest level is used.
+ * <p>
+ * The levels are looked up through a cursor that remembers the level interval of the
+ * previous request.  As the altitude changes little between the requests of a
+ * simulation, the interval is usually found without searching.
+ */
 public class MultiLevelPinkNoiseWindModel implements WindModel {
 	private List<LevelWindModel> levels;
 
+	/** The index of the last level not above the altitude of the previous request, or -1 */
+	private int cursor = -1;
+
 	private final List<StateChangeListener> listeners = new ArrayList<>();
 
 	public MultiLevelPinkNoiseWindModel() {
@@ -23,7 +35,19 @@ public class MultiLevelPinkNoiseWindModel implements WindModel {
 	}
 
 	public void addWindLevel(double altitude, double speed, double direction, double standardDeviation) {
-		PinkNoiseWindModel pinkNoiseModel = new PinkNoiseWindModel();
+		addWindLevel(altitude, new PinkNoiseWindModel(), speed, direction, standardDeviation);
+	}
+
+	/**
+	 * Add a wind level whose turbulence is generated using a specific seed value, so that
+	 * the wind velocities are reproducible.
+	 */
+	public void addWindLevel(double altitude, double speed, double direction, double standardDeviation, int seed) {
+		addWindLevel(altitude, new PinkNoiseWindModel(seed), speed, direction, standardDeviation);
+	}
+
+	private void addWindLevel(double altitude, PinkNoiseWindModel pinkNoiseModel, double speed, double direction,
+			double standardDeviation) {
 		pinkNoiseModel.setAverage(speed);
 		pinkNoiseModel.setStandardDeviation(standardDeviation);
 		pinkNoiseModel.setDirection(direction);
@@ -67,26 +91,19 @@ public class MultiLevelPinkNoiseWindModel implements WindModel {
 			return Coordinate.ZERO;
 		}
 
-		int index = Collections.binarySearch(levels, new LevelWindModel(altitude, null),
-				Comparator.comparingDouble(l -> l.altitude));
-
-		// Retrieve the wind level if it exists
-		if (index >= 0) {
-			return levels.get(index).model.getWindVelocity(time, altitude);
-		}
+		int index = findLevel(altitude);
 
 		// Extrapolation (take the value of the outer bounds)
-		int insertionPoint = -index - 1;
-		if (insertionPoint == 0) {
+		if (index < 0) {
 			return levels.get(0).model.getWindVelocity(time, altitude);
 		}
-		if (insertionPoint == levels.size()) {
-			return levels.get(levels.size() - 1).model.getWindVelocity(time, altitude);
+		LevelWindModel lowerLevel = levels.get(index);
+		if (index == levels.size() - 1 || lowerLevel.altitude == altitude) {
+			return lowerLevel.model.getWindVelocity(time, altitude);
 		}
 
 		// Interpolation (take the value between the closest two bounds)
-		LevelWindModel lowerLevel = levels.get(insertionPoint - 1);
-		LevelWindModel upperLevel = levels.get(insertionPoint);
+		LevelWindModel upperLevel = levels.get(index + 1);
 		double fraction = (altitude - lowerLevel.altitude) / (upperLevel.altitude - lowerLevel.altitude);
 
 		Coordinate lowerVelocity = lowerLevel.model.getWindVelocity(time, altitude);
@@ -95,6 +112,22 @@ public class MultiLevelPinkNoiseWindModel implements WindModel {
 		return lowerVelocity.interpolate(upperVelocity, fraction);
 	}
 
+	/**
+	 * Return the index of the last level not above the given altitude, or -1 if all the
+	 * levels are above it.  The search starts from the level found by the previous call.
+	 */
+	private int findLevel(double altitude) {
+		int index = Math.min(cursor, levels.size() - 1);
+		while (index + 1 < levels.size() && levels.get(index + 1).altitude <= altitude) {
+			index++;
+		}
+		while (index >= 0 && levels.get(index).altitude > altitude) {
+			index--;
+		}
+		cursor = index;
+		return index;
+	}
+
 	public double getWindDirection(double time, double altitude) {
 		Coordinate velocity = getWindVelocity(time, altitude);
 		double direction = Math.atan2(velocity.x, velocity.y);
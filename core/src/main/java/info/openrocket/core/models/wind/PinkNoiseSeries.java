@@ -0,0 +1,117 @@
+package info.openrocket.core.models.wind;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import info.openrocket.core.util.PinkNoise;
+
+/**
+ * The turbulence of a {@link PinkNoiseWindModel}, as a table of pink noise values
+ * sampled every {@link PinkNoiseWindModel#DELTA_T} seconds.
+ * <p>
+ * The noise depends only on the seed of the wind model, the average wind speed and
+ * standard deviation merely scale it.  The values of a seed are therefore generated
+ * once into a primitive array and shared by all wind models using the seed, e.g. the
+ * clones of a wind model used by the simulations of a Monte Carlo or optimization run.
+ * The table is generated for {@link #INITIAL_SAMPLES} samples up front, and extended
+ * whenever a later time is requested.  The values do not depend on the order in
+ * which times are requested, so going back in time needs no regeneration.
+ * <p>
+ * A series is thread-safe.  Reading a value does not lock or allocate; only extending
+ * the table is synchronized.
+ */
+final class PinkNoiseSeries {
+
+	/** The number of samples generated up front, covering the first 102.4 seconds */
+	static final int INITIAL_SAMPLES = 2048;
+
+	/** The maximum number of series of different seeds kept for sharing */
+	private static final int MAX_CACHED_SERIES = 64;
+
+	private static final Map<Integer, PinkNoiseSeries> cache = new LinkedHashMap<>(16, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Integer, PinkNoiseSeries> eldest) {
+			return size() > MAX_CACHED_SERIES;
+		}
+	};
+
+	private final double alpha;
+	private final int poles;
+
+	/** The source of the values, guarded by this */
+	private final PinkNoise source;
+
+	/** The values generated so far, every element of which is filled */
+	private volatile double[] values;
+
+	/**
+	 * Return the series of a seed, shared with the other wind models using the seed.
+	 *
+	 * @param seed	the seed of the random source, already randomized by the wind model
+	 * @param alpha	the pink noise alpha parameter
+	 * @param poles	the number of poles of the pink noise IIR filter
+	 * @return		the series
+	 */
+	static PinkNoiseSeries getSeries(int seed, double alpha, int poles) {
+		synchronized (cache) {
+			PinkNoiseSeries series = cache.get(seed);
+			if (series == null || series.alpha != alpha || series.poles != poles) {
+				series = new PinkNoiseSeries(seed, alpha, poles);
+				cache.put(seed, series);
+			}
+			return series;
+		}
+	}
+
+	private PinkNoiseSeries(int seed, double alpha, int poles) {
+		this.alpha = alpha;
+		this.poles = poles;
+		this.source = new PinkNoise(alpha, poles, new Random(seed));
+		double[] initial = new double[INITIAL_SAMPLES];
+		for (int i = 0; i < initial.length; i++) {
+			initial[i] = source.nextValue();
+		}
+		this.values = initial;
+	}
+
+	/**
+	 * Return the noise at a time, linearly interpolated between the samples.
+	 *
+	 * @param position	the time divided by the sampling interval, not negative
+	 * @return			the noise at the time
+	 */
+	double getValue(double position) {
+		int index = (int) position;
+		double a = position - index;
+		double[] v = values;
+		if (index + 1 >= v.length) {
+			v = extend(index + 2);
+		}
+		return v[index] * (1 - a) + v[index + 1] * a;
+	}
+
+	/**
+	 * Return the number of samples generated so far.
+	 */
+	int size() {
+		return values.length;
+	}
+
+	/**
+	 * Extend the table to contain at least the given number of samples.
+	 */
+	private synchronized double[] extend(int count) {
+		double[] v = values;
+		if (count <= v.length) {
+			return v;
+		}
+		double[] extended = new double[Math.max(count, 2 * v.length)];
+		System.arraycopy(v, 0, extended, 0, v.length);
+		for (int i = v.length; i < extended.length; i++) {
+			extended[i] = source.nextValue();
+		}
+		values = extended;
+		return extended;
+	}
+}
@@ -9,7 +9,6 @@ import java.util.Random;
 import info.openrocket.core.util.Coordinate;
 import info.openrocket.core.util.MathUtil;
 import info.openrocket.core.util.ModID;
-import info.openrocket.core.util.PinkNoise;
 import info.openrocket.core.util.StateChangeListener;
 
 /**
@@ -18,6 +17,10 @@ import info.openrocket.core.util.StateChangeListener;
  * and standard deviance. Currently the wind is always directed in the direction
  * of the negative
  * X-axis. The simulated wind is unaffected by the altitude.
+ * <p>
+ * The turbulence is read from a {@link PinkNoiseSeries} generated up front and
+ * shared by all wind models with the same seed, so that the wind can be requested
+ * at any time in any order.
  * 
  * @author Sampo Niskanen <sampo.niskanen@iki.fi>
  */
@@ -47,9 +50,7 @@ public class PinkNoiseWindModel implements WindModel {
 
 	private final int seed;
 
-	private PinkNoise randomSource = null;
-	private double time1;
-	private double value1, value2;
+	private PinkNoiseSeries series = null;
 
 	private final List<StateChangeListener> listeners = new ArrayList<>();
 
@@ -157,35 +158,15 @@ public class PinkNoiseWindModel implements WindModel {
 			throw new IllegalArgumentException("Requesting wind speed at t=" + time);
 		}
 
-		if (randomSource == null) {
-			randomSource = new PinkNoise(ALPHA, POLES, new Random(seed));
-			time1 = 0;
-			value1 = randomSource.nextValue();
-			value2 = randomSource.nextValue();
+		if (series == null) {
+			series = PinkNoiseSeries.getSeries(seed, ALPHA, POLES);
 		}
 
-		if (time < time1) {
-			reset();
-			return getWindVelocity(time, altitude);
-		}
-
-		while (time1 + DELTA_T < time) {
-			value1 = value2;
-			value2 = randomSource.nextValue();
-			time1 += DELTA_T;
-		}
-
-		double a = (time - time1) / DELTA_T;
-
-		double speed = average + (value1 * (1 - a) + value2 * a) * standardDeviation / STDDEV;
+		double speed = average + series.getValue(time / DELTA_T) * standardDeviation / STDDEV;
 		return new Coordinate(speed * Math.sin(direction), speed * Math.cos(direction), 0);
 
 	}
 
-	private void reset() {
-		randomSource = null;
-	}
-
 	public void loadFrom(PinkNoiseWindModel source) {
 		this.average = source.average;
 		this.direction = source.direction;
@@ -61,6 +61,9 @@ public class ThrustCurveMotor implements Motor, Comparable<ThrustCurveMotor>, Se
 	private double unitRotationalInertia;
 	private double unitLongitudinalInertia;
 
+	// Impulse from ignition to each time point, computed on first use
+	private transient volatile double[] cumulativeImpulse;
+
 	public static class Builder {
 
 		ThrustCurveMotor motor = new ThrustCurveMotor();
@@ -304,17 +307,48 @@ public class ThrustCurveMotor implements Motor, Comparable<ThrustCurveMotor>, Se
 		return ((double) lowerIndex) + fraction;
 	}
 
+	/**
+	 * Return the index of the last time point not after the given time, or 0 if the
+	 * time is before the first time point.
+	 */
 	private int getIndex(final double motorTime) {
+		if (!(motorTime >= time[0])) {
+			return 0;
+		}
+
 		int lowerBoundIndex = 0;
-		int upperBoundIndex = 0;
-		while ((upperBoundIndex < time.length) && (motorTime >= time[upperBoundIndex])) {
-			lowerBoundIndex = upperBoundIndex;
-			++upperBoundIndex;
+		int upperBoundIndex = time.length - 1;
+		while (lowerBoundIndex < upperBoundIndex) {
+			final int middleIndex = (lowerBoundIndex + upperBoundIndex + 1) >>> 1;
+			if (time[middleIndex] <= motorTime) {
+				lowerBoundIndex = middleIndex;
+			} else {
+				upperBoundIndex = middleIndex - 1;
+			}
 		}
 
 		return lowerBoundIndex;
 	}
 
+	/**
+	 * Same as {@link #getIndex(double)}, but searching from the index of a previous lookup.
+	 */
+	private int getIndex(final double motorTime, final int previousIndex) {
+		if (!(motorTime >= time[0])) {
+			return 0;
+		}
+
+		int index = Math.min(previousIndex, time.length - 1);
+		while ((index + 1 < time.length) && (motorTime >= time[index + 1])) {
+			++index;
+		}
+		while (time[index] > motorTime) {
+			--index;
+		}
+
+		return index;
+	}
+
 	private double getIndexFraction(final double motorTime, final int index) {
 		final double SNAP_DISTANCE = 0.0001;
 
@@ -345,13 +379,26 @@ public class ThrustCurveMotor implements Motor, Comparable<ThrustCurveMotor>, Se
 
 	@Override
 	public double getAverageThrust(final double startTime, final double endTime) {
-
-		int timeIndex = 0;
-
-		while (timeIndex < time.length - 1 && startTime > time[timeIndex + 1]) {
-			timeIndex++;
+		// the time slice containing the start time
+		int low = 0;
+		int high = time.length - 1;
+		while (low < high) {
+			final int middle = (low + high) >>> 1;
+			if (startTime > time[middle + 1]) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
 		}
 
+		return getAverageThrust(startTime, endTime, low);
+	}
+
+	/**
+	 * Compute the average thrust between two times, starting from the time slice
+	 * containing the start time.
+	 */
+	private double getAverageThrust(final double startTime, final double endTime, int timeIndex) {
 		if (timeIndex == time.length - 1) {
 			return 0.0;
 		}
@@ -375,10 +422,10 @@ public class ThrustCurveMotor implements Motor, Comparable<ThrustCurveMotor>, Se
 
 		// Now add the whole steps;
 		timeIndex++;
-		while (timeIndex < time.length - 1 && endTime >= time[timeIndex + 1]) {
-			impulse += (time[timeIndex + 1] - time[timeIndex]) * (thrust[timeIndex] + thrust[timeIndex + 1]) / 2.0;
-			timeIndex++;
-		}
+		final int endIndex = getIndex(endTime, timeIndex);
+		final double[] cumulative = getCumulativeImpulse();
+		impulse += cumulative[endIndex] - cumulative[timeIndex];
+		timeIndex = endIndex;
 
 		// Now add the bit after the last time index
 		if (timeIndex < time.length - 1) {
@@ -390,6 +437,84 @@ public class ThrustCurveMotor implements Motor, Comparable<ThrustCurveMotor>, Se
 		return impulse / (endTime - startTime);
 	}
 
+	/**
+	 * Return the impulse from ignition to each time point of the thrust curve.
+	 */
+	private double[] getCumulativeImpulse() {
+		double[] cumulative = cumulativeImpulse;
+		if (cumulative == null) {
+			cumulative = new double[time.length];
+			for (int i = 0; i < time.length - 1; i++) {
+				cumulative[i + 1] = cumulative[i] + (time[i + 1] - time[i]) * (thrust[i] + thrust[i + 1]) / 2.0;
+			}
+			cumulativeImpulse = cumulative;
+		}
+		return cumulative;
+	}
+
+	/**
+	 * Return a new sampler of the thrust curve of this motor, see {@link Sampler}.
+	 *
+	 * @return	a new sampler
+	 */
+	public Sampler getSampler() {
+		return new Sampler();
+	}
+
+	/**
+	 * A lookup of the thrust curve that remembers the time slice of the previous lookup,
+	 * and searches onwards from it.  During a simulation the motor time advances almost
+	 * monotonically, so a lookup usually takes constant time.  The values are the same as
+	 * those returned by the corresponding methods of the motor.
+	 * <p>
+	 * Each simulated motor cluster uses its own sampler.  A sampler is not thread-safe.
+	 */
+	public final class Sampler {
+		private int index = 0;
+
+		private Sampler() {
+		}
+
+		public ThrustCurveMotor getMotor() {
+			return ThrustCurveMotor.this;
+		}
+
+		public double getThrust(final double motorTime) {
+			return ThrustCurveMotor.interpolateAtIndex(thrust, getPseudoIndex(motorTime));
+		}
+
+		public double getTotalMass(final double motorTime) {
+			return interpolateCenterOfMassAtIndex(getPseudoIndex(motorTime)).weight;
+		}
+
+		public double getCMx(final double motorTime) {
+			return interpolateCenterOfMassAtIndex(getPseudoIndex(motorTime)).x;
+		}
+
+		public double getAverageThrust(final double startTime, final double endTime) {
+			// the time slice containing the start time
+			int timeIndex = index;
+			while (timeIndex < time.length - 1 && startTime > time[timeIndex + 1]) {
+				timeIndex++;
+			}
+			while (timeIndex > 0 && !(startTime > time[timeIndex])) {
+				timeIndex--;
+			}
+			index = timeIndex;
+
+			return ThrustCurveMotor.this.getAverageThrust(startTime, endTime, timeIndex);
+		}
+
+		private double getPseudoIndex(final double motorTime) {
+			if ((time.length == 0) || (0 > motorTime)) {
+				return Double.NaN;
+			}
+
+			index = getIndex(motorTime, index);
+			return ((double) index) + getIndexFraction(motorTime, index);
+		}
+	}
+
 	@Override
 	public double getThrust(final double motorTime) {
 		double pseudoIndex = getPseudoIndex(motorTime);
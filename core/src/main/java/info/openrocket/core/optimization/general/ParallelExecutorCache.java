@@ -2,11 +2,10 @@ package info.openrocket.core.optimization.general;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
@@ -23,21 +22,21 @@ import info.openrocket.core.util.BugException;
  * function values beforehand. If values are not required after all, the
  * computation can be aborted assuming the function evaluation supports it.
  * <p>
- * Note that while this class handles threads and abstracts background
- * execution,
- * the public methods themselves are NOT thread-safe and should be called from
- * only one thread at a time.
+ * Function values are memoised as soon as their evaluation completes, so
+ * values computed in the background remain available even if the point is
+ * later aborted. The public methods are thread-safe, but the function itself
+ * is evaluated concurrently from several threads and must be thread-safe as well.
  * 
  * @author Sampo Niskanen <sampo.niskanen@iki.fi>
  */
 public class ParallelExecutorCache implements ParallelFunctionCache {
 
-	private final Map<Point, Double> functionCache = new HashMap<>();
-	private final Map<Point, Future<Double>> futureMap = new HashMap<>();
+	private final Map<Point, Double> functionCache = new ConcurrentHashMap<>();
+	private final Map<Point, Future<Double>> futureMap = new ConcurrentHashMap<>();
 
 	private final ExecutorService executor;
 
-	private Function function;
+	private volatile Function function;
 
 	/**
 	 * Construct a cache that uses the same number of computational threads as there
@@ -51,21 +50,13 @@ public class ParallelExecutorCache implements ParallelFunctionCache {
 	/**
 	 * Construct a cache that uses the specified number of computational threads for
 	 * background
-	 * computation. The threads that are created are marked as daemon threads.
+	 * computation. The threads that are created are marked as daemon threads,
+	 * and they are terminated after being idle for 60 seconds.
 	 * 
 	 * @param threadCount the number of threads to use in the executor.
 	 */
 	public ParallelExecutorCache(int threadCount) {
-		this(new ThreadPoolExecutor(threadCount, threadCount, 60, TimeUnit.SECONDS,
-				new LinkedBlockingQueue<>(),
-				new ThreadFactory() {
-					@Override
-					public Thread newThread(Runnable r) {
-						Thread t = new Thread(r);
-						t.setDaemon(true);
-						return t;
-					}
-				}));
+		this(createExecutor(threadCount));
 	}
 
 	/**
@@ -78,6 +69,21 @@ public class ParallelExecutorCache implements ParallelFunctionCache {
 		this.executor = executor;
 	}
 
+	private static ExecutorService createExecutor(int threadCount) {
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(threadCount, threadCount, 60, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<>(),
+				new ThreadFactory() {
+					@Override
+					public Thread newThread(Runnable r) {
+						Thread t = new Thread(r);
+						t.setDaemon(true);
+						return t;
+					}
+				});
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
+	}
+
 	@Override
 	public void compute(Collection<Point> points) {
 		for (Point p : points) {
@@ -98,15 +104,9 @@ public class ParallelExecutorCache implements ParallelFunctionCache {
 			return;
 		}
 
-		if (futureMap.containsKey(point)) {
-			// Function is being evaluated at the point
-			return;
-		}
-
-		// Submit point for evaluation
-		FunctionCallable callable = new FunctionCallable(function, point);
-		Future<Double> future = executor.submit(callable);
-		futureMap.put(point, future);
+		// Submit point for evaluation unless it is already being evaluated
+		final Function calledFunction = function;
+		futureMap.computeIfAbsent(point, p -> executor.submit(new FunctionCallable(calledFunction, p)));
 	}
 
 	@Override
@@ -134,6 +134,7 @@ public class ParallelExecutorCache implements ParallelFunctionCache {
 		try {
 			double value = future.get();
 			functionCache.put(point, value);
+			futureMap.remove(point, future);
 		} catch (ExecutionException e) {
 			Throwable cause = e.getCause();
 			if (cause instanceof InterruptedException) {
@@ -169,11 +170,11 @@ public class ParallelExecutorCache implements ParallelFunctionCache {
 			return false;
 		}
 
+		Future<Double> future = futureMap.remove(point);
 		if (functionCache.containsKey(point)) {
 			return true;
 		}
 
-		Future<Double> future = futureMap.remove(point);
 		if (future == null) {
 			throw new IllegalStateException("abort called for " + point + " but it is not being computed");
 		}
@@ -196,11 +197,13 @@ public class ParallelExecutorCache implements ParallelFunctionCache {
 
 	@Override
 	public void abortAll() {
-		Iterator<Point> iterator = futureMap.keySet().iterator();
-		while (iterator.hasNext()) {
-			Point point = iterator.next();
-			Future<Double> future = futureMap.get(point);
-			iterator.remove();
+		for (Map.Entry<Point, Future<Double>> entry : futureMap.entrySet()) {
+			Point point = entry.getKey();
+			Future<Double> future = entry.getValue();
+			if (!futureMap.remove(point, future)) {
+				// Already handled by another thread
+				continue;
+			}
 
 			if (future.isDone()) {
 				// Evaluation has been completed, store value in cache
@@ -244,8 +247,7 @@ public class ParallelExecutorCache implements ParallelFunctionCache {
 
 	@Override
 	public void clearCache() {
-		List<Point> list = new ArrayList<>(futureMap.keySet());
-		abort(list);
+		abortAll();
 		functionCache.clear();
 	}
 
@@ -283,7 +285,12 @@ public class ParallelExecutorCache implements ParallelFunctionCache {
 
 		@Override
 		public Double call() throws InterruptedException, OptimizationException {
-			return calledFunction.evaluate(point);
+			double value = calledFunction.evaluate(point);
+			// Memoise the value immediately unless the function has been changed meanwhile
+			if (calledFunction == function) {
+				functionCache.put(point, value);
+			}
+			return value;
 		}
 	}
 
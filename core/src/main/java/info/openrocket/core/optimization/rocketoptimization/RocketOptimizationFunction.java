@@ -1,8 +1,8 @@
 package info.openrocket.core.optimization.rocketoptimization;
 
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -28,6 +28,10 @@ public class RocketOptimizationFunction implements Function {
 
 	/*
 	 * NOTE: This class must be thread-safe!!!
+	 * 
+	 * The base simulation may not be accessed concurrently, so each evaluating
+	 * thread makes a private copy of it once, and each evaluation then copies
+	 * the thread-local template instead of the base simulation.
 	 */
 
 	private final Simulation baseSimulation;
@@ -36,7 +40,9 @@ public class RocketOptimizationFunction implements Function {
 	private final SimulationDomain domain;
 	private final SimulationModifier[] modifiers;
 
-	private final List<RocketOptimizationListener> listeners = new ArrayList<>();
+	private final ThreadLocal<Simulation> threadSimulation = ThreadLocal.withInitial(this::newThreadSimulation);
+
+	private final List<RocketOptimizationListener> listeners = new CopyOnWriteArrayList<>();
 
 	/**
 	 * Sole constructor.
@@ -79,7 +85,7 @@ public class RocketOptimizationFunction implements Function {
 					modifiers.length + " simulation modifiers");
 		}
 
-		final Simulation simulation = newSimulationInstance(baseSimulation);
+		final Simulation simulation = newSimulationInstance(threadSimulation.get());
 
 		for (int i = 0; i < modifiers.length; i++) {
 			modifiers[i].modify(simulation, p[i]);
@@ -132,6 +138,16 @@ public class RocketOptimizationFunction implements Function {
 		return simulation.duplicateSimulation(simulation.getRocket().copyWithOriginalID());
 	}
 
+	/**
+	 * Returns the per-thread template copy of the base simulation. Copying is
+	 * synchronized on the base simulation, which is not safe for concurrent access.
+	 */
+	private Simulation newThreadSimulation() {
+		synchronized (baseSimulation) {
+			return newSimulationInstance(baseSimulation);
+		}
+	}
+
 	/**
 	 * Add a listener to this function. The listener will be notified each time the
 	 * function is successfully evaluated.
@@ -19,7 +19,19 @@ public class PluginHelper {
 		if (!pluginDir.exists()) {
 			pluginDir.mkdirs();
 		}
+		return listPluginJars(pluginDir);
+	}
+
+	/**
+	 * Return whether there are external plugin jars in the plugin directory.  Unlike
+	 * {@link #getPluginJars()}, this does not create the plugin directory.
+	 */
+	public static boolean hasPluginJars() {
+		File pluginDir = new File(SystemInfo.getUserApplicationDirectory(), PLUGIN_DIRECTORY);
+		return !listPluginJars(pluginDir).isEmpty();
+	}
 
+	private static List<File> listPluginJars(File pluginDir) {
 		File[] files = pluginDir.listFiles(new FilenameFilter() {
 			@Override
 			public boolean accept(File dir, String name) {
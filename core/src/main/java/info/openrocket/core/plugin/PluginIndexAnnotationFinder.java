@@ -0,0 +1,137 @@
+package info.openrocket.core.plugin;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.annotation.Annotation;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import info.openrocket.core.util.BugException;
+
+/**
+ * An AnnotationFinder that reads the plugins from the plugin indexes written at
+ * build time, instead of scanning the class path.
+ * <p>
+ * The indexes are written by the annotation processor of the plugin-processor
+ * module, one per compiled module, to {@value #INDEX_RESOURCE}.  Each lists the
+ * binary names of the types annotated with {@link Plugin}, one per line.
+ * <p>
+ * Only the {@link Plugin} annotation is indexed.  Other annotations, and plugins
+ * when no index is found on the class path (e.g. when the annotation processor was
+ * not run by an IDE), are found by scanning the class path with the given fallback
+ * finder.
+ * <p>
+ * Plugins on the class path that are built without the annotation processor are not
+ * listed in any index.  They are only found when the class path is scanned, see
+ * {@link PluginModule#SCAN_PROPERTY}.  External plugin jars in the plugin directory
+ * are always found, as {@link PluginModule} scans the class path when there are any.
+ */
+public class PluginIndexAnnotationFinder implements AnnotationFinder {
+
+	private static final Logger log = LoggerFactory.getLogger(PluginIndexAnnotationFinder.class);
+
+	/** The resource the plugin index is read from, must match PluginIndexProcessor */
+	public static final String INDEX_RESOURCE = "META-INF/openrocket/plugins";
+
+	private final AnnotationFinder fallback;
+
+	/**
+	 * Constructor falling back to scanning the class path.
+	 */
+	public PluginIndexAnnotationFinder() {
+		this(new AnnotationFinderImpl());
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param fallback	the finder used for annotations that are not indexed
+	 */
+	public PluginIndexAnnotationFinder(AnnotationFinder fallback) {
+		this.fallback = fallback;
+	}
+
+	@Override
+	public List<Class<?>> findAnnotatedTypes(Class<? extends Annotation> annotation) {
+		if (annotation != Plugin.class) {
+			return fallback.findAnnotatedTypes(annotation);
+		}
+
+		ClassLoader loader = getClassLoader();
+		Set<String> names = readIndexes(loader);
+		if (names == null) {
+			log.info("No plugin index found, scanning the class path for plugins");
+			return fallback.findAnnotatedTypes(annotation);
+		}
+
+		List<Class<?>> classes = new ArrayList<>(names.size());
+		for (String name : names) {
+			try {
+				Class<?> c = Class.forName(name, false, loader);
+				if (c.isAnnotationPresent(annotation)) {
+					classes.add(c);
+				} else {
+					log.warn("Indexed plugin " + name + " is not annotated with " + annotation.getName());
+				}
+			} catch (ClassNotFoundException | LinkageError e) {
+				log.warn("Unable to load indexed plugin " + name + ": " + e);
+			}
+		}
+		return classes;
+	}
+
+	private static ClassLoader getClassLoader() {
+		ClassLoader loader = Thread.currentThread().getContextClassLoader();
+		if (loader == null) {
+			loader = PluginIndexAnnotationFinder.class.getClassLoader();
+		}
+		return loader;
+	}
+
+	/**
+	 * Read the plugin indexes of all the modules on the class path.
+	 *
+	 * @param loader	the class loader to read the indexes from
+	 * @return			the names of the indexed plugins, or <code>null</code> if no index was found
+	 */
+	private static Set<String> readIndexes(ClassLoader loader) {
+		Enumeration<URL> indexes;
+		try {
+			indexes = loader.getResources(INDEX_RESOURCE);
+		} catch (IOException e) {
+			throw new BugException("Unable to find plugin indexes", e);
+		}
+		if (!indexes.hasMoreElements()) {
+			return null;
+		}
+
+		Set<String> names = new LinkedHashSet<>();
+		while (indexes.hasMoreElements()) {
+			URL url = indexes.nextElement();
+			log.debug("Reading plugin index " + url);
+			try (InputStream is = url.openStream();
+				 BufferedReader reader = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8))) {
+				String line;
+				while ((line = reader.readLine()) != null) {
+					line = line.trim();
+					if (!line.isEmpty() && !line.startsWith("#")) {
+						names.add(line);
+					}
+				}
+			} catch (IOException e) {
+				throw new BugException("Unable to read plugin index " + url, e);
+			}
+		}
+		return names;
+	}
+}
@@ -12,13 +12,35 @@ import com.google.inject.multibindings.Multibinder;
  * Guice module definition that searches for plugins in a list of provided
  * JAR files and registers each found plugin to the corresponding plugin
  * interface.
+ * <p>
+ * The plugins are read from the plugin indexes written at build time by the
+ * plugin-processor module.  The class path is scanned instead if there are
+ * external plugin jars, which need not have an index, or if the system property
+ * {@value #SCAN_PROPERTY} is set to true.
  * 
  * @author Sampo Niskanen <sampo.niskanen@iki.fi>
  */
 public class PluginModule extends AbstractModule {
 
+	/** System property forcing the class path to be scanned for plugins */
+	public static final String SCAN_PROPERTY = "openrocket.plugins.scan";
+
 	private final Map<Class<?>, Multibinder<?>> binders = new HashMap<>();
-	private final AnnotationFinder finder = new AnnotationFinderImpl();
+	private final AnnotationFinder finder;
+
+	public PluginModule() {
+		this(Boolean.getBoolean(SCAN_PROPERTY) || PluginHelper.hasPluginJars() ?
+				new AnnotationFinderImpl() : new PluginIndexAnnotationFinder());
+	}
+
+	/**
+	 * Constructor using the given finder to find the plugins.
+	 *
+	 * @param finder	the finder of the plugin interfaces and implementations
+	 */
+	public PluginModule(AnnotationFinder finder) {
+		this.finder = finder;
+	}
 
 	@SuppressWarnings("unchecked")
 	@Override
@@ -0,0 +1,204 @@
+package info.openrocket.core.preferences;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.prefs.BackingStoreException;
+import java.util.prefs.Preferences;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import info.openrocket.core.material.Material;
+import info.openrocket.core.preset.ComponentPreset;
+
+/**
+ * Application preferences stored in a {@link Preferences} node, without any dependency on
+ * the user interface.  These are used when OpenRocket is run without the Swing application.
+ */
+public class CorePreferences extends ApplicationPreferences {
+	private static final Logger log = LoggerFactory.getLogger(CorePreferences.class);
+
+	/** The name of the preferences node of the user's OpenRocket preferences */
+	public static final String NODENAME = "OpenRocket";
+
+	private final Preferences node;
+
+	/**
+	 * Create preferences containing only the default values, stored in memory.
+	 */
+	public CorePreferences() {
+		this(new MemoryPreferences());
+	}
+
+	/**
+	 * Create preferences stored in a preferences node.
+	 *
+	 * @param node	the node storing the preferences
+	 */
+	public CorePreferences(Preferences node) {
+		this.node = node;
+	}
+
+	/**
+	 * Create preferences containing a copy of the user's OpenRocket preferences.  Changes to
+	 * the returned preferences are kept in memory and do not affect the user's preferences.
+	 *
+	 * @return	the preferences
+	 */
+	public static CorePreferences copyOfUserPreferences() {
+		try {
+			Preferences root = Preferences.userRoot();
+			if (root.nodeExists(NODENAME)) {
+				return new CorePreferences(MemoryPreferences.copyOf(root.node(NODENAME)));
+			}
+		} catch (BackingStoreException e) {
+			log.warn("Unable to read user preferences, using default preferences", e);
+		}
+		return new CorePreferences();
+	}
+
+	@Override
+	public boolean getBoolean(String key, boolean defaultValue) {
+		return node.getBoolean(key, defaultValue);
+	}
+
+	@Override
+	public void putBoolean(String key, boolean value) {
+		node.putBoolean(key, value);
+	}
+
+	@Override
+	public int getInt(String key, int defaultValue) {
+		return node.getInt(key, defaultValue);
+	}
+
+	@Override
+	public void putInt(String key, int value) {
+		node.putInt(key, value);
+	}
+
+	@Override
+	public double getDouble(String key, double defaultValue) {
+		return node.getDouble(key, defaultValue);
+	}
+
+	@Override
+	public void putDouble(String key, double value) {
+		node.putDouble(key, value);
+	}
+
+	@Override
+	public String getString(String key, String defaultValue) {
+		return node.get(key, defaultValue);
+	}
+
+	@Override
+	public void putString(String key, String value) {
+		if (value == null) {
+			node.remove(key);
+		} else {
+			node.put(key, value);
+		}
+	}
+
+	@Override
+	public String getString(String directory, String key, String defaultValue) {
+		return node.node(directory).get(key, defaultValue);
+	}
+
+	@Override
+	public void putString(String directory, String key, String value) {
+		Preferences p = node.node(directory);
+		if (value == null) {
+			p.remove(key);
+		} else {
+			p.put(key, value);
+		}
+	}
+
+	@Override
+	public Preferences getNode(String nodeName) {
+		return node.node(nodeName);
+	}
+
+	@Override
+	public Preferences getPreferences() {
+		return node;
+	}
+
+	@Override
+	public void addUserMaterial(Material m) {
+		if (getUserMaterials().contains(m)) {
+			return;
+		}
+
+		// Add material using next free key (key is not used when loading)
+		Preferences prefs = node.node("userMaterials");
+		String mat = m.toStorableString();
+		for (int i = 0;; i++) {
+			String key = "material" + i;
+			if (prefs.get(key, null) == null) {
+				prefs.put(key, mat);
+				return;
+			}
+		}
+	}
+
+	@Override
+	public Set<Material> getUserMaterials() {
+		Preferences prefs = node.node("userMaterials");
+		Set<Material> materials = new HashSet<>();
+		try {
+			for (String key : prefs.keys()) {
+				String value = prefs.get(key, null);
+				try {
+					materials.add(Material.fromStorableString(value, true));
+				} catch (IllegalArgumentException e) {
+					log.warn("Illegal material string " + value);
+				}
+			}
+		} catch (BackingStoreException e) {
+			throw new IllegalStateException("Cannot read preferences!", e);
+		}
+		return materials;
+	}
+
+	@Override
+	public void removeUserMaterial(Material m) {
+		Preferences prefs = node.node("userMaterials");
+		try {
+			for (String key : prefs.keys()) {
+				try {
+					if (Material.fromStorableString(prefs.get(key, null), true).equals(m)) {
+						prefs.remove(key);
+					}
+				} catch (IllegalArgumentException ignore) {
+				}
+			}
+		} catch (BackingStoreException e) {
+			throw new IllegalStateException("Cannot read preferences!", e);
+		}
+	}
+
+	@Override
+	public void setComponentFavorite(ComponentPreset preset, ComponentPreset.Type type, boolean favorite) {
+		Preferences prefs = node.node("favoritePresets").node(type.name());
+		if (favorite) {
+			prefs.putBoolean(preset.preferenceKey(), true);
+		} else {
+			prefs.remove(preset.preferenceKey());
+		}
+	}
+
+	@Override
+	public Set<String> getComponentFavorites(ComponentPreset.Type type) {
+		Preferences prefs = node.node("favoritePresets").node(type.name());
+		Set<String> collection = new HashSet<>();
+		try {
+			collection.addAll(Arrays.asList(prefs.keys()));
+		} catch (BackingStoreException ignore) {
+		}
+		return collection;
+	}
+}
@@ -0,0 +1,97 @@
+package info.openrocket.core.preferences;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.prefs.AbstractPreferences;
+import java.util.prefs.BackingStoreException;
+import java.util.prefs.Preferences;
+
+/**
+ * A preferences tree that is only stored in memory.  It is used when the preferences must
+ * not be read from or written to the preferences of the user, e.g. when running headless.
+ */
+public class MemoryPreferences extends AbstractPreferences {
+
+	private final Map<String, String> values = new HashMap<>();
+	private final Map<String, MemoryPreferences> children = new LinkedHashMap<>();
+
+	/**
+	 * Create a new, empty root node.
+	 */
+	public MemoryPreferences() {
+		this(null, "");
+	}
+
+	private MemoryPreferences(MemoryPreferences parent, String name) {
+		super(parent, name);
+	}
+
+	/**
+	 * Create a new root node containing a copy of the keys and child nodes of a preferences node.
+	 *
+	 * @param source	the node to copy
+	 * @return			a new in-memory copy of the node
+	 * @throws BackingStoreException	if the source node cannot be read
+	 */
+	public static MemoryPreferences copyOf(Preferences source) throws BackingStoreException {
+		MemoryPreferences copy = new MemoryPreferences();
+		copy(source, copy);
+		return copy;
+	}
+
+	private static void copy(Preferences source, Preferences destination) throws BackingStoreException {
+		for (String key : source.keys()) {
+			String value = source.get(key, null);
+			if (value != null) {
+				destination.put(key, value);
+			}
+		}
+		for (String child : source.childrenNames()) {
+			copy(source.node(child), destination.node(child));
+		}
+	}
+
+	@Override
+	protected void putSpi(String key, String value) {
+		values.put(key, value);
+	}
+
+	@Override
+	protected String getSpi(String key) {
+		return values.get(key);
+	}
+
+	@Override
+	protected void removeSpi(String key) {
+		values.remove(key);
+	}
+
+	@Override
+	protected void removeNodeSpi() {
+		((MemoryPreferences) parent()).children.remove(name());
+	}
+
+	@Override
+	protected String[] keysSpi() {
+		return values.keySet().toArray(new String[0]);
+	}
+
+	@Override
+	protected String[] childrenNamesSpi() {
+		return children.keySet().toArray(new String[0]);
+	}
+
+	@Override
+	protected AbstractPreferences childSpi(String name) {
+		return children.computeIfAbsent(name, n -> new MemoryPreferences(this, n));
+	}
+
+	@Override
+	protected void syncSpi() {
+	}
+
+	@Override
+	protected void flushSpi() {
+	}
+}
@@ -0,0 +1,239 @@
+package info.openrocket.core.preset;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import info.openrocket.core.database.Databases;
+import info.openrocket.core.material.Material;
+import info.openrocket.core.material.MaterialGroup;
+import info.openrocket.core.motor.Manufacturer;
+
+import static info.openrocket.core.util.CacheFileUtils.readString;
+import static info.openrocket.core.util.CacheFileUtils.writeAtomically;
+import static info.openrocket.core.util.CacheFileUtils.writeString;
+
+/**
+ * Reads and writes the component presets of a number of preset files in a compact binary
+ * format, which is much faster to read than the XML of the original .orc files.
+ * <p>
+ * A cache file starts with a header containing a magic number, the format version and a
+ * key identifying the environment the presets were loaded in.  A file whose header does not
+ * match is considered stale and ignored.  The key must include the locale, as the names of
+ * the materials of the presets are translated when loading.  The header is followed by the
+ * presets of each file, stored by a key identifying the file.  The properties of a preset
+ * are stored by name, so presets can be read as long as the keys and their types do not
+ * change.
+ * <p>
+ * Materials found in the material database when loading are again looked up from the
+ * database when reading the cache.  All numbers are stored in big-endian order and strings
+ * as UTF-8 preceded by their length in bytes, or -1 for <code>null</code>.
+ */
+public final class ComponentPresetCache {
+
+	/** The magic number "ORPC" starting a cache file */
+	private static final int MAGIC = 0x4F525043;
+
+	/** The version of the format, to be increased whenever the format changes */
+	public static final int VERSION = 1;
+
+	/** The properties of the presets by name, in the order they are written */
+	private static final Map<String, TypedKey<?>> KEYS = new LinkedHashMap<>();
+
+	static {
+		KEYS.put(ComponentPreset.TYPE.getName(), ComponentPreset.TYPE);
+		for (TypedKey<?> key : ComponentPreset.ORDERED_KEY_LIST) {
+			KEYS.put(key.getName(), key);
+		}
+	}
+
+	private ComponentPresetCache() {
+	}
+
+	/**
+	 * Write the presets of preset files to a cache file.  The file is replaced atomically
+	 * where possible.
+	 *
+	 * @param file      the cache file
+	 * @param sourceKey the key identifying the environment the presets were loaded in
+	 * @param presets   the presets of each file, by a key identifying the file
+	 * @throws IOException if the file cannot be written, or a preset contains a value that
+	 *                     cannot be stored
+	 */
+	public static void writePresetFiles(File file, String sourceKey, Map<String, List<ComponentPreset>> presets)
+			throws IOException {
+		writeAtomically(file, out -> {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			writeString(out, sourceKey);
+			out.writeInt(presets.size());
+			for (Map.Entry<String, List<ComponentPreset>> entry : presets.entrySet()) {
+				writeString(out, entry.getKey());
+				out.writeInt(entry.getValue().size());
+				for (ComponentPreset preset : entry.getValue()) {
+					writePreset(out, preset);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Read the presets of preset files from a cache file.
+	 *
+	 * @param file      the cache file
+	 * @param sourceKey the key identifying the environment the presets are loaded in
+	 * @return the presets of each file, by the key identifying the file, or an empty map if
+	 *         the file does not exist or was written by a different version or environment
+	 * @throws IOException if the file cannot be read or is corrupt
+	 */
+	public static Map<String, List<ComponentPreset>> readPresetFiles(File file, String sourceKey) throws IOException {
+		Map<String, List<ComponentPreset>> presets = new LinkedHashMap<>();
+		if (!file.isFile()) {
+			return presets;
+		}
+		ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+		try {
+			if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION || !sourceKey.equals(readString(buffer))) {
+				return presets;
+			}
+			int count = buffer.getInt();
+			for (int i = 0; i < count; i++) {
+				String key = readString(buffer);
+				int presetCount = buffer.getInt();
+				List<ComponentPreset> list = new ArrayList<>(presetCount);
+				for (int j = 0; j < presetCount; j++) {
+					list.add(readPreset(buffer));
+				}
+				presets.put(key, list);
+			}
+			return presets;
+		} catch (BufferUnderflowException | IllegalArgumentException e) {
+			throw new IOException("Corrupt component preset cache " + file, e);
+		}
+	}
+
+	////////// Presets
+
+	private static void writePreset(DataOutputStream out, ComponentPreset preset) throws IOException {
+		List<TypedKey<?>> keys = new ArrayList<>();
+		for (TypedKey<?> key : KEYS.values()) {
+			if (preset.has(key)) {
+				keys.add(key);
+			}
+		}
+		out.writeInt(keys.size());
+		for (TypedKey<?> key : keys) {
+			writeString(out, key.getName());
+			writeValue(out, key, preset.get(key));
+		}
+	}
+
+	private static ComponentPreset readPreset(ByteBuffer buffer) {
+		ComponentPreset preset = new ComponentPreset();
+		int count = buffer.getInt();
+		for (int i = 0; i < count; i++) {
+			String name = readString(buffer);
+			TypedKey<?> key = KEYS.get(name);
+			if (key == null) {
+				throw new IllegalArgumentException("Unknown preset property " + name);
+			}
+			putValue(preset, key, readValue(buffer, key));
+		}
+		preset.computeDigest();
+		return preset;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> void putValue(ComponentPreset preset, TypedKey<T> key, Object value) {
+		preset.put(key, (T) value);
+	}
+
+	private static void writeValue(DataOutputStream out, TypedKey<?> key, Object value) throws IOException {
+		Class<?> type = key.getType();
+		if (type == Boolean.class) {
+			out.writeBoolean((Boolean) value);
+		} else if (type == Integer.class) {
+			out.writeInt((Integer) value);
+		} else if (type == Double.class) {
+			out.writeDouble((Double) value);
+		} else if (type == String.class) {
+			writeString(out, (String) value);
+		} else if (type == Manufacturer.class) {
+			writeString(out, ((Manufacturer) value).getDisplayName());
+		} else if (type.isEnum()) {
+			writeString(out, ((Enum<?>) value).name());
+		} else if (type == Material.class) {
+			Material material = (Material) value;
+			writeString(out, material.getType().name());
+			writeString(out, material.getName());
+			out.writeDouble(material.getDensity());
+			writeString(out, material.getGroup() == null ? null : material.getGroup().getDatabaseString());
+			out.writeBoolean(material.isUserDefined());
+			out.writeBoolean(material.isDocumentMaterial());
+		} else if (type == byte[].class) {
+			byte[] bytes = (byte[]) value;
+			out.writeInt(bytes.length);
+			out.write(bytes);
+		} else {
+			throw new IOException("Unable to store preset property " + key + " of type " + type.getName());
+		}
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static Object readValue(ByteBuffer buffer, TypedKey<?> key) {
+		Class<?> type = key.getType();
+		if (type == Boolean.class) {
+			return buffer.get() != 0;
+		} else if (type == Integer.class) {
+			return buffer.getInt();
+		} else if (type == Double.class) {
+			return buffer.getDouble();
+		} else if (type == String.class) {
+			return readString(buffer);
+		} else if (type == Manufacturer.class) {
+			return Manufacturer.getManufacturer(readString(buffer));
+		} else if (type.isEnum()) {
+			return Enum.valueOf((Class<Enum>) type, readString(buffer));
+		} else if (type == Material.class) {
+			Material.Type materialType = Material.Type.valueOf(readString(buffer));
+			String name = readString(buffer);
+			double density = buffer.getDouble();
+			String group = readString(buffer);
+			boolean userDefined = buffer.get() != 0;
+			boolean documentMaterial = buffer.get() != 0;
+			return findMaterial(materialType, name, density,
+					group == null ? null : MaterialGroup.loadFromDatabaseString(group), userDefined, documentMaterial);
+		} else if (type == byte[].class) {
+			int length = buffer.getInt();
+			if (length < 0 || length > buffer.remaining()) {
+				throw new BufferUnderflowException();
+			}
+			byte[] bytes = new byte[length];
+			buffer.get(bytes);
+			return bytes;
+		}
+		throw new IllegalArgumentException("Unable to read preset property " + key + " of type " + type.getName());
+	}
+
+	/**
+	 * Return the material of the database with the given properties, like the preset loader
+	 * does, or a new material if not found.
+	 */
+	private static Material findMaterial(Material.Type type, String name, double density, MaterialGroup group,
+			boolean userDefined, boolean documentMaterial) {
+		Material material = Material.newMaterial(type, name, density, group, userDefined, documentMaterial);
+		for (Material m : Databases.getDatabase(type)) {
+			if (m.equals(material)) {
+				return m;
+			}
+		}
+		return material;
+	}
+}
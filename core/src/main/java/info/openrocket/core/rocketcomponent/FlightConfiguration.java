@@ -10,6 +10,7 @@ import java.util.UUID;
 import java.util.concurrent.ConcurrentLinkedQueue;
 
 import info.openrocket.core.formatting.RocketDescriptor;
+import info.openrocket.core.masscalc.StructureMassCache;
 import info.openrocket.core.preferences.ApplicationPreferences;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -83,6 +84,8 @@ public class FlightConfiguration implements FlightConfigurableParameter<FlightCo
 	private ModID refLengthModID = ModID.INVALID;
 	private double cachedRefLength = -1;
 
+	private final StructureMassCache structureMassCache = new StructureMassCache();
+
 	private ModID modID = ModID.ZERO;
 
 	/**
@@ -307,6 +310,23 @@ public class FlightConfiguration implements FlightConfigurableParameter<FlightCo
 		this.preloadStageActiveness.put(stageNumber, isActive);
 	}
 
+	/**
+	 * Preloads the stage activeness of another configuration, including the activeness
+	 * preloaded to it.  Used when the configuration is copied before the stages of the rocket.
+	 *
+	 * @param other the configuration to preload the stage activeness of
+	 */
+	/* package-local */ void preloadStageActiveness(FlightConfiguration other) {
+		for (StageFlags flags : other.stages.values()) {
+			preloadStageActiveness(flags.stageNumber, flags.active);
+		}
+		if (other.preloadStageActiveness != null) {
+			for (Map.Entry<Integer, Boolean> entry : other.preloadStageActiveness.entrySet()) {
+				preloadStageActiveness(entry.getKey(), entry.getValue());
+			}
+		}
+	}
+
 	/**
 	 * Applies preloaded stage activeness.
 	 * This method should be called after the rocket has been loaded from a file.
@@ -539,6 +559,14 @@ public class FlightConfiguration implements FlightConfigurableParameter<FlightCo
 		return cachedRefLength;
 	}
 
+	/**
+	 * Return the cache of the structure mass data of this configuration, used by the mass
+	 * calculations.
+	 */
+	public StructureMassCache getStructureMassCache() {
+		return structureMassCache;
+	}
+
 	public double getReferenceArea() {
 		return Math.PI * MathUtil.pow2(getReferenceLength() / 2);
 	}
@@ -400,10 +400,15 @@ public class Rocket extends ComponentAssembly {
 	@Override
 	public Rocket copyWithOriginalID() {
 		final Rocket copyRocket = (Rocket) super.copyWithOriginalID();
+		// A copy without children has no stages, see RocketSnapshot
+		final boolean componentOnly = isCopyingComponentOnly();
 
 		// Rocket copy is cloned, so non-trivial members must be cloned as well:
 		copyRocket.stageMap = new ConcurrentHashMap<>();
 		for (Map.Entry<Integer,AxialStage> entry : this.stageMap.entrySet()){
+			if (componentOnly) {
+				break;
+			}
 			final AxialStage stage = (AxialStage)copyRocket.findComponent(entry.getValue().getID());
 			if (stage == null) {
 				throw new IllegalStateException("Stage not found in copy");
@@ -418,7 +423,12 @@ public class Rocket extends ComponentAssembly {
 			FlightConfiguration originalCfg = this.configSet.get(configID);
 			FlightConfiguration newCfg = new FlightConfiguration(copyRocket, configID);
 			newCfg.setName(originalCfg.getNameRaw());			// Copy config name
-			newCfg.copyStageActiveness(originalCfg);
+			if (componentOnly) {
+				// Applied once the stages have been added in updateRestoredStructure()
+				newCfg.preloadStageActiveness(originalCfg);
+			} else {
+				newCfg.copyStageActiveness(originalCfg);
+			}
 			copyRocket.configSet.set(configID, newCfg);
 		}
 
@@ -428,6 +438,18 @@ public class Rocket extends ComponentAssembly {
 		return copyRocket;
 	}
 	
+	/**
+	 * Update the stages and flight configurations of a rocket assembled by {@link RocketSnapshot}
+	 * from component copies made without their children.
+	 */
+	/* package-local */ void updateRestoredStructure() {
+		update();
+		for (FlightConfiguration config : configSet) {
+			config.applyPreloadedStageActiveness();
+		}
+		selectedConfiguration = configSet.get(selectedConfiguration.getId());
+	}
+
 	public int getFlightConfigurationCount() {
 		checkState();
 		return this.configSet.size();
@@ -563,6 +585,14 @@ public class Rocket extends ComponentAssembly {
 	}
 
 	protected void fireComponentChangeEvent(ComponentChangeEvent cce, final FlightConfigurationId[] ids) {
+		if (!cce.isUndoChange()) {
+			// Events of the rocket itself follow changes of any number of components
+			if (cce.getSource() == this) {
+				markSubtreeChanged();
+			} else if (cce.getSource() instanceof RocketComponent) {
+				((RocketComponent) cce.getSource()).markChanged();
+			}
+		}
 		if (!this.eventsEnabled) {
 			return;
 		}
@@ -1015,6 +1045,14 @@ public class Rocket extends ComponentAssembly {
 		}
 	}
 
+	/**
+	 * Return whether this rocket fires events.  While events are disabled, the modification
+	 * IDs of the rocket are not updated when its components change.
+	 */
+	public boolean isEventsEnabled() {
+		return this.eventsEnabled;
+	}
+
 	public String toDebugConfigs() {
 		StringBuilder buf = new StringBuilder();
 		buf.append(String.format("====== Dumping %d Configurations from rocket: %s ======\n",
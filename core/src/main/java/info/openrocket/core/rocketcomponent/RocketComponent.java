@@ -56,7 +56,10 @@ public abstract class RocketComponent implements ChangeSource, Cloneable, Iterab
 	// We cannot access static members of the Application object in this class.  Instead of holding
 	// on to the Translator object, we'll just use when we need it.
 	//private static final Translator trans = Application.getTranslator();
-	
+
+	// Set while copying a single component without its children
+	private static final ThreadLocal<Boolean> copyingComponentOnly = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
 	/**
 	 * A safety mutex that can be used to prevent concurrent access to this component.
 	 */
@@ -176,6 +179,14 @@ public abstract class RocketComponent implements ChangeSource, Cloneable, Iterab
 	protected int displayOrder_side = 100;
 	protected int displayOrder_back = 100;
 
+	/**
+	 * Modification ID of the last change of this component, and of the last change of this
+	 * component or any of its descendants.  Used by {@link RocketSnapshot} to share the copies
+	 * of unchanged components between undo positions.
+	 */
+	private ModID changeModID = new ModID();
+	private ModID subtreeChangeModID = changeModID;
+
 	////  NOTE !!!  All fields must be copied in the method copyFrom()!  ////
 	
 	
@@ -442,11 +453,13 @@ public abstract class RocketComponent implements ChangeSource, Cloneable, Iterab
 			clone.children = new ArrayList<>();
 			
 			// Add copied children to the structure without firing events.
-			for (RocketComponent child : this.children) {
-				RocketComponent childCopy = child.copyWithOriginalID();
-				// Don't use addChild(...) method since it fires events
-				clone.children.add(childCopy);
-				childCopy.parent = clone;
+			if (!isCopyingComponentOnly()) {
+				for (RocketComponent child : this.children) {
+					RocketComponent childCopy = child.copyWithOriginalID();
+					// Don't use addChild(...) method since it fires events
+					clone.children.add(childCopy);
+					childCopy.parent = clone;
+				}
 			}
 			
 			this.checkComponentStructure();
@@ -458,6 +471,70 @@ public abstract class RocketComponent implements ChangeSource, Cloneable, Iterab
 		}
 	}
 
+	/**
+	 * Make a copy of this component without its children while maintaining the component ID.
+	 * The copy is made by {@link #copyWithOriginalID()}, so mutable objects referred to by the
+	 * component are copied the same way as when copying the whole structure.  This method is
+	 * used by {@link RocketSnapshot} and does not fire any events.
+	 *
+	 * @return A copy of this component without children.
+	 */
+	RocketComponent copyComponentWithOriginalID() {
+		copyingComponentOnly.set(Boolean.TRUE);
+		try {
+			return copyWithOriginalID();
+		} finally {
+			copyingComponentOnly.set(Boolean.FALSE);
+		}
+	}
+
+	/**
+	 * Return whether {@link #copyWithOriginalID()} is currently copying a single component
+	 * without its children.
+	 */
+	static boolean isCopyingComponentOnly() {
+		return copyingComponentOnly.get();
+	}
+
+	ModID getChangeModID() {
+		return changeModID;
+	}
+
+	ModID getSubtreeChangeModID() {
+		return subtreeChangeModID;
+	}
+
+	/**
+	 * Mark this component as changed for the purposes of {@link RocketSnapshot}.  The
+	 * ancestors of the component and its config listeners, which may be modified without
+	 * firing events, are marked as well.
+	 */
+	void markChanged() {
+		ModID m = new ModID();
+		changeModID = m;
+		for (RocketComponent c = this; c != null; c = c.parent) {
+			c.subtreeChangeModID = m;
+		}
+		for (RocketComponent listener : configListeners) {
+			listener.markChanged();
+		}
+	}
+
+	/**
+	 * Mark this component and all its descendants as changed for the purposes of
+	 * {@link RocketSnapshot}.
+	 */
+	void markSubtreeChanged() {
+		markChanged();
+		ModID m = changeModID;
+		Iterator<RocketComponent> iterator = this.iterator(false);
+		while (iterator.hasNext()) {
+			RocketComponent c = iterator.next();
+			c.changeModID = m;
+			c.subtreeChangeModID = m;
+		}
+	}
+
 	@Override
 	public RocketComponent clone() throws CloneNotSupportedException {
 		RocketComponent clone = (RocketComponent) super.clone();
@@ -2608,6 +2685,10 @@ public abstract class RocketComponent implements ChangeSource, Cloneable, Iterab
 	 */
 	protected void fireComponentChangeEvent(ComponentChangeEvent e) {
 		checkState();
+		if (e.getSource() == this && !e.isUndoChange()) {
+			// Also changes of components outside a rocket or not firing events
+			markChanged();
+		}
 		if (parent == null || bypassComponentChangeEvent) {
 			/* Ignore if root invalid. */
 			return;
@@ -2943,6 +3024,9 @@ public abstract class RocketComponent implements ChangeSource, Cloneable, Iterab
 		this.id = src.id;
 		this.displayOrder_side = src.displayOrder_side;
 		this.displayOrder_back = src.displayOrder_back;
+		// The component is replaced in place, so it never equals an earlier copy
+		this.changeModID = new ModID();
+		this.subtreeChangeModID = this.changeModID;
 		this.configListeners = new LinkedList<>();
 		this.bypassComponentChangeEvent = false;
 		if (this instanceof InsideColorComponent && src instanceof InsideColorComponent) {
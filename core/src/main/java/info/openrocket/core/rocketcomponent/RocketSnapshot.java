@@ -0,0 +1,147 @@
+package info.openrocket.core.rocketcomponent;
+
+import java.util.UUID;
+
+import info.openrocket.core.util.ModID;
+
+/**
+ * An immutable copy of the state of a rocket, used by the undo/redo mechanism.
+ * <p>
+ * The snapshot is a tree of copies of the individual components, each copied without its
+ * children.  When a snapshot is created based on a previous snapshot, the copies of the
+ * components that have not changed since the previous snapshot are shared with it, and
+ * unchanged subtrees are shared as a whole.  Creating a snapshot after editing a component
+ * therefore copies only the edited component and the rocket itself, instead of the whole
+ * component tree.
+ * <p>
+ * The copies are never modified or placed in a rocket.  {@link #toRocket()} creates a new
+ * copy of the rocket from the snapshot.
+ */
+public final class RocketSnapshot {
+
+	private final Node root;
+
+	private RocketSnapshot(Node root) {
+		this.root = root;
+	}
+
+	/**
+	 * Create a snapshot of the current state of a rocket.
+	 *
+	 * @param rocket	the rocket
+	 * @return			a snapshot of the rocket
+	 */
+	public static RocketSnapshot of(Rocket rocket) {
+		return of(rocket, null);
+	}
+
+	/**
+	 * Create a snapshot of the current state of a rocket, sharing the copies of unchanged
+	 * components with a previous snapshot.  The previous snapshot may be of any state of
+	 * the rocket, components are matched by their ID and modification.
+	 *
+	 * @param rocket	the rocket
+	 * @param previous	a previous snapshot of the rocket, or <code>null</code>
+	 * @return			a snapshot of the rocket
+	 */
+	public static RocketSnapshot of(Rocket rocket, RocketSnapshot previous) {
+		// The rocket is always copied, its modification IDs change with every change
+		return new RocketSnapshot(snapshot(rocket, rocket.copyComponentWithOriginalID(),
+				previous == null ? null : previous.root));
+	}
+
+	/**
+	 * Return the modification ID of the rocket at the time of the snapshot.
+	 */
+	public ModID getModID() {
+		return ((Rocket) root.copy).getModID();
+	}
+
+	/**
+	 * Create a new copy of the rocket from the snapshot.  The copy is equivalent to a copy
+	 * made by {@link Rocket#copyWithOriginalID()} at the time of the snapshot.
+	 *
+	 * @return	a new copy of the rocket
+	 */
+	public Rocket toRocket() {
+		Rocket rocket = (Rocket) root.copy.copyComponentWithOriginalID();
+		addChildren(rocket, root);
+		rocket.updateRestoredStructure();
+		rocket.checkComponentStructure();
+		return rocket;
+	}
+
+
+	/**
+	 * Return the copy of a component stored in the snapshot.
+	 *
+	 * @param id	the ID of the component
+	 * @return		the copy, or <code>null</code> if the snapshot does not contain the component
+	 */
+	/* package-local */ RocketComponent getCopy(UUID id) {
+		return findCopy(root, id);
+	}
+
+	private static RocketComponent findCopy(Node node, UUID id) {
+		if (node.copy.getID().equals(id)) {
+			return node.copy;
+		}
+		for (Node child : node.children) {
+			RocketComponent copy = findCopy(child, id);
+			if (copy != null) {
+				return copy;
+			}
+		}
+		return null;
+	}
+
+	private static Node snapshot(RocketComponent component, RocketComponent copy, Node previous) {
+		Node[] children = new Node[component.children.size()];
+		for (int i = 0; i < children.length; i++) {
+			RocketComponent child = component.children.get(i);
+			Node previousChild = findChild(previous, child.getID(), i);
+
+			if (previousChild != null && previousChild.subtreeChangeModID == child.getSubtreeChangeModID()) {
+				children[i] = previousChild;
+			} else if (previousChild != null && previousChild.changeModID == child.getChangeModID()) {
+				children[i] = snapshot(child, previousChild.copy, previousChild);
+			} else {
+				children[i] = snapshot(child, child.copyComponentWithOriginalID(), previousChild);
+			}
+		}
+		return new Node(copy, component.getChangeModID(), component.getSubtreeChangeModID(), children);
+	}
+
+	private static Node findChild(Node parent, UUID id, int index) {
+		if (parent == null) {
+			return null;
+		}
+		// Usually the child is at the same position
+		if (index < parent.children.length && parent.children[index].copy.getID().equals(id)) {
+			return parent.children[index];
+		}
+		for (Node child : parent.children) {
+			if (child.copy.getID().equals(id)) {
+				return child;
+			}
+		}
+		return null;
+	}
+
+	private static void addChildren(RocketComponent component, Node node) {
+		for (Node child : node.children) {
+			RocketComponent copy = child.copy.copyComponentWithOriginalID();
+			// Don't use addChild(...) method since it fires events
+			component.children.add(copy);
+			copy.parent = component;
+			addChildren(copy, child);
+		}
+	}
+
+
+	/**
+	 * A component copy and the snapshots of its children.
+	 */
+	private record Node(RocketComponent copy, ModID changeModID, ModID subtreeChangeModID, Node[] children) {
+	}
+}
@@ -0,0 +1,451 @@
+package info.openrocket.core.simulation;
+
+import java.util.Random;
+
+import info.openrocket.core.aerodynamics.AerodynamicForces;
+import info.openrocket.core.aerodynamics.FlightConditions;
+import info.openrocket.core.logging.SimulationAbort;
+import info.openrocket.core.logging.WarningSet;
+import info.openrocket.core.masscalc.RigidBody;
+import info.openrocket.core.models.atmosphere.AtmosphericConditions;
+import info.openrocket.core.simulation.exception.SimulationException;
+import info.openrocket.core.simulation.listeners.SimulationListenerHelper;
+import info.openrocket.core.util.Coordinate;
+import info.openrocket.core.util.MathUtil;
+import info.openrocket.core.util.Quaternion;
+
+/**
+ * Common base of the Runge-Kutta steppers that keep the intermediate state of the
+ * integration in preallocated arrays instead of immutable vector objects.  The flight
+ * conditions and the atmospheric conditions are reused between evaluations, and the
+ * acceleration data is only created for the evaluations whose values are stored or
+ * passed to simulation listeners.
+ * <p>
+ * The derivatives of the state are computed into arrays of length {@link #DERIVATIVE_SIZE},
+ * in which the velocity, acceleration, rotation velocity and rotation acceleration in world
+ * coordinates start at the offsets {@link #V}, {@link #A}, {@link #RV} and {@link #RA}.
+ * The computations are performed in the same order as in {@link RK4SimulationStepper}.
+ * Since the flight conditions object is reused, simulation listeners must not retain
+ * references to it between calls.
+ */
+public abstract class AbstractRungeKuttaSimulationStepper extends AbstractSimulationStepper {
+
+	// Offsets of the velocity, acceleration, rotation velocity and rotation acceleration in the derivatives
+	protected static final int V = 0;
+	protected static final int A = 3;
+	protected static final int RV = 6;
+	protected static final int RA = 9;
+	protected static final int DERIVATIVE_SIZE = 12;
+
+	protected Random random;
+	DataStore store = new DataStore();
+
+	private final double[] launchRodDirection = new double[3];
+	private final double[] linearAcceleration = new double[3];
+	private final double[] angularAcceleration = new double[3];
+
+	/** Scratch vector holding the result of {@link #rotateZ} and {@link #invRotate} */
+	protected final double[] vector = new double[3];
+	/** Scratch quaternion (w, x, y, z) holding the result of {@link #rotate(Quaternion, double, double, double)} */
+	protected final double[] quaternion = new double[4];
+
+	private final FlightConditions flightConditions = new FlightConditions(null);
+	private final AtmosphericConditions atmosphericConditions = new AtmosphericConditions();
+
+	/** The lateral airflow direction, computed with the flight conditions */
+	private double thetaSin;
+	private double thetaCos;
+
+	@Override
+	public SimulationStatus initialize(SimulationStatus original) {
+
+		SimulationStatus status = new SimulationStatus(original);
+		// Copy the existing warnings
+		status.setWarnings(original.getWarnings());
+
+		SimulationConditions sim = original.getSimulationConditions();
+
+		launchRodDirection[0] = Math.sin(sim.getLaunchRodAngle()) * Math.cos(Math.PI / 2.0 - sim.getLaunchRodDirection());
+		launchRodDirection[1] = Math.sin(sim.getLaunchRodAngle()) * Math.sin(Math.PI / 2.0 - sim.getLaunchRodDirection());
+		launchRodDirection[2] = Math.cos(sim.getLaunchRodAngle());
+
+		this.random = new Random(original.getSimulationConditions().getRandomSeed() ^ RK4SimulationStepper.SEED_RANDOMIZATION);
+
+		return status;
+	}
+
+	/**
+	 * Compute the derivatives at the given status into <code>d</code>.
+	 *
+	 * @param keepData	whether the acceleration data must be available in the data store afterwards.
+	 * @param listeners	whether the simulation has listeners.
+	 */
+	protected void computeParameters(SimulationStatus status, double[] d, boolean keepData, boolean listeners)
+			throws SimulationException {
+
+		// Call pre-listeners
+		store.accelerationData = SimulationListenerHelper.firePreAccelerationCalculation(status);
+
+		// Calculate acceleration (if not overridden by pre-listeners)
+		if (store.accelerationData == null) {
+			calculateAcceleration(status);
+			if (keepData || listeners) {
+				store.accelerationData = new AccelerationData(null, null,
+						new Coordinate(linearAcceleration[0], linearAcceleration[1], linearAcceleration[2]),
+						new Coordinate(angularAcceleration[0], angularAcceleration[1], angularAcceleration[2]),
+						status.getRocketOrientationQuaternion());
+			}
+		}
+
+		if (store.accelerationData != null) {
+			// Call post-listeners
+			store.accelerationData = SimulationListenerHelper.firePostAccelerationCalculation(status, store.accelerationData);
+			Coordinate c = store.accelerationData.getLinearAccelerationWC();
+			linearAcceleration[0] = c.x;
+			linearAcceleration[1] = c.y;
+			linearAcceleration[2] = c.z;
+			c = store.accelerationData.getRotationalAccelerationWC();
+			angularAcceleration[0] = c.x;
+			angularAcceleration[1] = c.y;
+			angularAcceleration[2] = c.z;
+		}
+
+		Coordinate v = status.getRocketVelocity();
+		Coordinate rv = status.getRocketRotationVelocity();
+		d[V] = v.x;
+		d[V + 1] = v.y;
+		d[V + 2] = v.z;
+		d[RV] = rv.x;
+		d[RV + 1] = rv.y;
+		d[RV + 2] = rv.z;
+		for (int i = 0; i < 3; i++) {
+			d[A + i] = linearAcceleration[i];
+			d[RA + i] = angularAcceleration[i];
+		}
+
+		for (double value : d) {
+			checkNaN(value);
+		}
+	}
+
+	/**
+	 * Calculate the linear and angular acceleration in world coordinates at the given
+	 * status into {@link #linearAcceleration} and {@link #angularAcceleration}.
+	 */
+	private void calculateAcceleration(SimulationStatus status) throws SimulationException {
+
+		// Compute the forces affecting the rocket
+		calculateForces(status);
+
+		// Calculate mass data
+		RigidBody structureMassData = calculateStructureMass(status);
+
+		store.motorMass = calculateMotorMass(status);
+		store.rocketMass = structureMassData.add(store.motorMass);
+
+		if (store.rocketMass.getMass() < MathUtil.EPSILON) {
+			status.abortSimulation(SimulationAbort.Cause.ACTIVE_MASS_ZERO);
+		}
+
+		// Calculate the forces from the aerodynamic coefficients
+
+		double dynP = (0.5 * store.flightConditions.getAtmosphericConditions().getDensity() *
+					MathUtil.pow2(store.flightConditions.getVelocity()));
+		double refArea = store.flightConditions.getRefArea();
+		double refLength = store.flightConditions.getRefLength();
+
+		// Linear forces in rocket coordinates
+		store.dragForce = store.forces.getCDaxial() * dynP * refArea;
+		double fN = store.forces.getCN() * dynP * refArea;
+		double fSide = store.forces.getCside() * dynP * refArea;
+
+		store.thrustForce = calculateThrust(status, store, false);
+		double forceZ = store.thrustForce - store.dragForce;
+
+		double mass = store.rocketMass.getMass();
+		Quaternion orientation = status.getRocketOrientationQuaternion();
+		double[] lin = linearAcceleration;
+		rotateZ(-fN / mass, -fSide / mass, forceZ / mass);
+
+		// Convert into rocket world coordinates
+		rotate(orientation, vector[0], vector[1], vector[2], lin);
+
+		// add effect of gravity
+		store.gravity = modelGravity(status);
+		lin[2] = lin[2] - store.gravity;
+
+		// add effect of Coriolis acceleration
+		store.coriolisAcceleration = status.getSimulationConditions().getGeodeticComputation()
+				.getCoriolisAcceleration(status.getRocketWorldPosition(), status.getRocketVelocity());
+		lin[0] = lin[0] + store.coriolisAcceleration.x;
+		lin[1] = lin[1] + store.coriolisAcceleration.y;
+		lin[2] = lin[2] + store.coriolisAcceleration.z;
+
+		double[] ang = angularAcceleration;
+		if (!status.isLiftoff()) {
+			// If we haven't taken off yet, don't sink into the ground
+			ang[0] = ang[1] = ang[2] = 0;
+			if (lin[2] < 0) {
+				lin[0] = lin[1] = lin[2] = 0;
+			}
+		} else if (!status.isLaunchRodCleared()) {
+
+			// If still on the launch rod, project acceleration onto launch rod direction and
+			// set angular acceleration to zero.
+			double[] rod = launchRodDirection;
+			double dot = lin[0] * rod[0] + lin[1] * rod[1] + lin[2] * rod[2];
+			lin[0] = rod[0] * dot;
+			lin[1] = rod[1] * dot;
+			lin[2] = rod[2] * dot;
+			ang[0] = ang[1] = ang[2] = 0;
+
+		} else {
+
+			// Shift moments to CG
+			double Cm = store.forces.getCm() - store.forces.getCN() * store.rocketMass.getCM().x / refLength;
+			double Cyaw = store.forces.getCyaw() - store.forces.getCside() * store.rocketMass.getCM().x / refLength;
+
+			// Compute moments
+			double momX = -Cyaw * dynP * refArea * refLength;
+			double momY = Cm * dynP * refArea * refLength;
+			double momZ = store.forces.getCroll() * dynP * refArea * refLength;
+
+			// Compute angular acceleration in rocket coordinates and convert to world coordinates
+			rotateZ(momX / store.rocketMass.getLongitudinalInertia(),
+					momY / store.rocketMass.getLongitudinalInertia(),
+					momZ / store.rocketMass.getRotationalInertia());
+			rotate(orientation, vector[0], vector[1], vector[2], ang);
+		}
+	}
+
+	/**
+	 * Calculate the aerodynamic forces into the data store.
+	 */
+	private void calculateForces(SimulationStatus status) throws SimulationException {
+
+		// Call pre-listeners
+		store.forces = SimulationListenerHelper.firePreAerodynamicCalculation(status);
+		if (store.forces != null) {
+			return;
+		}
+
+		// Compute flight conditions
+		calculateFlightConditions(status);
+
+		// Warnings are only stored while the flight is considered well-defined
+		WarningSet warnings = status.recordWarnings() ? new WarningSet() : null;
+
+		// Calculate aerodynamic forces
+		store.forces = status.getSimulationConditions().getAerodynamicCalculator()
+				.getAerodynamicForces(status.getConfiguration(), store.flightConditions, warnings);
+		if (null != warnings) {
+			status.addWarnings(warnings);
+		}
+
+		// Add very small randomization to yaw & pitch moments to prevent over-perfect flight
+		perturbMoments(store.forces);
+
+		// Call post-listeners
+		store.forces = SimulationListenerHelper.firePostAerodynamicCalculation(status, store.forces);
+	}
+
+	/**
+	 * Add a small random amount to the pitch and yaw moment coefficients, as
+	 * {@link RK4SimulationStepper} does at every evaluation of the forces.
+	 */
+	protected void perturbMoments(AerodynamicForces forces) {
+		forces.setCm(forces.getCm() + (RK4SimulationStepper.PITCH_YAW_RANDOM * 2 * (random.nextDouble() - 0.5)));
+		forces.setCyaw(forces.getCyaw() + (RK4SimulationStepper.PITCH_YAW_RANDOM * 2 * (random.nextDouble() - 0.5)));
+	}
+
+	/**
+	 * Calculate the flight conditions for the given status into the data store,
+	 * reusing the flight conditions object of this stepper.  Listeners can
+	 * override these if necessary.
+	 * <p>
+	 * Additionally the lateral airflow direction and the field lateralPitchRate of
+	 * the data store are computed.
+	 */
+	protected void calculateFlightConditions(SimulationStatus status) throws SimulationException {
+
+		// Call pre listeners, allow complete override
+		store.flightConditions = SimulationListenerHelper.firePreFlightConditions(status);
+		if (store.flightConditions != null) {
+			updateFromFlightConditions();
+			return;
+		}
+
+		//// Atmospheric conditions
+		AtmosphericConditions atmosphere = modelAtmosphericConditions(status, atmosphericConditions);
+		store.flightConditions = flightConditions;
+		flightConditions.reset(status.getConfiguration());
+		flightConditions.setAtmosphericConditions(atmosphere);
+
+		//// Local wind speed and direction
+		store.windVelocity = modelWindVelocity(status);
+		Coordinate velocity = status.getRocketVelocity();
+		Quaternion orientation = status.getRocketOrientationQuaternion();
+		invRotate(orientation, velocity.x + store.windVelocity.x, velocity.y + store.windVelocity.y,
+				velocity.z + store.windVelocity.z);
+		double airSpeedX = vector[0];
+		double airSpeedY = vector[1];
+		double airSpeedZ = vector[2];
+
+		// Lateral direction:
+		double len = MathUtil.hypot(airSpeedX, airSpeedY);
+		if (len > 0.0001) {
+			thetaSin = airSpeedY / len;
+			thetaCos = airSpeedX / len;
+			flightConditions.setTheta(Math.atan2(airSpeedY, airSpeedX));
+		} else {
+			thetaSin = 0.0;
+			thetaCos = 1.0;
+			flightConditions.setTheta(0);
+		}
+
+		double airSpeed = MathUtil.safeSqrt(airSpeedX * airSpeedX + airSpeedY * airSpeedY + airSpeedZ * airSpeedZ);
+		flightConditions.setVelocity(airSpeed);
+		if (airSpeed > 0.01) {
+			// aoa must be calculated from the monotonous cosine
+			// sine can be calculated by a simple division
+			flightConditions.setAOA(Math.acos(airSpeedZ / airSpeed), len / airSpeed);
+		} else {
+			flightConditions.setAOA(0);
+		}
+
+		// Roll, pitch and yaw rate
+		Coordinate rotation = status.getRocketRotationVelocity();
+		invRotate(orientation, rotation.x, rotation.y, rotation.z);
+		double rotX = thetaCos * vector[0] + thetaSin * vector[1];
+		double rotY = thetaCos * vector[1] - thetaSin * vector[0];
+
+		flightConditions.setRollRate(vector[2]);
+		if (len < 0.001) {
+			flightConditions.setPitchRate(0);
+			flightConditions.setYawRate(0);
+			store.lateralPitchRate = 0;
+		} else {
+			flightConditions.setPitchRate(rotY);
+			flightConditions.setYawRate(rotX);
+			store.lateralPitchRate = MathUtil.hypot(rotX, rotY);
+		}
+
+		// Call post listeners
+		FlightConditions c = SimulationListenerHelper.firePostFlightConditions(status, flightConditions);
+		if (c != flightConditions) {
+			// Listeners changed the values, recalculate data store
+			store.flightConditions = c;
+			updateFromFlightConditions();
+		}
+	}
+
+	private void updateFromFlightConditions() {
+		thetaSin = Math.sin(store.flightConditions.getTheta());
+		thetaCos = Math.cos(store.flightConditions.getTheta());
+		store.lateralPitchRate = Math.hypot(store.flightConditions.getPitchRate(), store.flightConditions.getYawRate());
+	}
+
+	/**
+	 * Compute the atmospheric conditions into the given object, allowing listeners to override.
+	 *
+	 * @return	the atmospheric conditions to use, either <code>conditions</code> or an object given by a listener.
+	 */
+	private AtmosphericConditions modelAtmosphericConditions(SimulationStatus status, AtmosphericConditions conditions)
+			throws SimulationException {
+
+		// Call pre-listener
+		AtmosphericConditions c = SimulationListenerHelper.firePreAtmosphericModel(status);
+		if (c != null) {
+			return c;
+		}
+
+		// Compute conditions
+		double altitude = status.getRocketPosition().z + status.getSimulationConditions().getLaunchSite().getAltitude();
+		status.getSimulationConditions().getAtmosphericModel().getConditions(altitude, conditions);
+
+		// Call post-listener
+		c = SimulationListenerHelper.firePostAtmosphericModel(status, conditions);
+
+		checkNaN(c.getPressure());
+		checkNaN(c.getTemperature());
+
+		return c;
+	}
+
+	protected static boolean hasListeners(SimulationStatus status) {
+		return !status.getSimulationConditions().getSimulationListenerList().isEmpty();
+	}
+
+	protected static double length(double[] d, int offset) {
+		return MathUtil.safeSqrt(d[offset] * d[offset] + d[offset + 1] * d[offset + 1] + d[offset + 2] * d[offset + 2]);
+	}
+
+	/**
+	 * Rotate the vector around the z axis by the lateral airflow direction into {@link #vector},
+	 * as {@link info.openrocket.core.util.Rotation2D#rotateZ(Coordinate)}.
+	 */
+	private void rotateZ(double x, double y, double z) {
+		vector[0] = thetaCos * x - thetaSin * y;
+		vector[1] = thetaCos * y + thetaSin * x;
+		vector[2] = z;
+	}
+
+	/**
+	 * Rotate the vector from rocket coordinates to world coordinates into <code>result</code>,
+	 * as {@link Quaternion#rotate(Coordinate)}.
+	 */
+	private static void rotate(Quaternion q, double cx, double cy, double cz, double[] result) {
+		double w = q.getW(), x = q.getX(), y = q.getY(), z = q.getZ();
+
+		double a = -x * cx - y * cy - z * cz;
+		double b = w * cx + y * cz - z * cy;
+		double c = w * cy - x * cz + z * cx;
+		double d = w * cz + x * cy - y * cx;
+
+		result[0] = -a * x + b * w - c * z + d * y;
+		result[1] = -a * y + b * z + c * w - d * x;
+		result[2] = -a * z - b * y + c * x + d * w;
+	}
+
+	/**
+	 * Rotate the vector from world coordinates to rocket coordinates into {@link #vector},
+	 * as {@link Quaternion#invRotate(Coordinate)}.
+	 */
+	protected void invRotate(Quaternion q, double cx, double cy, double cz) {
+		double w = q.getW(), x = q.getX(), y = q.getY(), z = q.getZ();
+
+		double a = x * cx + y * cy + z * cz;
+		double b = w * cx - y * cz + z * cy;
+		double c = w * cy + x * cz - z * cx;
+		double d = w * cz - x * cy + y * cx;
+
+		vector[0] = a * x + b * w + c * z - d * y;
+		vector[1] = a * y - b * z + c * w + d * x;
+		vector[2] = a * z + b * y - c * x + d * w;
+	}
+
+	/**
+	 * Rotate the orientation by the rotation vector into {@link #quaternion}, as
+	 * <code>q.multiplyLeft(Quaternion.rotation(new Coordinate(rx, ry, rz)))</code>.
+	 */
+	protected void rotate(Quaternion q, double rx, double ry, double rz) {
+		double ow, ox, oy, oz;
+		double length = MathUtil.safeSqrt(rx * rx + ry * ry + rz * rz);
+		if (length < 0.000001) {
+			ow = 1;
+			ox = oy = oz = 0;
+		} else {
+			double sin = Math.sin(length / 2);
+			ow = Math.cos(length / 2);
+			ox = sin * rx / length;
+			oy = sin * ry / length;
+			oz = sin * rz / length;
+		}
+
+		double w = q.getW(), x = q.getX(), y = q.getY(), z = q.getZ();
+		quaternion[0] = ow * w - ox * x - oy * y - oz * z;
+		quaternion[1] = ow * x + ox * w + oy * z - oz * y;
+		quaternion[2] = ow * y + oy * w + oz * x - ox * z;
+		quaternion[3] = ow * z + oz * w + ox * y - oy * x;
+	}
+}
@@ -36,8 +36,7 @@ public class BasicEventSimulationEngine implements SimulationEngine {
 	private static final Translator trans = Application.getTranslator();
 	private static final Logger log = LoggerFactory.getLogger(BasicEventSimulationEngine.class);
 	
-	// TODO: MEDIUM: Allow selecting steppers
-	private final SimulationStepper flightStepper = new RK4SimulationStepper();
+	private SimulationStepper flightStepper;
 	private final SimulationStepper landingStepper = new BasicLandingStepper();
 	private final SimulationStepper tumbleStepper = new BasicTumbleStepper();
 	private final SimulationStepper groundStepper = new GroundStepper();
@@ -62,6 +61,7 @@ public class BasicEventSimulationEngine implements SimulationEngine {
 
 		// Set up flight data
 		flightData = new FlightData();
+		flightStepper = simulationConditions.getStepperType().createStepper();
 			
 		try {
 			// Set up rocket configuration
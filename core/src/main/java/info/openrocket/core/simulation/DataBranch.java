@@ -1,27 +1,27 @@
 package info.openrocket.core.simulation;
 
-import info.openrocket.core.util.ArrayList;
 import info.openrocket.core.util.ModID;
 import info.openrocket.core.util.Monitorable;
 import info.openrocket.core.util.Mutable;
 
 import java.lang.reflect.Array;
+import java.nio.DoubleBuffer;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Supplier;
 
 /**
  * A branch of data / collection of data points for a specific type of data.
+ * <p>
+ * The values of each data type are stored as primitive doubles in a {@link DataColumn}.
  * @param <T> the type of data in this branch
  */
 public abstract class DataBranch<T extends DataType> implements Monitorable {
 	protected final String name;
-	protected final Map<T, ArrayList<Double>> values = new LinkedHashMap<>();
-	protected final Map<T, Double> maxValues = new HashMap<>();
-	protected final Map<T, Double> minValues = new HashMap<>();
+	protected final Map<T, DataColumn> values = new LinkedHashMap<>();
 
 	protected final Mutable mutable = new Mutable();
 	protected ModID modID = ModID.INVALID;
@@ -54,39 +54,59 @@ public abstract class DataBranch<T extends DataType> implements Monitorable {
 			throw new IllegalArgumentException("Value type " + type + " already exists.");
 		}
 
-		values.put(type, new ArrayList<>());
-		minValues.put(type, Double.NaN);
-		maxValues.put(type, Double.NaN);
+		values.put(type, new DataColumn(getLength()));
 	}
 
 	/**
-	 * Adds a new point into the data branch.  The value for all types is set to NaN by default.
+	 * Set the values of a data type to be loaded from storage on first access, replacing
+	 * any values of the type.  All types of the branch must have the same number of values.
 	 *
+	 * @param type		the variable type.
+	 * @param length	the number of values.
+	 * @param loader	the loader of the values, called at most once.
 	 * @throws IllegalStateException	if this object has been made immutable.
+	 * @see DataColumn#DataColumn(int, Supplier)
 	 */
-	public void addPoint() {
+	public void setLazyValues(T type, int length, Supplier<double[]> loader) {
 		mutable.check();
 
-		for (Map.Entry<T, ArrayList<Double>> entry : values.entrySet()) {
-			sanityCheckValues(entry.getKey(), Double.NaN);
-			entry.getValue().add(Double.NaN);
-		}
+		values.put(type, new DataColumn(length, loader));
 		modID = new ModID();
 	}
 
-	private void sanityCheckValues(T type, Double value) {
-		ArrayList<Double> list = values.get(type);
+	/**
+	 * Load all values of this branch that are loaded from storage on first access.
+	 */
+	public void load() {
+		for (DataColumn column : values.values()) {
+			column.load();
+		}
+	}
 
-		if (list == null) {
-			list = new info.openrocket.core.util.ArrayList<>();
-			int n = getLength();
-			for (int i = 0; i < n; i++) {
-				list.add(Double.NaN);
+	/**
+	 * Return whether all values of this branch are available without loading them from storage.
+	 */
+	public boolean isLoaded() {
+		for (DataColumn column : values.values()) {
+			if (!column.isLoaded()) {
+				return false;
 			}
-			values.put(type, list);
-			minValues.put(type, value);
-			maxValues.put(type, value);
 		}
+		return true;
+	}
+
+	/**
+	 * Adds a new point into the data branch.  The value for all types is set to NaN by default.
+	 *
+	 * @throws IllegalStateException	if this object has been made immutable.
+	 */
+	public void addPoint() {
+		mutable.check();
+
+		for (DataColumn column : values.values()) {
+			column.add(Double.NaN);
+		}
+		modID = new ModID();
 	}
 
 	/**
@@ -100,30 +120,12 @@ public abstract class DataBranch<T extends DataType> implements Monitorable {
 	public void setValue(T type, double value) {
 		mutable.check();
 
-		ArrayList<Double> list = values.computeIfAbsent(type, k -> {
-			ArrayList<Double> newList = new ArrayList<>();
-			int n = getLength();
-			for (int i = 0; i < n; i++) {
-				newList.add(Double.NaN);
-			}
-			minValues.put(k, Double.NaN);
-			maxValues.put(k, Double.NaN);
-			return newList;
-		});
-
-		if (list.size() > 0) {
-			list.set(list.size() - 1, value);
-		}
-
-		double min = minValues.get(type);
-		double max = maxValues.get(type);
-
-		if (Double.isNaN(min) || (value < min)) {
-			minValues.put(type, value);
-		}
-		if (Double.isNaN(max) || (value > max)) {
-			maxValues.put(type, value);
+		DataColumn column = values.get(type);
+		if (column == null) {
+			column = new DataColumn(getLength());
+			values.put(type, column);
 		}
+		column.setLast(value);
 		modID = new ModID();
 	}
 
@@ -136,10 +138,44 @@ public abstract class DataBranch<T extends DataType> implements Monitorable {
 	 * 				the variable type hasn't been added to this branch.
 	 */
 	public List<Double> get(T type) {
-		ArrayList<Double> list = values.get(type);
-		if (list == null)
+		DataColumn column = values.get(type);
+		if (column == null)
 			return null;
-		return list.clone();
+		if (isMutable())
+			return column.toList();
+		return column.asList();
+	}
+
+	/**
+	 * Return the values of the specified variable type as a primitive array.  Once this
+	 * branch has been made immutable the backing array is returned without copying, so the
+	 * returned array must not be modified.
+	 *
+	 * @param type	the variable type.
+	 * @return		the variable values, or <code>null</code> if the variable type hasn't
+	 * 				been added to this branch.
+	 */
+	public double[] getArray(T type) {
+		DataColumn column = values.get(type);
+		if (column == null)
+			return null;
+		return column.getArray();
+	}
+
+	/**
+	 * Return a read-only buffer of the values of the specified variable type.  The buffer
+	 * shares the storage of this branch, so it should only be used once this branch has
+	 * been made immutable.
+	 *
+	 * @param type	the variable type.
+	 * @return		a buffer of the variable values, or <code>null</code> if the variable type
+	 * 				hasn't been added to this branch.
+	 */
+	public DoubleBuffer getBuffer(T type) {
+		DataColumn column = values.get(type);
+		if (column == null)
+			return null;
+		return column.asBuffer();
 	}
 
 	/**
@@ -152,11 +188,11 @@ public abstract class DataBranch<T extends DataType> implements Monitorable {
 		if (index < 0 || index >= getLength()) {
 			throw new IllegalArgumentException("Index out of bounds");
 		}
-		ArrayList<Double> list = values.get(type);
-		if (list == null) {
+		DataColumn column = values.get(type);
+		if (column == null) {
 			return null;
 		}
-		return list.get(index);
+		return column.get(index);
 	}
 
 	/**
@@ -167,10 +203,10 @@ public abstract class DataBranch<T extends DataType> implements Monitorable {
 	 * @return		the last value in this branch, or NaN.
 	 */
 	public double getLast(T type) {
-		ArrayList<Double> list = values.get(type);
-		if (list == null || list.isEmpty())
+		DataColumn column = values.get(type);
+		if (column == null)
 			return Double.NaN;
-		return list.get(list.size() - 1);
+		return column.getLast();
 	}
 
 	/**
@@ -181,10 +217,10 @@ public abstract class DataBranch<T extends DataType> implements Monitorable {
 	 * @return		the minimum value in this branch, or NaN.
 	 */
 	public double getMinimum(T type) {
-		Double v = minValues.get(type);
-		if (v == null)
+		DataColumn column = values.get(type);
+		if (column == null)
 			return Double.NaN;
-		return v;
+		return column.getMinimum();
 	}
 
 	/**
@@ -195,18 +231,18 @@ public abstract class DataBranch<T extends DataType> implements Monitorable {
 	 * @return		the maximum value in this branch, or NaN.
 	 */
 	public double getMaximum(T type) {
-		Double v = maxValues.get(type);
-		if (v == null)
+		DataColumn column = values.get(type);
+		if (column == null)
 			return Double.NaN;
-		return v;
+		return column.getMaximum();
 	}
 
 	/**
 	 * Return the number of data points in this branch.
 	 */
 	public int getLength() {
-		for (ArrayList<Double> doubles : values.values()) {
-			return doubles.size();
+		for (DataColumn column : values.values()) {
+			return column.size();
 		}
 		return 0;
 	}
@@ -234,8 +270,14 @@ public abstract class DataBranch<T extends DataType> implements Monitorable {
 	/**
 	 * Make this FlightDataBranch immutable.  Any calls to the set methods that would
 	 * modify this object will after this call throw an <code>IllegalStateException</code>.
+	 * Any unused storage capacity is released.
 	 */
 	public void immute() {
+		if (mutable.isMutable()) {
+			for (DataColumn column : values.values()) {
+				column.trim();
+			}
+		}
 		mutable.immute();
 	}
 
@@ -0,0 +1,288 @@
+package info.openrocket.core.simulation;
+
+import java.nio.DoubleBuffer;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.Supplier;
+
+/**
+ * A growable column of primitive double values, used by {@link DataBranch} to store the
+ * values of a single data type.  The minimum and maximum of the values set through
+ * {@link #setLast(double)} are tracked as the values are stored.
+ * <p>
+ * The values are stored in a single contiguous array so that they can be exposed without
+ * copying through {@link #getArray()} and {@link #asBuffer()}.  {@link #trim()} releases the
+ * unused capacity once no more values are going to be added.
+ * <p>
+ * A column may also be created with values that are loaded from storage on first access,
+ * see {@link #DataColumn(int, Supplier)}.  Loading is thread-safe, but otherwise this class
+ * is not thread-safe.
+ */
+public final class DataColumn {
+
+	private static final double[] EMPTY = new double[0];
+	private static final int INITIAL_CAPACITY = 32;
+
+	private double[] data;
+	private int size;
+	private double min = Double.NaN;
+	private double max = Double.NaN;
+	/** Loader of the values, or null once the values are available */
+	private volatile Supplier<double[]> loader;
+
+	/**
+	 * Create an empty column.
+	 */
+	public DataColumn() {
+		this.data = EMPTY;
+	}
+
+	/**
+	 * Create a column with <code>length</code> values, all set to NaN.
+	 *
+	 * @param length	the number of values in the new column.
+	 */
+	public DataColumn(int length) {
+		if (length == 0) {
+			this.data = EMPTY;
+		} else {
+			this.data = new double[Math.max(length, INITIAL_CAPACITY)];
+			Arrays.fill(this.data, 0, length, Double.NaN);
+		}
+		this.size = length;
+	}
+
+	/**
+	 * Create a column with <code>length</code> values that are loaded on first access.
+	 * The size of the column is available without loading the values.  The loader is
+	 * called at most once, and must return an array of <code>length</code> values.
+	 *
+	 * @param length	the number of values in the new column.
+	 * @param loader	the loader of the values.
+	 */
+	public DataColumn(int length, Supplier<double[]> loader) {
+		this.data = EMPTY;
+		this.size = length;
+		this.loader = loader;
+	}
+
+	private DataColumn(DataColumn other) {
+		other.load();
+		this.data = Arrays.copyOf(other.data, other.size);
+		this.size = other.size;
+		this.min = other.min;
+		this.max = other.max;
+	}
+
+	/**
+	 * Append a new value to the end of the column.  The minimum and maximum are not updated.
+	 *
+	 * @param value		the value to append.
+	 */
+	public void add(double value) {
+		load();
+		if (size == data.length) {
+			int capacity = data.length == 0 ? INITIAL_CAPACITY : data.length + (data.length >> 1);
+			data = Arrays.copyOf(data, capacity);
+		}
+		data[size++] = value;
+	}
+
+	/**
+	 * Set the last value of the column and update the minimum and maximum.  If the
+	 * column is empty, only the minimum and maximum are updated.
+	 *
+	 * @param value		the value to set.
+	 */
+	public void setLast(double value) {
+		load();
+		if (size > 0) {
+			data[size - 1] = value;
+		}
+		if (Double.isNaN(min) || (value < min)) {
+			min = value;
+		}
+		if (Double.isNaN(max) || (value > max)) {
+			max = value;
+		}
+	}
+
+	/**
+	 * Return the value at the given index.
+	 *
+	 * @param index		the index of the value.
+	 * @return			the value.
+	 * @throws IndexOutOfBoundsException	if the index is out of range.
+	 */
+	public double get(int index) {
+		load();
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+		}
+		return data[index];
+	}
+
+	/**
+	 * Return the last value of the column, or NaN if the column is empty.
+	 */
+	public double getLast() {
+		load();
+		if (size == 0) {
+			return Double.NaN;
+		}
+		return data[size - 1];
+	}
+
+	/**
+	 * Return the minimum of the values set, or NaN if no values have been set.
+	 */
+	public double getMinimum() {
+		load();
+		return min;
+	}
+
+	/**
+	 * Return the maximum of the values set, or NaN if no values have been set.
+	 */
+	public double getMaximum() {
+		load();
+		return max;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Release any unused capacity of the backing array.
+	 */
+	public void trim() {
+		if (loader != null) {
+			// Loaded values are not over-allocated
+			return;
+		}
+		if (data.length != size) {
+			data = size == 0 ? EMPTY : Arrays.copyOf(data, size);
+		}
+	}
+
+	/**
+	 * Return the backing array of this column if it has been trimmed to the column size,
+	 * otherwise a copy of the values.  The returned array must not be modified.
+	 */
+	public double[] getArray() {
+		load();
+		if (data.length == size) {
+			return data;
+		}
+		return Arrays.copyOf(data, size);
+	}
+
+	/**
+	 * Return a read-only buffer of the current values of this column, sharing the backing
+	 * array.  Changes made to the column afterwards may or may not be visible through the
+	 * buffer, so this should only be used once the column is no longer modified.
+	 */
+	public DoubleBuffer asBuffer() {
+		load();
+		return DoubleBuffer.wrap(data, 0, size).slice().asReadOnlyBuffer();
+	}
+
+	/**
+	 * Return a read-only list view of the current values of this column, sharing the
+	 * backing array.  Changes made to the column afterwards may or may not be visible
+	 * through the view, so this should only be used once the column is no longer modified.
+	 */
+	public List<Double> asList() {
+		load();
+		return new ColumnList(data, size);
+	}
+
+	/**
+	 * Return a read-only list of a copy of the current values of this column.
+	 */
+	public List<Double> toList() {
+		load();
+		return new ColumnList(Arrays.copyOf(data, size), size);
+	}
+
+	/**
+	 * Return whether the values of this column are available without loading them.
+	 */
+	public boolean isLoaded() {
+		return loader == null;
+	}
+
+	/**
+	 * Load the values of this column if they have not been loaded yet.  The minimum and
+	 * maximum are computed from the loaded values.
+	 *
+	 * @throws IllegalStateException	if the loader does not return the expected number of values.
+	 */
+	public void load() {
+		if (loader == null) {
+			return;
+		}
+		synchronized (this) {
+			Supplier<double[]> l = loader;
+			if (l == null) {
+				return;
+			}
+			double[] values = l.get();
+			if (values.length != size) {
+				throw new IllegalStateException("Loaded " + values.length + " values, expected " + size);
+			}
+			double min = Double.NaN;
+			double max = Double.NaN;
+			for (double value : values) {
+				if (Double.isNaN(min) || (value < min)) {
+					min = value;
+				}
+				if (Double.isNaN(max) || (value > max)) {
+					max = value;
+				}
+			}
+			this.data = values.length == 0 ? EMPTY : values;
+			this.min = min;
+			this.max = max;
+			loader = null;
+		}
+	}
+
+	/**
+	 * Return a deep copy of this column, trimmed to its size.
+	 */
+	public DataColumn copy() {
+		return new DataColumn(this);
+	}
+
+
+	private static final class ColumnList extends AbstractList<Double> implements RandomAccess {
+		private final double[] values;
+		private final int size;
+
+		private ColumnList(double[] values, int size) {
+			this.values = values;
+			this.size = size;
+		}
+
+		@Override
+		public Double get(int index) {
+			if (index < 0 || index >= size) {
+				throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+			}
+			return values[index];
+		}
+
+		@Override
+		public int size() {
+			return size;
+		}
+	}
+}
@@ -0,0 +1,355 @@
+package info.openrocket.core.simulation;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import info.openrocket.core.aerodynamics.AerodynamicForces;
+import info.openrocket.core.l10n.Translator;
+import info.openrocket.core.simulation.exception.SimulationCalculationException;
+import info.openrocket.core.simulation.exception.SimulationException;
+import info.openrocket.core.startup.Application;
+import info.openrocket.core.util.Coordinate;
+import info.openrocket.core.util.MathUtil;
+import info.openrocket.core.util.Quaternion;
+import info.openrocket.core.util.WorldCoordinate;
+
+/**
+ * A stepper using the embedded Runge-Kutta 5(4) pair of Dormand and Prince with control of
+ * the local truncation error.  The length of each step is chosen so that the estimated error
+ * of the position, velocity, orientation and rotation velocity stays within the relative and
+ * absolute tolerances of the simulation conditions, which lets the smooth phases of the flight
+ * take much longer steps than {@link RK4SimulationStepper}.
+ * <p>
+ * Scheduled flight events, such as burnout and recovery device deployment, end the step at
+ * the time of the event.  Apogee and ground contact are located within a step using the
+ * continuous extension (dense output) of the method, and the step is shortened to end at them.
+ * On the launch rod the step is limited as in {@link RK4SimulationStepper}, so that liftoff and
+ * launch rod clearance are detected accurately.
+ * <p>
+ * The small random perturbation of the pitch and yaw moments is held constant during each
+ * step, so that it is not mistaken for truncation error.
+ */
+public class DormandPrinceSimulationStepper extends AbstractRungeKuttaSimulationStepper {
+
+	private static final Logger log = LoggerFactory.getLogger(DormandPrinceSimulationStepper.class);
+	private static final Translator trans = Application.getTranslator();
+
+	/** The default relative tolerance of the local error. */
+	public static final double DEFAULT_RELATIVE_TOLERANCE = 1e-4;
+
+	/** The default absolute tolerance of the local error. */
+	public static final double DEFAULT_ABSOLUTE_TOLERANCE = 1e-4;
+
+	/** The maximum step length as a multiple of the time step of the simulation conditions. */
+	private static final double MAX_TIME_STEP_MULTIPLIER = 20;
+
+	private static final double SAFETY_FACTOR = 0.9;
+	private static final double MIN_STEP_FACTOR = 0.2;
+	private static final double MAX_STEP_FACTOR = 5;
+
+	private static final int STAGES = 7;
+
+	/** The coefficients a_ij of the method, the last row is also the fifth-order solution */
+	private static final double[][] COEFFICIENTS = {
+			{},
+			{ 1.0 / 5 },
+			{ 3.0 / 40, 9.0 / 40 },
+			{ 44.0 / 45, -56.0 / 15, 32.0 / 9 },
+			{ 19372.0 / 6561, -25360.0 / 2187, 64448.0 / 6561, -212.0 / 729 },
+			{ 9017.0 / 3168, -355.0 / 33, 46732.0 / 5247, 49.0 / 176, -5103.0 / 18656 },
+			{ 35.0 / 384, 0, 500.0 / 1113, 125.0 / 192, -2187.0 / 6784, 11.0 / 84 }
+	};
+
+	/** The nodes c_i of the method */
+	private static final double[] C = { 0, 1.0 / 5, 3.0 / 10, 4.0 / 5, 8.0 / 9, 1, 1 };
+
+	/** The difference of the fifth- and fourth-order weights, giving the error estimate */
+	private static final double[] E = { 71.0 / 57600, 0, -71.0 / 16695, 71.0 / 1920, -17253.0 / 339200,
+			22.0 / 525, -1.0 / 40 };
+
+	/** The coefficients of the continuous extension */
+	private static final double[] D = { -12715105075.0 / 11282082432.0, 0, 87487479700.0 / 32700410799.0,
+			-10690763975.0 / 1880347072.0, 701980252875.0 / 199316789632.0, -1453857185.0 / 822651844.0,
+			69997945.0 / 29380423.0 };
+
+	/** The derivatives k1..k7 of the stages */
+	private final double[][] k = new double[STAGES][DERIVATIVE_SIZE];
+
+	/** The change of the state over the step, with the rotation as a rotation vector */
+	private final double[] delta = new double[DERIVATIVE_SIZE];
+
+	/** The state at the start of the step, with a zero rotation vector */
+	private final double[] start = new double[DERIVATIVE_SIZE];
+
+	private double nextTimeStep = Double.NaN;
+	private double cmPerturbation;
+	private double cyawPerturbation;
+
+	private int steps;
+	private int rejectedSteps;
+
+	@Override
+	public SimulationStatus initialize(SimulationStatus original) {
+		nextTimeStep = Double.NaN;
+		steps = 0;
+		rejectedSteps = 0;
+		return super.initialize(original);
+	}
+
+	@Override
+	public void step(SimulationStatus status, double maxTimeStep) throws SimulationException {
+
+		boolean listeners = hasListeners(status);
+		SimulationConditions conditions = status.getSimulationConditions();
+		double relativeTolerance = conditions.getRelativeTolerance();
+		double absoluteTolerance = conditions.getAbsoluteTolerance();
+
+		cmPerturbation = RK4SimulationStepper.PITCH_YAW_RANDOM * 2 * (random.nextDouble() - 0.5);
+		cyawPerturbation = RK4SimulationStepper.PITCH_YAW_RANDOM * 2 * (random.nextDouble() - 0.5);
+
+		//// First stage at the current status
+		computeParameters(status, k[0], true, listeners);
+		store.atmosphericConditions = store.flightConditions.getAtmosphericConditions();
+		store.storeData(status);
+
+		setStart(status);
+
+		/*
+		 * Select the step length.  It is the step proposed by the error control of the previous step
+		 * (initially the user-specified time step), limited by maxTimeStep, the next scheduled event
+		 * and on the launch rod by the launch rod length.
+		 */
+		double timeStep = MathUtil.max(conditions.getTimeStep(), MIN_TIME_STEP);
+		double minTimeStep = conditions.getTimeStep() / 20;
+		double proposed = Double.isNaN(nextTimeStep) ? timeStep : nextTimeStep;
+		double h = MathUtil.min(proposed, maxTimeStep, MAX_TIME_STEP_MULTIPLIER * timeStep);
+		if (!status.isLaunchRodCleared()) {
+			h = MathUtil.min(h, timeStep / 5.0, conditions.getLaunchRodLength() / length(k[0], V) / 10);
+		}
+		h = limitToNextEvent(status, h, minTimeStep);
+		if (h < minTimeStep) {
+			h = minTimeStep;
+		}
+		checkNaN(h);
+		boolean limited = h < proposed;
+
+		//// Take the step, reducing its length until the error is within the tolerances
+		SimulationStatus stage = status.clone();
+		double error;
+		boolean rejected = false;
+		while (true) {
+			for (int i = 1; i < STAGES; i++) {
+				moveStage(status, stage, i, h);
+				computeParameters(stage, k[i], i == STAGES - 1, listeners);
+			}
+			error = estimateError(status, stage, h, relativeTolerance, absoluteTolerance);
+			if (error <= 1 || h <= minTimeStep) {
+				break;
+			}
+			double reduced = h * Math.max(MIN_STEP_FACTOR, SAFETY_FACTOR * Math.pow(error, -0.2));
+			log.trace("Rejected step " + h + " with error " + error + ", retrying with " + reduced);
+			h = Math.max(reduced, minTimeStep);
+			rejected = true;
+			rejectedSteps++;
+		}
+		steps++;
+
+		// Propose the next step
+		double factor = (error == 0) ? MAX_STEP_FACTOR : SAFETY_FACTOR * Math.pow(error, -0.2);
+		factor = MathUtil.clamp(factor, MIN_STEP_FACTOR, rejected ? 1 : MAX_STEP_FACTOR);
+		nextTimeStep = (limited && !rejected) ? Math.max(proposed, h * factor) : h * factor;
+
+		//// Locate apogee and ground contact within the step
+		double fraction = 1;
+		if (status.isLiftoff()) {
+			if (!status.isApogeeReached() && start[A + 2] > 0 && start[A + 2] + delta[A + 2] <= 0) {
+				fraction = locateRoot(A + 2, h);
+			}
+			if (start[V + 2] > 0 && start[V + 2] + delta[V + 2] < 0) {
+				fraction = Math.min(fraction, locateRoot(V + 2, h));
+			}
+		}
+
+		if (fraction < 1) {
+			log.trace("Shortening step " + h + " to " + (fraction * h) + " at apogee or ground contact");
+			for (int c = 0; c < DERIVATIVE_SIZE; c++) {
+				delta[c] = interpolate(c, fraction, h);
+			}
+			h = fraction * h;
+		}
+
+		//// Update the status to the end of the step
+		store.timeStep = h;
+		status.setRocketPosition(new Coordinate(start[V] + delta[V], start[V + 1] + delta[V + 1], start[V + 2] + delta[V + 2]));
+		status.setRocketVelocity(new Coordinate(start[A] + delta[A], start[A + 1] + delta[A + 1], start[A + 2] + delta[A + 2]));
+		status.setRocketRotationVelocity(new Coordinate(start[RA] + delta[RA], start[RA + 1] + delta[RA + 1],
+				start[RA + 2] + delta[RA + 2]));
+		rotate(status.getRocketOrientationQuaternion(), delta[RV], delta[RV + 1], delta[RV + 2]);
+		status.setRocketOrientationQuaternion(
+				new Quaternion(quaternion[0], quaternion[1], quaternion[2], quaternion[3]).normalizeIfNecessary());
+
+		WorldCoordinate w = conditions.getLaunchSite();
+		w = conditions.getGeodeticComputation().addCoordinate(w, status.getRocketPosition());
+		status.setRocketWorldPosition(w);
+
+		if (!(0 <= store.timeStep)) {
+			// Also catches NaN
+			throw new IllegalArgumentException("Stepping backwards in time, timestep=" + store.timeStep);
+		}
+		status.setSimulationTime(status.getSimulationTime() + store.timeStep);
+
+		if (fraction < 1) {
+			// The data store holds the values at the end of the full step
+			computeParameters(status, k[0], true, listeners);
+		}
+
+		// Store data
+		status.getFlightDataBranch().addPoint();
+		status.storeData();
+		store.storeData(status);
+
+		if (log.isDebugEnabled() && steps % 100 == 0) {
+			log.debug(steps + " steps taken, " + rejectedSteps + " rejected");
+		}
+
+		// Verify that values don't run out of range
+		if (status.getRocketVelocity().length2() > 1.0e18 ||
+				status.getRocketPosition().length2() > 1.0e18 ||
+				status.getRocketRotationVelocity().length2() > 1.0e18) {
+			throw new SimulationCalculationException(trans.get("error.valuesTooLarge"), status.getFlightDataBranch());
+		}
+	}
+
+	@Override
+	protected void perturbMoments(AerodynamicForces forces) {
+		forces.setCm(forces.getCm() + cmPerturbation);
+		forces.setCyaw(forces.getCyaw() + cyawPerturbation);
+	}
+
+	/**
+	 * Truncate the step to a scheduled event coming up before its end, or stretch it to the
+	 * event if it would otherwise end less than the minimum time step before it.
+	 */
+	private double limitToNextEvent(SimulationStatus status, double h, double minTimeStep) {
+		FlightEvent nextEvent = status.getEventQueue().peek();
+		if (nextEvent != null) {
+			double nextEventTime = nextEvent.getTime();
+			if (status.getSimulationTime() + h > nextEventTime) {
+				h = nextEventTime - status.getSimulationTime();
+				log.trace("scheduled event at " + nextEventTime + " truncates timestep to " + h);
+			} else if ((status.getSimulationTime() + h < nextEventTime) &&
+					   (status.getSimulationTime() + h + minTimeStep > nextEventTime)) {
+				h = nextEventTime - status.getSimulationTime();
+				log.trace("Scheduled event at " + nextEventTime + " stretches timestep to " + h);
+			}
+		}
+		return h;
+	}
+
+	/**
+	 * Store the state at the start of the step.
+	 */
+	private void setStart(SimulationStatus status) {
+		Coordinate c = status.getRocketPosition();
+		start[V] = c.x;
+		start[V + 1] = c.y;
+		start[V + 2] = c.z;
+		c = status.getRocketVelocity();
+		start[A] = c.x;
+		start[A + 1] = c.y;
+		start[A + 2] = c.z;
+		start[RV] = start[RV + 1] = start[RV + 2] = 0;
+		c = status.getRocketRotationVelocity();
+		start[RA] = c.x;
+		start[RA + 1] = c.y;
+		start[RA + 2] = c.z;
+	}
+
+	/**
+	 * Move the stage status from the start of the step to stage <code>i</code> for a step of length
+	 * <code>h</code>.  The change of the state is left in {@link #delta}.
+	 */
+	private void moveStage(SimulationStatus status, SimulationStatus stage, int i, double h) {
+		double[] a = COEFFICIENTS[i];
+		for (int c = 0; c < DERIVATIVE_SIZE; c++) {
+			double sum = 0;
+			for (int j = 0; j < a.length; j++) {
+				sum += a[j] * k[j][c];
+			}
+			delta[c] = h * sum;
+		}
+
+		stage.setSimulationTime(status.getSimulationTime() + C[i] * h);
+		stage.setRocketPosition(new Coordinate(start[V] + delta[V], start[V + 1] + delta[V + 1], start[V + 2] + delta[V + 2]));
+		stage.setRocketVelocity(new Coordinate(start[A] + delta[A], start[A + 1] + delta[A + 1], start[A + 2] + delta[A + 2]));
+		rotate(status.getRocketOrientationQuaternion(), delta[RV], delta[RV + 1], delta[RV + 2]);
+		stage.setRocketOrientationQuaternion(new Quaternion(quaternion[0], quaternion[1], quaternion[2], quaternion[3]));
+		stage.setRocketRotationVelocity(new Coordinate(start[RA] + delta[RA], start[RA + 1] + delta[RA + 1],
+				start[RA + 2] + delta[RA + 2]));
+	}
+
+	/**
+	 * Return the estimated local error of the step relative to the tolerances.  The step is
+	 * acceptable if the value is at most one.  {@link #delta} must hold the change of the state
+	 * over the step.
+	 */
+	private double estimateError(SimulationStatus status, SimulationStatus end, double h,
+			double relativeTolerance, double absoluteTolerance) {
+		double max = 0;
+		for (int c = 0; c < DERIVATIVE_SIZE; c++) {
+			double sum = 0;
+			for (int j = 0; j < STAGES; j++) {
+				sum += E[j] * k[j][c];
+			}
+			double scale;
+			if (c >= RV && c < RV + 3) {
+				// Rotation vector, the orientation quaternion has unit length
+				scale = absoluteTolerance + relativeTolerance;
+			} else {
+				scale = absoluteTolerance + relativeTolerance *
+						Math.max(Math.abs(start[c]), Math.abs(start[c] + delta[c]));
+			}
+			max = Math.max(max, Math.abs(h * sum) / scale);
+		}
+		if (Double.isNaN(max)) {
+			checkNaN(max);
+		}
+		return max;
+	}
+
+	/**
+	 * Return the change of component <code>c</code> of the state from the start of the step
+	 * to the given fraction of the step, using the continuous extension of the method.
+	 */
+	private double interpolate(int c, double fraction, double h) {
+		double r2 = delta[c];
+		double r3 = h * k[0][c] - r2;
+		double r4 = r2 - h * k[STAGES - 1][c] - r3;
+		double r5 = 0;
+		for (int j = 0; j < STAGES; j++) {
+			r5 += D[j] * k[j][c];
+		}
+		r5 *= h;
+		double s = 1 - fraction;
+		return fraction * (r2 + s * (r3 + fraction * (r4 + s * r5)));
+	}
+
+	/**
+	 * Locate the fraction of the step at which component <code>c</code> of the state, positive at
+	 * the start and not positive at the end of the step, changes sign.  The returned fraction is
+	 * at or just after the sign change.
+	 */
+	private double locateRoot(int c, double h) {
+		double low = 0;
+		double high = 1;
+		for (int i = 0; i < 50; i++) {
+			double mid = (low + high) / 2;
+			if (start[c] + interpolate(c, mid, h) > 0) {
+				low = mid;
+			} else {
+				high = mid;
+			}
+		}
+		return high;
+	}
+}
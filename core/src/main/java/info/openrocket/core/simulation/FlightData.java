@@ -296,6 +296,7 @@ public class FlightData {
 		clone.groundHitVelocity = groundHitVelocity;
 		clone.launchRodVelocity = launchRodVelocity;
 		clone.deploymentVelocity = deploymentVelocity;
+		clone.optimumDelay = optimumDelay;
 		return clone;
 	}
 
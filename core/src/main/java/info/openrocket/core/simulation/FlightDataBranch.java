@@ -77,9 +77,7 @@ public class FlightDataBranch extends DataBranch<FlightDataType> {
 		this.values.clear();
 
 		// Need to have at least one type to set up values
-		values.put(FlightDataType.TYPE_TIME, new ArrayList<>());
-		minValues.put(FlightDataType.TYPE_TIME, Double.NaN);
-		maxValues.put(FlightDataType.TYPE_TIME, Double.NaN);
+		values.put(FlightDataType.TYPE_TIME, new DataColumn());
 
 		if (srcBranch == null) {
 			return;
@@ -246,7 +244,7 @@ public class FlightDataBranch extends DataBranch<FlightDataType> {
 		if (Double.isNaN(time)) {
 			return -1;
 		}
-		List<Double> times = get(FlightDataType.TYPE_TIME);
+		DataColumn times = values.get(FlightDataType.TYPE_TIME);
 		if (times == null) {
 			return -1;
 		}
@@ -261,11 +259,9 @@ public class FlightDataBranch extends DataBranch<FlightDataType> {
 	public FlightDataBranch clone() {
 		FlightDataType[] types = getTypes();
 		FlightDataBranch clone = new FlightDataBranch(name, types);
-		for (Map.Entry<FlightDataType, ArrayList<Double>> entry : values.entrySet()) {
-			clone.values.put(entry.getKey(), entry.getValue().clone());
+		for (Map.Entry<FlightDataType, DataColumn> entry : values.entrySet()) {
+			clone.values.put(entry.getKey(), entry.getValue().copy());
 		}
-		clone.minValues.putAll(minValues);
-		clone.maxValues.putAll(maxValues);
 		clone.events.addAll(events);
 		clone.timeToOptimumAltitude = timeToOptimumAltitude;
 		clone.optimumAltitude = optimumAltitude;
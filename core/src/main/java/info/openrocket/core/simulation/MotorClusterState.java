@@ -4,6 +4,7 @@ import info.openrocket.core.motor.IgnitionEvent;
 import info.openrocket.core.motor.Motor;
 import info.openrocket.core.motor.MotorConfiguration;
 import info.openrocket.core.motor.MotorConfigurationId;
+import info.openrocket.core.motor.ThrustCurveMotor;
 import info.openrocket.core.rocketcomponent.FlightConfiguration;
 import info.openrocket.core.rocketcomponent.MotorMount;
 import info.openrocket.core.rocketcomponent.RocketComponent;
@@ -15,6 +16,8 @@ public class MotorClusterState {
 	final protected MotorConfiguration config;
 	final protected int motorCount;
 	final protected double thrustDuration;
+	// remembers the position in the thrust curve between lookups, null if not available
+	final private ThrustCurveMotor.Sampler sampler;
 
 	// for state:
 	protected double ignitionTime = Double.NaN;
@@ -28,6 +31,7 @@ public class MotorClusterState {
 		this.motor = this.config.getMotor();
 		this.motorCount = this.config.getMotorCount();
 		this.thrustDuration = this.motor.getBurnTimeEstimate();
+		this.sampler = (this.motor instanceof ThrustCurveMotor) ? ((ThrustCurveMotor) this.motor).getSampler() : null;
 
 		this.reset();
 	}
@@ -135,6 +139,9 @@ public class MotorClusterState {
 			double motorEndTime = this.getMotorTime(endSimulationTime);
 
 			int instanceCount = this.config.getMount().getLocations().length;
+			if (sampler != null) {
+				return instanceCount * sampler.getAverageThrust(motorStartTime, motorEndTime);
+			}
 			return instanceCount * motor.getAverageThrust(motorStartTime, motorEndTime);
 		} else {
 			return 0.00;
@@ -150,6 +157,9 @@ public class MotorClusterState {
 	public double getThrust(final double simulationTime) {
 		if (this.currentState.isThrusting()) {
 			double motorTime = this.getMotorTime(simulationTime);
+			if (sampler != null) {
+				return this.motorCount * sampler.getThrust(motorTime);
+			}
 			return this.motorCount * motor.getThrust(motorTime);
 
 		} else {
@@ -157,6 +167,32 @@ public class MotorClusterState {
 		}
 	}
 
+	/**
+	 * Return the total mass of a single motor of the cluster, see {@link Motor#getTotalMass(double)}.
+	 *
+	 * @param motorTime	time since the ignition of the motor
+	 * @return the mass of the motor
+	 */
+	public double getTotalMass(final double motorTime) {
+		if (sampler != null) {
+			return sampler.getTotalMass(motorTime);
+		}
+		return motor.getTotalMass(motorTime);
+	}
+
+	/**
+	 * Return the CG position of a single motor of the cluster, see {@link Motor#getCMx(double)}.
+	 *
+	 * @param motorTime	time since the ignition of the motor
+	 * @return the CG position from the front of the motor
+	 */
+	public double getCMx(final double motorTime) {
+		if (sampler != null) {
+			return sampler.getCMx(motorTime);
+		}
+		return motor.getCMx(motorTime);
+	}
+
 	public boolean isPlugged() {
 		return (this.config.getEjectionDelay() == Motor.PLUGGED_DELAY);
 	}
@@ -0,0 +1,228 @@
+package info.openrocket.core.simulation;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import info.openrocket.core.l10n.Translator;
+import info.openrocket.core.simulation.exception.SimulationCalculationException;
+import info.openrocket.core.simulation.exception.SimulationException;
+import info.openrocket.core.startup.Application;
+import info.openrocket.core.util.Coordinate;
+import info.openrocket.core.util.MathUtil;
+import info.openrocket.core.util.Quaternion;
+import info.openrocket.core.util.WorldCoordinate;
+
+/**
+ * A fourth-order Runge-Kutta stepper that computes the same flight as {@link RK4SimulationStepper},
+ * but keeps the derivatives k1..k4 of the integration in preallocated arrays instead of
+ * immutable vector objects.  This reduces the garbage produced by a simulation, which limits
+ * the throughput when many simulations are run concurrently.
+ * <p>
+ * The status of the sub-steps is a single clone of the stepped status, into which the state
+ * of the status is copied on every step.  The stepper is not allocation-free: as
+ * {@link SimulationStatus} holds immutable {@link Coordinate} and {@link Quaternion} values,
+ * which the flight conditions and listeners may keep, each sub-step and the final update
+ * still create new ones.
+ * <p>
+ * The arithmetic is performed in the same order as in {@link RK4SimulationStepper}, so the
+ * results are equal to within floating-point tolerance.
+ */
+public class PreallocatedRK4SimulationStepper extends AbstractRungeKuttaSimulationStepper {
+
+	private static final Logger log = LoggerFactory.getLogger(PreallocatedRK4SimulationStepper.class);
+	private static final Translator trans = Application.getTranslator();
+
+	/** Maximum roll step allowed, see {@link RK4SimulationStepper} */
+	private static final double MAX_ROLL_STEP_ANGLE = 2 * 28.32 * Math.PI / 180;
+	private static final double MAX_ROLL_RATE_CHANGE = 2 * Math.PI / 180;
+	private static final double MAX_PITCH_YAW_CHANGE = 4 * Math.PI / 180;
+
+	/** The derivatives k1..k4 of the RK4 integration */
+	private final double[][] k = new double[4][DERIVATIVE_SIZE];
+	private final double[] dt = new double[8];
+
+	/** The status of the sub-steps, a clone of <code>subStepOrigin</code> */
+	private SimulationStatus subStep;
+	private SimulationStatus subStepOrigin;
+
+	@Override
+	public void step(SimulationStatus status, double maxTimeStep) throws SimulationException {
+
+		boolean listeners = hasListeners(status);
+
+		/*
+		 * Get the current atmospheric conditions.  Without listeners these are
+		 * computed identically when computing the forces of the first position.
+		 */
+		if (listeners) {
+			calculateFlightConditions(status);
+		}
+
+		//// First position, k1 = f(t, y)
+
+		computeParameters(status, k[0], true, listeners);
+		store.atmosphericConditions = store.flightConditions.getAtmosphericConditions();
+		store.storeData(status);
+
+		/*
+		 * Select the actual time step to use, see RK4SimulationStepper for the limits.
+		 */
+		dt[0] = MathUtil.max(status.getSimulationConditions().getTimeStep(), MIN_TIME_STEP);
+		dt[1] = maxTimeStep;
+		dt[2] = status.getSimulationConditions().getMaximumAngleStep() / store.lateralPitchRate;
+		dt[3] = Math.abs(MAX_ROLL_STEP_ANGLE / store.flightConditions.getRollRate());
+		Coordinate rotationalAcceleration = store.accelerationData.getRotationalAccelerationRC();
+		dt[4] = Math.abs(MAX_ROLL_RATE_CHANGE / rotationalAcceleration.z);
+		dt[5] = Math.abs(MAX_PITCH_YAW_CHANGE /
+						 MathUtil.max(Math.abs(rotationalAcceleration.x), Math.abs(rotationalAcceleration.y)));
+		if (!status.isLaunchRodCleared()) {
+			dt[0] /= 5.0;
+			dt[6] = status.getSimulationConditions().getLaunchRodLength() / length(k[0], V) / 10;
+		} else {
+			dt[6] = Double.MAX_VALUE;
+		}
+		dt[7] = 1.5 * store.timeStep;
+
+		store.timeStep = Double.MAX_VALUE;
+		int limitingValue = -1;
+		for (int i = 0; i < dt.length; i++) {
+			if (dt[i] < store.timeStep) {
+				store.timeStep = dt[i];
+				limitingValue = i;
+			}
+		}
+
+		if (log.isTraceEnabled()) {
+			log.trace("Selected time step " + store.timeStep + " (limiting factor " + limitingValue + ")");
+		}
+
+		// Truncate or stretch the step to a scheduled event coming up
+		double minTimeStep = status.getSimulationConditions().getTimeStep() / 20;
+		FlightEvent nextEvent = status.getEventQueue().peek();
+		if (nextEvent != null) {
+			double nextEventTime = nextEvent.getTime();
+			if (status.getSimulationTime() + store.timeStep > nextEventTime) {
+				store.timeStep = nextEventTime - status.getSimulationTime();
+				log.trace("scheduled event at " + nextEventTime + " truncates timestep to " + store.timeStep);
+			} else if ((status.getSimulationTime() + store.timeStep < nextEventTime) &&
+					   (status.getSimulationTime() + store.timeStep + minTimeStep > nextEventTime)) {
+				store.timeStep = nextEventTime - status.getSimulationTime();
+				log.trace("Scheduled event at " + nextEventTime + " stretches timestep to " + store.timeStep);
+			}
+		}
+
+		// Avoid numerical instability with a too-small time step
+		if (store.timeStep < minTimeStep) {
+			log.trace("Too small time step " + store.timeStep + " (limiting factor " + limitingValue + "), using " +
+					minTimeStep + " instead.");
+			store.timeStep = minTimeStep;
+		}
+
+		checkNaN(store.timeStep);
+
+		double h = store.timeStep;
+		SimulationStatus status2 = getSubStepStatus(status);
+
+		//// Second position, k2 = f(t + h/2, y + k1*h/2)
+		moveSubStep(status, status2, k[0], h / 2);
+		computeParameters(status2, k[1], false, listeners);
+
+		//// Third position, k3 = f(t + h/2, y + k2*h/2)
+		moveSubStep(status, status2, k[1], h / 2);
+		computeParameters(status2, k[2], false, listeners);
+
+		//// Fourth position, k4 = f(t + h, y + k3*h)
+		moveSubStep(status, status2, k[2], h);
+		computeParameters(status2, k[3], true, listeners);
+
+		//// Sum all together,  y(n+1) = y(n) + h*(k1 + 2*k2 + 2*k3 + k4)/6
+		double[] k1 = k[0], k2 = k[1], k3 = k[2], k4 = k[3];
+		double h6 = h / 6;
+
+		Coordinate c = status.getRocketVelocity();
+		status.setRocketVelocity(new Coordinate(
+				c.x + ((k2[A] + k3[A]) * 2 + k1[A] + k4[A]) * h6,
+				c.y + ((k2[A + 1] + k3[A + 1]) * 2 + k1[A + 1] + k4[A + 1]) * h6,
+				c.z + ((k2[A + 2] + k3[A + 2]) * 2 + k1[A + 2] + k4[A + 2]) * h6));
+		c = status.getRocketPosition();
+		status.setRocketPosition(new Coordinate(
+				c.x + ((k2[V] + k3[V]) * 2 + k1[V] + k4[V]) * h6,
+				c.y + ((k2[V + 1] + k3[V + 1]) * 2 + k1[V + 1] + k4[V + 1]) * h6,
+				c.z + ((k2[V + 2] + k3[V + 2]) * 2 + k1[V + 2] + k4[V + 2]) * h6));
+		c = status.getRocketRotationVelocity();
+		status.setRocketRotationVelocity(new Coordinate(
+				c.x + ((k2[RA] + k3[RA]) * 2 + k1[RA] + k4[RA]) * h6,
+				c.y + ((k2[RA + 1] + k3[RA + 1]) * 2 + k1[RA + 1] + k4[RA + 1]) * h6,
+				c.z + ((k2[RA + 2] + k3[RA + 2]) * 2 + k1[RA + 2] + k4[RA + 2]) * h6));
+
+		rotate(status.getRocketOrientationQuaternion(),
+				((k2[RV] + k3[RV]) * 2 + k1[RV] + k4[RV]) * h6,
+				((k2[RV + 1] + k3[RV + 1]) * 2 + k1[RV + 1] + k4[RV + 1]) * h6,
+				((k2[RV + 2] + k3[RV + 2]) * 2 + k1[RV + 2] + k4[RV + 2]) * h6);
+		double w = quaternion[0], x = quaternion[1], y = quaternion[2], z = quaternion[3];
+		double n2 = x * x + y * y + z * z + w * w;
+		if (n2 < 0.999999 || n2 > 1.000001) {
+			// Equivalent to Quaternion.normalizeIfNecessary()
+			double n = MathUtil.safeSqrt(n2);
+			if (n < 0.0000001) {
+				throw new IllegalStateException("attempting to normalize zero-quaternion");
+			}
+			w /= n;
+			x /= n;
+			y /= n;
+			z /= n;
+		}
+		status.setRocketOrientationQuaternion(new Quaternion(w, x, y, z));
+
+		WorldCoordinate wc = status.getSimulationConditions().getLaunchSite();
+		wc = status.getSimulationConditions().getGeodeticComputation().addCoordinate(wc, status.getRocketPosition());
+		status.setRocketWorldPosition(wc);
+
+		if (!(0 <= store.timeStep)) {
+			// Also catches NaN
+			throw new IllegalArgumentException("Stepping backwards in time, timestep=" + store.timeStep);
+		}
+		status.setSimulationTime(status.getSimulationTime() + store.timeStep);
+
+		// Store data
+		status.getFlightDataBranch().addPoint();
+		status.storeData();
+		store.storeData(status);
+
+		// Verify that values don't run out of range
+		if (status.getRocketVelocity().length2() > 1.0e18 ||
+				status.getRocketPosition().length2() > 1.0e18 ||
+				status.getRocketRotationVelocity().length2() > 1.0e18) {
+			throw new SimulationCalculationException(trans.get("error.valuesTooLarge"), status.getFlightDataBranch());
+		}
+	}
+
+	/**
+	 * Return the status of the sub-steps, equal to a clone of the status at the start of the step.
+	 */
+	private SimulationStatus getSubStepStatus(SimulationStatus status) {
+		if (subStepOrigin != status) {
+			subStep = status.clone();
+			subStepOrigin = status;
+		} else {
+			subStep.copyFrom(status);
+		}
+		return subStep;
+	}
+
+	/**
+	 * Move the sub-step status from the start of the step along the derivatives <code>d</code>
+	 * for time <code>h</code>.
+	 */
+	private void moveSubStep(SimulationStatus status, SimulationStatus subStep, double[] d, double h) {
+		subStep.setSimulationTime(status.getSimulationTime() + h);
+		Coordinate c = status.getRocketPosition();
+		subStep.setRocketPosition(new Coordinate(c.x + d[V] * h, c.y + d[V + 1] * h, c.z + d[V + 2] * h));
+		c = status.getRocketVelocity();
+		subStep.setRocketVelocity(new Coordinate(c.x + d[A] * h, c.y + d[A + 1] * h, c.z + d[A + 2] * h));
+		rotate(status.getRocketOrientationQuaternion(), d[RV] * h, d[RV + 1] * h, d[RV + 2] * h);
+		subStep.setRocketOrientationQuaternion(new Quaternion(quaternion[0], quaternion[1], quaternion[2], quaternion[3]));
+		c = status.getRocketRotationVelocity();
+		subStep.setRocketRotationVelocity(new Coordinate(c.x + d[RA] * h, c.y + d[RA + 1] * h, c.z + d[RA + 2] * h));
+	}
+}
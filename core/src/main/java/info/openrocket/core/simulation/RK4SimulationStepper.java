@@ -29,7 +29,7 @@ public class RK4SimulationStepper extends AbstractSimulationStepper {
 	
 
 	/** Random value with which to XOR the random seed value */
-	private static final int SEED_RANDOMIZATION = 0x23E3A01F;
+	static final int SEED_RANDOMIZATION = 0x23E3A01F;
 	
 
 	/**
@@ -58,6 +58,10 @@ public class SimulationConditions implements Monitorable, Cloneable {
 	private double timeStep = RK4SimulationStepper.RECOMMENDED_TIME_STEP;
 	private double maximumAngleStep = RK4SimulationStepper.RECOMMENDED_ANGLE_STEP;
 
+	private SimulationStepperType stepperType = SimulationStepperType.RK4;
+	private double relativeTolerance = DormandPrinceSimulationStepper.DEFAULT_RELATIVE_TOLERANCE;
+	private double absoluteTolerance = DormandPrinceSimulationStepper.DEFAULT_ABSOLUTE_TOLERANCE;
+
 
 	private List<SimulationListener> simulationListeners = new ArrayList<>();
 
@@ -219,6 +223,38 @@ public class SimulationConditions implements Monitorable, Cloneable {
 		this.modID = new ModID();
 	}
 
+	public SimulationStepperType getStepperType() {
+		return stepperType;
+	}
+
+	public void setStepperType(SimulationStepperType stepperType) {
+		if (this.stepperType == stepperType)
+			return;
+		if (stepperType == null) {
+			throw new IllegalArgumentException("stepper type cannot be null");
+		}
+		this.stepperType = stepperType;
+		this.modID = new ModID();
+	}
+
+	public double getRelativeTolerance() {
+		return relativeTolerance;
+	}
+
+	public void setRelativeTolerance(double relativeTolerance) {
+		this.relativeTolerance = relativeTolerance;
+		this.modID = new ModID();
+	}
+
+	public double getAbsoluteTolerance() {
+		return absoluteTolerance;
+	}
+
+	public void setAbsoluteTolerance(double absoluteTolerance) {
+		this.absoluteTolerance = absoluteTolerance;
+		this.modID = new ModID();
+	}
+
 	public int getRandomSeed() {
 		return randomSeed;
 	}
@@ -14,6 +14,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import info.openrocket.core.aerodynamics.BarrowmanCalculator;
+import info.openrocket.core.aerodynamics.TabulatedBarrowmanCalculator;
 import info.openrocket.core.masscalc.MassCalculator;
 import info.openrocket.core.models.atmosphere.AtmosphericModel;
 import info.openrocket.core.models.atmosphere.ExtendedISAModel;
@@ -76,6 +77,11 @@ public class SimulationOptions implements ChangeSource, Cloneable, SimulationOpt
 	private double timeStep = preferences.getTimeStep();
 	private double maximumAngle = RK4SimulationStepper.RECOMMENDED_ANGLE_STEP;
 	
+	private boolean tabulatedAerodynamics = false;
+	private SimulationStepperType stepperType = SimulationStepperType.RK4;
+	private double relativeTolerance = DormandPrinceSimulationStepper.DEFAULT_RELATIVE_TOLERANCE;
+	private double absoluteTolerance = DormandPrinceSimulationStepper.DEFAULT_ABSOLUTE_TOLERANCE;
+	
 	private int randomSeed = new Random().nextInt();
 
 	private List<EventListener> listeners = new ArrayList<>();
@@ -307,6 +313,69 @@ public class SimulationOptions implements ChangeSource, Cloneable, SimulationOpt
 		fireChangeEvent();
 	}
 
+	/**
+	 * Return whether the aerodynamic forces are interpolated from coefficient tables
+	 * computed with {@link TabulatedBarrowmanCalculator} instead of being computed
+	 * directly at every step.
+	 */
+	public boolean isTabulatedAerodynamics() {
+		return tabulatedAerodynamics;
+	}
+
+	public void setTabulatedAerodynamics(boolean tabulatedAerodynamics) {
+		if (this.tabulatedAerodynamics == tabulatedAerodynamics)
+			return;
+		this.tabulatedAerodynamics = tabulatedAerodynamics;
+		fireChangeEvent();
+	}
+
+	/**
+	 * Return the stepper used to integrate the free flight of the rocket.
+	 */
+	public SimulationStepperType getStepperType() {
+		return stepperType;
+	}
+
+	public void setStepperType(SimulationStepperType stepperType) {
+		if (this.stepperType == stepperType)
+			return;
+		if (stepperType == null) {
+			throw new IllegalArgumentException("stepper type cannot be null");
+		}
+		this.stepperType = stepperType;
+		fireChangeEvent();
+	}
+
+	/**
+	 * Return the relative tolerance of the local error of the steppers with error control.
+	 */
+	public double getRelativeTolerance() {
+		return relativeTolerance;
+	}
+
+	public void setRelativeTolerance(double relativeTolerance) {
+		relativeTolerance = MathUtil.clamp(relativeTolerance, 1e-12, 1);
+		if (MathUtil.equals(this.relativeTolerance, relativeTolerance))
+			return;
+		this.relativeTolerance = relativeTolerance;
+		fireChangeEvent();
+	}
+
+	/**
+	 * Return the absolute tolerance of the local error of the steppers with error control.
+	 */
+	public double getAbsoluteTolerance() {
+		return absoluteTolerance;
+	}
+
+	public void setAbsoluteTolerance(double absoluteTolerance) {
+		absoluteTolerance = MathUtil.clamp(absoluteTolerance, 1e-12, 1);
+		if (MathUtil.equals(this.absoluteTolerance, absoluteTolerance))
+			return;
+		this.absoluteTolerance = absoluteTolerance;
+		fireChangeEvent();
+	}
+
 	public int getRandomSeed() {
 		return randomSeed;
 	}
@@ -426,6 +495,22 @@ public class SimulationOptions implements ChangeSource, Cloneable, SimulationOpt
 			isChanged = true;
 			this.geodeticComputation = src.geodeticComputation;
 		}
+		if (this.tabulatedAerodynamics != src.tabulatedAerodynamics) {
+			isChanged = true;
+			this.tabulatedAerodynamics = src.tabulatedAerodynamics;
+		}
+		if (this.stepperType != src.stepperType) {
+			isChanged = true;
+			this.stepperType = src.stepperType;
+		}
+		if (this.relativeTolerance != src.relativeTolerance) {
+			isChanged = true;
+			this.relativeTolerance = src.relativeTolerance;
+		}
+		if (this.absoluteTolerance != src.absoluteTolerance) {
+			isChanged = true;
+			this.absoluteTolerance = src.absoluteTolerance;
+		}
 
 		if (isChanged) {
 			// Only copy the randomSeed if something else has changed.
@@ -454,7 +539,11 @@ public class SimulationOptions implements ChangeSource, Cloneable, SimulationOpt
 				MathUtil.equals(this.launchRodLength, o.launchRodLength) &&
 				MathUtil.equals(this.launchTemperature, o.launchTemperature) &&
 				MathUtil.equals(this.maximumAngle, o.maximumAngle) &&
-				MathUtil.equals(this.timeStep, o.timeStep)) &&
+				MathUtil.equals(this.timeStep, o.timeStep) &&
+				MathUtil.equals(this.relativeTolerance, o.relativeTolerance) &&
+				MathUtil.equals(this.absoluteTolerance, o.absoluteTolerance)) &&
+				this.tabulatedAerodynamics == o.tabulatedAerodynamics &&
+				this.stepperType == o.stepperType &&
 				this.windModelType == o.windModelType &&
 				this.averageWindModel.equals(o.averageWindModel) &&
 				this.multiLevelPinkNoiseWindModel.equals(o.multiLevelPinkNoiseWindModel);
@@ -512,11 +601,18 @@ public class SimulationOptions implements ChangeSource, Cloneable, SimulationOpt
 		GravityModel gravityModel = new WGSGravityModel();
 		conditions.setGravityModel(gravityModel);
 
-		conditions.setAerodynamicCalculator(new BarrowmanCalculator());
+		if (tabulatedAerodynamics) {
+			conditions.setAerodynamicCalculator(new TabulatedBarrowmanCalculator());
+		} else {
+			conditions.setAerodynamicCalculator(new BarrowmanCalculator());
+		}
 		conditions.setMassCalculator(new MassCalculator());
 
 		conditions.setTimeStep(getTimeStep());
 		conditions.setMaximumAngleStep(getMaximumStepAngle());
+		conditions.setStepperType(getStepperType());
+		conditions.setRelativeTolerance(getRelativeTolerance());
+		conditions.setAbsoluteTolerance(getAbsoluteTolerance());
 
 		return conditions;
 	}
@@ -540,6 +636,10 @@ public class SimulationOptions implements ChangeSource, Cloneable, SimulationOpt
 				.concat(String.format("    launchPressure:  %f\n", launchPressure))
 				.concat(String.format("    timeStep:  %f\n", timeStep))
 				.concat(String.format("    maximumAngle:  %f\n", maximumAngle))
+				.concat(String.format("    tabulatedAerodynamics:  %b\n", tabulatedAerodynamics))
+				.concat("    stepperType:  " + stepperType.toString() + "\n")
+				.concat(String.format("    relativeTolerance:  %g\n", relativeTolerance))
+				.concat(String.format("    absoluteTolerance:  %g\n", absoluteTolerance))
 				.concat("]\n");
 	}
 
@@ -539,6 +539,44 @@ public class SimulationStatus implements Cloneable, Monitorable {
 		}
 	}
 
+	/**
+	 * Copy the state of a status into this status, which must have been created by
+	 * {@link #clone()} from it.  Afterwards this status is equal to a new clone of the
+	 * status, sharing its collections in the same way, without allocating one.
+	 *
+	 * @param orig	the status this status was cloned from
+	 */
+	void copyFrom(SimulationStatus orig) {
+		if (orig.eventQueue != eventQueue) {
+			throw new BugException("Status is not a clone of the copied status");
+		}
+		this.simulationConditions = orig.simulationConditions;
+		this.configuration = orig.configuration;
+		this.flightDataBranch = orig.flightDataBranch;
+		this.time = orig.time;
+		this.position = orig.position;
+		this.worldPosition = orig.worldPosition;
+		this.velocity = orig.velocity;
+		this.acceleration = orig.acceleration;
+		this.orientation = orig.orientation;
+		this.rotationVelocity = orig.rotationVelocity;
+		this.maxZVelocity = orig.maxZVelocity;
+		this.startWarningsTime = orig.startWarningsTime;
+		this.effectiveLaunchRodLength = orig.effectiveLaunchRodLength;
+		this.simulationStartWallTime = orig.simulationStartWallTime;
+		this.motorIgnited = orig.motorIgnited;
+		this.liftoff = orig.liftoff;
+		this.launchRodCleared = orig.launchRodCleared;
+		this.apogeeReached = orig.apogeeReached;
+		this.tumbling = orig.tumbling;
+		this.landed = orig.landed;
+		this.warnings = orig.warnings;
+		this.maxAlt = orig.maxAlt;
+		this.maxAltTime = orig.maxAltTime;
+		this.modID = orig.modID;
+		this.modIDadd = orig.modIDadd;
+	}
+
 	@Override
 	public ModID getModID() {
 		return modID;
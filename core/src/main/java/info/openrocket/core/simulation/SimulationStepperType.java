@@ -0,0 +1,53 @@
+package info.openrocket.core.simulation;
+
+/**
+ * The steppers available for integrating the free flight of the rocket.
+ */
+public enum SimulationStepperType {
+	/** Fourth-order Runge-Kutta integration, see {@link RK4SimulationStepper}. */
+	RK4("RK4") {
+		@Override
+		public SimulationStepper createStepper() {
+			return new RK4SimulationStepper();
+		}
+	},
+	/** Fourth-order Runge-Kutta integration on preallocated state, see {@link PreallocatedRK4SimulationStepper}. */
+	RK4_PREALLOCATED("RK4Preallocated") {
+		@Override
+		public SimulationStepper createStepper() {
+			return new PreallocatedRK4SimulationStepper();
+		}
+	},
+	/** Adaptive Dormand-Prince integration with error control, see {@link DormandPrinceSimulationStepper}. */
+	DORMAND_PRINCE("DormandPrince") {
+		@Override
+		public SimulationStepper createStepper() {
+			return new DormandPrinceSimulationStepper();
+		}
+	};
+
+	private final String stringValue;
+
+	SimulationStepperType(String stringValue) {
+		this.stringValue = stringValue;
+	}
+
+	/**
+	 * Create a new stepper of this type.  Steppers keep state between steps,
+	 * so a stepper must not be shared between simulations running concurrently.
+	 */
+	public abstract SimulationStepper createStepper();
+
+	public String toStringValue() {
+		return stringValue;
+	}
+
+	public static SimulationStepperType fromString(String stringValue) {
+		for (SimulationStepperType type : SimulationStepperType.values()) {
+			if (type.stringValue.equalsIgnoreCase(stringValue)) {
+				return type;
+			}
+		}
+		throw new IllegalArgumentException("No enum constant " + SimulationStepperType.class.getCanonicalName() + " for string value: " + stringValue);
+	}
+}
@@ -0,0 +1,138 @@
+package info.openrocket.core.simulation.batch;
+
+import java.io.File;
+
+import info.openrocket.core.document.Simulation;
+import info.openrocket.core.simulation.FlightData;
+
+/**
+ * The outcome of a single simulation run by a {@link BatchSimulationRunner}, together
+ * with the performance metrics of the run.
+ * <p>
+ * A result either holds the simulated flight data, or the exception that caused the
+ * simulation (or the loading of its document) to fail.
+ */
+public class BatchSimulationResult {
+
+	private final File file;
+	private final Simulation simulation;
+	private final FlightData flightData;
+	private final Exception exception;
+	private final long wallTimeNanos;
+	private final long stepCount;
+	private final int peakBranchSize;
+
+	BatchSimulationResult(File file, Simulation simulation, FlightData flightData, Exception exception,
+			long wallTimeNanos, long stepCount, int peakBranchSize) {
+		this.file = file;
+		this.simulation = simulation;
+		this.flightData = flightData;
+		this.exception = exception;
+		this.wallTimeNanos = wallTimeNanos;
+		this.stepCount = stepCount;
+		this.peakBranchSize = peakBranchSize;
+	}
+
+	static BatchSimulationResult loadFailure(File file, Exception exception, long wallTimeNanos) {
+		return new BatchSimulationResult(file, null, null, exception, wallTimeNanos, 0, 0);
+	}
+
+	/**
+	 * Return the file the simulation was loaded from, or <code>null</code> if the
+	 * simulation was passed to the runner directly.
+	 */
+	public File getFile() {
+		return file;
+	}
+
+	/**
+	 * Return the simulation, or <code>null</code> if the document it belongs to could
+	 * not be loaded.
+	 */
+	public Simulation getSimulation() {
+		return simulation;
+	}
+
+	/**
+	 * Return a descriptive name of the simulation, including the file name if the
+	 * simulation was loaded from a file.
+	 */
+	public String getName() {
+		StringBuilder sb = new StringBuilder();
+		if (file != null) {
+			sb.append(file.getName());
+		}
+		if (simulation != null) {
+			if (sb.length() > 0) {
+				sb.append(": ");
+			}
+			sb.append(simulation.getName());
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Return the simulated flight data, or <code>null</code> if the simulation failed.
+	 */
+	public FlightData getFlightData() {
+		return flightData;
+	}
+
+	/**
+	 * Return the exception that caused this simulation to fail, or <code>null</code>.
+	 */
+	public Exception getException() {
+		return exception;
+	}
+
+	public boolean isSuccessful() {
+		return exception == null;
+	}
+
+	/**
+	 * Return the wall-clock time taken by the simulation, in nanoseconds.
+	 */
+	public long getWallTimeNanos() {
+		return wallTimeNanos;
+	}
+
+	/**
+	 * Return the wall-clock time taken by the simulation, in seconds.
+	 */
+	public double getWallTime() {
+		return wallTimeNanos / 1.0e9;
+	}
+
+	/**
+	 * Return the number of simulation steps taken, over all flight data branches.
+	 */
+	public long getStepCount() {
+		return stepCount;
+	}
+
+	/**
+	 * Return the simulation throughput in steps per wall-clock second.
+	 */
+	public double getStepsPerSecond() {
+		if (wallTimeNanos <= 0) {
+			return Double.NaN;
+		}
+		return stepCount / getWallTime();
+	}
+
+	/**
+	 * Return the number of data points of the largest flight data branch.
+	 */
+	public int getPeakBranchSize() {
+		return peakBranchSize;
+	}
+
+	@Override
+	public String toString() {
+		if (!isSuccessful()) {
+			return String.format("%s: failed after %.3f s: %s", getName(), getWallTime(), exception);
+		}
+		return String.format("%s: %.3f s, %d steps (%.0f steps/s), peak branch size %d",
+				getName(), getWallTime(), stepCount, getStepsPerSecond(), peakBranchSize);
+	}
+}
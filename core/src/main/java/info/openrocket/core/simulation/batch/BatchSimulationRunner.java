@@ -0,0 +1,230 @@
+package info.openrocket.core.simulation.batch;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import info.openrocket.core.document.OpenRocketDocument;
+import info.openrocket.core.document.Simulation;
+import info.openrocket.core.file.GeneralRocketLoader;
+import info.openrocket.core.simulation.FlightData;
+import info.openrocket.core.simulation.SimulationStatus;
+import info.openrocket.core.simulation.exception.SimulationException;
+import info.openrocket.core.simulation.listeners.AbstractSimulationListener;
+
+/**
+ * Runs a batch of simulations in parallel, without any user interface.
+ * <p>
+ * The simulations are run as tasks of a work-stealing {@link ForkJoinPool}.  Every
+ * simulation is run through {@link Simulation#simulate}, which uses a separate
+ * simulation engine instance for each run.  When running design files, loading each
+ * document is a task of its own, which then forks one task per simulation of the document.
+ * <p>
+ * The Guice injector of {@link info.openrocket.core.startup.Application} must be set up
+ * before running simulations.  A failing simulation does not abort the batch; its
+ * exception is reported in the corresponding {@link BatchSimulationResult}.
+ */
+public class BatchSimulationRunner {
+
+	private static final Logger log = LoggerFactory.getLogger(BatchSimulationRunner.class);
+
+	private final int parallelism;
+	private Consumer<BatchSimulationResult> resultListener = null;
+
+	/**
+	 * Create a runner that uses all available processors.
+	 */
+	public BatchSimulationRunner() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Create a runner that runs at most <code>parallelism</code> simulations at a time.
+	 *
+	 * @param parallelism	the number of worker threads.
+	 */
+	public BatchSimulationRunner(int parallelism) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+		}
+		this.parallelism = parallelism;
+	}
+
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * Set a listener that is notified of each result as soon as the simulation has
+	 * finished.  The listener is called from the worker threads, so it must be thread-safe.
+	 *
+	 * @param resultListener	the listener, or <code>null</code> for none.
+	 */
+	public void setResultListener(Consumer<BatchSimulationResult> resultListener) {
+		this.resultListener = resultListener;
+	}
+
+	/**
+	 * Run the given simulations.
+	 *
+	 * @param simulations	the simulations to run.
+	 * @return				the results, in the same order as the simulations.
+	 */
+	public List<BatchSimulationResult> runSimulations(List<Simulation> simulations) {
+		List<SimulationTask> tasks = new ArrayList<>(simulations.size());
+		for (Simulation simulation : simulations) {
+			tasks.add(new SimulationTask(null, simulation));
+		}
+		return execute(tasks);
+	}
+
+	/**
+	 * Load the given design files and run all their simulations.  Imported simulations,
+	 * which cannot be re-simulated, are skipped.
+	 *
+	 * @param files		the design files to load.
+	 * @return			the results, grouped by file in the order of the files.  A file that
+	 * 					could not be loaded produces a single failed result.
+	 */
+	public List<BatchSimulationResult> runFiles(List<File> files) {
+		List<FileTask> tasks = new ArrayList<>(files.size());
+		for (File file : files) {
+			tasks.add(new FileTask(file));
+		}
+		List<BatchSimulationResult> results = new ArrayList<>();
+		for (List<BatchSimulationResult> fileResults : execute(tasks)) {
+			results.addAll(fileResults);
+		}
+		return results;
+	}
+
+	private <T> List<T> execute(List<? extends ForkJoinTask<T>> tasks) {
+		if (tasks.isEmpty()) {
+			return Collections.emptyList();
+		}
+
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		long t0 = System.nanoTime();
+		try {
+			pool.submit(() -> ForkJoinTask.invokeAll(tasks)).join();
+		} finally {
+			pool.shutdown();
+		}
+		log.info("Batch of " + tasks.size() + " tasks finished in " + (System.nanoTime() - t0) / 1000000 +
+				" ms using " + parallelism + " threads");
+
+		List<T> results = new ArrayList<>(tasks.size());
+		for (ForkJoinTask<T> task : tasks) {
+			results.add(task.join());
+		}
+		return results;
+	}
+
+	private void fireResult(BatchSimulationResult result) {
+		if (result.isSuccessful()) {
+			log.info("Simulated " + result);
+		} else {
+			log.warn("Simulation " + result, result.getException());
+		}
+		Consumer<BatchSimulationResult> listener = resultListener;
+		if (listener != null) {
+			listener.accept(result);
+		}
+	}
+
+	/**
+	 * Runs a single simulation and measures it.
+	 */
+	private class SimulationTask extends RecursiveTask<BatchSimulationResult> {
+		private final File file;
+		private final Simulation simulation;
+
+		private SimulationTask(File file, Simulation simulation) {
+			this.file = file;
+			this.simulation = simulation;
+		}
+
+		@Override
+		protected BatchSimulationResult compute() {
+			final AtomicLong steps = new AtomicLong();
+			// Simulation listeners are cloned for every branch, but the clones share the counter
+			AbstractSimulationListener stepCounter = new AbstractSimulationListener() {
+				@Override
+				public void postStep(SimulationStatus status) {
+					steps.incrementAndGet();
+				}
+			};
+
+			Exception exception = null;
+			long t0 = System.nanoTime();
+			try {
+				simulation.simulate(stepCounter);
+			} catch (SimulationException | RuntimeException e) {
+				exception = e;
+			}
+			long wallTime = System.nanoTime() - t0;
+
+			FlightData data = simulation.getSimulatedData();
+			int peakBranchSize = 0;
+			if (data != null) {
+				for (int i = 0; i < data.getBranchCount(); i++) {
+					peakBranchSize = Math.max(peakBranchSize, data.getBranch(i).getLength());
+				}
+			}
+
+			BatchSimulationResult result = new BatchSimulationResult(file, simulation,
+					exception == null ? data : null, exception, wallTime, steps.get(), peakBranchSize);
+			fireResult(result);
+			return result;
+		}
+	}
+
+	/**
+	 * Loads a design file and runs its simulations as subtasks.
+	 */
+	private class FileTask extends RecursiveTask<List<BatchSimulationResult>> {
+		private final File file;
+
+		private FileTask(File file) {
+			this.file = file;
+		}
+
+		@Override
+		protected List<BatchSimulationResult> compute() {
+			OpenRocketDocument document;
+			long t0 = System.nanoTime();
+			try {
+				document = new GeneralRocketLoader(file).load();
+			} catch (Exception e) {
+				BatchSimulationResult result = BatchSimulationResult.loadFailure(file, e, System.nanoTime() - t0);
+				fireResult(result);
+				return Collections.singletonList(result);
+			}
+			log.debug("Loaded " + file + " in " + (System.nanoTime() - t0) / 1000000 + " ms");
+
+			List<SimulationTask> tasks = new ArrayList<>();
+			for (Simulation simulation : document.getSimulations()) {
+				if (simulation.getStatus() == Simulation.Status.EXTERNAL) {
+					continue;
+				}
+				tasks.add(new SimulationTask(file, simulation));
+			}
+			invokeAll(tasks);
+
+			List<BatchSimulationResult> results = new ArrayList<>(tasks.size());
+			for (SimulationTask task : tasks) {
+				results.add(task.join());
+			}
+			return results;
+		}
+	}
+}
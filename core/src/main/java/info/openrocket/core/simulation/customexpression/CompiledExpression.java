@@ -0,0 +1,84 @@
+package info.openrocket.core.simulation.customexpression;
+
+import java.util.List;
+
+import info.openrocket.core.document.OpenRocketDocument;
+import info.openrocket.core.simulation.FlightDataBranch;
+import info.openrocket.core.simulation.FlightDataType;
+import info.openrocket.core.simulation.SimulationStatus;
+
+import de.congrace.exp4j.Calculable;
+import de.congrace.exp4j.Variable;
+
+/**
+ * A custom expression compiled once into a postfix program.  Each variable referenced
+ * by the expression is bound to a slot, which is filled either from the last value of
+ * the corresponding flight data type or by evaluating a sub-expression.  Only the
+ * variables actually referenced are evaluated.
+ * <p>
+ * The compiled expression is immutable, so it may be evaluated by several simulations
+ * concurrently.
+ */
+final class CompiledExpression {
+
+	private final Calculable calc;
+	private final String[] names;
+	/** The flight data type of each slot, or null if the slot is not a flight data type */
+	private final FlightDataType[] types;
+	/** The sub-expression of each slot, or null if the slot is not a sub-expression */
+	private final CustomExpression[] subExpressions;
+
+	/**
+	 * Bind the variables of a built expression.
+	 *
+	 * @param calc				the built expression
+	 * @param doc				the document defining the available flight data types
+	 * @param subExpressions	the index and range sub-expressions, referenced by their hash
+	 */
+	CompiledExpression(Calculable calc, OpenRocketDocument doc, List<CustomExpression> subExpressions) {
+		this.calc = calc;
+		this.names = calc.getVariableNames();
+		this.types = new FlightDataType[names.length];
+		this.subExpressions = new CustomExpression[names.length];
+
+		for (int i = 0; i < names.length; i++) {
+			for (CustomExpression exp : subExpressions) {
+				if (exp.hash().equals(names[i])) {
+					this.subExpressions[i] = exp;
+					break;
+				}
+			}
+			if (this.subExpressions[i] != null) {
+				continue;
+			}
+			for (FlightDataType type : doc.getFlightDataTypes()) {
+				if (type.getSymbol().equals(names[i])) {
+					types[i] = type;
+					break;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Evaluate the expression using the last variable values from the simulation status.
+	 *
+	 * @param status	the simulation status
+	 * @return			the result of the expression
+	 * @throws java.util.EmptyStackException	if the expression is malformed
+	 */
+	Variable calculate(SimulationStatus status) {
+		FlightDataBranch dataBranch = status.getFlightDataBranch();
+		Variable[] values = new Variable[names.length];
+		for (int i = 0; i < names.length; i++) {
+			if (subExpressions[i] != null) {
+				values[i] = subExpressions[i].evaluate(status);
+			} else if (types[i] != null) {
+				values[i] = new Variable(names[i], dataBranch.getLast(types[i]));
+			} else {
+				values[i] = new Variable(names[i]);
+			}
+		}
+		return calc.calculate(values);
+	}
+}
@@ -6,7 +6,6 @@ import java.util.regex.Pattern;
 
 import info.openrocket.core.document.OpenRocketDocument;
 import info.openrocket.core.logging.Markers;
-import info.openrocket.core.simulation.FlightDataBranch;
 import info.openrocket.core.simulation.FlightDataType;
 import info.openrocket.core.simulation.SimulationStatus;
 import info.openrocket.core.unit.FixedUnitGroup;
@@ -40,6 +39,10 @@ public class CustomExpression implements Cloneable {
 	private ExpressionBuilder builder;
 	private final List<CustomExpression> subExpressions = new ArrayList<>();
 
+	// The expression compiled on first evaluation, null if it could not be built
+	private CompiledExpression compiledExpression;
+	private boolean compiled = false;
+
 	public CustomExpression(OpenRocketDocument doc) {
 		this.doc = doc;
 
@@ -106,6 +109,7 @@ public class CustomExpression implements Cloneable {
 		}
 
 		builder.withCustomFunctions(Functions.getInstance().getAllFunction());
+		invalidateCompiledExpression();
 		log.info("Built expression " + expression);
 	}
 
@@ -364,6 +368,7 @@ public class CustomExpression implements Cloneable {
 		for (FlightDataType type : doc.getFlightDataTypes()) {
 			builder.withVariable(new Variable(type.getSymbol()));
 		}
+		invalidateCompiledExpression();
 
 		// Try to build
 		try {
@@ -385,11 +390,36 @@ public class CustomExpression implements Cloneable {
 	}
 
 	/*
-	 * Builds the expression, done automatically during evaluation. Logs any errors.
-	 * Returns null in case of error.
+	 * Returns the expression compiled on first use, so it is not built again on every
+	 * evaluation. Returns null if the expression could not be built.
 	 */
-	protected Calculable buildExpression() {
-		return buildExpression(builder);
+	protected synchronized CompiledExpression getCompiledExpression() {
+		if (!compiled) {
+			compiledExpression = compileExpression(builder);
+			compiled = true;
+		}
+		return compiledExpression;
+	}
+
+	/*
+	 * Discards the compiled expression after the builder has changed.
+	 */
+	private synchronized void invalidateCompiledExpression() {
+		compiledExpression = null;
+		compiled = false;
+	}
+
+	/*
+	 * Builds a specified expression and binds its variables to the flight data types
+	 * and sub-expressions of this expression. Logs any errors and returns null in case
+	 * of error.
+	 */
+	protected CompiledExpression compileExpression(ExpressionBuilder b) {
+		Calculable calc = buildExpression(b);
+		if (calc == null) {
+			return null;
+		}
+		return new CompiledExpression(calc, doc, subExpressions);
 	}
 
 	/*
@@ -419,28 +449,15 @@ public class CustomExpression implements Cloneable {
 	 */
 	public Variable evaluate(SimulationStatus status) {
 
-		Calculable calc = buildExpression(builder);
+		CompiledExpression calc = getCompiledExpression();
 		if (calc == null) {
 			return new Variable("Unknown");
 		}
 
-		// Evaluate any sub expressions and set associated variables in the calculable
-		for (CustomExpression expr : this.subExpressions) {
-			calc.setVariable(expr.evaluate(status));
-		}
-
-		// Set all the built-in variables. Strictly we surely won't need all of them
-		// Going through and checking them to include only the ones used *might* give a
-		// speedup
-		FlightDataBranch dataBranch = status.getFlightDataBranch();
-		for (FlightDataType type : dataBranch.getTypes()) {
-			double value = dataBranch.getLast(type);
-			calc.setVariable(new Variable(type.getSymbol(), value));
-		}
-
+		// Only the variables and sub expressions referenced by the expression are evaluated
 		double result = Double.NaN;
 		try {
-			result = calc.calculate().getDoubleValue();
+			result = calc.calculate(status).getDoubleValue();
 		} catch (java.util.EmptyStackException e) {
 			log.info(Markers.USER_MARKER,
 					"Unable to calculate expression " + this.expression + " due to empty stack exception");
@@ -3,6 +3,7 @@ package info.openrocket.core.simulation.customexpression;
 import java.util.List;
 
 import info.openrocket.core.simulation.FlightDataBranch;
+import info.openrocket.core.simulation.FlightDataType;
 import info.openrocket.core.simulation.SimulationStatus;
 import info.openrocket.core.simulation.exception.SimulationException;
 import info.openrocket.core.simulation.listeners.AbstractSimulationListener;
@@ -14,6 +15,8 @@ public class CustomExpressionSimulationListener extends AbstractSimulationListen
 
 	private static final Logger log = LoggerFactory.getLogger(CustomExpressionSimulationListener.class);
 	private final List<CustomExpression> expressions;
+	// The flight data types of the expressions, looked up on the first step
+	private FlightDataType[] types;
 
 	public CustomExpressionSimulationListener(List<CustomExpression> expressions) {
 		super();
@@ -26,12 +29,18 @@ public class CustomExpressionSimulationListener extends AbstractSimulationListen
 			return;
 		}
 		// Calculate values for custom expressions
+		if (types == null) {
+			types = new FlightDataType[expressions.size()];
+			for (int i = 0; i < types.length; i++) {
+				types[i] = expressions.get(i).getType();
+			}
+		}
 		FlightDataBranch dataBranch = status.getFlightDataBranch();
-		for (CustomExpression expression : expressions) {
-			double value = expression.evaluateDouble(status);
+		for (int i = 0; i < types.length; i++) {
+			double value = expressions.get(i).evaluateDouble(status);
 			// log.debug("Setting value of custom expression "+expression.toString()+" =
 			// "+value);
-			dataBranch.setValue(expression.getType(), value);
+			dataBranch.setValue(types[i], value);
 		}
 	}
 
@@ -5,7 +5,6 @@ import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import de.congrace.exp4j.Calculable;
 import de.congrace.exp4j.Variable;
 import info.openrocket.core.document.OpenRocketDocument;
 import info.openrocket.core.logging.Markers;
@@ -29,7 +28,7 @@ public class IndexExpression extends CustomExpression {
 
 	@Override
 	public Variable evaluate(SimulationStatus status) {
-		Calculable calc = buildExpression();
+		CompiledExpression calc = getCompiledExpression();
 		if (calc == null) {
 			return new Variable("Unknown");
 		}
@@ -46,17 +45,11 @@ public class IndexExpression extends CustomExpression {
 		List<Double> time = dataBranch.get(FlightDataType.TYPE_TIME);
 		LinearInterpolator interp = new LinearInterpolator(time, data);
 
-		// Set the variables in the expression to evaluate
-		for (FlightDataType etype : dataBranch.getTypes()) {
-			double value = dataBranch.getLast(etype);
-			calc.setVariable(new Variable(etype.getSymbol(), value));
-		}
-
 		// Evaluate this expression to get the t value
 		// System.out.println("Evaluating expression to get t value
 		// "+this.getExpressionString());
 		try {
-			double tvalue = calc.calculate().getDoubleValue();
+			double tvalue = calc.calculate(status).getDoubleValue();
 			// System.out.println("t = "+tvalue);
 			return new Variable(hash(), interp.getValue(tvalue));
 		} catch (java.util.EmptyStackException e) {
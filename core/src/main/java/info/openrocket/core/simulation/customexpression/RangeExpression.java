@@ -9,7 +9,6 @@ import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import de.congrace.exp4j.Calculable;
 import de.congrace.exp4j.ExpressionBuilder;
 import de.congrace.exp4j.Variable;
 import info.openrocket.core.document.OpenRocketDocument;
@@ -27,6 +26,10 @@ public class RangeExpression extends CustomExpression {
 
 	private ExpressionBuilder startBuilder, endBuilder;
 
+	// The start and end expressions compiled on first evaluation
+	private CompiledExpression startExpression, endExpression;
+	private boolean compiled = false;
+
 	public RangeExpression(OpenRocketDocument doc, String startTime, String endTime, String variableType) {
 		super(doc);
 
@@ -56,24 +59,29 @@ public class RangeExpression extends CustomExpression {
 			startBuilder.withVariable(new Variable(n));
 			endBuilder.withVariable(new Variable(n));
 		}
+		compiled = false;
+	}
+
+	/*
+	 * Compiles the start and end expressions on first use.
+	 */
+	private synchronized boolean compileExpressions() {
+		if (!compiled) {
+			startExpression = compileExpression(startBuilder);
+			endExpression = compileExpression(endBuilder);
+			compiled = true;
+		}
+		return startExpression != null && endExpression != null;
 	}
 
 	@Override
 	public Variable evaluate(SimulationStatus status) {
 
-		Calculable startCalc = buildExpression(startBuilder);
-		Calculable endCalc = buildExpression(endBuilder);
-		if (startCalc == null || endCalc == null) {
+		if (!compileExpressions()) {
 			return new Variable("Unknown");
 		}
 
 		FlightDataBranch dataBranch = status.getFlightDataBranch();
-		// Set the variables in the start and end calculators
-		for (FlightDataType type : dataBranch.getTypes()) {
-			double value = dataBranch.getLast(type);
-			startCalc.setVariable(new Variable(type.getSymbol(), value));
-			endCalc.setVariable(new Variable(type.getSymbol(), value));
-		}
 
 		// From the given datatype, get the time and function values and make an
 		// interpolator
@@ -89,10 +97,10 @@ public class RangeExpression extends CustomExpression {
 		// Evaluate the expression to get the start and end of the range
 		double startTime, endTime;
 		try {
-			startTime = startCalc.calculate().getDoubleValue();
+			startTime = startExpression.calculate(status).getDoubleValue();
 			startTime = MathUtil.clamp(startTime, 0, Double.MAX_VALUE);
 
-			endTime = endCalc.calculate().getDoubleValue();
+			endTime = endExpression.calculate(status).getDoubleValue();
 			endTime = MathUtil.clamp(endTime, 0, time.get(time.size() - 1));
 		} catch (java.util.EmptyStackException e) {
 			log.info(Markers.USER_MARKER, "Unable to calculate time index for range expression " + getSymbol()
@@ -0,0 +1,16 @@
+package info.openrocket.core.simulation.exception;
+
+/**
+ * Thrown when stored flight data that is loaded on first access cannot be read, for example
+ * because the file it is read from has been changed or removed since the document was opened.
+ */
+public class FlightDataUnavailableException extends RuntimeException {
+
+	public FlightDataUnavailableException(String message) {
+		super(message);
+	}
+
+	public FlightDataUnavailableException(String message, Throwable cause) {
+		super(message, cause);
+	}
+}
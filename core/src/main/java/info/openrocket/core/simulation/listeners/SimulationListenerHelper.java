@@ -405,6 +405,10 @@ public class SimulationListenerHelper {
 	 */
 	public static FlightConditions firePostFlightConditions(SimulationStatus status, FlightConditions conditions)
 			throws SimulationException {
+		if (status.getSimulationConditions().getSimulationListenerList().isEmpty()) {
+			return conditions;
+		}
+
 		FlightConditions c;
 		FlightConditions clone = conditions.clone();
 		ModID modID = status.getModID();
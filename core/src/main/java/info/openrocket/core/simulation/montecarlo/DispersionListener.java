@@ -0,0 +1,59 @@
+package info.openrocket.core.simulation.montecarlo;
+
+import info.openrocket.core.aerodynamics.AerodynamicForces;
+import info.openrocket.core.masscalc.RigidBody;
+import info.openrocket.core.simulation.SimulationStatus;
+import info.openrocket.core.simulation.exception.SimulationException;
+import info.openrocket.core.simulation.listeners.AbstractSimulationListener;
+
+/**
+ * A simulation listener that applies the wind, thrust, drag and mass dispersions of a
+ * Monte Carlo trial to a running simulation.
+ */
+class DispersionListener extends AbstractSimulationListener {
+
+	private final MonteCarloTrial trial;
+
+	DispersionListener(MonteCarloTrial trial) {
+		this.trial = trial;
+	}
+
+	@Override
+	public void startSimulation(SimulationStatus status) throws SimulationException {
+		status.getSimulationConditions().setWindModel(trial.getWindModel());
+	}
+
+	@Override
+	public AerodynamicForces postAerodynamicCalculation(SimulationStatus status, AerodynamicForces forces)
+			throws SimulationException {
+		double factor = trial.getDragFactor();
+		if (factor == 1) {
+			return forces;
+		}
+		AerodynamicForces scaled = forces.clone();
+		scaled.setCDaxial(forces.getCDaxial() * factor);
+		scaled.setCD(forces.getCD() * factor);
+		return scaled;
+	}
+
+	@Override
+	public RigidBody postMassCalculation(SimulationStatus status, RigidBody massData) throws SimulationException {
+		double factor = trial.getMassFactor();
+		if (factor == 1) {
+			return massData;
+		}
+		return new RigidBody(massData.cm.setWeight(massData.cm.weight * factor),
+				massData.Ixx * factor, massData.Iyy * factor, massData.Izz * factor);
+	}
+
+	@Override
+	public double postSimpleThrustCalculation(SimulationStatus status, double thrust) throws SimulationException {
+		return thrust * trial.getThrustFactor();
+	}
+
+	@Override
+	public boolean isSystemListener() {
+		// The dispersions are intended and should not produce warnings
+		return true;
+	}
+}
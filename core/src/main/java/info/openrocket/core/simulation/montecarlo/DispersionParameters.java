@@ -0,0 +1,116 @@
+package info.openrocket.core.simulation.montecarlo;
+
+import java.util.Objects;
+
+/**
+ * The dispersions applied to the parameters of a simulation in Monte Carlo trials.
+ * <p>
+ * Launch rod and wind dispersions are offsets added to the nominal values of the
+ * simulation options, while thrust, drag and mass dispersions are factors the nominal
+ * values are multiplied with.  By default no dispersion is applied.
+ */
+public class DispersionParameters {
+
+	private static final Distribution NO_OFFSET = Distribution.constant(0);
+	private static final Distribution NO_SCALING = Distribution.constant(1);
+
+	private Distribution launchRodAngle = NO_OFFSET;
+	private Distribution launchRodDirection = NO_OFFSET;
+	private Distribution windSpeed = NO_OFFSET;
+	private Distribution windDirection = NO_OFFSET;
+	private Distribution windStandardDeviation = NO_OFFSET;
+	private Distribution thrustFactor = NO_SCALING;
+	private Distribution dragFactor = NO_SCALING;
+	private Distribution massFactor = NO_SCALING;
+
+	/**
+	 * Offset of the launch rod angle from vertical, in radians.
+	 */
+	public Distribution getLaunchRodAngle() {
+		return launchRodAngle;
+	}
+
+	public void setLaunchRodAngle(Distribution launchRodAngle) {
+		this.launchRodAngle = Objects.requireNonNull(launchRodAngle);
+	}
+
+	/**
+	 * Offset of the launch rod direction, in radians.
+	 */
+	public Distribution getLaunchRodDirection() {
+		return launchRodDirection;
+	}
+
+	public void setLaunchRodDirection(Distribution launchRodDirection) {
+		this.launchRodDirection = Objects.requireNonNull(launchRodDirection);
+	}
+
+	/**
+	 * Offset of the average wind speed, in m/s.  With the multi-level wind model the
+	 * offset is sampled separately for each wind level.
+	 */
+	public Distribution getWindSpeed() {
+		return windSpeed;
+	}
+
+	public void setWindSpeed(Distribution windSpeed) {
+		this.windSpeed = Objects.requireNonNull(windSpeed);
+	}
+
+	/**
+	 * Offset of the wind direction, in radians.  With the multi-level wind model the
+	 * offset is sampled separately for each wind level.
+	 */
+	public Distribution getWindDirection() {
+		return windDirection;
+	}
+
+	public void setWindDirection(Distribution windDirection) {
+		this.windDirection = Objects.requireNonNull(windDirection);
+	}
+
+	/**
+	 * Offset of the standard deviation of the wind speed, in m/s.  With the multi-level
+	 * wind model the offset is sampled separately for each wind level.
+	 */
+	public Distribution getWindStandardDeviation() {
+		return windStandardDeviation;
+	}
+
+	public void setWindStandardDeviation(Distribution windStandardDeviation) {
+		this.windStandardDeviation = Objects.requireNonNull(windStandardDeviation);
+	}
+
+	/**
+	 * Factor the thrust of all motors is multiplied with.
+	 */
+	public Distribution getThrustFactor() {
+		return thrustFactor;
+	}
+
+	public void setThrustFactor(Distribution thrustFactor) {
+		this.thrustFactor = Objects.requireNonNull(thrustFactor);
+	}
+
+	/**
+	 * Factor the drag coefficient of the rocket is multiplied with.
+	 */
+	public Distribution getDragFactor() {
+		return dragFactor;
+	}
+
+	public void setDragFactor(Distribution dragFactor) {
+		this.dragFactor = Objects.requireNonNull(dragFactor);
+	}
+
+	/**
+	 * Factor the mass and moments of inertia of the rocket are multiplied with.
+	 */
+	public Distribution getMassFactor() {
+		return massFactor;
+	}
+
+	public void setMassFactor(Distribution massFactor) {
+		this.massFactor = Objects.requireNonNull(massFactor);
+	}
+}
@@ -0,0 +1,94 @@
+package info.openrocket.core.simulation.montecarlo;
+
+import java.util.Random;
+
+/**
+ * A probability distribution from which the dispersed parameters of Monte Carlo
+ * trials are sampled.
+ */
+public interface Distribution {
+
+	/**
+	 * Draw a sample from this distribution.
+	 *
+	 * @param random	the random number source to use.
+	 * @return			the sampled value.
+	 */
+	double sample(Random random);
+
+	/**
+	 * Return the mean value of this distribution.
+	 */
+	double getMean();
+
+
+	/**
+	 * Return a distribution that always returns the given value.
+	 */
+	static Distribution constant(double value) {
+		return new Constant(value);
+	}
+
+	/**
+	 * Return a normal distribution with the given mean and standard deviation.
+	 */
+	static Distribution normal(double mean, double standardDeviation) {
+		if (!(standardDeviation >= 0)) {
+			throw new IllegalArgumentException("standardDeviation must be non-negative: " + standardDeviation);
+		}
+		if (standardDeviation == 0) {
+			return new Constant(mean);
+		}
+		return new Normal(mean, standardDeviation);
+	}
+
+	/**
+	 * Return a uniform distribution over the range [min, max).
+	 */
+	static Distribution uniform(double min, double max) {
+		if (!(max >= min)) {
+			throw new IllegalArgumentException("max must not be smaller than min: min=" + min + " max=" + max);
+		}
+		if (max == min) {
+			return new Constant(min);
+		}
+		return new Uniform(min, max);
+	}
+
+
+	record Constant(double value) implements Distribution {
+		@Override
+		public double sample(Random random) {
+			return value;
+		}
+
+		@Override
+		public double getMean() {
+			return value;
+		}
+	}
+
+	record Normal(double mean, double standardDeviation) implements Distribution {
+		@Override
+		public double sample(Random random) {
+			return mean + random.nextGaussian() * standardDeviation;
+		}
+
+		@Override
+		public double getMean() {
+			return mean;
+		}
+	}
+
+	record Uniform(double min, double max) implements Distribution {
+		@Override
+		public double sample(Random random) {
+			return min + random.nextDouble() * (max - min);
+		}
+
+		@Override
+		public double getMean() {
+			return (min + max) / 2;
+		}
+	}
+}
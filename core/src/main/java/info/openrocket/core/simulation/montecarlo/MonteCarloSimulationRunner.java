@@ -0,0 +1,180 @@
+package info.openrocket.core.simulation.montecarlo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import info.openrocket.core.document.Simulation;
+import info.openrocket.core.simulation.FlightData;
+import info.openrocket.core.simulation.FlightDataBranch;
+import info.openrocket.core.simulation.FlightDataType;
+import info.openrocket.core.simulation.SimulationOptions;
+import info.openrocket.core.simulation.exception.SimulationException;
+import info.openrocket.core.util.BugException;
+
+/**
+ * Runs randomised Monte Carlo trials of a simulation in parallel, without any user interface.
+ * <p>
+ * Each trial perturbs the launch rod, wind, thrust, drag and mass of the simulation
+ * according to {@link DispersionParameters}.  The trials are seeded deterministically
+ * from the random seed of the simulation options and the trial index, so a batch gives
+ * the same trials regardless of the number of threads.
+ * <p>
+ * Every worker thread runs its trials on a private copy of the simulation.  Only the
+ * summary of each trial is kept, so the memory use does not grow with the number of trials.
+ * The Guice injector of {@link info.openrocket.core.startup.Application} must be set up
+ * before running trials.
+ */
+public class MonteCarloSimulationRunner {
+
+	private static final Logger log = LoggerFactory.getLogger(MonteCarloSimulationRunner.class);
+
+	private final int parallelism;
+	private Consumer<MonteCarloTrialResult> trialListener = null;
+
+	/**
+	 * Create a runner that uses all available processors.
+	 */
+	public MonteCarloSimulationRunner() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Create a runner that runs at most <code>parallelism</code> trials at a time.
+	 *
+	 * @param parallelism	the number of worker threads.
+	 */
+	public MonteCarloSimulationRunner(int parallelism) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+		}
+		this.parallelism = parallelism;
+	}
+
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * Set a listener that is notified of the result of each trial as soon as it has
+	 * finished.  The listener is called from the worker threads, so it must be thread-safe.
+	 *
+	 * @param trialListener		the listener, or <code>null</code> for none.
+	 */
+	public void setTrialListener(Consumer<MonteCarloTrialResult> trialListener) {
+		this.trialListener = trialListener;
+	}
+
+	/**
+	 * Run Monte Carlo trials of a simulation.  The simulation itself is not modified.
+	 *
+	 * @param simulation	the simulation defining the nominal rocket and conditions.
+	 * @param dispersions	the dispersions applied in the trials.
+	 * @param trialCount	the number of trials to run.
+	 * @return				the statistics of the trials.
+	 * @throws InterruptedException	if the thread is interrupted while waiting for the trials.
+	 */
+	public MonteCarloStatistics run(Simulation simulation, DispersionParameters dispersions, int trialCount)
+			throws InterruptedException {
+		if (trialCount < 0) {
+			throw new IllegalArgumentException("trialCount must not be negative: " + trialCount);
+		}
+		final MonteCarloStatistics statistics = new MonteCarloStatistics();
+		if (trialCount == 0) {
+			return statistics;
+		}
+
+		final SimulationOptions nominal;
+		final int batchSeed;
+		synchronized (simulation) {
+			nominal = simulation.getOptions().clone();
+			batchSeed = nominal.getRandomSeed();
+		}
+		// Resolve the launch direction once, so that the nominal options are only read by the workers
+		nominal.setLaunchRodDirection(nominal.getLaunchRodDirection());
+		nominal.setLaunchIntoWind(false);
+
+		final AtomicInteger nextTrial = new AtomicInteger();
+		int threads = Math.min(parallelism, trialCount);
+
+		List<Callable<Void>> workers = new ArrayList<>(threads);
+		for (int i = 0; i < threads; i++) {
+			workers.add(() -> {
+				Simulation copy;
+				synchronized (simulation) {
+					copy = simulation.duplicateSimulation(simulation.getRocket().copyWithOriginalID());
+				}
+				int index;
+				while ((index = nextTrial.getAndIncrement()) < trialCount) {
+					if (Thread.interrupted()) {
+						throw new InterruptedException();
+					}
+					MonteCarloTrial trial = MonteCarloTrial.sample(index, batchSeed, nominal, dispersions);
+					MonteCarloTrialResult result = runTrial(copy, trial);
+					statistics.add(result);
+					fireResult(result);
+				}
+				return null;
+			});
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+			Thread t = new Thread(r, "MonteCarloWorker");
+			t.setDaemon(true);
+			return t;
+		});
+		long t0 = System.nanoTime();
+		try {
+			for (Future<Void> future : executor.invokeAll(workers)) {
+				future.get();
+			}
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof InterruptedException) {
+				throw (InterruptedException) e.getCause();
+			}
+			throw new BugException("Monte Carlo worker failed", e.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+		log.info(trialCount + " Monte Carlo trials finished in " + (System.nanoTime() - t0) / 1000000 +
+				" ms using " + threads + " threads");
+
+		return statistics;
+	}
+
+	private MonteCarloTrialResult runTrial(Simulation simulation, MonteCarloTrial trial) {
+		trial.applyTo(simulation.getOptions());
+		try {
+			simulation.simulate(new DispersionListener(trial));
+		} catch (SimulationException | RuntimeException e) {
+			return new MonteCarloTrialResult(trial, Double.NaN, Double.NaN, Double.NaN, Double.NaN, e);
+		}
+
+		FlightData data = simulation.getSimulatedData();
+		FlightDataBranch sustainer = data.getBranch(0);
+		return new MonteCarloTrialResult(trial, data.getMaxAltitude(), data.getMaxVelocity(),
+				sustainer.getLast(FlightDataType.TYPE_POSITION_X),
+				sustainer.getLast(FlightDataType.TYPE_POSITION_Y), null);
+	}
+
+	private void fireResult(MonteCarloTrialResult result) {
+		if (result.isSuccessful()) {
+			log.debug("Simulated Monte Carlo " + result);
+		} else {
+			log.warn("Monte Carlo " + result, result.getException());
+		}
+		Consumer<MonteCarloTrialResult> listener = trialListener;
+		if (listener != null) {
+			listener.accept(result);
+		}
+	}
+}
@@ -0,0 +1,103 @@
+package info.openrocket.core.simulation.montecarlo;
+
+/**
+ * Aggregates the results of Monte Carlo trials into summary statistics of the apogee,
+ * maximum velocity and landing point.  The covariance of the landing point coordinates
+ * is accumulated as well, so that a landing dispersion ellipse can be computed.
+ * <p>
+ * Results may be added concurrently from several threads.
+ */
+public class MonteCarloStatistics {
+
+	private final SummaryStatistics apogee = new SummaryStatistics();
+	private final SummaryStatistics maxVelocity = new SummaryStatistics();
+	private final SummaryStatistics landingX = new SummaryStatistics();
+	private final SummaryStatistics landingY = new SummaryStatistics();
+	private final SummaryStatistics landingDistance = new SummaryStatistics();
+
+	private double landingCoMoment = 0;
+	private int failures = 0;
+
+	/**
+	 * Add the result of a trial to the statistics.  Failed trials are only counted.
+	 *
+	 * @param result	the trial result.
+	 */
+	public synchronized void add(MonteCarloTrialResult result) {
+		if (!result.isSuccessful()) {
+			failures++;
+			return;
+		}
+
+		apogee.add(result.getApogee());
+		maxVelocity.add(result.getMaxVelocity());
+
+		double x = result.getLandingX();
+		double y = result.getLandingY();
+		if (!Double.isNaN(x) && !Double.isNaN(y)) {
+			// Co-moment update of the online covariance algorithm, using the mean of x
+			// before and the mean of y after adding the values
+			double dx = x - (landingX.getCount() > 0 ? landingX.getMean() : 0);
+			landingX.add(x);
+			landingY.add(y);
+			landingCoMoment += dx * (y - landingY.getMean());
+			landingDistance.add(Math.hypot(x, y));
+		}
+	}
+
+	/**
+	 * Return the number of successful trials.
+	 */
+	public synchronized long getTrialCount() {
+		return apogee.getCount();
+	}
+
+	/**
+	 * Return the number of trials that failed.
+	 */
+	public synchronized int getFailureCount() {
+		return failures;
+	}
+
+	public synchronized SummaryStatistics getApogee() {
+		return apogee.copy();
+	}
+
+	public synchronized SummaryStatistics getMaxVelocity() {
+		return maxVelocity.copy();
+	}
+
+	public synchronized SummaryStatistics getLandingX() {
+		return landingX.copy();
+	}
+
+	public synchronized SummaryStatistics getLandingY() {
+		return landingY.copy();
+	}
+
+	/**
+	 * Return the statistics of the distance of the landing point from the launch site.
+	 */
+	public synchronized SummaryStatistics getLandingDistance() {
+		return landingDistance.copy();
+	}
+
+	/**
+	 * Return the sample covariance of the east and north coordinates of the landing point,
+	 * or NaN if fewer than two landing points have been added.
+	 */
+	public synchronized double getLandingCovariance() {
+		long n = landingX.getCount();
+		return n > 1 ? landingCoMoment / (n - 1) : Double.NaN;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "MonteCarloStatistics[trials=" + getTrialCount() + ", failures=" + failures +
+				"\n  apogee: " + apogee +
+				"\n  max velocity: " + maxVelocity +
+				"\n  landing x: " + landingX +
+				"\n  landing y: " + landingY +
+				"\n  landing distance: " + landingDistance + "\n]";
+	}
+}
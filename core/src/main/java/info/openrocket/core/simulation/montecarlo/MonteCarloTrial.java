@@ -0,0 +1,168 @@
+package info.openrocket.core.simulation.montecarlo;
+
+import java.util.Random;
+
+import info.openrocket.core.models.wind.MultiLevelPinkNoiseWindModel;
+import info.openrocket.core.models.wind.MultiLevelPinkNoiseWindModel.LevelWindModel;
+import info.openrocket.core.models.wind.PinkNoiseWindModel;
+import info.openrocket.core.models.wind.WindModel;
+import info.openrocket.core.models.wind.WindModelType;
+import info.openrocket.core.simulation.SimulationOptions;
+
+/**
+ * The randomised conditions of a single Monte Carlo trial.
+ * <p>
+ * All values of a trial are sampled from a random number generator seeded with the
+ * trial seed, so a trial can be reproduced from its index and the seed of the batch
+ * regardless of the order in which the trials are run.
+ */
+public class MonteCarloTrial {
+
+	private final int index;
+	private final long seed;
+	private final int simulationSeed;
+	private final double launchRodAngle;
+	private final double launchRodDirection;
+	private final double thrustFactor;
+	private final double dragFactor;
+	private final double massFactor;
+	private final WindModel windModel;
+
+	private MonteCarloTrial(int index, long seed, int simulationSeed, double launchRodAngle,
+			double launchRodDirection, double thrustFactor, double dragFactor, double massFactor,
+			WindModel windModel) {
+		this.index = index;
+		this.seed = seed;
+		this.simulationSeed = simulationSeed;
+		this.launchRodAngle = launchRodAngle;
+		this.launchRodDirection = launchRodDirection;
+		this.thrustFactor = thrustFactor;
+		this.dragFactor = dragFactor;
+		this.massFactor = massFactor;
+		this.windModel = windModel;
+	}
+
+	/**
+	 * Return the seed of a trial.  The seed is derived from the seed of the batch and the
+	 * index of the trial using the SplitMix64 mixing function, so that consecutive trials
+	 * get uncorrelated seeds.
+	 *
+	 * @param batchSeed		the seed of the whole batch of trials.
+	 * @param index			the index of the trial.
+	 * @return				the seed of the trial.
+	 */
+	public static long getTrialSeed(int batchSeed, int index) {
+		long z = ((long) batchSeed << 32) + index + 0x9E3779B97F4A7C15L;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	/**
+	 * Sample the conditions of a trial.
+	 *
+	 * @param index			the index of the trial.
+	 * @param batchSeed		the seed of the whole batch of trials.
+	 * @param nominal		the nominal simulation options, which are not modified.
+	 * @param dispersions	the dispersions to apply.
+	 * @return				the sampled trial.
+	 */
+	public static MonteCarloTrial sample(int index, int batchSeed, SimulationOptions nominal,
+			DispersionParameters dispersions) {
+		long seed = getTrialSeed(batchSeed, index);
+		Random random = new Random(seed);
+
+		double rodAngle = nominal.getLaunchRodAngle() + dispersions.getLaunchRodAngle().sample(random);
+		double rodDirection = nominal.getLaunchRodDirection() + dispersions.getLaunchRodDirection().sample(random);
+		double thrust = Math.max(dispersions.getThrustFactor().sample(random), 0);
+		double drag = Math.max(dispersions.getDragFactor().sample(random), 0);
+		double mass = dispersions.getMassFactor().sample(random);
+		if (!(mass > 0)) {
+			throw new IllegalArgumentException("Sampled non-positive mass factor " + mass + " for trial " + index);
+		}
+		int simulationSeed = random.nextInt();
+
+		WindModel wind;
+		if (nominal.getWindModelType() == WindModelType.MULTI_LEVEL) {
+			MultiLevelPinkNoiseWindModel model = new MultiLevelPinkNoiseWindModel();
+			for (LevelWindModel level : nominal.getMultiLevelWindModel().getLevels()) {
+				double speed = level.getSpeed() + dispersions.getWindSpeed().sample(random);
+				double direction = level.getDirection() + dispersions.getWindDirection().sample(random);
+				double sd = level.getStandardDeviation() + dispersions.getWindStandardDeviation().sample(random);
+				speed = Math.max(speed, 0);
+				sd = speed > 0 ? Math.max(sd, 0) : 0;
+				model.addWindLevel(level.getAltitude(), speed, direction, sd, random.nextInt());
+			}
+			wind = model;
+		} else {
+			PinkNoiseWindModel average = nominal.getAverageWindModel();
+			PinkNoiseWindModel model = new PinkNoiseWindModel(random.nextInt());
+			double speed = Math.max(average.getAverage() + dispersions.getWindSpeed().sample(random), 0);
+			double direction = average.getDirection() + dispersions.getWindDirection().sample(random);
+			double sd = average.getStandardDeviation() + dispersions.getWindStandardDeviation().sample(random);
+			model.setAverage(speed);
+			model.setDirection(direction);
+			if (speed > 0) {
+				model.setStandardDeviation(Math.max(sd, 0));
+			}
+			wind = model;
+		}
+
+		return new MonteCarloTrial(index, seed, simulationSeed, rodAngle, rodDirection, thrust, drag, mass, wind);
+	}
+
+	/**
+	 * Apply the launch conditions of this trial to simulation options.
+	 *
+	 * @param options	the options of the simulation used to run this trial.
+	 */
+	void applyTo(SimulationOptions options) {
+		options.setLaunchIntoWind(false);
+		options.setLaunchRodAngle(launchRodAngle);
+		options.setLaunchRodDirection(launchRodDirection);
+		options.setRandomSeed(simulationSeed);
+	}
+
+	public int getIndex() {
+		return index;
+	}
+
+	public long getSeed() {
+		return seed;
+	}
+
+	public double getLaunchRodAngle() {
+		return launchRodAngle;
+	}
+
+	public double getLaunchRodDirection() {
+		return launchRodDirection;
+	}
+
+	public double getThrustFactor() {
+		return thrustFactor;
+	}
+
+	public double getDragFactor() {
+		return dragFactor;
+	}
+
+	public double getMassFactor() {
+		return massFactor;
+	}
+
+	/**
+	 * Return the wind model of this trial.  The model is stateful and is shared by the
+	 * simulation branches of the trial, so it must not be used for other simulations.
+	 */
+	public WindModel getWindModel() {
+		return windModel;
+	}
+
+	@Override
+	public String toString() {
+		return "MonteCarloTrial[index=" + index + ", seed=" + seed + ", rodAngle=" + launchRodAngle +
+				", rodDirection=" + launchRodDirection + ", thrust=" + thrustFactor + ", drag=" + dragFactor +
+				", mass=" + massFactor + "]";
+	}
+}
@@ -0,0 +1,77 @@
+package info.openrocket.core.simulation.montecarlo;
+
+/**
+ * The summary of the outcome of a single Monte Carlo trial.  The flight data of the
+ * trial itself is not retained.
+ */
+public class MonteCarloTrialResult {
+
+	private final MonteCarloTrial trial;
+	private final double apogee;
+	private final double maxVelocity;
+	private final double landingX;
+	private final double landingY;
+	private final Exception exception;
+
+	MonteCarloTrialResult(MonteCarloTrial trial, double apogee, double maxVelocity, double landingX,
+			double landingY, Exception exception) {
+		this.trial = trial;
+		this.apogee = apogee;
+		this.maxVelocity = maxVelocity;
+		this.landingX = landingX;
+		this.landingY = landingY;
+		this.exception = exception;
+	}
+
+	public MonteCarloTrial getTrial() {
+		return trial;
+	}
+
+	/**
+	 * Return whether the trial was simulated successfully.
+	 */
+	public boolean isSuccessful() {
+		return exception == null;
+	}
+
+	/**
+	 * Return the exception thrown by the failed trial, or <code>null</code> if it succeeded.
+	 */
+	public Exception getException() {
+		return exception;
+	}
+
+	/**
+	 * Return the maximum altitude of the trial, in meters above the launch site.
+	 */
+	public double getApogee() {
+		return apogee;
+	}
+
+	public double getMaxVelocity() {
+		return maxVelocity;
+	}
+
+	/**
+	 * Return the position of the landing point of the sustainer east of the launch site, in meters.
+	 */
+	public double getLandingX() {
+		return landingX;
+	}
+
+	/**
+	 * Return the position of the landing point of the sustainer north of the launch site, in meters.
+	 */
+	public double getLandingY() {
+		return landingY;
+	}
+
+	@Override
+	public String toString() {
+		if (!isSuccessful()) {
+			return "trial " + trial.getIndex() + " failed: " + exception;
+		}
+		return String.format("trial %d: apogee=%.2f m, max velocity=%.2f m/s, landing=(%.2f, %.2f) m",
+				trial.getIndex(), apogee, maxVelocity, landingX, landingY);
+	}
+}
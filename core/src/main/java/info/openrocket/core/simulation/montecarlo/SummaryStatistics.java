@@ -0,0 +1,97 @@
+package info.openrocket.core.simulation.montecarlo;
+
+/**
+ * Summary statistics of a stream of values, computed without storing the values.
+ * The mean and variance are updated using Welford's algorithm, which remains
+ * numerically stable for large numbers of values.
+ * <p>
+ * This class is not thread-safe.
+ */
+public class SummaryStatistics {
+
+	private long count = 0;
+	private double mean = 0;
+	private double m2 = 0;
+	private double min = Double.NaN;
+	private double max = Double.NaN;
+
+	/**
+	 * Add a value to the statistics.  NaN values are ignored.
+	 *
+	 * @param value		the value to add.
+	 */
+	public void add(double value) {
+		if (Double.isNaN(value)) {
+			return;
+		}
+		count++;
+		double delta = value - mean;
+		mean += delta / count;
+		m2 += delta * (value - mean);
+		if (count == 1 || value < min) {
+			min = value;
+		}
+		if (count == 1 || value > max) {
+			max = value;
+		}
+	}
+
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * Return the mean of the values, or NaN if no values have been added.
+	 */
+	public double getMean() {
+		return count > 0 ? mean : Double.NaN;
+	}
+
+	/**
+	 * Return the sample variance of the values, or NaN if fewer than two values have been added.
+	 */
+	public double getVariance() {
+		return count > 1 ? m2 / (count - 1) : Double.NaN;
+	}
+
+	/**
+	 * Return the sample standard deviation of the values, or NaN if fewer than two values
+	 * have been added.
+	 */
+	public double getStandardDeviation() {
+		return Math.sqrt(getVariance());
+	}
+
+	/**
+	 * Return the smallest value, or NaN if no values have been added.
+	 */
+	public double getMinimum() {
+		return min;
+	}
+
+	/**
+	 * Return the largest value, or NaN if no values have been added.
+	 */
+	public double getMaximum() {
+		return max;
+	}
+
+	/**
+	 * Return a copy of the current state of these statistics.
+	 */
+	public SummaryStatistics copy() {
+		SummaryStatistics copy = new SummaryStatistics();
+		copy.count = count;
+		copy.mean = mean;
+		copy.m2 = m2;
+		copy.min = min;
+		copy.max = max;
+		return copy;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("mean=%.3f sd=%.3f min=%.3f max=%.3f n=%d",
+				getMean(), getStandardDeviation(), min, max, count);
+	}
+}
@@ -0,0 +1,149 @@
+package info.openrocket.core.startup;
+
+import java.util.Locale;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Provider;
+import com.google.inject.Scopes;
+
+import info.openrocket.core.database.AsynchronousDatabaseLoader;
+import info.openrocket.core.database.ComponentPresetDao;
+import info.openrocket.core.database.ComponentPresetDatabaseLoader;
+import info.openrocket.core.database.MotorDatabaseLoader;
+import info.openrocket.core.database.motor.MotorDatabase;
+import info.openrocket.core.database.motor.ThrustCurveMotorSetDatabase;
+import info.openrocket.core.formatting.RocketDescriptor;
+import info.openrocket.core.formatting.RocketDescriptorImpl;
+import info.openrocket.core.l10n.DebugTranslator;
+import info.openrocket.core.l10n.L10N;
+import info.openrocket.core.l10n.ResourceBundleTranslator;
+import info.openrocket.core.l10n.Translator;
+import info.openrocket.core.preferences.ApplicationPreferences;
+
+/**
+ * The Guice module for running OpenRocket without the Swing application, e.g. from the
+ * command line.
+ * <p>
+ * Unlike the GUI module, the motor and component preset databases are not loaded at startup,
+ * but only when they are first requested.  Tasks that do not need them, such as exporting a
+ * design that does not use any motors, then start faster.
+ *
+ * <code>
+ * Application.setInjector(Guice.createInjector(new CoreModule(preferences), new PluginModule()));
+ * </code>
+ */
+public class CoreModule extends AbstractModule {
+	private static final Logger log = LoggerFactory.getLogger(CoreModule.class);
+
+	private final ApplicationPreferences preferences;
+
+	/**
+	 * @param preferences	the preferences to use
+	 */
+	public CoreModule(ApplicationPreferences preferences) {
+		this.preferences = preferences;
+	}
+
+	@Override
+	protected void configure() {
+		bind(ApplicationPreferences.class).toInstance(preferences);
+		bind(Translator.class).toProvider(CoreTranslatorProvider.class).in(Scopes.SINGLETON);
+		bind(RocketDescriptor.class).to(RocketDescriptorImpl.class).in(Scopes.SINGLETON);
+
+		final MotorDatabaseLoader motorLoader = new MotorDatabaseLoader();
+		final ComponentPresetDatabaseLoader presetLoader = new ComponentPresetDatabaseLoader();
+
+		// The motor database providers share the loading, which may only be started once
+		final OnDemandDatabaseLoader motorLoading = new OnDemandDatabaseLoader("Motor", motorLoader);
+		final OnDemandDatabaseLoader presetLoading = new OnDemandDatabaseLoader("Component preset", presetLoader);
+
+		bind(ThrustCurveMotorSetDatabase.class).toProvider(
+				new OnDemandDatabaseProvider<>(motorLoading, motorLoader::getDatabase)).in(Scopes.SINGLETON);
+		bind(MotorDatabase.class).toProvider(
+				new OnDemandDatabaseProvider<>(motorLoading, motorLoader::getDatabase)).in(Scopes.SINGLETON);
+		bind(ComponentPresetDao.class).toProvider(
+				new OnDemandDatabaseProvider<>(presetLoading, presetLoader::getDatabase)).in(Scopes.SINGLETON);
+	}
+
+	/**
+	 * Loads a database the first time it is requested.
+	 * <p>
+	 * Whether the loading has been started is tracked here under a lock of its own, as waiting
+	 * for the loader releases the monitor of the loader.
+	 */
+	private static class OnDemandDatabaseLoader {
+		private final String name;
+		private final AsynchronousDatabaseLoader loader;
+		private boolean started = false;
+
+		private OnDemandDatabaseLoader(String name, AsynchronousDatabaseLoader loader) {
+			this.name = name;
+			this.loader = loader;
+		}
+
+		/**
+		 * Start loading the database on the first call, and block until it has been loaded.
+		 */
+		void load() {
+			long t0 = -1;
+			synchronized (this) {
+				// Only starts the loading thread, so the lock is not held while loading
+				if (!started) {
+					log.info(name + " database requested, loading");
+					t0 = System.currentTimeMillis();
+					loader.startLoading();
+					started = true;
+				}
+			}
+			loader.blockUntilLoaded();
+			if (t0 >= 0) {
+				log.info(name + " database loaded in " + (System.currentTimeMillis() - t0) + " ms");
+			}
+		}
+	}
+
+	/**
+	 * A provider that loads a database the first time it is requested, blocking until the
+	 * database has been loaded.
+	 */
+	private static class OnDemandDatabaseProvider<T> implements Provider<T> {
+		private final OnDemandDatabaseLoader loading;
+		private final Provider<? extends T> database;
+
+		private OnDemandDatabaseProvider(OnDemandDatabaseLoader loading, Provider<? extends T> database) {
+			this.loading = loading;
+			this.database = database;
+		}
+
+		@Override
+		public T get() {
+			loading.load();
+			return database.get();
+		}
+	}
+
+	/**
+	 * Provides the translator of the locale given by the <code>openrocket.locale</code> system
+	 * property, or the default locale.
+	 */
+	static class CoreTranslatorProvider implements Provider<Translator> {
+		@Override
+		public Translator get() {
+			String langcode = System.getProperty("openrocket.locale");
+			if (langcode != null) {
+				Locale l = L10N.toLocale(langcode);
+				log.info("Setting custom locale " + l);
+				Locale.setDefault(l);
+			}
+
+			Translator translator = new ResourceBundleTranslator("l10n.messages");
+			if (Locale.getDefault().getLanguage().equals("xx")) {
+				translator = new DebugTranslator(translator);
+			}
+			return translator;
+		}
+	}
+}
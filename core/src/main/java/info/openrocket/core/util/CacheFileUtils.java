@@ -0,0 +1,137 @@
+package info.openrocket.core.util;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * Helper methods shared by the binary cache files, such as the motor and component
+ * preset caches.
+ * <p>
+ * Strings are stored as UTF-8 preceded by their length in bytes, or -1 for
+ * <code>null</code>.
+ */
+public final class CacheFileUtils {
+
+	private CacheFileUtils() {
+	}
+
+	/**
+	 * Writes the content of a cache file.
+	 */
+	public interface ContentWriter {
+		void write(DataOutputStream out) throws IOException;
+	}
+
+	/**
+	 * Return the SHA-256 hash of the given content as a hexadecimal string.
+	 *
+	 * @param content the content to hash
+	 * @return the hash of the content
+	 */
+	public static String hash(byte[] content) {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new BugException("JRE does not support SHA-256 hash algorithm", e);
+		}
+		String output = new BigInteger(1, digest.digest(content)).toString(16);
+		while (output.length() < 64) {
+			output = "0" + output;
+		}
+		return output;
+	}
+
+	/**
+	 * Return a checksum of the given contents.  This is much faster to compute than
+	 * {@link #hash(byte[])} and suitable for detecting changes of trusted contents,
+	 * such as the built-in motor database.
+	 *
+	 * @param contents the contents, in order
+	 * @return the checksum of the contents
+	 */
+	public static String checksum(List<byte[]> contents) {
+		CRC32C crc = new CRC32C();
+		long length = 0;
+		for (byte[] content : contents) {
+			crc.update(content);
+			length += content.length;
+		}
+		return String.format("crc32c:%08x:%d", crc.getValue(), length);
+	}
+
+	/**
+	 * Write a file through a temporary file, which is then moved over the original file,
+	 * atomically where possible.  The directory of the file is created if necessary.
+	 *
+	 * @param file   the file to write
+	 * @param writer the writer of the content
+	 * @throws IOException if the file cannot be written
+	 */
+	public static void writeAtomically(File file, ContentWriter writer) throws IOException {
+		File dir = file.getAbsoluteFile().getParentFile();
+		if (dir != null && !dir.isDirectory() && !dir.mkdirs()) {
+			throw new IOException("Unable to create directory " + dir);
+		}
+		File tmp = File.createTempFile(file.getName(), ".tmp", dir);
+		try {
+			try (OutputStream os = Files.newOutputStream(tmp.toPath());
+				 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os))) {
+				writer.write(out);
+			}
+			try {
+				Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+						StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			Files.deleteIfExists(tmp.toPath());
+		}
+	}
+
+	/**
+	 * Write a string, which may be <code>null</code>.
+	 */
+	public static void writeString(DataOutputStream out, String s) throws IOException {
+		if (s == null) {
+			out.writeInt(-1);
+			return;
+		}
+		byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	/**
+	 * Read a string written by {@link #writeString(DataOutputStream, String)}.
+	 *
+	 * @throws BufferUnderflowException if the buffer ends before the string.
+	 */
+	public static String readString(ByteBuffer buffer) {
+		int length = buffer.getInt();
+		if (length < 0) {
+			return null;
+		}
+		if (length > buffer.remaining()) {
+			throw new BufferUnderflowException();
+		}
+		byte[] bytes = new byte[length];
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
@@ -84,6 +84,7 @@ open module info.openrocket.core {
 	exports info.openrocket.core.rocketvisitors;
 	exports info.openrocket.core.scripting;
 	exports info.openrocket.core.simulation;
+	exports info.openrocket.core.simulation.batch;
 	exports info.openrocket.core.simulation.customexpression;
 	exports info.openrocket.core.simulation.exception;
 	exports info.openrocket.core.simulation.extension;
@@ -92,6 +93,7 @@ open module info.openrocket.core {
 	exports info.openrocket.core.simulation.listeners;
 	exports info.openrocket.core.simulation.listeners.example;
 	exports info.openrocket.core.simulation.listeners.system;
+	exports info.openrocket.core.simulation.montecarlo;
 	exports info.openrocket.core.startup;
 	exports info.openrocket.core.thrustcurve;
 	exports info.openrocket.core.unit;
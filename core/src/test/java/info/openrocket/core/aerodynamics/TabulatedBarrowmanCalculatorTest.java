@@ -0,0 +1,144 @@
+package info.openrocket.core.aerodynamics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import info.openrocket.core.document.Simulation;
+import info.openrocket.core.logging.Warning;
+import info.openrocket.core.logging.WarningSet;
+import info.openrocket.core.rocketcomponent.FinSet;
+import info.openrocket.core.rocketcomponent.FlightConfiguration;
+import info.openrocket.core.rocketcomponent.Rocket;
+import info.openrocket.core.util.BaseTestCase;
+import info.openrocket.core.util.TestRockets;
+
+public class TabulatedBarrowmanCalculatorTest extends BaseTestCase {
+
+	private static void assertForcesEqual(AerodynamicForces expected, AerodynamicForces actual, String msg) {
+		assertEquals(expected.getCN(), actual.getCN(), 0.005 * Math.abs(expected.getCN()) + 1e-6, "CN " + msg);
+		assertEquals(expected.getCNa(), actual.getCNa(), 0.005 * Math.abs(expected.getCNa()) + 1e-6, "CNa " + msg);
+		assertEquals(expected.getCm(), actual.getCm(), 0.005 * Math.abs(expected.getCm()) + 1e-6, "Cm " + msg);
+		assertEquals(expected.getCP().x, actual.getCP().x, 0.001, "CP " + msg);
+		assertEquals(expected.getCD(), actual.getCD(), 0.005 * expected.getCD(), "CD " + msg);
+		assertEquals(expected.getCDaxial(), actual.getCDaxial(), 0.005 * Math.abs(expected.getCDaxial()),
+				"CDaxial " + msg);
+		assertEquals(expected.getFrictionCD(), actual.getFrictionCD(), 1e-9, "friction CD " + msg);
+		assertEquals(expected.getCroll(), actual.getCroll(), 0.01 * Math.abs(expected.getCroll()) + 1e-6,
+				"Croll " + msg);
+	}
+
+	/**
+	 * Tests that the interpolated forces agree with the forces computed directly.
+	 */
+	@Test
+	public void testAgreesWithBarrowman() {
+		Rocket rocket = TestRockets.makeEstesAlphaIII();
+		((FinSet) rocket.getChild(0).getChild(1).getChild(0)).setCantAngle(Math.toRadians(1));
+		FlightConfiguration config = rocket.getSelectedConfiguration();
+
+		BarrowmanCalculator direct = new BarrowmanCalculator();
+		TabulatedBarrowmanCalculator tabulated = new TabulatedBarrowmanCalculator();
+
+		for (double mach : new double[] { 0.005, 0.13, 0.5, 0.91, 1.37 }) {
+			for (double aoa : new double[] { 0, 0.013, 0.1, 0.35, 1.2 }) {
+				if (mach < 0.05 && aoa > Math.PI / 4) {
+					// The body lift is ramped in quadratically below Mach 0.05 at large angles of attack
+					continue;
+				}
+				for (double rollRate : new double[] { 0, 3.3, -20 }) {
+					FlightConditions conditions = new FlightConditions(config);
+					conditions.setMach(mach);
+					conditions.setAOA(aoa);
+					conditions.setRollRate(rollRate);
+					conditions.setPitchRate(0.2);
+					String msg = "at Mach " + mach + ", AOA " + aoa + ", roll rate " + rollRate;
+
+					AerodynamicForces expected = direct.getAerodynamicForces(config, conditions, new WarningSet());
+					AerodynamicForces actual = tabulated.getAerodynamicForces(config, conditions, new WarningSet());
+					assertForcesEqual(expected, actual, msg);
+					assertEquals(direct.getStallMargin(), tabulated.getStallMargin(), 0, msg);
+				}
+			}
+		}
+		assertTrue(tabulated.getTableNodeCount(config) > 0);
+	}
+
+	/**
+	 * Tests that the warnings of the components are reported like by the Barrowman calculator,
+	 * and that the supersonic warning of a node is not reported at subsonic speed.
+	 */
+	@Test
+	public void testWarnings() {
+		Rocket rocket = TestRockets.makeEstesAlphaIII();
+		((FinSet) rocket.getChild(0).getChild(1).getChild(0)).setFinCount(9);
+		FlightConfiguration config = rocket.getSelectedConfiguration();
+
+		BarrowmanCalculator direct = new BarrowmanCalculator();
+		TabulatedBarrowmanCalculator tabulated = new TabulatedBarrowmanCalculator();
+
+		for (double mach : new double[] { 0.5, 1.37, 0.5, 2.2, 0.91 }) {
+			FlightConditions conditions = new FlightConditions(config);
+			conditions.setMach(mach);
+			conditions.setAOA(0.1);
+
+			WarningSet expected = new WarningSet();
+			WarningSet actual = new WarningSet();
+			direct.getAerodynamicForces(config, conditions, expected);
+			tabulated.getAerodynamicForces(config, conditions, actual);
+			assertTrue(expected.contains(Warning.PARALLEL_FINS), "at Mach " + mach);
+			assertEquals(expected, actual, "at Mach " + mach);
+		}
+		assertTrue(tabulated.getTableNodeCount(config) > 0);
+	}
+
+	/**
+	 * Tests that the tables are voided when the rocket is modified.
+	 */
+	@Test
+	public void testTablesVoidedOnChange() {
+		Rocket rocket = TestRockets.makeEstesAlphaIII();
+		FlightConfiguration config = rocket.getSelectedConfiguration();
+		FlightConditions conditions = new FlightConditions(config);
+		conditions.setMach(0.3);
+		conditions.setAOA(0.05);
+
+		TabulatedBarrowmanCalculator tabulated = new TabulatedBarrowmanCalculator();
+		double cna = tabulated.getAerodynamicForces(config, conditions, null).getCNa();
+		int nodes = tabulated.getTableNodeCount(config);
+		assertTrue(nodes > 0);
+
+		// Lookups within the same grid cell do not compute new nodes
+		conditions.setAOA(0.051);
+		tabulated.getAerodynamicForces(config, conditions, null);
+		assertEquals(nodes, tabulated.getTableNodeCount(config));
+
+		FinSet fins = (FinSet) rocket.getChild(0).getChild(1).getChild(0);
+		fins.setFinCount(4);
+		AerodynamicForces expected = new BarrowmanCalculator().getAerodynamicForces(config, conditions, null);
+		AerodynamicForces actual = tabulated.getAerodynamicForces(config, conditions, null);
+		assertTrue(actual.getCNa() > cna);
+		assertEquals(expected.getCNa(), actual.getCNa(), 0.005 * expected.getCNa());
+	}
+
+	/**
+	 * Tests that a simulation using the tables flies like one computing the forces directly.
+	 */
+	@Test
+	public void testSimulation() throws Exception {
+		Simulation simulation = new Simulation(TestRockets.makeEstesAlphaIII());
+		simulation.getOptions().setISAAtmosphere(true);
+		simulation.getOptions().setTimeStep(0.05);
+		simulation.setFlightConfigurationId(TestRockets.TEST_FCID_0);
+
+		simulation.simulate();
+		double apogee = simulation.getSimulatedData().getMaxAltitude();
+		double maxVelocity = simulation.getSimulatedData().getMaxVelocity();
+
+		simulation.getOptions().setTabulatedAerodynamics(true);
+		simulation.simulate();
+		assertEquals(apogee, simulation.getSimulatedData().getMaxAltitude(), 0.01 * apogee);
+		assertEquals(maxVelocity, simulation.getSimulatedData().getMaxVelocity(), 0.01 * maxVelocity);
+	}
+}
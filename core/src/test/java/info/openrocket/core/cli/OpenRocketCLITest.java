@@ -0,0 +1,189 @@
+package info.openrocket.core.cli;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Module;
+import com.google.inject.util.Modules;
+
+import info.openrocket.core.ServicesForTesting;
+import info.openrocket.core.database.ComponentPresetDao;
+import info.openrocket.core.database.motor.MotorDatabase;
+import info.openrocket.core.document.OpenRocketDocument;
+import info.openrocket.core.document.OpenRocketDocumentFactory;
+import info.openrocket.core.document.Simulation;
+import info.openrocket.core.file.GeneralRocketLoader;
+import info.openrocket.core.file.GeneralRocketSaver;
+import info.openrocket.core.file.openrocket.OpenRocketSaverTest;
+import info.openrocket.core.l10n.DebugTranslator;
+import info.openrocket.core.l10n.Translator;
+import info.openrocket.core.optimization.rocketoptimization.SimulationModifier;
+import info.openrocket.core.optimization.rocketoptimization.parameters.MaximumAltitudeParameter;
+import info.openrocket.core.optimization.services.OptimizationServiceHelper;
+import info.openrocket.core.plugin.PluginModule;
+import info.openrocket.core.rocketcomponent.BodyTube;
+import info.openrocket.core.rocketcomponent.Rocket;
+import info.openrocket.core.startup.Application;
+import info.openrocket.core.util.TestRockets;
+
+public class OpenRocketCLITest {
+
+	@TempDir
+	Path directory;
+
+	private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+	private final ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+	@BeforeAll
+	public static void setup() {
+		Module applicationModule = new ServicesForTesting();
+		Module pluginModule = new PluginModule();
+
+		Module dbOverrides = new AbstractModule() {
+			@Override
+			protected void configure() {
+				bind(ComponentPresetDao.class).toProvider(new OpenRocketSaverTest.EmptyComponentDbProvider());
+				bind(MotorDatabase.class).toProvider(new OpenRocketSaverTest.MotorDbProvider());
+				bind(Translator.class).toInstance(new DebugTranslator(null));
+			}
+		};
+
+		Injector injector = Guice.createInjector(Modules.override(applicationModule).with(dbOverrides), pluginModule);
+		Application.setInjector(injector);
+	}
+
+	private File createDocument() throws Exception {
+		Rocket rocket = TestRockets.makeEstesAlphaIII();
+		OpenRocketDocument document = OpenRocketDocumentFactory.createDocumentFromRocket(rocket);
+		Simulation simulation = new Simulation(document, rocket);
+		simulation.setName("Alpha");
+		simulation.getOptions().setISAAtmosphere(true);
+		simulation.getOptions().setTimeStep(0.05);
+		simulation.setFlightConfigurationId(TestRockets.TEST_FCID_0);
+		document.addSimulation(simulation);
+
+		File file = directory.resolve("alpha.ork").toFile();
+		new GeneralRocketSaver().save(file, document);
+		return file;
+	}
+
+	private int run(String... args) {
+		OpenRocketCLI cli = new OpenRocketCLI(new PrintStream(out, true, StandardCharsets.UTF_8),
+				new PrintStream(err, true, StandardCharsets.UTF_8), false);
+		return cli.run(args);
+	}
+
+	/**
+	 * Tests running a simulation and saving its results.
+	 */
+	@Test
+	public void testSimulate() throws Exception {
+		File file = createDocument();
+		File saved = directory.resolve("saved.ork").toFile();
+
+		assertEquals(OpenRocketCLI.EXIT_OK, run("simulate", file.getPath(), "-s", "Alpha", "-o", saved.getPath(), "--timing"));
+		String output = out.toString(StandardCharsets.UTF_8);
+		assertTrue(output.startsWith("Alpha"), output);
+		assertTrue(output.contains("Max altitude:"), output);
+		assertTrue(err.toString(StandardCharsets.UTF_8).contains("Timing:"));
+
+		OpenRocketDocument document = new GeneralRocketLoader(saved).load();
+		assertTrue(document.getSimulation(0).hasSimulationData());
+	}
+
+	/**
+	 * Tests the file exports.
+	 */
+	@Test
+	public void testExport() throws Exception {
+		File file = createDocument();
+
+		File csv = directory.resolve("alpha.csv").toFile();
+		assertEquals(OpenRocketCLI.EXIT_OK, run("export-csv", file.getPath(), "-s", "1", "-o", csv.getPath()));
+		assertTrue(Files.readString(csv.toPath()).contains("# Event APOGEE"));
+
+		File svg = directory.resolve("fins.svg").toFile();
+		assertEquals(OpenRocketCLI.EXIT_OK, run("export-svg", file.getPath(), "-o", svg.getPath()));
+		assertTrue(Files.readString(svg.toPath()).contains("<svg"));
+	}
+
+	/**
+	 * Tests running an optimization with the application set up by the command line, so that the
+	 * motor database is loaded on demand by the core module.
+	 */
+	@Test
+	public void testOptimize() throws Exception {
+		File file = createDocument();
+		OpenRocketDocument document = new GeneralRocketLoader(file).load();
+		Simulation simulation = document.getSimulation(0);
+		SimulationModifier length = null;
+		for (SimulationModifier modifier : OptimizationServiceHelper.getSimulationModifiers(document)) {
+			if (modifier.getRelatedObject() instanceof BodyTube tube
+					&& modifier.getCurrentSIValue(simulation) == tube.getLength()) {
+				length = modifier;
+				break;
+			}
+		}
+		assertNotNull(length);
+		String modifierId = OptimizationConfig.getModifierId(length);
+
+		File config = directory.resolve("optimize.properties").toFile();
+		Files.writeString(config.toPath(), String.join(System.lineSeparator(),
+				"parameter = " + new MaximumAltitudeParameter().getName(),
+				"goal = maximize",
+				"modifier.1 = " + modifierId,
+				"modifier.1.min = 0.1",
+				"modifier.1.max = 0.3",
+				"steps = 5"));
+		File saved = directory.resolve("optimized.ork").toFile();
+
+		Injector injector = Application.getInjector();
+		try {
+			OpenRocketCLI cli = new OpenRocketCLI(new PrintStream(out, true, StandardCharsets.UTF_8),
+					new PrintStream(err, true, StandardCharsets.UTF_8), true);
+			assertEquals(OpenRocketCLI.EXIT_OK, cli.run("optimize", file.getPath(), "--config", config.getPath(),
+					"-o", saved.getPath()), err.toString(StandardCharsets.UTF_8));
+			assertTrue(out.toString(StandardCharsets.UTF_8).contains(modifierId + " = "));
+
+			BodyTube tube = (BodyTube) new GeneralRocketLoader(saved).load().getRocket()
+					.getChild(0).getChild(1);
+			assertTrue(tube.getLength() >= 0.1 && tube.getLength() <= 0.3, "length " + tube.getLength());
+		} finally {
+			Application.setInjector(injector);
+		}
+	}
+
+	/**
+	 * Tests invalid arguments.
+	 */
+	@Test
+	public void testInvalidArguments() throws Exception {
+		assertEquals(OpenRocketCLI.EXIT_OK, run("--help"));
+		assertTrue(out.toString(StandardCharsets.UTF_8).startsWith("Usage:"));
+
+		assertEquals(OpenRocketCLI.EXIT_USAGE, run("simulate"));
+		assertEquals(OpenRocketCLI.EXIT_USAGE, run("simulate", "a.ork", "--unknown"));
+		assertEquals(OpenRocketCLI.EXIT_USAGE, run("export-obj", "a.ork"));
+		assertEquals(OpenRocketCLI.EXIT_USAGE, run("optimize", "a.ork"));
+
+		File file = createDocument();
+		assertEquals(OpenRocketCLI.EXIT_FAILURE, run("simulate", file.getPath(), "-s", "No such simulation"));
+		assertTrue(err.toString(StandardCharsets.UTF_8).contains("No simulation 'No such simulation'"));
+		assertEquals(OpenRocketCLI.EXIT_FAILURE, run("simulate", directory.resolve("missing.ork").toString()));
+	}
+}
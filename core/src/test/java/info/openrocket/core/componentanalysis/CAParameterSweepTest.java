@@ -0,0 +1,79 @@
+package info.openrocket.core.componentanalysis;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import info.openrocket.core.aerodynamics.BarrowmanCalculator;
+import info.openrocket.core.rocketcomponent.FinSet;
+import info.openrocket.core.rocketcomponent.Rocket;
+import info.openrocket.core.rocketcomponent.RocketComponent;
+import info.openrocket.core.util.BaseTestCase;
+import info.openrocket.core.util.TestRockets;
+
+public class CAParameterSweepTest extends BaseTestCase {
+
+	/**
+	 * Tests that a sweep calculated by several threads equals a sweep calculated by one thread.
+	 */
+	@Test
+	public void testParallelSweep() {
+		Rocket rocket = TestRockets.makeFalcon9Heavy();
+		CAParameters parameters = new CAParameters(rocket, 0);
+		parameters.setAOA(Math.toRadians(4));
+
+		CADataBranch sequential = new CAParameterSweep(parameters, new BarrowmanCalculator(), rocket, 1)
+				.sweep(CADomainDataType.MACH, 0.1, 2.0, 0.05, parameters.getMach());
+		CADataBranch parallel = new CAParameterSweep(parameters, new BarrowmanCalculator(), rocket, 4)
+				.sweep(CADomainDataType.MACH, 0.1, 2.0, 0.05, parameters.getMach());
+
+		assertEquals(sequential.getLength(), parallel.getLength());
+		assertEquals(sequential.get(CADomainDataType.MACH), parallel.get(CADomainDataType.MACH));
+		for (RocketComponent c : rocket) {
+			assertEquals(sequential.get(CADataType.CP_X, c), parallel.get(CADataType.CP_X, c), c.getName());
+			assertEquals(sequential.get(CADataType.TOTAL_CD, c), parallel.get(CADataType.TOTAL_CD, c), c.getName());
+			if (c instanceof FinSet) {
+				assertEquals(sequential.get(CADataType.ROLL_DAMPING_COEFFICIENT, c),
+						parallel.get(CADataType.ROLL_DAMPING_COEFFICIENT, c), c.getName());
+			}
+		}
+		assertEquals(sequential.get(CADataType.CNa, rocket), parallel.get(CADataType.CNa, rocket));
+	}
+
+	/**
+	 * Tests a sweep over a grid of Mach numbers and angles of attack.
+	 */
+	@Test
+	public void testGridSweep() {
+		Rocket rocket = TestRockets.makeEstesAlphaIII();
+		CAParameters parameters = new CAParameters(rocket, 0);
+		CAParameterSweep sweep = new CAParameterSweep(parameters, new BarrowmanCalculator(), rocket, 3);
+
+		List<Integer> notified = new ArrayList<>();
+		sweep.setPointListener(branch -> notified.add(branch.getLength()));
+		CADataBranch grid = sweep.sweep(CADomainDataType.MACH, 0.2, 0.8, 0.3,
+				CADomainDataType.AOA, 0, 0.1, 0.05);
+
+		assertEquals(9, grid.getLength());
+		assertEquals(List.of(1, 2, 3, 4, 5, 6, 7, 8, 9), notified);
+		assertEquals(List.of(0.2, 0.2, 0.2, 0.5, 0.5, 0.5, 0.8, 0.8, 0.8), grid.get(CADomainDataType.MACH));
+		assertEquals(List.of(0.0, 0.05, 0.1, 0.0, 0.05, 0.1, 0.0, 0.05, 0.1), grid.get(CADomainDataType.AOA));
+
+		// Each grid point equals the corresponding point of a one-dimensional sweep
+		parameters.setMach(0.5);
+		CADataBranch line = new CAParameterSweep(parameters, new BarrowmanCalculator(), rocket, 1)
+				.sweep(CADomainDataType.AOA, 0, 0.1, 0.05, parameters.getAOA());
+		for (int i = 0; i < 3; i++) {
+			assertEquals(line.getByIndex(CADataType.TOTAL_CD, rocket, i), grid.getByIndex(CADataType.TOTAL_CD, rocket, 3 + i));
+			assertEquals(line.getByIndex(CADataType.CP_X, rocket, i), grid.getByIndex(CADataType.CP_X, rocket, 3 + i));
+		}
+
+		assertThrows(IllegalArgumentException.class, () -> sweep.sweep(CADomainDataType.AOA, 0, 0.1, 0.05,
+				CADomainDataType.AOA, 0, 0.1, 0.05));
+		assertThrows(IllegalArgumentException.class, () -> new CAParameterSweep(parameters, new BarrowmanCalculator(), rocket, 0));
+	}
+}
@@ -0,0 +1,147 @@
+package info.openrocket.core.database;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Module;
+import com.google.inject.util.Modules;
+
+import info.openrocket.core.ServicesForTesting;
+import info.openrocket.core.l10n.DebugTranslator;
+import info.openrocket.core.l10n.Translator;
+import info.openrocket.core.plugin.PluginModule;
+import info.openrocket.core.preferences.ApplicationPreferences;
+import info.openrocket.core.preferences.CorePreferences;
+import info.openrocket.core.preset.ComponentPreset;
+import info.openrocket.core.startup.Application;
+
+public class ComponentPresetDatabaseLoaderTest {
+
+	@TempDir
+	Path tempDir;
+
+	/**
+	 * Uses preferences that store the user-defined component preset files.
+	 */
+	@BeforeAll
+	public static void setUp() throws Exception {
+		Module applicationModule = new ServicesForTesting();
+		Module overrides = new AbstractModule() {
+
+			@Override
+			protected void configure() {
+				bind(ApplicationPreferences.class).toInstance(new CorePreferences());
+				bind(Translator.class).toInstance(new DebugTranslator(null));
+			}
+
+		};
+		Module pluginModule = new PluginModule();
+		Injector injector = Guice.createInjector(Modules.override(applicationModule).with(overrides),
+				pluginModule);
+		Application.setInjector(injector);
+	}
+
+	private static ComponentPresetDatabase load(File cacheDirectory) {
+		ComponentPresetDatabaseLoader loader = new ComponentPresetDatabaseLoader(cacheDirectory);
+		loader.startLoading();
+		return loader.getDatabase();
+	}
+
+	private static List<String> getDigests(List<ComponentPreset> presets) {
+		List<String> digests = new ArrayList<>();
+		for (ComponentPreset preset : presets) {
+			digests.add(preset.getDigest());
+		}
+		return digests;
+	}
+
+	/**
+	 * Tests that the built-in and user-defined presets are loaded, and that they are the
+	 * same when read from the preset cache.
+	 */
+	@Test
+	public void testLoading() throws Exception {
+		File presetDirectory = tempDir.resolve("Components").toFile();
+		File cacheDirectory = tempDir.resolve("ComponentPresetCache").toFile();
+		presetDirectory.mkdirs();
+		try (InputStream is = getClass().getResourceAsStream("/datafiles/components/internal/RailButton_Database.orc")) {
+			Files.copy(is, new File(presetDirectory, "user.orc").toPath());
+		}
+		Application.getPreferences().setUserComponentPresetFiles(Collections.singletonList(presetDirectory));
+
+		ComponentPresetDatabase parsed = load(cacheDirectory);
+		assertFalse(parsed.listAll().isEmpty());
+		assertTrue(new File(cacheDirectory, "presets.bin").isFile());
+
+		ComponentPresetDatabase cached = load(cacheDirectory);
+		assertEquals(getDigests(parsed.listAll()), getDigests(cached.listAll()));
+		for (int i = 0; i < parsed.size(); i++) {
+			ComponentPreset p = parsed.get(i);
+			ComponentPreset c = cached.get(i);
+			assertEquals(p.getManufacturer(), c.getManufacturer());
+			assertEquals(p.getPartNo(), c.getPartNo());
+			if (p.has(ComponentPreset.MATERIAL)) {
+				assertEquals(p.get(ComponentPreset.MATERIAL), c.get(ComponentPreset.MATERIAL));
+				assertEquals(p.get(ComponentPreset.MATERIAL).isUserDefined(), c.get(ComponentPreset.MATERIAL).isUserDefined());
+			}
+		}
+
+		assertEquals(getDigests(parsed.listAll()), getDigests(load(null).listAll()));
+	}
+
+	/**
+	 * Tests that the indexed listing and searching return the same presets as filtering
+	 * all the presets.
+	 */
+	@Test
+	public void testListForType() {
+		Application.getPreferences().setUserComponentPresetFiles(Collections.emptyList());
+		ComponentPresetDatabase database = load(null);
+
+		List<ComponentPreset> all = database.listAll();
+		for (ComponentPreset.Type type : ComponentPreset.Type.values()) {
+			List<ComponentPreset> expected = new ArrayList<>();
+			for (ComponentPreset preset : all) {
+				if (preset.getType() == type) {
+					expected.add(preset);
+				}
+			}
+			assertEquals(expected, database.listForType(type));
+		}
+
+		List<ComponentPreset> expected = new ArrayList<>();
+		for (ComponentPreset preset : all) {
+			if (preset.getType() == ComponentPreset.Type.BODY_TUBE || preset.getType() == ComponentPreset.Type.TUBE_COUPLER) {
+				expected.add(preset);
+			}
+		}
+		assertEquals(expected, database.listForTypes(ComponentPreset.Type.TUBE_COUPLER, ComponentPreset.Type.BODY_TUBE));
+		assertEquals(expected, database.listForTypes(List.of(ComponentPreset.Type.BODY_TUBE,
+				ComponentPreset.Type.TUBE_COUPLER, ComponentPreset.Type.BODY_TUBE)));
+
+		ComponentPreset preset = all.get(all.size() / 2);
+		List<ComponentPreset> found = database.find(preset.getManufacturer().getSimpleName(), preset.getPartNo());
+		assertTrue(found.contains(preset));
+		assertTrue(database.find("No such manufacturer", preset.getPartNo()).isEmpty());
+
+		// Adding a preset updates the index
+		database.insert(preset);
+		assertEquals(Collections.frequency(all, preset), Collections.frequency(database.listForType(preset.getType()), preset));
+	}
+}
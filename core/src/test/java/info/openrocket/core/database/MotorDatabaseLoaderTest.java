@@ -0,0 +1,123 @@
+package info.openrocket.core.database;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Module;
+import com.google.inject.util.Modules;
+
+import info.openrocket.core.ServicesForTesting;
+import info.openrocket.core.database.motor.ThrustCurveMotorSet;
+import info.openrocket.core.database.motor.ThrustCurveMotorSetDatabase;
+import info.openrocket.core.l10n.DebugTranslator;
+import info.openrocket.core.l10n.Translator;
+import info.openrocket.core.motor.ThrustCurveMotor;
+import info.openrocket.core.plugin.PluginModule;
+import info.openrocket.core.preferences.ApplicationPreferences;
+import info.openrocket.core.startup.Application;
+import info.openrocket.core.startup.MockPreferences;
+
+public class MotorDatabaseLoaderTest {
+
+	private static final int FILE_COUNT = 40;
+
+	@TempDir
+	Path tempDir;
+
+	/**
+	 * Uses preferences that store the user-defined motor files.
+	 */
+	@BeforeAll
+	public static void setUp() throws Exception {
+		Module applicationModule = new ServicesForTesting();
+		Module overrides = new AbstractModule() {
+
+			@Override
+			protected void configure() {
+				bind(ApplicationPreferences.class).to(MockPreferences.class);
+				bind(Translator.class).toInstance(new DebugTranslator(null));
+			}
+
+		};
+		Module pluginModule = new PluginModule();
+		Injector injector = Guice.createInjector(Modules.override(applicationModule).with(overrides),
+				pluginModule);
+		Application.setInjector(injector);
+	}
+
+	/**
+	 * Writes FILE_COUNT motor files, each containing a single motor of the fictional
+	 * manufacturer "Test" with a distinct thrust curve, to the given directory.
+	 */
+	private static void writeMotorFiles(File directory) throws Exception {
+		directory.mkdirs();
+		for (int i = 0; i < FILE_COUNT; i++) {
+			String content = "; Test motor " + i + "\n" +
+					"X" + i + " 18 70 3-5 0.01 0.025 Test\n" +
+					"   0.01 " + (10 + i) + ".0\n" +
+					"   0.5 " + (5 + i) + ".0\n" +
+					"   1.0 0.0\n";
+			Files.write(new File(directory, "motor" + i + ".eng").toPath(),
+					content.getBytes(StandardCharsets.US_ASCII));
+		}
+	}
+
+	private static ThrustCurveMotorSetDatabase load(File cacheDirectory) {
+		MotorDatabaseLoader loader = new MotorDatabaseLoader(cacheDirectory);
+		loader.startLoading();
+		return loader.getDatabase();
+	}
+
+	/**
+	 * Return the designations of the motors of the fictional manufacturer "Test",
+	 * in database order.
+	 */
+	private static List<String> getTestMotors(ThrustCurveMotorSetDatabase database) {
+		List<String> designations = new ArrayList<>();
+		for (ThrustCurveMotorSet set : database.getMotorSets()) {
+			for (ThrustCurveMotor motor : set.getMotors()) {
+				if (motor.getManufacturer().matches("Test")) {
+					designations.add(motor.getDesignation());
+				}
+			}
+		}
+		return designations;
+	}
+
+	/**
+	 * Tests that all user-defined motor files of a directory are loaded, and that they
+	 * are loaded in the same order when read from the motor cache.
+	 */
+	@Test
+	public void testUserDefinedMotors() throws Exception {
+		File motorDirectory = tempDir.resolve("ThrustCurves").toFile();
+		File cacheDirectory = tempDir.resolve("MotorCache").toFile();
+		writeMotorFiles(motorDirectory);
+		Application.getPreferences().setUserThrustCurveFiles(Collections.singletonList(motorDirectory));
+
+		List<String> parsed = getTestMotors(load(cacheDirectory));
+		assertEquals(FILE_COUNT, parsed.size());
+		for (int i = 0; i < FILE_COUNT; i++) {
+			assertTrue(parsed.contains("X" + i), "Motor X" + i + " not loaded");
+		}
+		assertTrue(new File(cacheDirectory, "usermotors.bin").isFile());
+
+		assertEquals(parsed, getTestMotors(load(cacheDirectory)));
+		assertEquals(parsed, getTestMotors(load(null)));
+	}
+}
@@ -0,0 +1,197 @@
+package info.openrocket.core.database.motor;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import info.openrocket.core.motor.Manufacturer;
+import info.openrocket.core.motor.Motor;
+import info.openrocket.core.motor.ThrustCurveMotor;
+import info.openrocket.core.util.CacheFileUtils;
+import info.openrocket.core.util.Coordinate;
+
+public class ThrustCurveMotorCacheTest {
+
+	private static final String KEY = CacheFileUtils.hash("source".getBytes());
+
+	@TempDir
+	Path tempDir;
+
+	private static ThrustCurveMotor makeMotor(String designation, Motor.Type type, double[] delays, String digest) {
+		return new ThrustCurveMotor.Builder()
+				.setManufacturer(Manufacturer.getManufacturer("Estes"))
+				.setDesignation(designation)
+				.setDescription("Desc \u00e4")
+				.setMotorType(type)
+				.setStandardDelays(delays)
+				.setDiameter(0.018)
+				.setLength(0.07)
+				.setInitialMass(0.016)
+				.setTimePoints(new double[] { 0, 0.5, 1 })
+				.setThrustPoints(new double[] { 0, 10, 0 })
+				.setCGPoints(new Coordinate[] { new Coordinate(0.035, 0, 0, 0.016),
+						new Coordinate(0.035, 0, 0, 0.012), new Coordinate(0.035, 0, 0, 0.008) })
+				.setDigest(digest)
+				.build();
+	}
+
+	private static void assertSameMotor(ThrustCurveMotor expected, ThrustCurveMotor actual) {
+		assertSame(expected.getManufacturer(), actual.getManufacturer());
+		assertEquals(expected.getCode(), actual.getCode());
+		assertEquals(expected.getCommonName(), actual.getCommonName());
+		assertEquals(expected.getDesignation(), actual.getDesignation());
+		assertEquals(expected.getDescription(), actual.getDescription());
+		assertEquals(expected.getDigest(), actual.getDigest());
+		assertEquals(expected.getCaseInfo(), actual.getCaseInfo());
+		assertEquals(expected.getPropellantInfo(), actual.getPropellantInfo());
+		assertEquals(expected.getMotorType(), actual.getMotorType());
+		assertEquals(expected.isAvailable(), actual.isAvailable());
+		assertEquals(expected.getDiameter(), actual.getDiameter(), 0);
+		assertEquals(expected.getLength(), actual.getLength(), 0);
+		assertEquals(expected.getInitialMass(), actual.getInitialMass(), 0);
+		assertArrayEquals(expected.getStandardDelays(), actual.getStandardDelays(), 0);
+		assertArrayEquals(expected.getTimePoints(), actual.getTimePoints(), 0);
+		assertArrayEquals(expected.getThrustPoints(), actual.getThrustPoints(), 0);
+		assertArrayEquals(expected.getCGPoints(), actual.getCGPoints());
+		assertEquals(expected.getTotalImpulseEstimate(), actual.getTotalImpulseEstimate(), 0);
+		assertEquals(expected.getBurnTimeEstimate(), actual.getBurnTimeEstimate(), 0);
+		assertEquals(expected.getAverageThrustEstimate(), actual.getAverageThrustEstimate(), 0);
+	}
+
+	private static void assertSameSets(List<ThrustCurveMotorSet> expected, List<ThrustCurveMotorSet> actual) {
+		assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++) {
+			ThrustCurveMotorSet e = expected.get(i);
+			ThrustCurveMotorSet a = actual.get(i);
+			assertSame(e.getManufacturer(), a.getManufacturer());
+			assertEquals(e.getCommonName(), a.getCommonName());
+			assertEquals(e.getDesignation(), a.getDesignation());
+			assertEquals(e.getDiameter(), a.getDiameter(), 0);
+			assertEquals(e.getLength(), a.getLength(), 0);
+			assertEquals(e.getTotalImpulse(), a.getTotalImpulse());
+			assertEquals(e.getType(), a.getType());
+			assertEquals(e.getCaseInfo(), a.getCaseInfo());
+			assertEquals(e.isAvailable(), a.isAvailable());
+			assertEquals(e.getDelays(), a.getDelays());
+			assertEquals(e.getMotorCount(), a.getMotorCount());
+			assertEquals(0, e.compareTo(a));
+
+			List<ThrustCurveMotor> em = e.getMotors();
+			List<ThrustCurveMotor> am = a.getMotors();
+			assertEquals(em.size(), am.size());
+			for (int j = 0; j < em.size(); j++) {
+				assertSameMotor(em.get(j), am.get(j));
+			}
+		}
+	}
+
+	@Test
+	public void testMotorSets() throws Exception {
+		ThrustCurveMotorSetDatabase database = new ThrustCurveMotorSetDatabase();
+		database.addMotor(makeMotor("C6", Motor.Type.SINGLE, new double[] { 3, 5 }, "digestA"));
+		database.addMotor(makeMotor("C6", Motor.Type.UNKNOWN, new double[] { 7 }, "digestB"));
+		database.addMotor(makeMotor("H10", Motor.Type.HYBRID, new double[] {}, "digestC"));
+
+		File file = tempDir.resolve("motors.bin").toFile();
+		ThrustCurveMotorCache.writeMotorSets(file, KEY, database.getMotorSets());
+
+		List<ThrustCurveMotorSet> sets = ThrustCurveMotorCache.readMotorSets(file, KEY);
+		assertNotNull(sets);
+		assertEquals(2, sets.size());
+		for (ThrustCurveMotorSet set : sets) {
+			assertFalse(set.isLoaded());
+		}
+		assertEquals(2, sets.get(0).getMotorCount());
+		assertEquals(Arrays.asList(3.0, 5.0, 7.0), sets.get(0).getDelays());
+		assertFalse(sets.get(0).isLoaded());
+
+		assertSameSets(database.getMotorSets(), sets);
+		for (ThrustCurveMotorSet set : sets) {
+			assertTrue(set.isLoaded());
+		}
+
+		// Adding a motor to a set read from the cache
+		ThrustCurveMotorSet set = ThrustCurveMotorCache.readMotorSets(file, KEY).get(0);
+		ThrustCurveMotor motor = makeMotor("C6", Motor.Type.SINGLE, new double[] { 4 }, "digestD");
+		assertTrue(set.matches(motor));
+		set.addMotor(motor);
+		assertEquals(3, set.getMotorCount());
+		assertEquals(Arrays.asList(3.0, 4.0, 5.0, 7.0), set.getDelays());
+	}
+
+	@Test
+	public void testStaleCache() throws Exception {
+		File file = tempDir.resolve("motors.bin").toFile();
+		assertNull(ThrustCurveMotorCache.readMotorSets(file, KEY));
+
+		ThrustCurveMotorSetDatabase database = new ThrustCurveMotorSetDatabase();
+		database.addMotor(makeMotor("C6", Motor.Type.SINGLE, new double[] { 3 }, "digestA"));
+		ThrustCurveMotorCache.writeMotorSets(file, KEY, database.getMotorSets());
+		assertNull(ThrustCurveMotorCache.readMotorSets(file, CacheFileUtils.hash("other".getBytes())));
+		assertTrue(ThrustCurveMotorCache.readMotorFiles(file).isEmpty());
+
+		Files.write(file.toPath(), "garbage".getBytes());
+		assertNull(ThrustCurveMotorCache.readMotorSets(file, KEY));
+	}
+
+	@Test
+	public void testMotorFiles() throws Exception {
+		Map<String, List<ThrustCurveMotor>> motors = new LinkedHashMap<>();
+		motors.put(CacheFileUtils.hash("file1".getBytes()),
+				Arrays.asList(makeMotor("C6", Motor.Type.SINGLE, new double[] { 3 }, "digestA"),
+						makeMotor("D12", Motor.Type.RELOAD, new double[] { 5 }, "digestB")));
+		motors.put(CacheFileUtils.hash("file2".getBytes()), Collections.emptyList());
+
+		File file = tempDir.resolve("files.bin").toFile();
+		assertTrue(ThrustCurveMotorCache.readMotorFiles(file).isEmpty());
+		ThrustCurveMotorCache.writeMotorFiles(file, motors);
+
+		Map<String, List<ThrustCurveMotor>> read = ThrustCurveMotorCache.readMotorFiles(file);
+		assertEquals(motors.keySet(), read.keySet());
+		for (String hash : motors.keySet()) {
+			assertEquals(motors.get(hash).size(), read.get(hash).size());
+			for (int i = 0; i < motors.get(hash).size(); i++) {
+				assertSameMotor(motors.get(hash).get(i), read.get(hash).get(i));
+			}
+		}
+	}
+
+	/**
+	 * Tests that the built-in motor database is read back from the cache unchanged.
+	 */
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testBuiltInDatabase() throws Exception {
+		List<ThrustCurveMotor> motors;
+		try (InputStream is = ThrustCurveMotorCacheTest.class.getResourceAsStream("/datafiles/thrustcurves/thrustcurves.ser");
+			 ObjectInputStream ois = new ObjectInputStream(is)) {
+			motors = (List<ThrustCurveMotor>) ois.readObject();
+		}
+		ThrustCurveMotorSetDatabase database = new ThrustCurveMotorSetDatabase();
+		for (ThrustCurveMotor motor : motors) {
+			database.addMotor(motor);
+		}
+
+		File file = tempDir.resolve("thrustcurves.bin").toFile();
+		ThrustCurveMotorCache.writeMotorSets(file, KEY, database.getMotorSets());
+		assertSameSets(database.getMotorSets(), ThrustCurveMotorCache.readMotorSets(file, KEY));
+	}
+}
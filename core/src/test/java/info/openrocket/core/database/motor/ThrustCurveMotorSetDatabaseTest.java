@@ -0,0 +1,164 @@
+package info.openrocket.core.database.motor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import info.openrocket.core.motor.Motor;
+import info.openrocket.core.motor.ThrustCurveMotor;
+
+public class ThrustCurveMotorSetDatabaseTest {
+
+	private static ThrustCurveMotorSetDatabase database;
+
+	@TempDir
+	Path tempDir;
+
+	@BeforeAll
+	@SuppressWarnings("unchecked")
+	public static void setUp() throws Exception {
+		List<ThrustCurveMotor> motors;
+		try (InputStream is = ThrustCurveMotorSetDatabaseTest.class.getResourceAsStream("/datafiles/thrustcurves/thrustcurves.ser");
+			 ObjectInputStream ois = new ObjectInputStream(is)) {
+			motors = (List<ThrustCurveMotor>) ois.readObject();
+		}
+		database = new ThrustCurveMotorSetDatabase();
+		for (ThrustCurveMotor motor : motors) {
+			database.addMotor(motor);
+		}
+	}
+
+	/**
+	 * The search of findMotors by going through all the motors of the database.
+	 */
+	private static List<ThrustCurveMotor> findMotorsLinear(String digest, Motor.Type type, String manufacturer,
+			String designation, double diameter, double length) {
+		List<ThrustCurveMotor> fullMatches = new ArrayList<>();
+		List<ThrustCurveMotor> digestMatches = new ArrayList<>();
+		List<ThrustCurveMotor> descriptionMatches = new ArrayList<>();
+		for (ThrustCurveMotorSet set : database.getMotorSets()) {
+			for (ThrustCurveMotor m : set.getMotors()) {
+				boolean matchDigest = digest != null && digest.equals(m.getDigest());
+				boolean matchDescription = (type == null || type == set.getType()) &&
+						(manufacturer == null || m.getManufacturer().matches(manufacturer)) &&
+						(designation == null ||
+								m.getDesignation().toUpperCase().contains(designation.toUpperCase()) ||
+								designation.toUpperCase().contains(m.getCommonName().toUpperCase())) &&
+						(Double.isNaN(diameter) || Math.abs(diameter - m.getDiameter()) <= 0.005) &&
+						(Double.isNaN(length) || Math.abs(length - m.getLength()) <= 0.005);
+				if (matchDigest)
+					digestMatches.add(m);
+				if (matchDescription)
+					descriptionMatches.add(m);
+				if (matchDigest && matchDescription)
+					fullMatches.add(m);
+			}
+		}
+		if (!fullMatches.isEmpty())
+			return fullMatches;
+		if (!digestMatches.isEmpty())
+			return digestMatches;
+		return descriptionMatches;
+	}
+
+	private static void assertFindMotors(String digest, Motor.Type type, String manufacturer, String designation,
+			double diameter, double length) {
+		assertEquals(findMotorsLinear(digest, type, manufacturer, designation, diameter, length),
+				database.findMotors(digest, type, manufacturer, designation, diameter, length));
+	}
+
+	/**
+	 * Tests that the indexed search finds the same motors in the same order as going through
+	 * all the motors.
+	 */
+	@Test
+	public void testFindMotors() {
+		List<ThrustCurveMotorSet> sets = database.getMotorSets();
+		for (int i = 0; i < sets.size(); i += 7) {
+			ThrustCurveMotor m = sets.get(i).getMotors().get(0);
+			String manufacturer = m.getManufacturer().getSimpleName();
+
+			// As stored in a document
+			assertFindMotors(m.getDigest(), m.getMotorType(), manufacturer, m.getDesignation(),
+					m.getDiameter(), m.getLength());
+			// Older documents without digest
+			assertFindMotors(null, m.getMotorType(), manufacturer, m.getDesignation(), m.getDiameter(), m.getLength());
+			// Changed thrust curve
+			assertFindMotors("no such digest", null, manufacturer, m.getDesignation(), Double.NaN, Double.NaN);
+			// Partial information
+			assertFindMotors(null, null, null, m.getCommonName(), m.getDiameter(), Double.NaN);
+			assertFindMotors(null, null, null, m.getDesignation(), Double.NaN, Double.NaN);
+			assertFindMotors(m.getDigest(), null, null, null, Double.NaN, Double.NaN);
+		}
+		assertFindMotors(null, null, "Estes", "C6", Double.NaN, Double.NaN);
+		assertFindMotors(null, null, "Estes", "C6", 0.018, Double.NaN);
+		assertFindMotors(null, null, null, null, 0.029, Double.NaN);
+		assertTrue(database.findMotors(null, null, "No such manufacturer", "C6", Double.NaN, Double.NaN).isEmpty());
+	}
+
+	/**
+	 * Tests finding motor sets by diameter and total impulse.
+	 */
+	@Test
+	public void testFindMotorSets() {
+		List<ThrustCurveMotorSet> expected = new ArrayList<>();
+		for (ThrustCurveMotorSet set : database.getMotorSets()) {
+			if (set.getDiameter() >= 0.024 && set.getDiameter() <= 0.029 &&
+					set.getTotalImpulse() >= 40 && set.getTotalImpulse() <= 80) {
+				expected.add(set);
+			}
+		}
+		List<ThrustCurveMotorSet> found = database.findMotorSets(0.024, 0.029, 40, 80);
+		assertFalse(found.isEmpty());
+		assertEquals(expected.size(), found.size());
+		assertTrue(found.containsAll(expected));
+		for (int i = 1; i < found.size(); i++) {
+			ThrustCurveMotorSet a = found.get(i - 1);
+			ThrustCurveMotorSet b = found.get(i);
+			assertTrue(a.getDiameter() < b.getDiameter() ||
+					(a.getDiameter() == b.getDiameter() && a.getTotalImpulse() <= b.getTotalImpulse()));
+		}
+
+		assertTrue(database.findMotorSets(0.029, 0.024, 0, Long.MAX_VALUE).isEmpty());
+	}
+
+	/**
+	 * Tests that finding a motor of a database read from the motor cache decodes only the
+	 * motor sets that may match.
+	 */
+	@Test
+	public void testFindMotorsFromCache() throws Exception {
+		File file = tempDir.resolve("thrustcurves.bin").toFile();
+		ThrustCurveMotorCache.writeMotorSets(file, "key", database.getMotorSets());
+
+		ThrustCurveMotorSetDatabase cached = new ThrustCurveMotorSetDatabase();
+		for (ThrustCurveMotorSet set : ThrustCurveMotorCache.readMotorSets(file, "key")) {
+			cached.addMotorSet(set);
+		}
+
+		ThrustCurveMotor m = database.getMotorSets().get(100).getMotors().get(0);
+		List<ThrustCurveMotor> found = cached.findMotors(m.getDigest(), m.getMotorType(),
+				m.getManufacturer().getSimpleName(), m.getDesignation(), m.getDiameter(), m.getLength());
+		assertEquals(1, found.size());
+		assertEquals(m.getDigest(), found.get(0).getDigest());
+
+		int loaded = 0;
+		for (ThrustCurveMotorSet set : cached.getMotorSets()) {
+			if (set.isLoaded()) {
+				loaded++;
+			}
+		}
+		assertTrue(loaded >= 1 && loaded < 10, "Decoded " + loaded + " motor sets");
+	}
+}
@@ -0,0 +1,138 @@
+package info.openrocket.core.document;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import info.openrocket.core.rocketcomponent.BodyTube;
+import info.openrocket.core.rocketcomponent.Rocket;
+import info.openrocket.core.simulation.FlightData;
+import info.openrocket.core.simulation.FlightDataType;
+import info.openrocket.core.simulation.exception.SimulationException;
+import info.openrocket.core.simulation.listeners.AbstractSimulationListener;
+import info.openrocket.core.util.BaseTestCase;
+import info.openrocket.core.util.TestRockets;
+
+public class SimulationResultCacheTest extends BaseTestCase {
+
+	private static Simulation makeSimulation(Rocket rocket) {
+		Simulation sim = new Simulation(rocket);
+		sim.getOptions().setISAAtmosphere(true);
+		sim.getOptions().setTimeStep(0.05);
+		sim.getOptions().setRandomSeed(1234);
+		sim.setFlightConfigurationId(TestRockets.TEST_FCID_0);
+		return sim;
+	}
+
+	/**
+	 * Tests that the key only changes when the design or the options change.
+	 */
+	@Test
+	public void testKey() {
+		final Rocket rocket = TestRockets.makeEstesAlphaIII();
+		final BodyTube body = (BodyTube) rocket.getStage(0).getChild(1);
+		final Simulation sim = makeSimulation(rocket);
+
+		final String key = SimulationResultCache.getKey(sim);
+		assertEquals(key, SimulationResultCache.getKey(sim));
+
+		// Equal design and options
+		final Simulation copy = new Simulation(null, rocket.copyWithOriginalID(), Simulation.Status.NOT_SIMULATED, "copy",
+				sim.getOptions().clone(), List.of(), null);
+		copy.setFlightConfigurationId(TestRockets.TEST_FCID_0);
+		assertEquals(key, SimulationResultCache.getKey(copy));
+
+		// Different wind turbulence seed
+		assertNotEquals(key, SimulationResultCache.getKey(makeSimulation(rocket)));
+		assertNotEquals(key, SimulationResultCache.getKey(sim, new AbstractSimulationListener()));
+
+		// Design change
+		final double length = body.getLength();
+		body.setLength(length + 0.01);
+		assertNotEquals(key, SimulationResultCache.getKey(sim));
+		body.setLength(length);
+		assertEquals(key, SimulationResultCache.getKey(sim));
+
+		// Option changes
+		sim.getOptions().setLaunchRodLength(sim.getOptions().getLaunchRodLength() + 0.5);
+		assertNotEquals(key, SimulationResultCache.getKey(sim));
+		sim.getOptions().setLaunchRodLength(sim.getOptions().getLaunchRodLength() - 0.5);
+		assertEquals(key, SimulationResultCache.getKey(sim));
+
+		sim.getOptions().setRandomSeed(4321);
+		assertNotEquals(key, SimulationResultCache.getKey(sim));
+	}
+
+	/**
+	 * Tests that a simulation of a previously simulated design uses the cached result.
+	 */
+	@Test
+	public void testSimulate() throws SimulationException {
+		final Rocket rocket = TestRockets.makeEstesAlphaIII();
+		final BodyTube body = (BodyTube) rocket.getStage(0).getChild(1);
+		final Simulation sim = makeSimulation(rocket);
+		final SimulationResultCache cache = new SimulationResultCache(SimulationResultCache.DEFAULT_MAXIMUM_SIZE);
+
+		sim.simulate(cache);
+		assertEquals(1, cache.getEntryCount());
+		final FlightData original = sim.getSimulatedData();
+		assertEquals(Simulation.Status.UPTODATE, sim.getStatus());
+
+		// Change the design and revert it
+		final double length = body.getLength();
+		body.setLength(length + 0.01);
+		sim.simulate(cache);
+		assertEquals(2, cache.getEntryCount());
+		assertNotEquals(original.getMaxAltitude(), sim.getSimulatedData().getMaxAltitude());
+
+		body.setLength(length);
+		assertEquals(Simulation.Status.OUTDATED, sim.getStatus());
+		sim.simulate(cache);
+		assertEquals(2, cache.getEntryCount());
+		assertEquals(Simulation.Status.UPTODATE, sim.getStatus());
+
+		final FlightData cached = sim.getSimulatedData();
+		assertNotSame(original, cached);
+		assertEquals(original.getMaxAltitude(), cached.getMaxAltitude());
+		assertEquals(original.getTimeToApogee(), cached.getTimeToApogee());
+		assertEquals(original.getBranch(0).get(FlightDataType.TYPE_ALTITUDE),
+				cached.getBranch(0).get(FlightDataType.TYPE_ALTITUDE));
+	}
+
+	/**
+	 * Tests that the least recently used results are evicted when the cache is full.
+	 */
+	@Test
+	public void testEviction() throws SimulationException {
+		final Simulation sim = makeSimulation(TestRockets.makeEstesAlphaIII());
+		sim.simulate();
+		final FlightData data = sim.getSimulatedData();
+		final long size = SimulationResultCache.estimateSize(data);
+
+		final SimulationResultCache cache = new SimulationResultCache(2 * size);
+		cache.put("a", data);
+		cache.put("b", data);
+		assertEquals(2 * size, cache.getSize());
+		assertNotNull(cache.get("a"));
+
+		cache.put("c", data);
+		assertEquals(2, cache.getEntryCount());
+		assertNotNull(cache.get("a"));
+		assertNull(cache.get("b"));
+		assertNotNull(cache.get("c"));
+
+		final SimulationResultCache small = new SimulationResultCache(size - 1);
+		small.put("a", data);
+		assertEquals(0, small.getEntryCount());
+
+		cache.clear();
+		assertEquals(0, cache.getEntryCount());
+		assertEquals(0, cache.getSize());
+	}
+}
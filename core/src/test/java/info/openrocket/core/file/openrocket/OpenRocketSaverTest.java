@@ -1,7 +1,9 @@
 package info.openrocket.core.file.openrocket;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.fail;
@@ -13,7 +15,11 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.zip.ZipFile;
 
 import info.openrocket.core.ServicesForTesting;
 import info.openrocket.core.database.ComponentPresetDao;
@@ -25,6 +31,7 @@ import info.openrocket.core.document.OpenRocketDocumentFactory;
 import info.openrocket.core.document.Simulation;
 import info.openrocket.core.document.StorageOptions;
 import info.openrocket.core.file.GeneralRocketLoader;
+import info.openrocket.core.file.GeneralRocketSaver;
 import info.openrocket.core.file.RocketLoadException;
 import info.openrocket.core.file.motor.GeneralMotorLoader;
 import info.openrocket.core.l10n.DebugTranslator;
@@ -38,6 +45,10 @@ import info.openrocket.core.plugin.PluginModule;
 import info.openrocket.core.rocketcomponent.BodyTube;
 import info.openrocket.core.rocketcomponent.FlightConfiguration;
 import info.openrocket.core.rocketcomponent.Rocket;
+import info.openrocket.core.simulation.FlightData;
+import info.openrocket.core.simulation.FlightDataBranch;
+import info.openrocket.core.simulation.FlightDataType;
+import info.openrocket.core.simulation.exception.FlightDataUnavailableException;
 import info.openrocket.core.simulation.extension.impl.ScriptingExtension;
 import info.openrocket.core.simulation.extension.impl.ScriptingUtil;
 import info.openrocket.core.startup.Application;
@@ -327,6 +338,108 @@ public class OpenRocketSaverTest {
 		assertEquals(Simulation.Status.OUTDATED, rocketDocLoaded.getSimulations().get(3).getStatus());
 	}
 	
+	/**
+	 * Test saving and loading flight data stored in binary form.
+	 */
+	@Test
+	public void testBinaryFlightData() throws Exception {
+		OpenRocketDocument rocketDoc = makeSimulatedDocument();
+
+		StorageOptions options = new StorageOptions();
+		options.setSaveSimulationData(true);
+		options.setFlightDataFormat(StorageOptions.FlightDataFormat.BINARY);
+
+		File file = File.createTempFile(TMP_DIR.getName(), ".ork");
+		file.deleteOnExit();
+		new GeneralRocketSaver().save(file, rocketDoc, options);
+
+		// The XML document only contains the events, the data is in its own entry
+		try (ZipFile zip = new ZipFile(file)) {
+			assertNotNull(zip.getEntry(BinaryFlightData.ENTRY_NAME));
+			String xml = new String(zip.getInputStream(zip.getEntry("rocket.ork")).readAllBytes(), StandardCharsets.UTF_8);
+			assertTrue(xml.contains("<openrocket version=\"1.11\""));
+			assertTrue(xml.contains("binarydata=\"1\""));
+			assertFalse(xml.contains("<datapoint>"));
+		}
+
+		OpenRocketDocument rocketDocLoaded = loadRocket(file.getPath());
+		assertEquals(StorageOptions.FlightDataFormat.BINARY,
+				rocketDocLoaded.getDefaultStorageOptions().getFlightDataFormat());
+		assertSameFlightData(rocketDoc, rocketDocLoaded, 0);
+
+		// Data that has not been accessed is loaded before the file is replaced
+		rocketDocLoaded = loadRocket(file.getPath());
+		FlightDataBranch branchLoaded = rocketDocLoaded.getSimulations().get(1).getSimulatedData().getBranch(0);
+		options.setSaveSimulationData(false);
+		new GeneralRocketSaver().save(file, rocketDocLoaded, options);
+		FlightDataBranch branch = rocketDoc.getSimulations().get(1).getSimulatedData().getBranch(0);
+		assertArrayEquals(branch.getArray(FlightDataType.TYPE_MASS), branchLoaded.getArray(FlightDataType.TYPE_MASS), 0);
+
+		// Data is not read from a file changed since it was opened, which may belong to another document
+		options.setSaveSimulationData(true);
+		new GeneralRocketSaver().save(file, rocketDoc, options);
+		rocketDocLoaded = loadRocket(file.getPath());
+		FlightDataBranch branchChanged = rocketDocLoaded.getSimulations().get(0).getSimulatedData().getBranch(0);
+		Files.write(file.toPath(), new byte[1], StandardOpenOption.APPEND);
+		assertThrows(FlightDataUnavailableException.class, () -> branchChanged.getArray(FlightDataType.TYPE_ALTITUDE));
+	}
+	
+	/**
+	 * Test that data points stored as XML are read when the data is accessed.
+	 */
+	@Test
+	public void testDeferredDataPoints() throws Exception {
+		OpenRocketDocument rocketDoc = makeSimulatedDocument();
+		StorageOptions options = new StorageOptions();
+		options.setSaveSimulationData(true);
+
+		// Values stored as XML are rounded to a fixed number of decimals
+		double tolerance = 1e-3;
+
+		// Data branch found at the position recorded while loading
+		File file = File.createTempFile(TMP_DIR.getName(), ".ork");
+		file.deleteOnExit();
+		new GeneralRocketSaver().save(file, rocketDoc, options);
+		assertSameFlightData(rocketDoc, loadRocket(file.getPath()), tolerance);
+
+		// Start tag spanning several lines, and all start tags on a single line
+		File xmlFile = saveRocket(rocketDoc, options);
+		xmlFile.deleteOnExit();
+		String xml = Files.readString(xmlFile.toPath(), StandardCharsets.UTF_8);
+		Files.writeString(xmlFile.toPath(), xml.replace("<databranch name=", "<databranch\n name="), StandardCharsets.UTF_8);
+		assertSameFlightData(rocketDoc, loadRocket(xmlFile.getPath()), tolerance);
+		Files.writeString(xmlFile.toPath(), xml.replace('\n', ' '), StandardCharsets.UTF_8);
+		assertSameFlightData(rocketDoc, loadRocket(xmlFile.getPath()), tolerance);
+
+		// An invalid data point is read as a point of NaN values, keeping the following points at their index
+		Files.writeString(xmlFile.toPath(), xml.replaceFirst("<datapoint>", "<datapoint>invalid</datapoint><datapoint>"),
+				StandardCharsets.UTF_8);
+		FlightDataBranch branch = rocketDoc.getSimulations().get(0).getSimulatedData().getBranch(0);
+		FlightDataBranch branchLoaded = loadRocket(xmlFile.getPath()).getSimulations().get(0).getSimulatedData().getBranch(0);
+		assertEquals(branch.getLength() + 1, branchLoaded.getLength());
+		double[] time = branch.getArray(FlightDataType.TYPE_TIME);
+		double[] timeLoaded = branchLoaded.getArray(FlightDataType.TYPE_TIME);
+		assertTrue(Double.isNaN(timeLoaded[0]));
+		for (int i = 0; i < time.length; i++) {
+			assertEquals(time[i], timeLoaded[i + 1], tolerance);
+		}
+
+		// The summary and events are available without reading the data points
+		OpenRocketDocument rocketDocLoaded = loadRocket(file.getPath());
+		FlightData data = rocketDoc.getSimulations().get(0).getSimulatedData();
+		FlightData dataLoaded = rocketDocLoaded.getSimulations().get(0).getSimulatedData();
+		assertEquals(data.getMaxAltitude(), dataLoaded.getMaxAltitude(), 1e-3);
+		assertEquals(data.getBranch(0).getLength(), dataLoaded.getBranch(0).getLength());
+		assertEquals(data.getBranch(0).getEvents().size(), dataLoaded.getBranch(0).getEvents().size());
+		assertFalse(dataLoaded.getBranch(0).isLoaded());
+
+		// The data points are read from the copy made while loading, not from the file, which
+		// may have been removed or replaced since
+		assertTrue(file.delete());
+		Files.writeString(file.toPath(), xml.replaceFirst("<datapoint>", "<datapoint>0,"), StandardCharsets.UTF_8);
+		assertSameFlightData(rocketDoc, rocketDocLoaded, tolerance);
+	}
+	
 	////////////////////////////////
 	// Tests for File Version 1.10 //
 	////////////////////////////////
@@ -348,6 +461,46 @@ public class OpenRocketSaverTest {
 		return fileVersion;
 	}
 	
+	private static OpenRocketDocument makeSimulatedDocument() throws Exception {
+		Rocket rocket = TestRockets.makeEstesAlphaIII();
+		OpenRocketDocument rocketDoc = OpenRocketDocumentFactory.createDocumentFromRocket(rocket);
+		for (int i = 0; i < 2; i++) {
+			Simulation sim = new Simulation(rocket);
+			sim.getOptions().setISAAtmosphere(true);
+			sim.getOptions().setTimeStep(0.05 * (i + 1));
+			sim.setFlightConfigurationId(TestRockets.TEST_FCID_0);
+			sim.simulate();
+			rocketDoc.addSimulation(sim);
+		}
+		return rocketDoc;
+	}
+	
+	private static void assertSameFlightData(OpenRocketDocument rocketDoc, OpenRocketDocument rocketDocLoaded,
+			double tolerance) {
+		assertEquals(rocketDoc.getSimulations().size(), rocketDocLoaded.getSimulations().size());
+		for (int i = 0; i < rocketDoc.getSimulations().size(); i++) {
+			FlightData data = rocketDoc.getSimulations().get(i).getSimulatedData();
+			FlightData dataLoaded = rocketDocLoaded.getSimulations().get(i).getSimulatedData();
+			assertEquals(Simulation.Status.LOADED, rocketDocLoaded.getSimulations().get(i).getStatus());
+			assertEquals(data.getBranchCount(), dataLoaded.getBranchCount());
+			assertEquals(data.getMaxAltitude(), dataLoaded.getMaxAltitude(), 1e-3);
+			for (int b = 0; b < data.getBranchCount(); b++) {
+				FlightDataBranch branch = data.getBranch(b);
+				FlightDataBranch branchLoaded = dataLoaded.getBranch(b);
+				assertEquals(branch.getLength(), branchLoaded.getLength());
+				for (FlightDataType type : branch.getTypes()) {
+					double[] expected = branch.getArray(type);
+					double[] actual = branchLoaded.getArray(type);
+					for (int p = 0; p < expected.length; p++) {
+						double delta = Double.isFinite(expected[p]) ? Math.max(1, Math.abs(expected[p])) * tolerance : 0;
+						assertEquals(expected[p], actual[p], delta,
+								type.getName() + " at index " + p);
+					}
+				}
+			}
+		}
+	}
+	
 	private OpenRocketDocument loadRocket(String fileName) {
 		GeneralRocketLoader loader = new GeneralRocketLoader(new File(fileName));
 		OpenRocketDocument rocketDoc = null;
@@ -5,12 +5,22 @@ import com.google.inject.Guice;
 import com.google.inject.Injector;
 import com.google.inject.Module;
 import com.google.inject.util.Modules;
+import de.javagl.obj.FloatTuple;
+import de.javagl.obj.Obj;
+import de.javagl.obj.ObjFace;
+import de.javagl.obj.ObjReader;
 import info.openrocket.core.ServicesForTesting;
 import info.openrocket.core.database.ComponentPresetDao;
 import info.openrocket.core.database.motor.MotorDatabase;
 import info.openrocket.core.document.OpenRocketDocumentFactory;
 import info.openrocket.core.file.openrocket.OpenRocketSaverTest;
+import info.openrocket.core.file.wavefrontobj.CoordTransform;
+import info.openrocket.core.file.wavefrontobj.DefaultObj;
 import info.openrocket.core.file.wavefrontobj.ObjUtils;
+import info.openrocket.core.file.wavefrontobj.export.components.BodyTubeExporter;
+import info.openrocket.core.file.wavefrontobj.export.components.FinSetExporter;
+import info.openrocket.core.file.wavefrontobj.export.components.LaunchLugExporter;
+import info.openrocket.core.file.wavefrontobj.export.components.TransitionExporter;
 import info.openrocket.core.l10n.DebugTranslator;
 import info.openrocket.core.l10n.Translator;
 import info.openrocket.core.logging.WarningSet;
@@ -18,6 +28,7 @@ import info.openrocket.core.plugin.PluginModule;
 import info.openrocket.core.rocketcomponent.AxialStage;
 import info.openrocket.core.rocketcomponent.BodyTube;
 import info.openrocket.core.rocketcomponent.CenteringRing;
+import info.openrocket.core.rocketcomponent.FlightConfiguration;
 import info.openrocket.core.rocketcomponent.InnerTube;
 import info.openrocket.core.rocketcomponent.LaunchLug;
 import info.openrocket.core.rocketcomponent.NoseCone;
@@ -34,12 +45,14 @@ import org.junit.jupiter.api.Test;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class OBJExporterFactoryTest {
     private static final File TMP_DIR = new File("./tmp/");
@@ -205,4 +218,148 @@ public class OBJExporterFactoryTest {
         // Clean up
         Files.delete(tempFile);
     }
+
+    @Test
+    public void testStreamingExport() throws IOException {
+        Rocket rocket = OpenRocketDocumentFactory.createNewRocket().getRocket();
+        AxialStage sustainer = rocket.getStage(0);
+
+        NoseCone noseCone = new NoseCone();
+        noseCone.setBaseRadius(0.05);
+        noseCone.setLength(0.1);
+        sustainer.addChild(noseCone);
+
+        BodyTube bodyTube = new BodyTube();
+        bodyTube.setOuterRadius(0.05);
+        bodyTube.setThickness(0.005);
+        bodyTube.setLength(0.3);
+        sustainer.addChild(bodyTube);
+
+        TrapezoidFinSet finSet = new TrapezoidFinSet();
+        finSet.setRootChord(0.05);
+        finSet.setThickness(0.005);
+        bodyTube.addChild(finSet);
+
+        LaunchLug launchLug = new LaunchLug();
+        launchLug.setInstanceCount(3);
+        bodyTube.addChild(launchLug);
+
+        List<RocketComponent> components = List.of(rocket);
+        Path tempDir = Files.createTempDirectory("testStreamingExport");
+        File file = tempDir.resolve("rocket.obj").toFile();
+
+        OBJExportOptions options = new OBJExportOptions(rocket);
+        options.setExportChildren(true);
+        options.setTriangulate(true);
+        options.setTriangulationMethod(ObjUtils.TriangulationMethod.SIMPLE);
+        options.setExportAppearance(true);
+        options.setRemoveOffset(false);
+        WarningSet warnings = new WarningSet();
+        new OBJExporterFactory(components, rocket.getSelectedConfiguration(), file, options, warnings).doExport();
+
+        // The components are written one after the other, with their indices offset by the preceding components
+        Obj obj = readObj(file.toPath());
+        assertValidIndices(obj);
+        assertTrue(obj.getNumFaces() > 0);
+        assertTrue(Files.size(tempDir.resolve("rocket.mtl")) > 0);
+
+        // The components exported separately contain the same geometry
+        options.setExportAsSeparateFiles(true);
+        new OBJExporterFactory(components, rocket.getSelectedConfiguration(), file, options, warnings).doExport();
+        int numVertices = 0;
+        int numFaces = 0;
+        List<Path> componentFiles;
+        try (var files = Files.list(tempDir)) {
+            componentFiles = files.filter(path -> path.getFileName().toString().matches("rocket_.+\\.obj")).toList();
+        }
+        assertEquals(4, componentFiles.size());
+        for (Path componentFile : componentFiles) {
+            Obj componentObj = readObj(componentFile);
+            assertValidIndices(componentObj);
+            numVertices += componentObj.getNumVertices();
+            numFaces += componentObj.getNumFaces();
+        }
+        assertEquals(obj.getNumVertices(), numVertices);
+        assertEquals(obj.getNumFaces(), numFaces);
+
+        // The streamed vertices are the same as those of the whole rocket exported into a single obj
+        options.setExportAsSeparateFiles(false);
+        options.setTriangulate(false);
+        options.setExportAppearance(false);
+        for (boolean removeOffset : new boolean[] { false, true }) {
+            for (float scaling : new float[] { 1, 30 }) {
+                options.setRemoveOffset(removeOffset);
+                options.setScaling(scaling);
+                new OBJExporterFactory(components, rocket.getSelectedConfiguration(), file, options, warnings).doExport();
+                Obj streamed = readObj(file.toPath());
+
+                DefaultObj reference = exportReference(rocket, noseCone, bodyTube, finSet, launchLug, options);
+                assertEquals(reference.getNumVertices(), streamed.getNumVertices());
+                assertEquals(reference.getNumFaces(), streamed.getNumFaces());
+                for (int i = 0; i < reference.getNumVertices(); i++) {
+                    FloatTuple expected = reference.getVertex(i);
+                    FloatTuple actual = streamed.getVertex(i);
+                    assertEquals(expected.getX(), actual.getX(), 0);
+                    assertEquals(expected.getY(), actual.getY(), 0);
+                    assertEquals(expected.getZ(), actual.getZ(), 0);
+                }
+            }
+        }
+        assertEquals(0, warnings.size());
+
+        // Clean up
+        try (var files = Files.list(tempDir)) {
+            for (Path path : files.toList()) {
+                Files.delete(path);
+            }
+        }
+        Files.delete(tempDir);
+    }
+
+    /**
+     * Exports the components into a single obj, removing the offset and scaling the whole obj afterwards.
+     */
+    private static DefaultObj exportReference(Rocket rocket, NoseCone noseCone, BodyTube bodyTube,
+                                              TrapezoidFinSet finSet, LaunchLug launchLug, OBJExportOptions options) {
+        FlightConfiguration config = rocket.getSelectedConfiguration();
+        CoordTransform transformer = options.getTransformer();
+        ObjUtils.LevelOfDetail LOD = options.getLOD();
+        WarningSet warnings = new WarningSet();
+
+        DefaultObj obj = new DefaultObj();
+        new TransitionExporter(obj, config, transformer, noseCone, "1", LOD, warnings).addToObj();
+        new BodyTubeExporter(obj, config, transformer, bodyTube, "2", LOD, warnings).addToObj();
+        new FinSetExporter(obj, config, transformer, finSet, "3", LOD, warnings).addToObj();
+        new LaunchLugExporter(obj, config, transformer, launchLug, "4", LOD, warnings).addToObj();
+
+        if (options.isRemoveOffset()) {
+            obj.recalculateAllVertexBounds();
+            ObjUtils.removeVertexOffset(obj, transformer);
+        }
+        if (Float.compare(options.getScaling(), 1) != 0) {
+            ObjUtils.scaleVertices(obj, options.getScaling());
+        }
+        return obj;
+    }
+
+    private static Obj readObj(Path path) throws IOException {
+        try (InputStream in = Files.newInputStream(path)) {
+            return ObjReader.read(in);
+        }
+    }
+
+    private static void assertValidIndices(Obj obj) {
+        for (int i = 0; i < obj.getNumFaces(); i++) {
+            ObjFace face = obj.getFace(i);
+            for (int j = 0; j < face.getNumVertices(); j++) {
+                assertTrue(face.getVertexIndex(j) < obj.getNumVertices());
+                if (face.containsNormalIndices()) {
+                    assertTrue(face.getNormalIndex(j) < obj.getNumNormals());
+                }
+                if (face.containsTexCoordIndices()) {
+                    assertTrue(face.getTexCoordIndex(j) < obj.getNumTexCoords());
+                }
+            }
+        }
+    }
 }
@@ -1,10 +1,21 @@
 package info.openrocket.core.masscalc;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import org.junit.jupiter.api.Test;
 
+import info.openrocket.core.motor.Motor;
+import info.openrocket.core.rocketcomponent.AxialStage;
+import info.openrocket.core.rocketcomponent.BodyTube;
+import info.openrocket.core.rocketcomponent.FlightConfiguration;
+import info.openrocket.core.rocketcomponent.MassComponent;
 import info.openrocket.core.rocketcomponent.Rocket;
+import info.openrocket.core.rocketcomponent.RocketComponent;
+import info.openrocket.core.util.MathUtil;
+import info.openrocket.core.util.Transformation;
 import info.openrocket.core.util.TestRockets;
 import info.openrocket.core.util.BaseTestCase;
 
@@ -14,10 +25,74 @@ public class MassCacheTest extends BaseTestCase {
 	public void testCMCache() {
 		Rocket rocket = TestRockets.makeFalcon9Heavy();
 		rocket.setName("TestRocket." + Thread.currentThread().getStackTrace()[1].getMethodName());
+		FlightConfiguration config = rocket.getSelectedConfiguration();
+		StructureMassCache cache = config.getStructureMassCache();
 
-		// ant throws in error if it can't find a test case in the *Test.java file.
-		// .... soooo we have this waste of space. -DMW
-		assertTrue(true);
+		assertNull(cache.get(config));
+		RigidBody structure = MassCalculator.calculateStructure(config);
+		assertNotNull(cache.get(config));
+		assertSameMassData(structure, MassCalculator.calculateStructure(config));
+		assertSameMassData(calculateUncached(rocket, MassCalculation.Type.STRUCTURE), structure);
+		assertSameMassData(calculateUncached(rocket, MassCalculation.Type.LAUNCH), MassCalculator.calculateLaunch(config));
+
+		// Changing a component invalidates the cache
+		RocketComponent added = new MassComponent(0.05, 0.02, 0.5);
+		rocket.getChild(1).getChild(0).addChild(added);
+		assertNull(cache.get(config));
+		RigidBody changed = MassCalculator.calculateStructure(config);
+		assertEquals(structure.getMass() + 0.5, changed.getMass(), MathUtil.EPSILON);
+		assertSameMassData(calculateUncached(rocket, MassCalculation.Type.STRUCTURE), changed);
+
+		// Changing the active stages invalidates the cache
+		config._setStageActive(2, false, false);
+		assertNull(cache.get(config));
+		RigidBody withoutBoosters = MassCalculator.calculateStructure(config);
+		assertTrue(withoutBoosters.getMass() < changed.getMass());
+		assertSameMassData(calculateUncached(rocket, MassCalculation.Type.STRUCTURE), withoutBoosters);
+		assertSameMassData(calculateUncached(rocket, MassCalculation.Type.BURNOUT), MassCalculator.calculateBurnout(config));
+	}
+
+	@Test
+	public void testEventsDisabled() {
+		Rocket rocket = new Rocket();
+		AxialStage stage = new AxialStage();
+		rocket.addChild(stage);
+		BodyTube tube = new BodyTube(0.3, 0.025);
+		stage.addChild(tube);
+		FlightConfiguration config = rocket.getSelectedConfiguration();
+
+		// Without events the modification IDs are not updated, so nothing is cached
+		double before = MassCalculator.calculateStructure(config).getMass();
+		assertNull(config.getStructureMassCache().get(config));
+		tube.setLength(0.6);
+		assertEquals(2 * before, MassCalculator.calculateStructure(config).getMass(), MathUtil.EPSILON);
+	}
+
+	/**
+	 * Calculate the mass data of the selected configuration without using the cache.
+	 */
+	private static RigidBody calculateUncached(Rocket rocket, MassCalculation.Type type) {
+		FlightConfiguration config = rocket.getSelectedConfiguration();
+		MassCalculation calculation = new MassCalculation(type, config, Motor.PSEUDO_TIME_LAUNCH, null, rocket,
+				Transformation.IDENTITY, null);
+		if (type.includesStructure) {
+			MassCalculation structure = calculation.copy(rocket, Transformation.IDENTITY);
+			structure.calculateStructure();
+			calculation.merge(structure);
+		}
+		if (type.includesMotorCasing || type.includesPropellant) {
+			MassCalculation motors = calculation.copy(rocket, Transformation.IDENTITY);
+			motors.calculateMotors();
+			calculation.merge(motors);
+		}
+		return calculation.calculateMomentOfInertia();
+	}
+
+	private static void assertSameMassData(RigidBody expected, RigidBody actual) {
+		assertEquals(expected.getCM(), actual.getCM());
+		assertEquals(expected.getMass(), actual.getMass(), 0);
+		assertEquals(expected.getRotationalInertia(), actual.getRotationalInertia(), 0);
+		assertEquals(expected.getLongitudinalInertia(), actual.getLongitudinalInertia(), 0);
 	}
 	//
 	// FlightConfiguration config = rocket.getEmptyConfiguration();
@@ -0,0 +1,113 @@
+package info.openrocket.core.models.atmosphere;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import info.openrocket.core.util.ModID;
+
+class AtmosphericModelTest {
+
+	@Test
+	@DisplayName("ISA model matches the standard atmosphere")
+	void testISA() {
+		ExtendedISAModel model = new ExtendedISAModel();
+
+		AtmosphericConditions c = model.getConditions(0);
+		assertEquals(288.15, c.getTemperature(), 1e-9);
+		assertEquals(101325, c.getPressure(), 1e-6);
+
+		c = model.getConditions(11000);
+		assertEquals(216.65, c.getTemperature(), 0.01);
+		assertEquals(22632, c.getPressure(), 5);
+
+		// Below zero and above the highest layer the conditions are clamped
+		assertEquals(model.getConditions(0), model.getConditions(-100));
+		assertEquals(model.getConditions(100000), model.getConditions(200000));
+	}
+
+	@Test
+	@DisplayName("Conditions computed into a holder match the allocated conditions")
+	void testHolder() {
+		ExtendedISAModel model = new ExtendedISAModel(500, 280, 95000);
+		AtmosphericConditions holder = new AtmosphericConditions();
+
+		for (double altitude = -1000; altitude < 90000; altitude += 123.4) {
+			model.getConditions(altitude, holder);
+			AtmosphericConditions c = model.getConditions(altitude);
+			assertEquals(c.getTemperature(), holder.getTemperature(), 0);
+			assertEquals(c.getPressure(), holder.getPressure(), 0);
+		}
+
+		// The modification ID only changes when the conditions do
+		model.getConditions(20000, holder);
+		ModID modID = holder.getModID();
+		model.getConditions(20000, holder);
+		assertEquals(modID, holder.getModID());
+		model.getConditions(20100, holder);
+		assertTrue(modID != holder.getModID());
+	}
+
+	@Test
+	@DisplayName("A finer resolution is closer to the exact conditions")
+	void testResolution() {
+		ExtendedISAModel coarse = new ExtendedISAModel();
+		ExtendedISAModel fine = new ExtendedISAModel(0, ExtendedISAModel.STANDARD_TEMPERATURE,
+				ExtendedISAModel.STANDARD_PRESSURE, 10);
+		assertEquals(InterpolatingAtmosphericModel.DEFAULT_RESOLUTION, coarse.getResolution(), 0);
+		assertEquals(10, fine.getResolution(), 0);
+
+		double altitude = 1250;
+		double exact = coarse.getExactConditions(altitude).getPressure();
+		assertTrue(Math.abs(fine.getConditions(altitude).getPressure() - exact) <
+				Math.abs(coarse.getConditions(altitude).getPressure() - exact));
+
+		assertThrows(IllegalArgumentException.class, () -> new ExtendedISAModel(0, 288, 101325, 0));
+	}
+
+	@Test
+	@DisplayName("Sounding profiles are loaded from CSV")
+	void testSounding() throws IOException {
+		String csv = String.join("\n",
+				"# Sounding",
+				"altitude,temperature,pressure",
+				"2000, 280, 80000",
+				"1000, 285, 90000",
+				"",
+				"3000;270;70000");
+		SoundingAtmosphericModel model = SoundingAtmosphericModel.load(stream(csv), 10);
+
+		assertEquals(285, model.getConditions(0).getTemperature(), 1e-9);
+		assertEquals(90000, model.getConditions(500).getPressure(), 1e-6);
+		assertEquals(280, model.getConditions(2000).getTemperature(), 1e-9);
+		assertEquals(70000, model.getConditions(5000).getPressure(), 1e-6);
+
+		// Temperature is interpolated linearly, pressure logarithmically
+		AtmosphericConditions c = model.getConditions(1500);
+		assertEquals(282.5, c.getTemperature(), 1e-9);
+		assertEquals(Math.sqrt(90000.0 * 80000.0), c.getPressure(), 1);
+	}
+
+	@Test
+	@DisplayName("Invalid sounding profiles are rejected")
+	void testInvalidSounding() {
+		assertThrows(IOException.class, () -> SoundingAtmosphericModel.load(stream("altitude,temperature,pressure"), 10));
+		assertThrows(IOException.class, () -> SoundingAtmosphericModel.load(stream("0,280,90000\n0,275,85000"), 10));
+		assertThrows(IOException.class, () -> SoundingAtmosphericModel.load(stream("0,280,90000\n100,x,85000"), 10));
+		assertThrows(IOException.class, () -> SoundingAtmosphericModel.load(stream("0,280,-1"), 10));
+		assertThrows(IllegalArgumentException.class,
+				() -> new SoundingAtmosphericModel(new double[] { 0, 100 }, new double[] { 280 }, new double[] { 90000 }));
+	}
+
+	private static InputStream stream(String s) {
+		return new ByteArrayInputStream(s.getBytes(StandardCharsets.UTF_8));
+	}
+}
@@ -0,0 +1,83 @@
+package info.openrocket.core.models.wind;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import info.openrocket.core.util.Coordinate;
+import info.openrocket.core.util.PinkNoise;
+
+class PinkNoiseWindModelTest {
+	private static final double DELTA_T = PinkNoiseWindModel.DELTA_T;
+
+	@Test
+	@DisplayName("Series values match the pink noise source")
+	void testSeriesValues() {
+		PinkNoiseSeries series = PinkNoiseSeries.getSeries(1234, 5.0 / 3.0, 2);
+		PinkNoise source = new PinkNoise(5.0 / 3.0, 2, new Random(1234));
+
+		int count = 3 * PinkNoiseSeries.INITIAL_SAMPLES;
+		double previous = source.nextValue();
+		for (int i = 0; i < count; i++) {
+			double next = source.nextValue();
+			assertEquals(previous, series.getValue(i), 0);
+			assertEquals((previous + next) / 2, series.getValue(i + 0.5), 1e-12);
+			previous = next;
+		}
+		assertTrue(series.size() > count);
+	}
+
+	@Test
+	@DisplayName("Wind does not depend on the order of the requests")
+	void testRequestOrder() {
+		PinkNoiseWindModel forward = createModel(42);
+		PinkNoiseWindModel backward = createModel(42);
+
+		int count = 4000;
+		Coordinate[] velocities = new Coordinate[count];
+		for (int i = 0; i < count; i++) {
+			velocities[i] = forward.getWindVelocity(i * DELTA_T * 0.7, 0);
+		}
+		for (int i = count - 1; i >= 0; i--) {
+			assertEquals(velocities[i], backward.getWindVelocity(i * DELTA_T * 0.7, 0));
+		}
+
+		// Going back in time during an RK4 step
+		assertEquals(velocities[10], forward.getWindVelocity(10 * DELTA_T * 0.7, 0));
+	}
+
+	@Test
+	@DisplayName("Models with the same seed share their series")
+	void testSharedSeries() {
+		assertSame(PinkNoiseSeries.getSeries(7, 5.0 / 3.0, 2), PinkNoiseSeries.getSeries(7, 5.0 / 3.0, 2));
+
+		PinkNoiseWindModel model = createModel(7);
+		PinkNoiseWindModel other = createModel(7);
+		other.setAverage(10);
+		other.setStandardDeviation(4);
+		PinkNoiseWindModel clone = model.clone();
+
+		for (int i = 0; i < 100; i++) {
+			double time = i * DELTA_T * 1.3;
+			Coordinate velocity = model.getWindVelocity(time, 0);
+			assertEquals(velocity, clone.getWindVelocity(time, 0));
+
+			// The turbulence is the same, scaled by the standard deviation
+			double turbulence = velocity.y - 5;
+			assertEquals(2 * turbulence, other.getWindVelocity(time, 0).y - 10, 1e-9);
+		}
+	}
+
+	private static PinkNoiseWindModel createModel(int seed) {
+		PinkNoiseWindModel model = new PinkNoiseWindModel(seed);
+		model.setDirection(0);
+		model.setAverage(5);
+		model.setStandardDeviation(2);
+		return model;
+	}
+}
@@ -188,6 +188,43 @@ public class ThrustCurveMotorTest {
 		assertEquals(3.0, motorX6.getThrust(3), 0.001);
 	}
 
+	@Test
+	public void testAverageThrust() {
+		// within a single time slice
+		assertEquals(2.5, motorX6.getAverageThrust(1, 3), 0.00001);
+		assertEquals(2.5, motorX6.getAverageThrust(1.5, 2.5), 0.00001);
+		// across several time slices
+		assertEquals(6.875 / 3, motorX6.getAverageThrust(0.5, 3.5), 0.00001);
+		assertEquals(7.5 / 4, motorX6.getAverageThrust(0, 4), 0.00001);
+		// past burnout
+		assertEquals(1.5 / 2, motorX6.getAverageThrust(3, 5), 0.00001);
+		assertEquals(0.0, motorX6.getAverageThrust(4.5, 5), 0.0);
+	}
+
+	@Test
+	public void testSampler() {
+		final ThrustCurveMotor mtr = motorEstesA8_3;
+		final ThrustCurveMotor.Sampler sampler = mtr.getSampler();
+
+		// forwards, in small steps and jumps, then backwards and at the ends of the curve
+		final double[] times = { 0, 0.01, 0.02, 0.041, 0.05, 0.3, 0.31, 0.73, 0.8, 0.72, 0.5, 0.041, 0.0,
+				0.2, -1, 0.1, Double.MAX_VALUE, 0.25 };
+		for (double t : times) {
+			assertEquals(mtr.getThrust(t), sampler.getThrust(t), 0.0, "thrust at " + t);
+			assertEquals(mtr.getTotalMass(t), sampler.getTotalMass(t), 0.0, "mass at " + t);
+			assertEquals(mtr.getCMx(t), sampler.getCMx(t), 0.0, "CG at " + t);
+		}
+
+		for (int i = 0; i + 1 < times.length; i++) {
+			final double start = Math.min(times[i], times[i + 1]);
+			final double end = Math.max(times[i], times[i + 1]) + 0.01;
+			if (start >= 0 && end < 1) {
+				assertEquals(mtr.getAverageThrust(start, end), sampler.getAverageThrust(start, end), 0.0,
+						"average thrust from " + start + " to " + end);
+			}
+		}
+	}
+
 	@Test
 	public void testSimplifyDesignation() {
 		assertEquals(ThrustCurveMotor.Builder.simplifyDesignation("J115"), "J115");
@@ -0,0 +1,76 @@
+package info.openrocket.core.optimization;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import info.openrocket.core.optimization.general.Function;
+import info.openrocket.core.optimization.general.OptimizationException;
+import info.openrocket.core.optimization.general.ParallelExecutorCache;
+import info.openrocket.core.optimization.general.Point;
+
+import org.junit.jupiter.api.Test;
+
+public class TestParallelExecutorCache {
+
+	@Test
+	public void testParallelEvaluation() throws InterruptedException, OptimizationException {
+		final int threads = 4;
+		final CountDownLatch latch = new CountDownLatch(threads);
+		final AtomicInteger evaluations = new AtomicInteger();
+
+		// Each evaluation blocks until all threads are evaluating concurrently
+		Function function = new Function() {
+			@Override
+			public double evaluate(Point point) throws InterruptedException {
+				evaluations.incrementAndGet();
+				latch.countDown();
+				assertTrue(latch.await(10, TimeUnit.SECONDS));
+				return point.get(0) * 2;
+			}
+		};
+
+		ParallelExecutorCache cache = new ParallelExecutorCache(threads);
+		cache.setFunction(function);
+
+		List<Point> points = new ArrayList<>();
+		for (int i = 0; i < threads; i++) {
+			points.add(new Point(0.1 * (i + 1)));
+		}
+		cache.compute(points);
+		cache.compute(points);
+		cache.waitFor(points);
+
+		for (Point p : points) {
+			assertEquals(p.get(0) * 2, cache.getValue(p), 0);
+		}
+		assertEquals(threads, evaluations.get());
+
+		// Values are memoised and not evaluated again
+		cache.compute(points);
+		cache.waitFor(points);
+		assertEquals(threads, evaluations.get());
+
+		cache.getExecutor().shutdownNow();
+	}
+
+	@Test
+	public void testCompletedValueKeptAfterAbort() throws InterruptedException, OptimizationException {
+		ParallelExecutorCache cache = new ParallelExecutorCache(2);
+		cache.setFunction(point -> point.get(0) + 1);
+
+		Point p = new Point(0.5);
+		cache.compute(p);
+		cache.getExecutor().shutdown();
+		assertTrue(cache.getExecutor().awaitTermination(10, TimeUnit.SECONDS));
+
+		assertTrue(cache.abort(p));
+		assertEquals(1.5, cache.getValue(p), 0);
+	}
+
+}
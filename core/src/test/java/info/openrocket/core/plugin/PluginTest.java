@@ -1,5 +1,12 @@
 package info.openrocket.core.plugin;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.util.HashSet;
+import java.util.List;
+
 import info.openrocket.core.ServicesForTesting;
 
 import org.junit.jupiter.api.Test;
@@ -28,4 +35,30 @@ public class PluginTest {
 
 	}
 
+	@Test
+	public void testPluginModuleScanning() {
+
+		Module applicationModule = new ServicesForTesting();
+
+		Injector injector = Guice.createInjector(applicationModule, new PluginModule(new AnnotationFinderImpl()));
+		PluginTester tester = injector.getInstance(PluginTester.class);
+		tester.testPlugins();
+
+	}
+
+	/**
+	 * Tests that the plugin index is generated, and that the plugins are read from it
+	 * without scanning the class path and are the same as found by scanning.
+	 */
+	@Test
+	public void testPluginIndex() throws Exception {
+		assertTrue(getClass().getClassLoader().getResources(PluginIndexAnnotationFinder.INDEX_RESOURCE).hasMoreElements(),
+				"No plugin index found");
+
+		AnnotationFinder noScan = annotation -> fail("Class path scanned for " + annotation.getName());
+		List<Class<?>> indexed = new PluginIndexAnnotationFinder(noScan).findAnnotatedTypes(Plugin.class);
+		assertTrue(indexed.contains(ExamplePlugin.class));
+		assertEquals(new HashSet<>(new AnnotationFinderImpl().findAnnotatedTypes(Plugin.class)), new HashSet<>(indexed));
+	}
+
 }
@@ -0,0 +1,154 @@
+package info.openrocket.core.rocketcomponent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.Test;
+
+import info.openrocket.core.document.OpenRocketDocument;
+import info.openrocket.core.document.OpenRocketDocumentFactory;
+import info.openrocket.core.util.BaseTestCase;
+import info.openrocket.core.util.TestRockets;
+
+public class RocketSnapshotTest extends BaseTestCase {
+
+	/**
+	 * Tests that only the changed components are copied when a snapshot is based on a
+	 * previous snapshot.
+	 */
+	@Test
+	public void testSharedComponents() {
+		Rocket rocket = TestRockets.makeFalcon9Heavy();
+		RocketSnapshot first = RocketSnapshot.of(rocket);
+		RocketSnapshot second = RocketSnapshot.of(rocket, first);
+		for (RocketComponent c : rocket) {
+			if (c != rocket) {
+				assertSame(first.getCopy(c.getID()), second.getCopy(c.getID()), c.getName());
+			}
+		}
+
+		FinSet fins = findFinSet(rocket);
+		fins.setFinCount(fins.getFinCount() + 1);
+		RocketComponent added = new MassComponent();
+		findBodyTube(rocket).addChild(added);
+		RocketSnapshot third = RocketSnapshot.of(rocket, second);
+
+		assertNull(second.getCopy(added.getID()));
+		for (RocketComponent c : rocket) {
+			if (c == fins || c == added) {
+				assertNotSame(second.getCopy(c.getID()), third.getCopy(c.getID()), c.getName());
+			} else if (c != rocket && c != added.getParent()) {
+				assertSame(second.getCopy(c.getID()), third.getCopy(c.getID()), c.getName());
+			}
+		}
+		assertEquals(fins.getFinCount(), ((FinSet) third.getCopy(fins.getID())).getFinCount());
+		assertEquals(fins.getFinCount() - 1, ((FinSet) second.getCopy(fins.getID())).getFinCount());
+	}
+
+	/**
+	 * Tests that a rocket restored from a snapshot equals a copy of the rocket made at the
+	 * time of the snapshot.
+	 */
+	@Test
+	public void testToRocket() {
+		Rocket rocket = TestRockets.makeFalcon9Heavy();
+		FlightConfiguration config = rocket.getSelectedConfiguration();
+		config._setStageActive(1, false, false);
+		config.setName("Core only");
+		RocketSnapshot previous = RocketSnapshot.of(rocket);
+
+		findFinSet(rocket).setFinCount(6);
+		String expected = describe(rocket.copyWithOriginalID());
+		RocketSnapshot snapshot = RocketSnapshot.of(rocket, previous);
+
+		// Change the rocket after the snapshot
+		findFinSet(rocket).setFinCount(2);
+		rocket.getChild(0).removeChild(0);
+		config._setStageActive(1, true, false);
+		config.setName("All stages");
+
+		Rocket restored = snapshot.toRocket();
+		assertEquals(expected, describe(restored));
+		assertEquals(expected, describe(snapshot.toRocket()));
+		assertEquals("Core only", restored.getSelectedConfiguration().getNameRaw());
+	}
+
+	/**
+	 * Tests undo and redo of the document across several edits.
+	 */
+	@Test
+	public void testUndoRedo() {
+		Rocket rocket = TestRockets.makeFalcon9Heavy();
+		OpenRocketDocument document = OpenRocketDocumentFactory.createDocumentFromRocket(rocket);
+		String[] states = new String[4];
+		states[0] = describe(rocket);
+
+		for (int i = 1; i < states.length; i++) {
+			document.addUndoPosition("Edit " + i);
+			findFinSet(rocket).setFinCount(2 + i);
+			findBodyTube(rocket).addChild(new MassComponent());
+			states[i] = describe(rocket);
+		}
+
+		for (int i = states.length - 2; i >= 0; i--) {
+			document.undo();
+			assertEquals(states[i], describe(rocket), "Undo to state " + i);
+		}
+		for (int i = 1; i < states.length; i++) {
+			document.redo();
+			assertEquals(states[i], describe(rocket), "Redo to state " + i);
+		}
+
+		// Undo after an edit following an undo
+		document.undo();
+		document.addUndoPosition("Edit 4");
+		findFinSet(rocket).setFinCount(8);
+		String edited = describe(rocket);
+		document.undo();
+		assertEquals(states[states.length - 2], describe(rocket));
+		document.redo();
+		assertEquals(edited, describe(rocket));
+	}
+
+
+	private static FinSet findFinSet(Rocket rocket) {
+		for (RocketComponent c : rocket) {
+			if (c instanceof FinSet) {
+				return (FinSet) c;
+			}
+		}
+		throw new IllegalStateException("No fin set");
+	}
+
+	private static BodyTube findBodyTube(Rocket rocket) {
+		for (RocketComponent c : rocket) {
+			if (c instanceof BodyTube) {
+				return (BodyTube) c;
+			}
+		}
+		throw new IllegalStateException("No body tube");
+	}
+
+	private static String describe(Rocket rocket) {
+		StringBuilder sb = new StringBuilder(rocket.toDebugTree());
+		for (RocketComponent c : rocket) {
+			sb.append(c.getID()).append(' ').append(c.getName()).append(' ').append(c.getComponentMass());
+			if (c instanceof FinSet) {
+				sb.append(" fins=").append(((FinSet) c).getFinCount());
+			}
+			sb.append('\n');
+		}
+		for (FlightConfigurationId id : rocket.getIds()) {
+			FlightConfiguration config = rocket.getFlightConfiguration(id);
+			sb.append(id).append(' ').append(config.getNameRaw());
+			for (AxialStage stage : rocket.getStageList()) {
+				sb.append(' ').append(stage.getStageNumber()).append('=').append(config.isStageActive(stage.getStageNumber()));
+			}
+			sb.append('\n');
+		}
+		sb.append(rocket.getSelectedConfiguration().getId());
+		return sb.toString();
+	}
+}
@@ -0,0 +1,105 @@
+package info.openrocket.core.simulation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import info.openrocket.core.document.Simulation;
+import info.openrocket.core.rocketcomponent.Rocket;
+import info.openrocket.core.simulation.exception.SimulationException;
+import info.openrocket.core.util.BaseTestCase;
+import info.openrocket.core.util.TestRockets;
+
+public class DormandPrinceSimulationStepperTest extends BaseTestCase {
+
+	private static Simulation makeAlphaIIISimulation() {
+		Simulation simulation = new Simulation(TestRockets.makeEstesAlphaIII());
+		simulation.getOptions().setISAAtmosphere(true);
+		simulation.getOptions().setTimeStep(0.01);
+		simulation.getOptions().setRandomSeed(1234);
+		simulation.getOptions().getAverageWindModel().setAverage(0);
+		simulation.setFlightConfigurationId(TestRockets.TEST_FCID_0);
+		return simulation;
+	}
+
+	private static FlightData simulate(Simulation simulation, SimulationStepperType stepperType)
+			throws SimulationException {
+		simulation.getOptions().setStepperType(stepperType);
+		simulation.simulate();
+		return simulation.getSimulatedData();
+	}
+
+	/**
+	 * Return the number of data points of the sustainer branch up to apogee.
+	 */
+	private static int countAscentPoints(FlightData data) {
+		int count = 0;
+		for (double time : data.getBranch(0).get(FlightDataType.TYPE_TIME)) {
+			if (time <= data.getTimeToApogee()) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Tests that the flight matches the flight computed with {@link RK4SimulationStepper}
+	 * while taking fewer steps.
+	 */
+	@Test
+	public void testMatchesRK4() throws SimulationException {
+		Simulation simulation = makeAlphaIIISimulation();
+		FlightData expected = simulate(simulation, SimulationStepperType.RK4);
+		FlightData actual = simulate(simulation, SimulationStepperType.DORMAND_PRINCE);
+
+		assertEquals(expected.getMaxAltitude(), actual.getMaxAltitude(), 1e-3 * expected.getMaxAltitude());
+		assertEquals(expected.getMaxVelocity(), actual.getMaxVelocity(), 1e-3 * expected.getMaxVelocity());
+		assertEquals(expected.getTimeToApogee(), actual.getTimeToApogee(), 0.01);
+		assertEquals(expected.getFlightTime(), actual.getFlightTime(), 0.1);
+		assertTrue(countAscentPoints(actual) < countAscentPoints(expected),
+				"Dormand-Prince took " + countAscentPoints(actual) + " steps to apogee, RK4 " +
+						countAscentPoints(expected));
+	}
+
+	/**
+	 * Tests that a tighter tolerance takes more steps and gives the same flight.
+	 */
+	@Test
+	public void testTolerance() throws SimulationException {
+		Simulation simulation = makeAlphaIIISimulation();
+		FlightData loose = simulate(simulation, SimulationStepperType.DORMAND_PRINCE);
+
+		simulation.getOptions().setRelativeTolerance(1e-7);
+		simulation.getOptions().setAbsoluteTolerance(1e-7);
+		FlightData tight = simulate(simulation, SimulationStepperType.DORMAND_PRINCE);
+
+		assertTrue(countAscentPoints(tight) > countAscentPoints(loose));
+		assertEquals(tight.getMaxAltitude(), loose.getMaxAltitude(), 1e-4 * tight.getMaxAltitude());
+		assertEquals(tight.getTimeToApogee(), loose.getTimeToApogee(), 1e-3);
+	}
+
+	/**
+	 * Tests that stage separation and recovery of a multi-stage flight in turbulent wind match
+	 * the flight computed with {@link RK4SimulationStepper}.
+	 */
+	@Test
+	public void testMultiStage() throws SimulationException {
+		Rocket rocket = TestRockets.makeMultiStageEventTestRocket();
+		Simulation simulation = new Simulation(rocket);
+		simulation.getOptions().setISAAtmosphere(true);
+		simulation.getOptions().setTimeStep(0.01);
+		simulation.getOptions().setRandomSeed(42);
+		simulation.getOptions().getAverageWindModel().setAverage(2);
+		rocket.getSelectedConfiguration().setAllStages();
+		simulation.setFlightConfigurationId(rocket.getSelectedConfiguration().getFlightConfigurationID());
+
+		FlightData expected = simulate(simulation, SimulationStepperType.RK4);
+		FlightData actual = simulate(simulation, SimulationStepperType.DORMAND_PRINCE);
+
+		assertEquals(expected.getBranchCount(), actual.getBranchCount());
+		assertEquals(expected.getMaxAltitude(), actual.getMaxAltitude(), 5e-3 * expected.getMaxAltitude());
+		assertEquals(expected.getTimeToApogee(), actual.getTimeToApogee(), 0.05);
+		assertEquals(expected.getFlightTime(), actual.getFlightTime(), 0.5);
+	}
+}
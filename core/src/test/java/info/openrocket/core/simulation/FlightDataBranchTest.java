@@ -0,0 +1,109 @@
+package info.openrocket.core.simulation;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.DoubleBuffer;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the primitive storage of FlightDataBranch values.
+ */
+public class FlightDataBranchTest {
+
+	private FlightDataBranch createBranch(int points) {
+		FlightDataBranch branch = new FlightDataBranch("Test", FlightDataType.TYPE_TIME, FlightDataType.TYPE_ALTITUDE);
+		for (int i = 0; i < points; i++) {
+			branch.addPoint();
+			branch.setValue(FlightDataType.TYPE_TIME, i * 0.1);
+			branch.setValue(FlightDataType.TYPE_ALTITUDE, 100 - (i - 50) * (i - 50) * 0.01);
+		}
+		return branch;
+	}
+
+	@Test
+	public void testValues() {
+		FlightDataBranch branch = createBranch(100);
+
+		assertEquals(100, branch.getLength());
+		assertEquals(0.5, branch.getByIndex(FlightDataType.TYPE_TIME, 5), 0);
+		assertEquals(9.9, branch.getLast(FlightDataType.TYPE_TIME), 0);
+		assertEquals(0.0, branch.getMinimum(FlightDataType.TYPE_TIME), 0);
+		assertEquals(100.0, branch.getMaximum(FlightDataType.TYPE_ALTITUDE), 0);
+		assertEquals(75.0, branch.getMinimum(FlightDataType.TYPE_ALTITUDE), 0);
+
+		List<Double> time = branch.get(FlightDataType.TYPE_TIME);
+		assertEquals(100, time.size());
+		assertEquals(0.5, time.get(5), 0);
+		assertThrows(UnsupportedOperationException.class, () -> time.set(0, 1.0));
+
+		assertNull(branch.get(FlightDataType.TYPE_MACH_NUMBER));
+		assertNull(branch.getArray(FlightDataType.TYPE_MACH_NUMBER));
+		assertTrue(Double.isNaN(branch.getLast(FlightDataType.TYPE_MACH_NUMBER)));
+	}
+
+	@Test
+	public void testMutableValuesAreCopied() {
+		FlightDataBranch branch = createBranch(10);
+
+		List<Double> time = branch.get(FlightDataType.TYPE_TIME);
+		double[] array = branch.getArray(FlightDataType.TYPE_TIME);
+		branch.addPoint();
+		branch.setValue(FlightDataType.TYPE_TIME, 5.0);
+
+		assertEquals(10, time.size());
+		assertEquals(10, array.length);
+		assertEquals(11, branch.get(FlightDataType.TYPE_TIME).size());
+	}
+
+	@Test
+	public void testNewTypeIsPadded() {
+		FlightDataBranch branch = createBranch(10);
+		branch.setValue(FlightDataType.TYPE_MACH_NUMBER, 0.3);
+
+		double[] mach = branch.getArray(FlightDataType.TYPE_MACH_NUMBER);
+		assertEquals(10, mach.length);
+		assertTrue(Double.isNaN(mach[0]));
+		assertEquals(0.3, mach[9], 0);
+		assertEquals(0.3, branch.getMinimum(FlightDataType.TYPE_MACH_NUMBER), 0);
+	}
+
+	@Test
+	public void testImmutableValuesAreShared() {
+		FlightDataBranch branch = createBranch(100);
+		branch.immute();
+
+		double[] time = branch.getArray(FlightDataType.TYPE_TIME);
+		assertEquals(100, time.length);
+		assertSame(time, branch.getArray(FlightDataType.TYPE_TIME));
+
+		DoubleBuffer buffer = branch.getBuffer(FlightDataType.TYPE_TIME);
+		assertTrue(buffer.isReadOnly());
+		assertEquals(100, buffer.remaining());
+		assertEquals(0.5, buffer.get(5), 0);
+
+		assertThrows(IllegalStateException.class, branch::addPoint);
+	}
+
+	@Test
+	public void testClone() {
+		FlightDataBranch branch = createBranch(100);
+		branch.immute();
+
+		FlightDataBranch clone = branch.clone();
+		assertArrayEquals(branch.getArray(FlightDataType.TYPE_ALTITUDE), clone.getArray(FlightDataType.TYPE_ALTITUDE), 0);
+		assertEquals(75.0, clone.getMinimum(FlightDataType.TYPE_ALTITUDE), 0);
+
+		clone.addPoint();
+		clone.setValue(FlightDataType.TYPE_ALTITUDE, 10);
+		assertEquals(101, clone.getLength());
+		assertEquals(100, branch.getLength());
+		assertEquals(10.0, clone.getMinimum(FlightDataType.TYPE_ALTITUDE), 0);
+	}
+}
@@ -0,0 +1,93 @@
+package info.openrocket.core.simulation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import info.openrocket.core.document.Simulation;
+import info.openrocket.core.rocketcomponent.Rocket;
+import info.openrocket.core.simulation.exception.SimulationException;
+import info.openrocket.core.util.BaseTestCase;
+import info.openrocket.core.util.TestRockets;
+
+public class PreallocatedRK4SimulationStepperTest extends BaseTestCase {
+
+	private static final FlightDataType[] TYPES = {
+			FlightDataType.TYPE_TIME,
+			FlightDataType.TYPE_ALTITUDE,
+			FlightDataType.TYPE_POSITION_X,
+			FlightDataType.TYPE_POSITION_Y,
+			FlightDataType.TYPE_VELOCITY_TOTAL,
+			FlightDataType.TYPE_ACCELERATION_TOTAL,
+			FlightDataType.TYPE_AOA,
+			FlightDataType.TYPE_ROLL_RATE,
+			FlightDataType.TYPE_MACH_NUMBER,
+	};
+
+	private static FlightData simulate(Simulation simulation, SimulationStepperType stepperType)
+			throws SimulationException {
+		simulation.getOptions().setStepperType(stepperType);
+		simulation.simulate();
+		return simulation.getSimulatedData();
+	}
+
+	private static void assertSameFlight(Simulation simulation) throws SimulationException {
+		FlightData expected = simulate(simulation, SimulationStepperType.RK4);
+		FlightData actual = simulate(simulation, SimulationStepperType.RK4_PREALLOCATED);
+
+		assertEquals(expected.getBranchCount(), actual.getBranchCount());
+		for (int b = 0; b < expected.getBranchCount(); b++) {
+			FlightDataBranch e = expected.getBranch(b);
+			FlightDataBranch a = actual.getBranch(b);
+			assertEquals(e.getLength(), a.getLength(), "branch " + b);
+			for (FlightDataType type : TYPES) {
+				List<Double> ev = e.get(type);
+				List<Double> av = a.get(type);
+				for (int i = 0; i < ev.size(); i++) {
+					double value = ev.get(i);
+					double delta = Double.isNaN(value) ? 0 : 1e-9 * Math.abs(value) + 1e-9;
+					assertEquals(value, av.get(i), delta,
+							type + " at index " + i + " of branch " + b);
+				}
+			}
+		}
+		assertEquals(expected.getMaxAltitude(), actual.getMaxAltitude(), 1e-9 * expected.getMaxAltitude());
+		assertEquals(expected.getTimeToApogee(), actual.getTimeToApogee(), 1e-9);
+	}
+
+	/**
+	 * Tests that a single stage flight with wind matches the flight computed with
+	 * {@link RK4SimulationStepper}.
+	 */
+	@Test
+	public void testSingleStage() throws SimulationException {
+		Simulation simulation = new Simulation(TestRockets.makeEstesAlphaIII());
+		simulation.getOptions().setISAAtmosphere(true);
+		simulation.getOptions().setTimeStep(0.05);
+		simulation.getOptions().setRandomSeed(1234);
+		simulation.getOptions().setLaunchRodAngle(Math.toRadians(5));
+		simulation.getOptions().getAverageWindModel().setAverage(3);
+		simulation.setFlightConfigurationId(TestRockets.TEST_FCID_0);
+
+		assertSameFlight(simulation);
+	}
+
+	/**
+	 * Tests that a multi-stage flight matches the flight computed with {@link RK4SimulationStepper}.
+	 */
+	@Test
+	public void testMultiStage() throws SimulationException {
+		Rocket rocket = TestRockets.makeMultiStageEventTestRocket();
+		Simulation simulation = new Simulation(rocket);
+		simulation.getOptions().setISAAtmosphere(true);
+		simulation.getOptions().setTimeStep(0.05);
+		simulation.getOptions().setRandomSeed(42);
+		simulation.getOptions().getAverageWindModel().setAverage(0.1);
+		rocket.getSelectedConfiguration().setAllStages();
+		simulation.setFlightConfigurationId(rocket.getSelectedConfiguration().getFlightConfigurationID());
+
+		assertSameFlight(simulation);
+	}
+}
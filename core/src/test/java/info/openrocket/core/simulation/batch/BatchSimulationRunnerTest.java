@@ -0,0 +1,131 @@
+package info.openrocket.core.simulation.batch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Module;
+import com.google.inject.util.Modules;
+
+import info.openrocket.core.ServicesForTesting;
+import info.openrocket.core.database.ComponentPresetDao;
+import info.openrocket.core.database.motor.MotorDatabase;
+import info.openrocket.core.document.Simulation;
+import info.openrocket.core.file.openrocket.OpenRocketSaverTest;
+import info.openrocket.core.l10n.DebugTranslator;
+import info.openrocket.core.l10n.Translator;
+import info.openrocket.core.plugin.PluginModule;
+import info.openrocket.core.simulation.exception.SimulationException;
+import info.openrocket.core.startup.Application;
+import info.openrocket.core.util.TestRockets;
+
+public class BatchSimulationRunnerTest {
+
+	@BeforeAll
+	public static void setup() {
+		Module applicationModule = new ServicesForTesting();
+		Module pluginModule = new PluginModule();
+
+		Module dbOverrides = new AbstractModule() {
+			@Override
+			protected void configure() {
+				bind(ComponentPresetDao.class).toProvider(new OpenRocketSaverTest.EmptyComponentDbProvider());
+				bind(MotorDatabase.class).toProvider(new OpenRocketSaverTest.MotorDbProvider());
+				bind(Translator.class).toInstance(new DebugTranslator(null));
+			}
+		};
+
+		Injector injector = Guice.createInjector(Modules.override(applicationModule).with(dbOverrides), pluginModule);
+		Application.setInjector(injector);
+	}
+
+	private static Simulation createSimulation() {
+		Simulation sim = new Simulation(TestRockets.makeEstesAlphaIII());
+		sim.getOptions().setISAAtmosphere(true);
+		sim.getOptions().setTimeStep(0.05);
+		sim.getOptions().setRandomSeed(1);
+		sim.setFlightConfigurationId(TestRockets.TEST_FCID_0);
+		return sim;
+	}
+
+	/**
+	 * Tests that simulations run in parallel give the same results as a serial run.
+	 */
+	@Test
+	public void testRunSimulations() throws SimulationException {
+		Simulation reference = createSimulation();
+		reference.simulate();
+		double apogee = reference.getSimulatedData().getMaxAltitude();
+
+		List<Simulation> simulations = new ArrayList<>();
+		for (int i = 0; i < 6; i++) {
+			simulations.add(createSimulation());
+		}
+
+		BatchSimulationRunner runner = new BatchSimulationRunner(3);
+		AtomicInteger notified = new AtomicInteger();
+		runner.setResultListener(result -> notified.incrementAndGet());
+		List<BatchSimulationResult> results = runner.runSimulations(simulations);
+
+		assertEquals(simulations.size(), results.size());
+		assertEquals(simulations.size(), notified.get());
+		for (int i = 0; i < results.size(); i++) {
+			BatchSimulationResult result = results.get(i);
+			assertSame(simulations.get(i), result.getSimulation());
+			assertTrue(result.isSuccessful());
+			assertNull(result.getFile());
+			assertEquals(apogee, result.getFlightData().getMaxAltitude(), 1e-6);
+			assertTrue(result.getStepCount() > 0);
+			assertTrue(result.getWallTimeNanos() > 0);
+			assertTrue(result.getStepsPerSecond() > 0);
+			assertEquals(result.getFlightData().getBranch(0).getLength(), result.getPeakBranchSize());
+		}
+	}
+
+	/**
+	 * Tests that the simulations of design files are run, and that a file that cannot be
+	 * loaded does not abort the batch.
+	 */
+	@Test
+	public void testRunFiles() {
+		File design = new File(getClass().getResource("/file/rasaero/export/01.One-stage.ork").getFile());
+		File missing = new File("does-not-exist.ork");
+
+		BatchSimulationRunner runner = new BatchSimulationRunner(2);
+		List<BatchSimulationResult> results = runner.runFiles(List.of(missing, design));
+
+		BatchSimulationResult failure = results.get(0);
+		assertSame(missing, failure.getFile());
+		assertFalse(failure.isSuccessful());
+		assertNull(failure.getSimulation());
+		assertNotNull(failure.getException());
+
+		assertTrue(results.size() > 1);
+		for (BatchSimulationResult result : results.subList(1, results.size())) {
+			assertSame(design, result.getFile());
+			assertNotNull(result.getSimulation());
+		}
+	}
+
+	@Test
+	public void testEmptyBatch() {
+		BatchSimulationRunner runner = new BatchSimulationRunner();
+		assertTrue(runner.runSimulations(Collections.emptyList()).isEmpty());
+		assertTrue(runner.runFiles(Collections.emptyList()).isEmpty());
+	}
+}
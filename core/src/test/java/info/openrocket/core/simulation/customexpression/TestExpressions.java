@@ -1,11 +1,26 @@
 package info.openrocket.core.simulation.customexpression;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
 import info.openrocket.core.document.OpenRocketDocument;
 import info.openrocket.core.document.OpenRocketDocumentFactory;
+import info.openrocket.core.document.Simulation;
+import info.openrocket.core.rocketcomponent.Rocket;
+import info.openrocket.core.simulation.FlightDataBranch;
+import info.openrocket.core.simulation.FlightDataType;
 import info.openrocket.core.util.BaseTestCase;
+import info.openrocket.core.util.TestRockets;
 
 import org.junit.jupiter.api.Test;
 
+import de.congrace.exp4j.Calculable;
+import de.congrace.exp4j.ExpressionBuilder;
+import de.congrace.exp4j.Variable;
+
 public class TestExpressions extends BaseTestCase {
 
 	@Test
@@ -21,4 +36,71 @@ public class TestExpressions extends BaseTestCase {
 		// System.out.println(exp.getExpressionString());
 
 	}
+
+	/**
+	 * Tests that only the referenced variables are bound to slots, and that the
+	 * expression can be calculated repeatedly with different values.
+	 */
+	@Test
+	public void testVariableSlots() throws Exception {
+		Calculable calc = new ExpressionBuilder("x * y + x").withVariableNames("x", "y", "z").build();
+		assertArrayEquals(new String[] { "x", "y" }, calc.getVariableNames());
+
+		assertEquals(8.0, calc.calculate(new Variable[] { new Variable("x", 2), new Variable("y", 3) })
+				.getDoubleValue(), 0);
+		assertEquals(-1.0, calc.calculate(new Variable[] { new Variable("x", -1), new Variable("y", 0) })
+				.getDoubleValue(), 0);
+
+		calc.setVariable(new Variable("z", 100));
+		calc.setVariable(new Variable("y", 4));
+		calc.setVariable(new Variable("x", 0.5));
+		assertEquals(2.5, calc.calculate().getDoubleValue(), 0);
+	}
+
+	/**
+	 * Tests that custom expressions evaluated during a simulation use the current flight data.
+	 */
+	@Test
+	public void testSimulation() throws Exception {
+		Rocket rocket = TestRockets.makeEstesAlphaIII();
+		OpenRocketDocument doc = OpenRocketDocumentFactory.createDocumentFromRocket(rocket);
+		CustomExpression energy = new CustomExpression(doc, "Kinetic energy", "Ek", "J", ".5*m*Vt^2");
+		CustomExpression altitude = new CustomExpression(doc, "Altitude at 1 s", "h1", "m", "h[1]");
+		doc.addCustomExpression(energy);
+		doc.addCustomExpression(altitude);
+
+		Simulation simulation = new Simulation(doc, rocket);
+		simulation.getOptions().setISAAtmosphere(true);
+		simulation.getOptions().setTimeStep(0.05);
+		simulation.getOptions().getAverageWindModel().setAverage(0);
+		simulation.setFlightConfigurationId(TestRockets.TEST_FCID_0);
+		simulation.simulate(new CustomExpressionSimulationListener(doc.getCustomExpressions()));
+
+		FlightDataBranch branch = simulation.getSimulatedData().getBranch(0);
+		List<Double> time = branch.get(FlightDataType.TYPE_TIME);
+		List<Double> mass = branch.get(FlightDataType.TYPE_MASS);
+		List<Double> velocity = branch.get(FlightDataType.TYPE_VELOCITY_TOTAL);
+		List<Double> altitudes = branch.get(FlightDataType.TYPE_ALTITUDE);
+		List<Double> energies = branch.get(energy.getType());
+		List<Double> altitudes1 = branch.get(altitude.getType());
+		assertEquals(time.size(), energies.size());
+
+		int checked = 0;
+		for (int i = 1; i < time.size(); i++) {
+			// Data points added outside of a simulation step have no custom expression values
+			if (Double.isNaN(energies.get(i))) {
+				continue;
+			}
+			double expected = 0.5 * mass.get(i) * velocity.get(i) * velocity.get(i);
+			assertEquals(expected, energies.get(i), 1e-9 * Math.max(1, expected), "Kinetic energy at index " + i);
+
+			if (time.get(i - 1) > 1.0 && !Double.isNaN(altitudes1.get(i - 1))) {
+				// The altitude at 1 s does not change once the flight has passed 1 s
+				assertEquals(altitudes1.get(i - 1), altitudes1.get(i), 1e-9);
+				assertTrue(altitudes1.get(i) > altitudes.get(0));
+				checked++;
+			}
+		}
+		assertTrue(checked > 0);
+	}
 }
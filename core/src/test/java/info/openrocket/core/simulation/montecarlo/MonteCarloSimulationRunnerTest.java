@@ -0,0 +1,110 @@
+package info.openrocket.core.simulation.montecarlo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.jupiter.api.Test;
+
+import info.openrocket.core.document.Simulation;
+import info.openrocket.core.util.BaseTestCase;
+import info.openrocket.core.util.TestRockets;
+
+public class MonteCarloSimulationRunnerTest extends BaseTestCase {
+
+	private static Simulation createSimulation() {
+		Simulation sim = new Simulation(TestRockets.makeEstesAlphaIII());
+		sim.getOptions().setISAAtmosphere(true);
+		sim.getOptions().setTimeStep(0.05);
+		sim.getOptions().setLaunchRodLength(1);
+		sim.getOptions().setRandomSeed(42);
+		sim.getOptions().getAverageWindModel().setAverage(2);
+		sim.getOptions().getAverageWindModel().setStandardDeviation(0.2);
+		sim.setFlightConfigurationId(TestRockets.TEST_FCID_0);
+		return sim;
+	}
+
+	private static DispersionParameters createDispersions() {
+		DispersionParameters dispersions = new DispersionParameters();
+		dispersions.setLaunchRodAngle(Distribution.normal(0, Math.toRadians(2)));
+		dispersions.setWindSpeed(Distribution.normal(0, 1));
+		dispersions.setThrustFactor(Distribution.normal(1, 0.05));
+		dispersions.setDragFactor(Distribution.uniform(0.9, 1.1));
+		dispersions.setMassFactor(Distribution.normal(1, 0.02));
+		return dispersions;
+	}
+
+	/**
+	 * Tests that the trials and their results do not depend on the number of threads.
+	 */
+	@Test
+	public void testDeterministicTrials() throws InterruptedException {
+		Simulation simulation = createSimulation();
+		DispersionParameters dispersions = createDispersions();
+
+		Map<Integer, MonteCarloTrialResult> serial = new ConcurrentHashMap<>();
+		MonteCarloSimulationRunner runner = new MonteCarloSimulationRunner(1);
+		runner.setTrialListener(r -> serial.put(r.getTrial().getIndex(), r));
+		MonteCarloStatistics serialStats = runner.run(simulation, dispersions, 12);
+
+		Map<Integer, MonteCarloTrialResult> parallel = new ConcurrentHashMap<>();
+		runner = new MonteCarloSimulationRunner(4);
+		runner.setTrialListener(r -> parallel.put(r.getTrial().getIndex(), r));
+		MonteCarloStatistics parallelStats = runner.run(simulation, dispersions, 12);
+
+		assertEquals(12, serialStats.getTrialCount());
+		assertEquals(0, serialStats.getFailureCount());
+		assertEquals(12, parallelStats.getTrialCount());
+		assertEquals(12, parallel.size());
+
+		for (int i = 0; i < 12; i++) {
+			MonteCarloTrialResult a = serial.get(i);
+			MonteCarloTrialResult b = parallel.get(i);
+			assertEquals(a.getTrial().getSeed(), b.getTrial().getSeed());
+			assertEquals(a.getTrial().getThrustFactor(), b.getTrial().getThrustFactor(), 0);
+			assertEquals(a.getApogee(), b.getApogee(), 1e-6 * a.getApogee());
+			assertEquals(a.getLandingX(), b.getLandingX(), 1e-3);
+			assertEquals(a.getLandingY(), b.getLandingY(), 1e-3);
+		}
+		assertEquals(serialStats.getApogee().getMean(), parallelStats.getApogee().getMean(),
+				1e-6 * serialStats.getApogee().getMean());
+	}
+
+	/**
+	 * Tests that the dispersions spread the results around the nominal flight.
+	 */
+	@Test
+	public void testDispersion() throws InterruptedException {
+		Simulation simulation = createSimulation();
+
+		MonteCarloStatistics nominal = new MonteCarloSimulationRunner(2).run(simulation, new DispersionParameters(), 4);
+		MonteCarloStatistics dispersed = new MonteCarloSimulationRunner(2).run(simulation, createDispersions(), 16);
+
+		assertEquals(4, nominal.getTrialCount());
+		assertTrue(nominal.getApogee().getStandardDeviation() < 0.01 * nominal.getApogee().getMean());
+		assertTrue(dispersed.getApogee().getStandardDeviation() > nominal.getApogee().getStandardDeviation());
+		assertTrue(dispersed.getLandingX().getStandardDeviation() > nominal.getLandingX().getStandardDeviation());
+		assertTrue(Math.abs(dispersed.getApogee().getMean() - nominal.getApogee().getMean()) <
+				0.2 * nominal.getApogee().getMean());
+
+		// The simulation itself is not modified by the trials
+		assertEquals(42, simulation.getOptions().getRandomSeed());
+		assertEquals(Simulation.Status.NOT_SIMULATED, simulation.getStatus());
+	}
+
+	@Test
+	public void testSummaryStatistics() {
+		SummaryStatistics stats = new SummaryStatistics();
+		assertTrue(Double.isNaN(stats.getMean()));
+		for (double v : new double[] { 2, 4, 4, 4, 5, 5, 7, 9, Double.NaN }) {
+			stats.add(v);
+		}
+		assertEquals(8, stats.getCount());
+		assertEquals(5.0, stats.getMean(), 1e-12);
+		assertEquals(32.0 / 7, stats.getVariance(), 1e-12);
+		assertEquals(2.0, stats.getMinimum(), 0);
+		assertEquals(9.0, stats.getMaximum(), 0);
+	}
+}
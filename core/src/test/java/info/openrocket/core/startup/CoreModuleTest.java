@@ -0,0 +1,44 @@
+package info.openrocket.core.startup;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+
+import info.openrocket.core.database.motor.MotorDatabase;
+import info.openrocket.core.database.motor.ThrustCurveMotorSetDatabase;
+import info.openrocket.core.preferences.CorePreferences;
+
+public class CoreModuleTest {
+
+	/**
+	 * Tests requesting both motor databases, which share a loader, at the same time.
+	 */
+	@Test
+	public void testConcurrentMotorDatabaseRequests() throws Exception {
+		Injector injector = Guice.createInjector(new CoreModule(new CorePreferences()));
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			Future<MotorDatabase> motors = executor.submit(() -> {
+				start.await();
+				return injector.getInstance(MotorDatabase.class);
+			});
+			Future<ThrustCurveMotorSetDatabase> motorSets = executor.submit(() -> {
+				start.await();
+				return injector.getInstance(ThrustCurveMotorSetDatabase.class);
+			});
+			start.countDown();
+			assertSame(motorSets.get(), motors.get());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+}
@@ -0,0 +1,80 @@
+package info.openrocket.processor;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.TreeSet;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * Annotation processor that writes an index of the types annotated with
+ * <code>info.openrocket.core.plugin.Plugin</code>, so that the plugins need not be
+ * found by scanning the class path at startup.
+ * <p>
+ * The index is written to {@value #INDEX_RESOURCE} in the class output of the
+ * compiled module.  It contains the binary names of the plugin interfaces and
+ * implementations, one per line and sorted, so that the index of an unchanged
+ * module does not change between builds.  Each module has its own index, all of
+ * which are read from the class path by <code>PluginIndexAnnotationFinder</code>.
+ * <p>
+ * The annotation is referred to by name, so that the processor does not depend on
+ * the core module it is used to compile.
+ */
+@SupportedAnnotationTypes(PluginIndexProcessor.PLUGIN_ANNOTATION)
+public class PluginIndexProcessor extends AbstractProcessor {
+
+	/** The name of the plugin annotation */
+	static final String PLUGIN_ANNOTATION = "info.openrocket.core.plugin.Plugin";
+
+	/** The resource the index is written to, must match PluginIndexAnnotationFinder */
+	static final String INDEX_RESOURCE = "META-INF/openrocket/plugins";
+
+	private final Set<String> plugins = new TreeSet<>();
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+		for (TypeElement annotation : annotations) {
+			for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+				if (element instanceof TypeElement) {
+					plugins.add(processingEnv.getElementUtils().getBinaryName((TypeElement) element).toString());
+				}
+			}
+		}
+
+		if (roundEnv.processingOver() && !plugins.isEmpty()) {
+			writeIndex();
+		}
+		return false;
+	}
+
+	private void writeIndex() {
+		try {
+			FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", INDEX_RESOURCE);
+			try (Writer writer = new OutputStreamWriter(file.openOutputStream(), StandardCharsets.UTF_8)) {
+				for (String plugin : plugins) {
+					writer.write(plugin);
+					writer.write('\n');
+				}
+			}
+		} catch (IOException e) {
+			processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+					"Unable to write plugin index " + INDEX_RESOURCE + ": " + e);
+		}
+	}
+}
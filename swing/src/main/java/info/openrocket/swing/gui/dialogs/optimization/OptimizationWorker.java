@@ -14,7 +14,6 @@ import info.openrocket.core.optimization.general.FunctionOptimizer;
 import info.openrocket.core.optimization.general.OptimizationController;
 import info.openrocket.core.optimization.general.OptimizationException;
 import info.openrocket.core.optimization.general.ParallelExecutorCache;
-import info.openrocket.core.optimization.general.ParallelFunctionCache;
 import info.openrocket.core.optimization.general.Point;
 import info.openrocket.core.optimization.general.multidim.MultidirectionalSearchOptimizer;
 import info.openrocket.core.optimization.general.onedim.GoldenSectionSearchOptimizer;
@@ -24,8 +23,10 @@ import info.openrocket.core.optimization.rocketoptimization.RocketOptimizationFu
 import info.openrocket.core.optimization.rocketoptimization.RocketOptimizationListener;
 import info.openrocket.core.optimization.rocketoptimization.SimulationDomain;
 import info.openrocket.core.optimization.rocketoptimization.SimulationModifier;
+import info.openrocket.core.startup.Application;
 import info.openrocket.core.unit.Value;
 import info.openrocket.core.util.BugException;
+import info.openrocket.swing.gui.util.SwingPreferences;
 
 /**
  * A background worker that runs the optimization in the background.  It supports providing
@@ -60,7 +61,7 @@ public abstract class OptimizationWorker extends Thread implements OptimizationC
 	private final Simulation simulation;
 	private final SimulationModifier[] modifiers;
 	
-	private final ParallelFunctionCache cache;
+	private final ParallelExecutorCache cache;
 
 	private final LinkedBlockingQueue<FunctionEvaluationData> evaluationQueue = new LinkedBlockingQueue<>();
 	private final LinkedBlockingQueue<OptimizationStepData> stepQueue = new LinkedBlockingQueue<>();
@@ -86,7 +87,9 @@ public abstract class OptimizationWorker extends Thread implements OptimizationC
 		function = new RocketOptimizationFunction(simulation, parameter, goal, domain, modifiers);
 		function.addRocketOptimizationListener(this);
 		
-		cache = new ParallelExecutorCache(1);
+		int threadCount = ((SwingPreferences) Application.getPreferences()).getOptimizationThreadCount();
+		log.info("Evaluating optimization points using " + threadCount + " threads");
+		cache = new ParallelExecutorCache(threadCount);
 		cache.setFunction(function);
 		
 		if (modifiers.length == 1) {
@@ -112,6 +115,9 @@ public abstract class OptimizationWorker extends Thread implements OptimizationC
 		} catch (OptimizationException e) {
 			this.optimizationException = e;
 		} finally {
+			// Cancel any speculative evaluations still running
+			cache.abortAll();
+			cache.getExecutor().shutdownNow();
 			SwingUtilities.invokeLater(() -> {
 				lastPurge = System.currentTimeMillis() + 24L * 3600L * 1000L;
 				processQueue();
@@ -6,6 +6,7 @@ import javax.swing.SwingUtilities;
 import info.openrocket.swing.gui.dialogs.BugReportDialog;
 
 import info.openrocket.core.logging.Markers;
+import info.openrocket.core.simulation.exception.FlightDataUnavailableException;
 import info.openrocket.core.startup.Application;
 import info.openrocket.core.startup.ExceptionHandler;
 
@@ -178,6 +179,20 @@ public class SwingExceptionHandler implements Thread.UncaughtExceptionHandler, E
 			return;
 		}
 
+		// Stored flight data that can no longer be read, not a bug
+		for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+			if (cause instanceof FlightDataUnavailableException) {
+				log.info("Showing flight data unavailable dialog");
+				JOptionPane.showMessageDialog(null,
+						new Object[] {
+						"The stored simulation data could not be read:",
+						cause.getMessage(),
+						"Run the simulations again to recreate the data."
+				}, "Simulation data unavailable", JOptionPane.ERROR_MESSAGE);
+				return;
+			}
+		}
+
 		// Create the message
 		String msg = e.getClass().getSimpleName() + ": " + e.getMessage();
 		if (msg.length() > 90) {
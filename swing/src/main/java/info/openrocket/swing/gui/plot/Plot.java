@@ -302,13 +302,13 @@ public abstract class Plot<T extends DataType, B extends DataBranch<T>, C extend
 		// Default implementation for regular DataBranch
 		MetadataXYSeries series = new MetadataXYSeries(startIndex, false, true, branchIdx, dataIndex, unit.getUnit(), branchName, baseName);
 
-		List<Double> plotx = branch.get(filledConfig.getDomainAxisType());
-		List<Double> ploty = branch.get(type);
+		double[] plotx = branch.getArray(filledConfig.getDomainAxisType());
+		double[] ploty = branch.getArray(type);
 
-		int pointCount = plotx.size();
+		int pointCount = plotx.length;
 		for (int j = 0; j < pointCount; j++) {
-			double x = filledConfig.getDomainAxisUnit().toUnit(plotx.get(j));
-			double y = unit.toUnit(ploty.get(j));
+			double x = filledConfig.getDomainAxisUnit().toUnit(plotx[j]);
+			double y = unit.toUnit(ploty[j]);
 			series.add(x, y);
 		}
 
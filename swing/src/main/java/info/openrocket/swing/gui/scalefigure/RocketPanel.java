@@ -49,6 +49,7 @@ import info.openrocket.core.aerodynamics.FlightConditions;
 import info.openrocket.core.logging.WarningSet;
 import info.openrocket.core.document.OpenRocketDocument;
 import info.openrocket.core.document.Simulation;
+import info.openrocket.core.document.SimulationResultCache;
 import info.openrocket.core.document.events.SimulationChangeEvent;
 import info.openrocket.core.l10n.Translator;
 import info.openrocket.core.masscalc.MassCalculator;
@@ -1119,6 +1120,12 @@ public class RocketPanel extends JPanel implements TreeSelectionListener, Change
 
 		}
 
+		@Override
+		protected SimulationResultCache getResultCache() {
+			// The extra listeners only depend on the custom expressions, which are part of the cache key
+			return SimulationResultCache.getDefault();
+		}
+
 		@Override
 		protected void simulationInterrupted(Throwable t) {
 			// Do nothing on cancel, set N/A data otherwise
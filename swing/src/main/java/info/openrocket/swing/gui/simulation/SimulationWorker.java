@@ -5,6 +5,7 @@ import java.util.Arrays;
 import javax.swing.SwingWorker;
 
 import info.openrocket.core.document.Simulation;
+import info.openrocket.core.document.SimulationResultCache;
 import info.openrocket.core.simulation.FlightData;
 import info.openrocket.core.simulation.SimulationStatus;
 import info.openrocket.core.simulation.exception.SimulationCancelledException;
@@ -52,7 +53,7 @@ public abstract class SimulationWorker extends SwingWorker<FlightData, Simulatio
 		listeners[listeners.length - 1] = new CancelListener();
 		
 		try {
-			simulation.simulate(listeners);
+			simulation.simulate(getResultCache(), listeners);
 		} catch (Throwable e) {
 			throwable = e;
 			return null;
@@ -71,6 +72,17 @@ public abstract class SimulationWorker extends SwingWorker<FlightData, Simulatio
 		return new SimulationListener[0];
 	}
 
+	/**
+	 * Return the cache of simulation results to use, or <code>null</code> to always run the
+	 * simulation.  The default implementation returns <code>null</code>.  A cache may only be
+	 * used if the extra listeners do not affect the result of the simulation.
+	 *
+	 * @return	the result cache to use, or <code>null</code>.
+	 */
+	protected SimulationResultCache getResultCache() {
+		return null;
+	}
+
 	/**
 	 * Returns the throwable that caused the simulation to fail or cancel,
 	 * or null if the simulation ran successfully.
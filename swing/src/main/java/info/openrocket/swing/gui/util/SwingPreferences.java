@@ -66,6 +66,7 @@ public class SwingPreferences extends ApplicationPreferences {
 	public static final String NODE_TABLES = "tables";
 	private static final String UI_FONT_SIZE = "UIFontSize";
 	public static final String UPDATE_PLATFORM = "UpdatePlatform";
+	public static final String OPTIMIZATION_THREAD_COUNT = "OptimizationThreadCount";
 	
 	private static final List<Locale> SUPPORTED_LOCALES;
 	static {
@@ -471,6 +472,18 @@ public class SwingPreferences extends ApplicationPreferences {
 	public static int getMaxThreadCount() {
 		return Runtime.getRuntime().availableProcessors();
 	}
+
+	/**
+	 * Return the number of threads used for evaluating simulations in parallel during
+	 * rocket optimization.  Defaults to the number of available processors.
+	 */
+	public int getOptimizationThreadCount() {
+		return Math.max(1, getInt(OPTIMIZATION_THREAD_COUNT, getMaxThreadCount()));
+	}
+
+	public void setOptimizationThreadCount(int count) {
+		putInt(OPTIMIZATION_THREAD_COUNT, Math.max(1, count));
+	}
 	
 	
 	